@@ -26,6 +26,11 @@ public final class GameConfig {
     public static final int FIGHTER_INITIAL_HEALTH = 100; // Était FIGHTER_HEALTH
     public static final int ATTACK_DAMAGE = 10;
 
+    // Régénération passive pour retrouver la couleur claire en se soignant
+    // (comme en C), voir SimulationTick
+    public static final int HEAL_INTERVAL_TICKS = 10; // toutes les ~0.05 s à 200 Hz logique
+    public static final int HEAL_AMOUNT = 2; // +2 PV par intervalle
+
     // Spawn initial (ligne 274-275)
     public static final int INITIAL_FIGHTERS_PER_TEAM = 2000; // Changé de 500 à 2000
     public static final int FIGHTER_SPAWN_RADIUS = 15; // ligne 364
@@ -16,9 +16,28 @@ public class GameOptions {
     // Options graphiques
     private String graphicsQuality = "Moyenne"; // "Basse", "Moyenne", "Élevée"
 
+    // Rendu actif (BufferStrategy sur un thread dédié) au lieu de repaint()
+    private boolean activeRendering = false;
+
+    // Affichage dans une fenêtre JavaFX (PixelBuffer partagé) au lieu de Swing
+    private boolean javaFxRendering = false;
+
     // Options de jeu
     private int gameSpeed = 100; // 50-150%
 
+    // Partie réseau : délai d'entrée du lockstep en ticks logiques (choisi par
+    // le serveur). 12 ticks = 60 ms à 200 Hz, de quoi couvrir l'aller
+    // client -> serveur -> client sur un réseau local ou proche
+    private int networkInputDelay = 12; // 1-60
+
+    // Partie réseau : entrées des joueurs sur UDP (redondance, pas de blocage
+    // en tête de file) ; utilisé seulement si le serveur et le client l'activent
+    private boolean networkUdpInputs = false;
+
+    // Partie réseau : ticks simulables avec des entrées distantes prédites,
+    // corrigés par rollback (choix local à chaque pair). 0 = lockstep pur
+    private int networkRollbackWindow = 0; // 0-64
+
     private GameOptions() {
         // Appliquer le volume initial
         applyVolume();
@@ -93,6 +112,28 @@ public class GameOptions {
         }
     }
 
+    /**
+     * Retourne true si le rendu actif (Canvas + BufferStrategy) est demandé.
+     */
+    public boolean isActiveRenderingEnabled() {
+        return activeRendering;
+    }
+
+    public void setActiveRenderingEnabled(boolean enabled) {
+        this.activeRendering = enabled;
+    }
+
+    /**
+     * Retourne true si l'affichage JavaFX (PixelBuffer) est demandé.
+     */
+    public boolean isJavaFxRenderingEnabled() {
+        return javaFxRendering;
+    }
+
+    public void setJavaFxRenderingEnabled(boolean enabled) {
+        this.javaFxRendering = enabled;
+    }
+
     // ========== VITESSE DU JEU ==========
 
     public int getGameSpeed() {
@@ -123,4 +164,30 @@ public class GameOptions {
     public float getSpeedMultiplier() {
         return gameSpeed / 100.0f;
     }
+
+    // ========== RÉSEAU ==========
+
+    public int getNetworkInputDelay() {
+        return networkInputDelay;
+    }
+
+    public void setNetworkInputDelay(int ticks) {
+        this.networkInputDelay = Math.max(1, Math.min(60, ticks));
+    }
+
+    public boolean isNetworkUdpInputsEnabled() {
+        return networkUdpInputs;
+    }
+
+    public void setNetworkUdpInputsEnabled(boolean enabled) {
+        this.networkUdpInputs = enabled;
+    }
+
+    public int getNetworkRollbackWindow() {
+        return networkRollbackWindow;
+    }
+
+    public void setNetworkRollbackWindow(int ticks) {
+        this.networkRollbackWindow = Math.max(0, Math.min(64, ticks));
+    }
 }
@@ -0,0 +1,215 @@
+package fr.uparis.informatique.cpoo5.liquidwar.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GameState;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
+import fr.uparis.informatique.cpoo5.liquidwar.service.SimulationTick;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+import fr.uparis.informatique.cpoo5.liquidwar.view.AIController;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameCanvasConfiguration;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameInitializationManager;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameRenderer;
+import fr.uparis.informatique.cpoo5.liquidwar.view.export.FrameEncoder;
+import fr.uparis.informatique.cpoo5.liquidwar.view.export.FrameExporter;
+
+/**
+ * Partie IA contre IA sans fenêtre, exportée en suite d'images.
+ *
+ * Pour produire des vidéos de longues parties sur des machines sans
+ * affichage (CI) : aucune classe Swing n'est chargée, la simulation tourne
+ * aussi vite que possible et les frames (résolution de la carte, fond +
+ * combattants + curseurs) sont encodées en arrière-plan par un
+ * FrameExporter. Si les encodeurs ne suivent pas, des frames sont sautées
+ * plutôt que de ralentir la simulation.
+ *
+ * USAGE :
+ *   ./gradlew headlessExport --args="--ticks 20000 --every 4 --format qoi --out build/frames"
+ *
+ * Options : --map NOM, --teams N (2-4), --ticks N, --every N (une frame tous
+ * les N ticks), --format png|qoi, --out DOSSIER, --threads N, --queue N,
+ * --ai Facile|Moyen|Difficile
+ *
+ * Les images s'assemblent ensuite avec ffmpeg, par exemple :
+ *   ffmpeg -framerate 60 -i build/frames/frame_%06d.png match.mp4
+ */
+public class HeadlessMatchRunner {
+
+    private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
+    private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
+
+    private String mapName = null;
+    private int teams = 2;
+    private int maxTicks = 20_000;
+    private int frameEvery = 4;
+    private String format = "qoi";
+    private Path outputDirectory = Paths.get("build", "frames");
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int queueCapacity = 8;
+    private String aiDifficulty = "Difficile";
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        HeadlessMatchRunner runner = new HeadlessMatchRunner();
+        try {
+            runner.parseArguments(args);
+            runner.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.exit(2);
+        } catch (IOException e) {
+            GameLogger.getInstance().error("Export impossible", e);
+            System.exit(1);
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valeur manquante pour " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--map":
+                    mapName = value;
+                    break;
+                case "--teams":
+                    teams = Math.max(2, Math.min(4, Integer.parseInt(value)));
+                    break;
+                case "--ticks":
+                    maxTicks = Integer.parseInt(value);
+                    break;
+                case "--every":
+                    frameEvery = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--format":
+                    format = value;
+                    break;
+                case "--out":
+                    outputDirectory = Paths.get(value);
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--queue":
+                    queueCapacity = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "--ai":
+                    aiDifficulty = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Option inconnue : " + option);
+            }
+        }
+    }
+
+    /**
+     * Joue la partie jusqu'à la victoire ou maxTicks, en exportant une frame
+     * tous les frameEvery ticks.
+     */
+    public void run() throws IOException {
+        // Partie (même initialisation que GameCanvas.initializeGame)
+        int[][] map = GameInitializationManager.loadMap(mapName);
+        Cursor[] cursors = new Cursor[GameConfig.MAX_TEAMS];
+        int[] teamFighterCount = new int[GameConfig.MAX_TEAMS];
+        int[] cursorVal = new int[GameConfig.MAX_TEAMS];
+        GameInitializationManager.initializeCursorValues(cursorVal);
+        GameInitializationManager.initializeCursors(cursors, teams, teams, map);
+        ArrayList<Fighter> fighters = new ArrayList<>();
+        GameInitializationManager.initializeFighters(fighters, cursors, teams, null, map, teamFighterCount);
+
+        SimulationEngine engine = new OptimizedSimulationEngine();
+        engine.initialize(map, teams);
+        GameState view = new GameState(GameState.buildWallMask(map), engine.getGradient(), fighters, cursors,
+                teamFighterCount, teams);
+
+        GameCanvasConfiguration configuration = new GameCanvasConfiguration();
+        configuration.setAIDifficulty(aiDifficulty);
+        AIController ai = new AIController();
+        ai.setAIStrategy(configuration.getAIStrategy());
+
+        GameOverDetector gameOver = new GameOverDetector();
+        gameOver.reset(teams, teamFighterCount);
+
+        // Buffers de rendu (pixels uniquement, sans Graphics2D)
+        int[] staticPixels = new int[MAP_WIDTH * MAP_HEIGHT];
+        int[] framePixels = new int[MAP_WIDTH * MAP_HEIGHT];
+        GameRenderer.drawStaticBuffer(map, staticPixels, new boolean[] { true });
+
+        FrameEncoder encoder = FrameEncoder.forFormat(format);
+        GameLogger.getInstance().info("Export %s vers %s (%d threads, %d frames en file)",
+                encoder.getExtension().toUpperCase(), outputDirectory.toAbsolutePath(), threads, queueCapacity);
+
+        long start = System.nanoTime();
+        int tick = 0;
+        int frame = 0;
+        try {
+            FrameExporter exporter = new FrameExporter(outputDirectory, encoder, MAP_WIDTH, MAP_HEIGHT,
+                    threads, queueCapacity);
+            long simulationNanos;
+            try {
+                while (tick < maxTicks) {
+                    tick++;
+                    step(engine, view, ai, map, fighters, cursors, cursorVal, teamFighterCount, tick);
+
+                    if (tick % frameEvery == 0) {
+                        System.arraycopy(staticPixels, 0, framePixels, 0, framePixels.length);
+                        GameRenderer.drawFighters(fighters, framePixels);
+                        GameRenderer.drawCursors(cursors, teams, framePixels, null);
+                        exporter.submit(framePixels, frame++);
+                    }
+
+                    if (gameOver.onTick(teamFighterCount)) {
+                        break;
+                    }
+                }
+                simulationNanos = System.nanoTime() - start;
+            } finally {
+                // Attend l'écriture des frames en file : statistiques complètes
+                exporter.close();
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            GameLogger.getInstance().info(
+                    "Partie terminée : %d ticks (%.0f ticks/s), gagnant %s",
+                    tick, tick / (simulationNanos / 1e9),
+                    gameOver.isFinished() && gameOver.getWinner() != GameOverDetector.TIE
+                            ? "équipe " + (gameOver.getWinner() + 1)
+                            : "aucun");
+            GameLogger.getInstance().info(
+                    "Frames : %d écrites, %d sautées, %d en échec (%.1f Mo, %.1f s au total)",
+                    exporter.getWritten(), exporter.getSkipped(), exporter.getFailed(),
+                    exporter.getBytesWritten() / (1024.0 * 1024.0), seconds);
+        } finally {
+            engine.release();
+        }
+    }
+
+    /**
+     * Un tick de simulation, toutes les équipes pilotées par l'IA (même
+     * séquence que GameCanvas, voir SimulationTick).
+     */
+    private static void step(SimulationEngine engine, GameState view, AIController ai, int[][] map,
+            ArrayList<Fighter> fighters, Cursor[] cursors, int[] cursorVal, int[] teamFighterCount,
+            int tick) {
+        ai.setGameState(view, cursors, map, engine.getGradient(), tick);
+        int teams = engine.getGradient().length;
+        for (int team = 0; team < teams; team++) {
+            if (cursors[team] != null) {
+                ai.updateAICursor(team);
+            }
+        }
+
+        SimulationTick.run(engine, fighters, cursors, cursorVal, teamFighterCount, teams, tick, tick == 1, null);
+        view.synchronize();
+    }
+}
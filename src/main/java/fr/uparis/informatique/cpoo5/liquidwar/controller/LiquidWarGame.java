@@ -18,10 +18,14 @@ import fr.uparis.informatique.cpoo5.liquidwar.audio.AudioManager;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
 import fr.uparis.informatique.cpoo5.liquidwar.config.RenderConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+import fr.uparis.informatique.cpoo5.liquidwar.view.ActiveRenderSurface;
 import fr.uparis.informatique.cpoo5.liquidwar.view.GameCanvas;
 import fr.uparis.informatique.cpoo5.liquidwar.view.GameRenderer;
 import fr.uparis.informatique.cpoo5.liquidwar.view.GameStatsPanel;
+import fr.uparis.informatique.cpoo5.liquidwar.view.RenderScheduler;
+import fr.uparis.informatique.cpoo5.liquidwar.view.fx.FxGameView;
 import fr.uparis.informatique.cpoo5.liquidwar.view.menu.PauseMenuPanel;
 import fr.uparis.informatique.cpoo5.liquidwar.view.menu.VictoryPanel;
 
@@ -47,6 +51,8 @@ public class LiquidWarGame {
 
     private GameCanvas gameCanvas;
     private GameStatsPanel statsPanel;
+    // Effectifs lus dans la vue partagée du canvas (réutilisé à chaque seconde)
+    private final int[] statsCounts = new int[GameConfig.MAX_TEAMS];
     private PauseMenuPanel pauseMenuPanel;
     private VictoryPanel victoryPanel;
     private JFrame gameFrame;
@@ -56,6 +62,7 @@ public class LiquidWarGame {
     private javax.swing.Timer logicTimer; // Timer pour la logique (rapide)
     private javax.swing.Timer displayTimer; // Timer pour l'affichage (fluide)
     private javax.swing.Timer statsTimer; // Timer pour les stats (1 fois par seconde)
+    private FxGameView fxView; // Fenêtre JavaFX (null = affichage Swing)
 
     // Barre de stats en bas
     private JPanel bottomStatsBar;
@@ -229,6 +236,7 @@ public class LiquidWarGame {
         // Configurer le mode de temps dans le panneau de stats
         statsPanel.setTimeMode(timeMode, timerDurationMinutes);
         statsPanel.setMenuButtonListener(e -> togglePause());
+        statsPanel.setTimeline(gameCanvas.getMatchTimeline());
         // Synchroniser le temps de début avec le jeu
         statsPanel.setGameStartTime(gameStartTime);
 
@@ -275,6 +283,7 @@ public class LiquidWarGame {
         // Créer le panneau de victoire (au-dessus de tout)
         victoryPanel = new VictoryPanel();
         victoryPanel.setSelectionListener(this::handleVictorySelection);
+        victoryPanel.setTimeline(gameCanvas.getMatchTimeline());
         victoryPanel.setVisible(false);
         victoryPanel.setBounds(0, 0, contentWidth + 250, totalHeight);
         layeredPane.add(victoryPanel, JLayeredPane.POPUP_LAYER);
@@ -290,6 +299,21 @@ public class LiquidWarGame {
         gameFrame.setLocationRelativeTo(null);
         gameFrame.setVisible(true);
         gameCanvas.requestFocus();
+        if (GameOptions.getInstance().isJavaFxRenderingEnabled()) {
+            // Affichage JavaFX optionnel (PixelBuffer sur le buffer de jeu)
+            fxView = FxGameView.open(gameCanvas, gameFrame.getTitle(), () -> fxView = null);
+            gameFrame.addWindowListener(new java.awt.event.WindowAdapter() {
+                @Override
+                public void windowClosed(java.awt.event.WindowEvent e) {
+                    if (fxView != null) {
+                        fxView.close();
+                    }
+                }
+            });
+        } else {
+            // Rendu actif optionnel (remplace le repaint() du displayTimer)
+            gameCanvas.setActiveRendering(GameOptions.getInstance().isActiveRenderingEnabled());
+        }
 
         // SÉPARATION LOGIQUE/AFFICHAGE - OPTIMISÉ
         // Logique : ~120 ticks/seconde (synchronisé avec l'affichage)
@@ -298,23 +322,38 @@ public class LiquidWarGame {
         logger.info("⏩ Vitesse du jeu : %d%% (délai logique : %dms)",
                 GameOptions.getInstance().getGameSpeed(), logicDelay);
 
+        // Fin de partie détectée dans la simulation (minuterie exprimée en ticks)
+        GameOverDetector detector = gameCanvas.getGameOverDetector();
+        detector.setTimeoutTicks("MINUTERIE".equals(timeMode) && timerDurationMinutes != null
+                ? GameOverDetector.timeoutTicks(timerDurationMinutes, logicDelay)
+                : -1);
+        detector.setListener((winnerTeam, finalCounts, ticks) -> onGameOver(winnerTeam, finalCounts));
+
         logicTimer = new javax.swing.Timer(logicDelay, e -> {
             if (!isPaused) {
                 // Exécuter la logique (1 tick par appel pour ne pas saturer le CPU)
                 for (int i = 0; i < GameConfig.LOGIC_TICKS_PER_TIMER_EVENT; i++) {
+                    // La fin de partie est détectée par la simulation (GameOverDetector)
                     gameCanvas.updateLogic();
                     logicTickCount++;
-
-                    // Vérifier la fin de partie
-                    checkGameOver();
+                    if (isGameOver) {
+                        break;
+                    }
                 }
             }
         });
         logicTimer.start();
 
+        // Rendu adaptatif : cadence cible de la logique, saut de frames
+        // plafonné par la qualité graphique
+        RenderScheduler renderScheduler = gameCanvas.getRenderScheduler();
+        renderScheduler.setLogicInterval(logicDelay);
+        renderScheduler.setMaxSkip(GameOptions.getInstance().getRenderSkipFrames());
+
         // Affichage : ~120 FPS pour fluidité maximale
         displayTimer = new javax.swing.Timer(GameConfig.DISPLAY_TIMER_INTERVAL_MS, e -> {
-            if (!isPaused) {
+            if (!isPaused && !gameCanvas.isActiveRendering() && !gameCanvas.isExternalRendering()
+                    && renderScheduler.shouldRenderFrame()) {
                 // Force un repaint immédiat pour fluidité maximale
                 gameCanvas.repaint();
                 displayFrameCount++;
@@ -327,8 +366,9 @@ public class LiquidWarGame {
         // Timer pour mettre à jour les statistiques (1 fois par seconde)
         statsTimer = new javax.swing.Timer(1000, e -> {
             if (!isPaused) {
-                int[] counts = gameCanvas.getTeamFighterCounts();
-                statsPanel.updateStats(counts); // Passer le tableau complet pour toutes les équipes
+                gameCanvas.copyTeamFighterCounts(statsCounts);
+                statsPanel.updateStats(statsCounts); // Passer le tableau complet pour toutes les équipes
+                statsPanel.updateRenderStatus(renderScheduler);
             }
         });
         statsTimer.start();
@@ -359,12 +399,16 @@ public class LiquidWarGame {
         }
 
         isPaused = !isPaused;
+        // Le Canvas du rendu actif masquerait le menu pause
+        gameCanvas.setActiveRendering(!isPaused && GameOptions.getInstance().isActiveRenderingEnabled());
         pauseMenuPanel.setVisible(isPaused);
 
         if (isPaused) {
             pauseMenuPanel.requestFocusInWindow();
             GameLogger.getInstance().info("⏸ Jeu en pause");
         } else {
+            // La pause fausserait la cadence logique mesurée
+            gameCanvas.getRenderScheduler().restartMeasures();
             gameCanvas.requestFocusInWindow();
             GameLogger.getInstance().info("▶ Jeu repris");
         }
@@ -456,6 +500,11 @@ public class LiquidWarGame {
             System.out.println("⚡ Timer de logique ajusté : " + newDelay + "ms (vitesse: " +
                     GameOptions.getInstance().getGameSpeed() + "%)");
         }
+
+        RenderScheduler renderScheduler = gameCanvas.getRenderScheduler();
+        renderScheduler.setLogicInterval(newDelay);
+        renderScheduler.setMaxSkip(GameOptions.getInstance().getRenderSkipFrames());
+        renderScheduler.restartMeasures();
     }
 
     /**
@@ -492,62 +541,20 @@ public class LiquidWarGame {
     }
 
     /**
-     * Vérifie si la partie est terminée (une seule équipe restante)
+     * Appelé par le GameOverDetector (une seule fois) à la fin de la partie.
      */
-    private void checkGameOver() {
+    private void onGameOver(int winnerTeam, int[] finalCounts) {
         if (isGameOver)
-            return; // Ne pas vérifier si le jeu est déjà terminé
-
-        // Vérifier d'abord si le mode minuterie est activé et si le temps est écoulé
-        if ("MINUTERIE".equals(timeMode) && timerDurationMinutes != null && gameStartTime > 0) {
-            long elapsedMillis = System.currentTimeMillis() - gameStartTime;
-            long elapsedMinutes = elapsedMillis / 60000;
-
-            if (elapsedMinutes >= timerDurationMinutes) {
-                // Le temps est écoulé, déterminer le gagnant selon le nombre de particules
-                int[] teamFighterCounts = gameCanvas.getTeamFighterCounts();
-                if (teamFighterCounts != null) {
-                    int maxCount = -1;
-                    int winningTeam = -1;
-                    int teamsWithMaxCount = 0;
-
-                    // Trouver le score maximum
-                    for (int i = 0; i < teamFighterCounts.length; i++) {
-                        if (teamFighterCounts[i] > maxCount) {
-                            maxCount = teamFighterCounts[i];
-                        }
-                    }
-
-                    // Compter combien d'équipes ont ce score maximum
-                    for (int i = 0; i < teamFighterCounts.length; i++) {
-                        if (teamFighterCounts[i] == maxCount && maxCount >= 0) {
-                            teamsWithMaxCount++;
-                            if (winningTeam < 0) {
-                                winningTeam = i; // Première équipe avec le score max
-                            }
-                        }
-                    }
-
-                    if (teamsWithMaxCount > 1) {
-                        // Égalité : plusieurs équipes ont le même score maximum
-                        announceTie(teamFighterCounts);
-                    } else if (winningTeam >= 0) {
-                        // Il y a un gagnant unique
-                        String[] teamNames = { "ÉQUIPE BLEUE", "ÉQUIPE ROUGE", "ÉQUIPE VERTE", "ÉQUIPE JAUNE" };
-                        announceWinner(teamNames[winningTeam], winningTeam);
-                    }
-                }
-                return;
-            }
-        }
-
-        // Vérification normale : une seule équipe restante
-        // Utiliser getWinningTeam() qui supporte jusqu'à 4 équipes
-        int winningTeam = statsPanel.getWinningTeam();
+            return;
+        // Revenir au rendu Swing pour afficher le panneau de victoire
+        gameCanvas.setActiveRendering(false);
 
-        if (winningTeam >= 0) {
+        if (winnerTeam == GameOverDetector.TIE) {
+            // Égalité : plusieurs équipes ont le même score maximum
+            announceTie(finalCounts);
+        } else {
             String[] teamNames = { "ÉQUIPE BLEUE", "ÉQUIPE ROUGE", "ÉQUIPE VERTE", "ÉQUIPE JAUNE" };
-            announceWinner(teamNames[winningTeam], winningTeam);
+            announceWinner(teamNames[winnerTeam], winnerTeam);
         }
     }
 
@@ -663,7 +670,19 @@ public class LiquidWarGame {
             int[] teamCounts = gameCanvas.getTeamFighterCounts();
 
             bottomStatsLabels[0].setText("Logique: " + String.format("%.1f Hz", logicFPS));
-            bottomStatsLabels[1].setText("Affichage: " + String.format("%.1f FPS", displayFPS));
+            if (fxView != null) {
+                displayFPS = fxView.getFps();
+                bottomStatsLabels[1].setText(String.format("Affichage: %.1f FPS (JavaFX %.1f ms)",
+                        displayFPS, fxView.getAverageFrameMs()));
+            } else if (gameCanvas.isActiveRendering()) {
+                // Rendu actif : FPS réels et temps de frame du thread de rendu
+                ActiveRenderSurface surface = gameCanvas.getActiveRenderSurface();
+                displayFPS = surface.getFps();
+                bottomStatsLabels[1].setText(String.format("Affichage: %.1f FPS (%.1f/%.1f ms)",
+                        displayFPS, surface.getAverageFrameMs(), surface.getWorstFrameMs()));
+            } else {
+                bottomStatsLabels[1].setText("Affichage: " + String.format("%.1f FPS", displayFPS));
+            }
             bottomStatsLabels[2].setText("Team 0: " + teamCounts[0]);
             bottomStatsLabels[3].setText("Team 1: " + teamCounts[1]);
             bottomStatsLabels[4].setText("Temps: " + (elapsed / 1000) + "s");
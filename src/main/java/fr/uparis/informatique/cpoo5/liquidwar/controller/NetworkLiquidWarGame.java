@@ -3,7 +3,6 @@ package fr.uparis.informatique.cpoo5.liquidwar.controller;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Point;
 import java.io.IOException;
 
 import javax.swing.JFrame;
@@ -16,7 +15,11 @@ import fr.uparis.informatique.cpoo5.liquidwar.audio.AudioManager;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
 import fr.uparis.informatique.cpoo5.liquidwar.config.RenderConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.network.BattlefieldSnapshot;
+import fr.uparis.informatique.cpoo5.liquidwar.network.LockstepSession;
 import fr.uparis.informatique.cpoo5.liquidwar.network.NetworkGameController;
+import fr.uparis.informatique.cpoo5.liquidwar.network.NetworkMessage;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
 import fr.uparis.informatique.cpoo5.liquidwar.view.GameCanvas;
 import fr.uparis.informatique.cpoo5.liquidwar.view.GameRenderer;
@@ -40,6 +43,8 @@ public class NetworkLiquidWarGame {
 
     private GameCanvas gameCanvas;
     private GameStatsPanel statsPanel;
+    // Effectifs lus dans la vue partagée du canvas (réutilisé à chaque seconde)
+    private final int[] statsCounts = new int[GameConfig.MAX_TEAMS];
     private PauseMenuPanel pauseMenuPanel;
     private VictoryPanel victoryPanel;
     private WaitingRoomPanel waitingRoomPanel;
@@ -49,6 +54,7 @@ public class NetworkLiquidWarGame {
     private boolean isPaused = false;
     private boolean isGameOver = false;
     private boolean isWaiting = true; // En attente de joueurs
+    private boolean isSpectating = false; // Partie rejointe en cours (snapshots)
     private javax.swing.Timer logicTimer;
     private javax.swing.Timer displayTimer;
     private javax.swing.Timer statsTimer;
@@ -121,6 +127,13 @@ public class NetworkLiquidWarGame {
                 });
             });
 
+            // Côté client, la partie démarre à réception des paramètres du serveur
+            networkController.setMatchStartListener(
+                    settings -> SwingUtilities.invokeLater(() -> startActualGame(settings)));
+            // Arrivé après le début de la partie : snapshots du serveur
+            networkController.setSnapshotListener(
+                    snapshot -> SwingUtilities.invokeLater(() -> showSnapshot(snapshot)));
+
             if (isServer) {
                 logger.info("Démarrage du serveur sur le port %d...", port);
                 networkController.setMinPlayers(minPlayers); // Définir le minPlayers sur le serveur
@@ -146,7 +159,8 @@ public class NetworkLiquidWarGame {
         waitingRoomPanel.setListener(new WaitingRoomPanel.WaitingRoomListener() {
             @Override
             public void onStartGame() {
-                startActualGame();
+                // Une équipe par joueur effectivement connecté
+                startActualGame(networkController.createMatchSettings(networkController.getPlayerCount()));
             }
 
             @Override
@@ -172,11 +186,15 @@ public class NetworkLiquidWarGame {
 
         // Timer pour vérifier les connexions (serveur seulement)
         // Les clients reçoivent les mises à jour via LOBBY_UPDATE
+        // Mesures réseau (RTT, débits) des deux côtés
         connectionCheckTimer = new javax.swing.Timer(500, e -> {
             if (isWaiting && isServer) {
                 int playerCount = networkController.getPlayerCount();
                 waitingRoomPanel.setConnectedPlayers(playerCount);
             }
+            if (isWaiting) {
+                waitingRoomPanel.setTelemetry(networkController.getNetworkTelemetry());
+            }
         });
         connectionCheckTimer.start();
 
@@ -185,9 +203,82 @@ public class NetworkLiquidWarGame {
 
     /**
      * Démarre la partie réelle une fois que tous les joueurs sont connectés.
+     * 
+     * @param settings Paramètres communs (choisis par le serveur, reçus par
+     *                 les clients avec GAME_START)
      */
-    private void startActualGame() {
+    private void startActualGame(NetworkMessage.MatchSettings settings) {
+        if (!isWaiting) {
+            return;
+        }
         logger.info("🎮 Démarrage de la partie!");
+        minPlayers = settings.teams;
+        createGameView(settings.seed); // Même placement chez tous les pairs
+
+        // Mettre à jour le NetworkGameController avec le vrai GameState
+        networkController.setGameState(gameCanvas.getGameState());
+
+        // Configurer l'équipe du joueur local
+        int myTeamId = networkController.getMyTeamId();
+        gameCanvas.setLocalTeamId(myTeamId);
+        logger.info("🎮 Vous contrôlez l'équipe %d", myTeamId);
+
+        // Lockstep : seules les entrées par tick circulent désormais. Le
+        // serveur démarre la session et envoie GAME_START ; celle du client a
+        // été créée à réception de GAME_START
+        LockstepSession session = isServer ? networkController.startLockstep(settings)
+                : networkController.getLockstepSession();
+        gameCanvas.setLockstepSession(session);
+
+        // Démarrer les timers du jeu
+        startGameTimers();
+
+        // Démarrer la musique de manière asynchrone pour éviter les problèmes de timing
+        new Thread(() -> {
+            try {
+                // Petit délai pour laisser le jeu s'initialiser complètement
+                Thread.sleep(200);
+                AudioManager.getInstance().playMusic("/music/fodder.mid");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("❌ Interruption lors du lancement de la musique");
+            }
+        }).start();
+
+        logger.info("✅ Partie réseau démarrée avec succès!");
+    }
+
+    /**
+     * Rejoint une partie déjà commencée en spectateur : pas de simulation
+     * locale, l'affichage suit les snapshots envoyés par le serveur.
+     */
+    private void startSpectating(BattlefieldSnapshot snapshot) {
+        logger.info("👁 Partie en cours (%d équipes) : mode spectateur", snapshot.getTeams());
+        minPlayers = snapshot.getTeams();
+        isSpectating = true;
+        createGameView(null);
+        startDisplayTimers();
+    }
+
+    /**
+     * Affiche un snapshot reçu du serveur (spectateur).
+     */
+    private void showSnapshot(BattlefieldSnapshot snapshot) {
+        if (isWaiting) {
+            startSpectating(snapshot);
+        }
+        if (isSpectating && !isGameOver) {
+            gameCanvas.applySnapshot(snapshot);
+        }
+    }
+
+    /**
+     * Remplace la salle d'attente par la vue de jeu (canvas, statistiques,
+     * menus).
+     * 
+     * @param seed Graine du placement initial, ou null
+     */
+    private void createGameView(Long seed) {
         isWaiting = false;
 
         // Arrêter le timer de vérification
@@ -204,6 +295,7 @@ public class NetworkLiquidWarGame {
         // Créer le GameCanvas SANS IA (mode réseau = pas d'IA)
         gameCanvas = new GameCanvas();
         gameCanvas.setNetworkMode(true); // Désactiver l'IA
+        gameCanvas.setMatchSeed(seed);
         gameCanvas.setRequestedTeams(minPlayers); // Configurer le nombre d'équipes
         gameCanvas.reinitializeWithTeams(minPlayers); // Réinitialiser avec le bon nombre d'équipes
         gameCanvas.setPauseListener(() -> togglePause()); // ✅ Touche Échap pour pause !
@@ -211,17 +303,10 @@ public class NetworkLiquidWarGame {
 
         logger.info("🎮 Partie configurée pour %d équipes", minPlayers);
 
-        // Mettre à jour le NetworkGameController avec le vrai GameState
-        networkController.setGameState(gameCanvas.getGameState());
-
-        // Configurer l'équipe du joueur local
-        int myTeamId = networkController.getMyTeamId();
-        gameCanvas.setLocalTeamId(myTeamId);
-        logger.info("🎮 Vous contrôlez l'équipe %d", myTeamId);
-
         // Créer le panneau de statistiques avec le bon nombre d'équipes
         statsPanel = new GameStatsPanel(minPlayers);
         statsPanel.setMenuButtonListener(e -> togglePause());
+        statsPanel.setTimeline(gameCanvas.getMatchTimeline());
 
         // Panel principal
         mainPanel = new JPanel(new BorderLayout());
@@ -236,6 +321,7 @@ public class NetworkLiquidWarGame {
         // Panneau de victoire
         victoryPanel = new VictoryPanel();
         victoryPanel.setSelectionListener(this::handleVictorySelection);
+        victoryPanel.setTimeline(gameCanvas.getMatchTimeline());
         victoryPanel.setVisible(false);
 
         // Remplacer le contenu du layeredPane
@@ -253,28 +339,6 @@ public class NetworkLiquidWarGame {
         layeredPane.repaint();
 
         gameCanvas.requestFocus();
-
-        // Démarrer les timers du jeu
-        startGameTimers();
-
-        // Démarrer la musique de manière asynchrone pour éviter les problèmes de timing
-        new Thread(() -> {
-            try {
-                // Petit délai pour laisser le jeu s'initialiser complètement
-                Thread.sleep(200);
-                AudioManager.getInstance().playMusic("/music/fodder.mid");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                System.err.println("❌ Interruption lors du lancement de la musique");
-            }
-        }).start();
-
-        // Notifier les clients que la partie commence
-        if (isServer && networkController != null) {
-            networkController.broadcastGameStart();
-        }
-
-        logger.info("✅ Partie réseau démarrée avec succès!");
     }
 
     /**
@@ -298,9 +362,16 @@ public class NetworkLiquidWarGame {
         logger.info("⏩ Vitesse du jeu : %d%% (délai logique : %dms)",
                 GameOptions.getInstance().getGameSpeed(), logicDelay);
 
+        // Fin de partie détectée dans la simulation (pas de minuterie en réseau)
+        GameOverDetector detector = gameCanvas.getGameOverDetector();
+        detector.setTimeoutTicks(-1);
+        detector.setListener((winnerTeam, finalCounts, ticks) -> onGameOver(winnerTeam));
+
         logicTimer = new javax.swing.Timer(logicDelay, e -> {
             if (!isPaused && !isWaiting) {
                 for (int i = 0; i < GameConfig.LOGIC_TICKS_PER_TIMER_EVENT; i++) {
+                    // En lockstep, updateLogic() envoie l'entrée locale et
+                    // n'avance que si les entrées de tous les pairs sont là
                     gameCanvas.updateLogic();
 
                     // Incrémenter le tick réseau
@@ -308,18 +379,21 @@ public class NetworkLiquidWarGame {
                         networkController.tick();
                     }
 
-                    // Envoyer la position du curseur au réseau
-                    if (networkController != null && gameCanvas.getCursorPosition() != null) {
-                        Point cursor = gameCanvas.getCursorPosition();
-                        networkController.sendCursorMove(cursor.x, cursor.y);
+                    if (isGameOver) {
+                        break;
                     }
-
-                    checkGameOver();
                 }
             }
         });
         logicTimer.start();
 
+        startDisplayTimers();
+    }
+
+    /**
+     * Démarre les timers d'affichage et de statistiques.
+     */
+    private void startDisplayTimers() {
         // Timer d'affichage
         displayTimer = new javax.swing.Timer(GameConfig.DISPLAY_TIMER_INTERVAL_MS, e -> {
             if (!isPaused && !isWaiting) {
@@ -331,8 +405,12 @@ public class NetworkLiquidWarGame {
         // Timer de statistiques (supporte jusqu'à 4 équipes)
         statsTimer = new javax.swing.Timer(1000, e -> {
             if (!isPaused && !isWaiting && statsPanel != null) {
-                int[] counts = gameCanvas.getTeamFighterCounts();
-                statsPanel.updateStats(counts);
+                gameCanvas.copyTeamFighterCounts(statsCounts);
+                statsPanel.updateStats(statsCounts);
+            }
+            // Mesures réseau, même en pause (qui ralentit la partie ?)
+            if (!isWaiting && statsPanel != null && networkController != null) {
+                statsPanel.updateNetworkStatus(networkController.getNetworkTelemetry());
             }
         });
         statsTimer.start();
@@ -393,15 +471,12 @@ public class NetworkLiquidWarGame {
     }
 
     /**
-     * Vérifie si la partie est terminée (supporte 2-4 équipes).
+     * Appelé par le GameOverDetector (une seule fois) à la fin de la partie.
      */
-    private void checkGameOver() {
+    private void onGameOver(int winningTeam) {
         if (isGameOver || isWaiting || statsPanel == null)
             return;
 
-        // Utiliser la nouvelle méthode qui supporte plusieurs équipes
-        int winningTeam = statsPanel.getWinningTeam();
-
         if (winningTeam >= 0) {
             String[] teamNames = { "ÉQUIPE BLEUE", "ÉQUIPE ROUGE", "ÉQUIPE VERTE", "ÉQUIPE JAUNE" };
             announceWinner(teamNames[winningTeam], winningTeam);
@@ -0,0 +1,215 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Liste compacte des cellules modifiées par la simulation depuis le dernier
+ * rendu.
+ *
+ * Les moteurs de mouvement signalent chaque changement visible (case quittée,
+ * case occupée, changement d'équipe ou de santé). Le tracker garde, pour
+ * chaque cellule, son dernier état (vide ou équipe + santé) : le rendu n'a
+ * qu'à repeindre les cellules listées, même si plusieurs ticks se sont
+ * écoulés entre deux images.
+ *
+ * Le tracker tient aussi une empreinte de l'état de la simulation
+ * ({@link #getStateHash()}) : XOR, sur toutes les cellules occupées, d'une clé
+ * pseudo-aléatoire tirée de (cellule, équipe, santé), à la manière d'un
+ * hachage de Zobrist. Chaque marquage retire la clé de l'ancien état et
+ * ajoute celle du nouveau : l'empreinte suit la partie sans jamais reparcourir
+ * la carte. Deux pairs en lockstep dont les empreintes diffèrent ont divergé.
+ *
+ * Non thread-safe : les moteurs parallèles doivent appeler les méthodes de
+ * marquage sous leur propre verrou.
+ */
+public class DirtyCellTracker {
+
+    /** État d'une cellule sans combattant. */
+    public static final int EMPTY = -1;
+
+    private final int width;
+    private final int[] cellState;
+    private final long[] dirtyBits;
+    private final int[] dirtyList;
+    private int dirtyCount;
+    private boolean fullRedraw = true;
+    private long stateHash;
+
+    /**
+     * @param width  Largeur de la carte
+     * @param height Hauteur de la carte
+     */
+    public DirtyCellTracker(int width, int height) {
+        int cells = width * height;
+        this.width = width;
+        this.cellState = new int[cells];
+        this.dirtyBits = new long[(cells + 63) >>> 6];
+        this.dirtyList = new int[cells];
+        Arrays.fill(cellState, EMPTY);
+    }
+
+    /**
+     * Encode l'état visible d'un combattant (équipe + santé).
+     */
+    public static int stateOf(Fighter f) {
+        return (f.team << 16) | (f.health & 0xFFFF);
+    }
+
+    /**
+     * Équipe d'un état encodé.
+     */
+    public static int teamOf(int state) {
+        return state >>> 16;
+    }
+
+    /**
+     * Santé d'un état encodé.
+     */
+    public static int healthOf(int state) {
+        return state & 0xFFFF;
+    }
+
+    // ==================== MARQUAGE (simulation) ====================
+
+    /**
+     * Un combattant a quitté (fromX, fromY) pour sa position actuelle.
+     */
+    public void moved(Fighter f, int fromX, int fromY) {
+        mark(fromY * width + fromX, EMPTY);
+        changed(f);
+    }
+
+    /**
+     * L'équipe ou la santé d'un combattant a changé.
+     */
+    public void changed(Fighter f) {
+        mark(f.y * width + f.x, stateOf(f));
+    }
+
+    /**
+     * Un combattant a été retiré de la partie.
+     */
+    public void removed(Fighter f) {
+        mark(f.y * width + f.x, EMPTY);
+    }
+
+    private void mark(int cell, int state) {
+        if (cell < 0 || cell >= cellState.length) {
+            return;
+        }
+        stateHash ^= cellKey(cell, cellState[cell]) ^ cellKey(cell, state);
+        cellState[cell] = state;
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if ((dirtyBits[word] & bit) == 0) {
+            dirtyBits[word] |= bit;
+            dirtyList[dirtyCount++] = cell;
+        }
+    }
+
+    /**
+     * Reconstruit l'état complet depuis la liste des combattants et demande un
+     * rendu complet (nouvelle partie, état reçu du réseau...).
+     */
+    public void rebuild(List<Fighter> fighters) {
+        Arrays.fill(cellState, EMPTY);
+        for (Fighter f : fighters) {
+            int cell = f.y * width + f.x;
+            if (cell >= 0 && cell < cellState.length) {
+                cellState[cell] = stateOf(f);
+            }
+        }
+        stateHash = computeStateHash();
+        requestFullRedraw();
+    }
+
+    // ==================== EMPREINTE ====================
+
+    /**
+     * Empreinte de l'état de toutes les cellules, tenue à jour à chaque
+     * marquage (O(1)).
+     */
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * Recalcule l'empreinte en parcourant toutes les cellules (contrôle de
+     * {@link #getStateHash()}, reconstruction).
+     */
+    public long computeStateHash() {
+        long hash = 0;
+        for (int cell = 0; cell < cellState.length; cell++) {
+            hash ^= cellKey(cell, cellState[cell]);
+        }
+        return hash;
+    }
+
+    /**
+     * Clé de Zobrist d'une cellule dans un état : mélange SplitMix64 de la
+     * paire, calculé à la volée plutôt que tiré d'une table (une par cellule
+     * et par état possible). Une cellule vide ne compte pas.
+     */
+    static long cellKey(int cell, int state) {
+        if (state == EMPTY) {
+            return 0;
+        }
+        long z = ((long) cell << 32 | (state & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Demande un rendu complet au prochain affichage (redimensionnement,
+     * changement de couleurs...).
+     */
+    public void requestFullRedraw() {
+        fullRedraw = true;
+    }
+
+    // ==================== LECTURE (rendu) ====================
+
+    /**
+     * Indique si le prochain rendu doit tout repeindre.
+     */
+    public boolean isFullRedrawPending() {
+        return fullRedraw;
+    }
+
+    /**
+     * Nombre de cellules modifiées depuis le dernier clear().
+     */
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Index (y * largeur + x) de la i-ème cellule modifiée.
+     */
+    public int getDirtyCell(int i) {
+        return dirtyList[i];
+    }
+
+    /**
+     * État courant d'une cellule (EMPTY ou équipe + santé).
+     */
+    public int getCellState(int cell) {
+        return cellState[cell];
+    }
+
+    /**
+     * Vide la liste après un rendu (incrémental ou complet).
+     */
+    public void clear() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyList[i];
+            dirtyBits[cell >>> 6] &= ~(1L << cell);
+        }
+        dirtyCount = 0;
+        fullRedraw = false;
+    }
+}
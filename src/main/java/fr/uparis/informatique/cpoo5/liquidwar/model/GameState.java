@@ -5,11 +5,13 @@ import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 
 import java.awt.Point;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * État du jeu encapsulé pour multithreading thread-safe.
@@ -22,9 +24,29 @@ import java.util.concurrent.locks.Lock;
  *   <li><b>ReadWriteLock</b> : Permet plusieurs lectures simultanées, une seule écriture</li>
  *   <li><b>Gradient</b> : Locks séparés par équipe pour parallélisation</li>
  *   <li><b>Fighters</b> : Lock global pour cohérence</li>
- *   <li><b>Cursors</b> : Lock global pour simplicité</li>
+ *   <li><b>Cursors</b> : StampedLock, lectures optimistes sans blocage</li>
+ *   <li><b>Compteurs</b> : Lectures atomiques (VarHandle), sans lock</li>
  * </ul>
  * 
+ * <p>Les threads réseau, IA et statistiques lisent curseurs et compteurs à
+ * haute fréquence : les accesseurs {@link #copyCursorPositions(int[][])} et
+ * {@link #copyFighterCounts(int[])} remplissent des buffers fournis par
+ * l'appelant et n'allouent rien.
+ * 
+ * <h2>Vue partagée</h2>
+ * <p>La carte est stockée une seule fois sous forme de masque de murs compact
+ * (1 bit par cellule, immuable). Fighters et gradients sont les tableaux de
+ * la simulation : une même instance reste valide pendant toute la partie.
+ * 
+ * <p>Curseurs et compteurs, eux, sont écrits sans lock par la simulation
+ * (moteurs, lockstep, rollback). La vue en garde donc une copie publiée :
+ * la simulation appelle {@link #synchronize()} une fois par tick, sous le
+ * verrou d'écriture, et les lecteurs voient toujours l'état complet d'un tick
+ * (jamais un x sans son y). Les écritures des autres threads
+ * ({@link #setCursorPosition(int, int, int)}, {@link #setFighterCount(int, int)}...)
+ * sont visibles tout de suite dans la vue et appliquées à la simulation au
+ * prochain synchronize(), sur son thread.
+ * 
  * <h2>Usage Multithreading</h2>
  * <pre>{@code
  * // Thread de calcul
@@ -56,21 +78,36 @@ public class GameState {
     
     // ==================== DONNÉES DU JEU ====================
     
-    /** Carte du jeu (immuable après chargement) */
-    private final int[][] map;
+    /** Masque des murs (1 bit par cellule, immuable après création) */
+    private final long[] wallMask;
     
-    /** Gradients par équipe [team][position] */
-    private final int[][] gradient;
+    /** Gradients par équipe [team][position] (remplacé si le moteur change) */
+    private volatile int[][] gradient;
     
     /** Liste des fighters (mutable) */
     private final ArrayList<Fighter> fighters;
     
-    /** Curseurs par équipe */
+    /** Curseurs par équipe (simulation) */
     private final Cursor[] cursors;
     
-    /** Compteurs de fighters par équipe */
+    /** Compteurs de fighters par équipe (simulation) */
     private final int[] teamFighterCount;
     
+    /** Positions publiées des curseurs : [2 * team] = x, [2 * team + 1] = y */
+    private final int[] cursorPositions;
+    
+    /** Compteurs publiés */
+    private final int[] fighterCounts;
+    
+    // Écritures des autres threads, appliquées par synchronize() (sous le
+    // verrou d'écriture des curseurs)
+    private final int[] pendingCursorX;
+    private final int[] pendingCursorY;
+    private int pendingCursors;
+    private final int[] pendingCountValue;
+    private final int[] pendingCountDelta;
+    private int pendingCountSets;
+    
     /** Nombre d'équipes actives */
     private final int activeTeams;
     
@@ -82,18 +119,25 @@ public class GameState {
     /** Lock pour les fighters (partagé) */
     private final ReentrantReadWriteLock fightersLock;
     
-    /** Lock pour les curseurs */
-    private final ReentrantReadWriteLock cursorsLock;
+    /**
+     * Lock pour la vue publiée (lectures optimistes) : positions des curseurs,
+     * compteurs et écritures en attente.
+     */
+    private final StampedLock cursorsLock;
     
-    /** Lock pour les compteurs */
-    private final ReentrantReadWriteLock countersLock;
+    /**
+     * Accès atomique aux éléments des compteurs publiés.
+     * Équivalent d'un AtomicIntegerArray, mais sur un simple int[] que
+     * synchronize() remplit sans allocation.
+     */
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(int[].class);
     
     // ==================== CONSTRUCTEUR ====================
     
     /**
      * Crée un nouvel état de jeu.
      * 
-     * @param map Carte du jeu (sera copiée pour immutabilité)
+     * @param map Carte du jeu (convertie une seule fois en masque de murs)
      * @param gradient Gradients initiaux
      * @param fighters Liste initiale de fighters
      * @param cursors Curseurs initiaux
@@ -102,12 +146,23 @@ public class GameState {
      */
     public GameState(int[][] map, int[][] gradient, ArrayList<Fighter> fighters,
                      Cursor[] cursors, int[] teamFighterCount, int activeTeams) {
-        
-        // Copier la map pour immutabilité
-        this.map = new int[map.length][];
-        for (int i = 0; i < map.length; i++) {
-            this.map[i] = map[i].clone();
-        }
+        this(buildWallMask(map), gradient, fighters, cursors, teamFighterCount, activeTeams);
+    }
+    
+    /**
+     * Crée un état de jeu à partir d'un masque de murs déjà construit
+     * (partagé entre plusieurs états, jamais copié).
+     * 
+     * @param wallMask Masque de murs (voir {@link #buildWallMask(int[][])})
+     * @param gradient Gradients initiaux
+     * @param fighters Liste initiale de fighters
+     * @param cursors Curseurs initiaux
+     * @param teamFighterCount Compteurs initiaux
+     * @param activeTeams Nombre d'équipes actives
+     */
+    public GameState(long[] wallMask, int[][] gradient, ArrayList<Fighter> fighters,
+                     Cursor[] cursors, int[] teamFighterCount, int activeTeams) {
+        this.wallMask = wallMask;
         
         // Références (seront synchronisées)
         this.gradient = gradient;
@@ -123,12 +178,96 @@ public class GameState {
         }
         
         this.fightersLock = new ReentrantReadWriteLock();
-        this.cursorsLock = new ReentrantReadWriteLock();
-        this.countersLock = new ReentrantReadWriteLock();
+        this.cursorsLock = new StampedLock();
+        
+        this.cursorPositions = new int[cursors.length * 2];
+        this.fighterCounts = new int[teamFighterCount.length];
+        this.pendingCursorX = new int[cursors.length];
+        this.pendingCursorY = new int[cursors.length];
+        this.pendingCountValue = new int[teamFighterCount.length];
+        this.pendingCountDelta = new int[teamFighterCount.length];
+        publishSimulation();
+    }
+    
+    // ==================== PUBLICATION (THREAD DE SIMULATION) ====================
+    
+    /**
+     * Applique les écritures en attente à la simulation puis publie ses
+     * curseurs et compteurs.
+     * 
+     * <p>À appeler par le thread de simulation, une fois par tick (après le
+     * tick, et après tout changement d'état hors tick comme un snapshot).
+     */
+    public void synchronize() {
+        long stamp = cursorsLock.writeLock();
+        try {
+            applyPendingWrites();
+            publishSimulation();
+        } finally {
+            cursorsLock.unlockWrite(stamp);
+        }
+    }
+    
+    private void applyPendingWrites() {
+        for (int team = 0; team < cursors.length; team++) {
+            if ((pendingCursors & (1 << team)) != 0 && cursors[team] != null) {
+                cursors[team].x = pendingCursorX[team];
+                cursors[team].y = pendingCursorY[team];
+            }
+        }
+        pendingCursors = 0;
+        for (int team = 0; team < teamFighterCount.length; team++) {
+            if ((pendingCountSets & (1 << team)) != 0) {
+                teamFighterCount[team] = pendingCountValue[team];
+            }
+            teamFighterCount[team] += pendingCountDelta[team];
+            pendingCountDelta[team] = 0;
+        }
+        pendingCountSets = 0;
+    }
+    
+    private void publishSimulation() {
+        for (int team = 0; team < cursors.length; team++) {
+            Cursor cursor = cursors[team];
+            cursorPositions[2 * team] = cursor == null ? 0 : cursor.x;
+            cursorPositions[2 * team + 1] = cursor == null ? 0 : cursor.y;
+        }
+        for (int team = 0; team < teamFighterCount.length; team++) {
+            COUNTS.setVolatile(fighterCounts, team, teamFighterCount[team]);
+        }
     }
     
     // ==================== ACCÈS À LA CARTE (READ-ONLY) ====================
     
+    /**
+     * Construit le masque de murs d'une carte (1 bit par cellule, bit à 1 = mur).
+     * 
+     * @param map Carte du jeu (-1 = mur)
+     * @return Masque de MAP_WIDTH * MAP_HEIGHT bits
+     */
+    public static long[] buildWallMask(int[][] map) {
+        int cells = GameConfig.MAP_WIDTH * GameConfig.MAP_HEIGHT;
+        long[] mask = new long[(cells + 63) >>> 6];
+        int height = Math.min(map.length, GameConfig.MAP_HEIGHT);
+        for (int y = 0; y < height; y++) {
+            int width = Math.min(map[y].length, GameConfig.MAP_WIDTH);
+            for (int x = 0; x < width; x++) {
+                if (map[y][x] == -1) {
+                    int idx = y * GameConfig.MAP_WIDTH + x;
+                    mask[idx >>> 6] |= 1L << idx;
+                }
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * Retourne le masque de murs partagé (NE PAS MODIFIER).
+     */
+    public long[] getWallMask() {
+        return wallMask;
+    }
+    
     /**
      * Vérifie si une position est valide (dans les limites de la carte).
      */
@@ -142,16 +281,16 @@ public class GameState {
      */
     public boolean isWall(int x, int y) {
         if (!isValid(x, y)) return true;
-        return map[y][x] == -1;
+        int idx = y * GameConfig.MAP_WIDTH + x;
+        return (wallMask[idx >>> 6] & (1L << idx)) != 0;
     }
     
     /**
      * Obtient la valeur de la carte à une position.
-     * Thread-safe (map est immuable).
+     * Thread-safe (le masque de murs est immuable) : -1 = mur, 0 = libre.
      */
     public int getMapValue(int x, int y) {
-        if (!isValid(x, y)) return -1;
-        return map[y][x];
+        return isWall(x, y) ? -1 : 0;
     }
     
     // ==================== ACCÈS AU GRADIENT ====================
@@ -208,6 +347,23 @@ public class GameState {
         return gradient[team];
     }
     
+    /**
+     * Remplace les gradients référencés (changement de moteur de simulation).
+     * Les équipes sont verrouillées en écriture pendant le remplacement.
+     */
+    public void bindGradient(int[][] newGradient) {
+        for (int team = 0; team < activeTeams; team++) {
+            lockGradientWrite(team);
+        }
+        try {
+            this.gradient = newGradient;
+        } finally {
+            for (int team = activeTeams - 1; team >= 0; team--) {
+                unlockGradientWrite(team);
+            }
+        }
+    }
+    
     /**
      * Crée une copie thread-safe du gradient d'une équipe.
      * Utile pour les threads qui veulent travailler sur une snapshot.
@@ -289,127 +445,212 @@ public class GameState {
      * Lock en lecture pour les curseurs.
      */
     public void lockCursorsRead() {
-        cursorsLock.readLock().lock();
+        cursorsLock.asReadLock().lock();
     }
     
     /**
      * Unlock en lecture pour les curseurs.
      */
     public void unlockCursorsRead() {
-        cursorsLock.readLock().unlock();
+        cursorsLock.asReadLock().unlock();
     }
     
     /**
      * Lock en écriture pour les curseurs.
      */
     public void lockCursorsWrite() {
-        cursorsLock.writeLock().lock();
+        cursorsLock.asWriteLock().lock();
     }
     
     /**
      * Unlock en écriture pour les curseurs.
      */
     public void unlockCursorsWrite() {
-        cursorsLock.writeLock().unlock();
+        cursorsLock.asWriteLock().unlock();
     }
     
     /**
-     * Obtient le tableau de curseurs (NON THREAD-SAFE).
-     * Le caller DOIT avoir le lock approprié.
+     * Obtient le tableau de curseurs de la simulation (NON THREAD-SAFE).
+     * Réservé au thread de simulation : les autres threads passent par les
+     * positions publiées.
      */
     public Cursor[] getCursors() {
         return cursors;
     }
     
     /**
-     * Obtient la position d'un curseur (thread-safe).
+     * Obtient la position publiée d'un curseur (thread-safe).
+     * Alloue un Point : préférer {@link #copyCursorPosition(int, int[])} dans les
+     * boucles chaudes.
      */
     public Point getCursorPosition(int team) {
-        lockCursorsRead();
-        try {
-            if (cursors[team] == null) {
-                return new Point(0, 0);
+        Point pos = new Point();
+        long stamp = cursorsLock.tryOptimisticRead();
+        readCursor(team, pos);
+        if (!cursorsLock.validate(stamp)) {
+            stamp = cursorsLock.readLock();
+            try {
+                readCursor(team, pos);
+            } finally {
+                cursorsLock.unlockRead(stamp);
+            }
+        }
+        return pos;
+    }
+    
+    /**
+     * Copie la position publiée d'un curseur dans out[0] (x) et out[1] (y),
+     * sans allocation. Lecture optimiste : ne bloque pas tant qu'aucune écriture n'est en cours.
+     */
+    public void copyCursorPosition(int team, int[] out) {
+        long stamp = cursorsLock.tryOptimisticRead();
+        readCursor(team, out);
+        if (!cursorsLock.validate(stamp)) {
+            // Écriture concurrente : relire sous verrou
+            stamp = cursorsLock.readLock();
+            try {
+                readCursor(team, out);
+            } finally {
+                cursorsLock.unlockRead(stamp);
             }
-            return new Point(cursors[team].x, cursors[team].y);
-        } finally {
-            unlockCursorsRead();
         }
     }
     
+    /**
+     * Copie les positions des curseurs des équipes actives dans out[team][0..1],
+     * sans allocation (out doit avoir au moins getActiveTeams() lignes).
+     */
+    public void copyCursorPositions(int[][] out) {
+        int teams = Math.min(activeTeams, out.length);
+        long stamp = cursorsLock.tryOptimisticRead();
+        for (int team = 0; team < teams; team++) {
+            readCursor(team, out[team]);
+        }
+        if (!cursorsLock.validate(stamp)) {
+            stamp = cursorsLock.readLock();
+            try {
+                for (int team = 0; team < teams; team++) {
+                    readCursor(team, out[team]);
+                }
+            } finally {
+                cursorsLock.unlockRead(stamp);
+            }
+        }
+    }
+    
+    private void readCursor(int team, Point out) {
+        out.x = cursorPositions[2 * team];
+        out.y = cursorPositions[2 * team + 1];
+    }
+    
+    private void readCursor(int team, int[] out) {
+        out[0] = cursorPositions[2 * team];
+        out[1] = cursorPositions[2 * team + 1];
+    }
+    
     /**
      * Définit la position d'un curseur (thread-safe).
+     * Visible tout de suite dans la vue, appliquée à la simulation au
+     * prochain {@link #synchronize()}.
      */
     public void setCursorPosition(int team, int x, int y) {
-        lockCursorsWrite();
+        if (cursors[team] == null) {
+            return;
+        }
+        long stamp = cursorsLock.writeLock();
         try {
-            if (cursors[team] != null) {
-                cursors[team].x = x;
-                cursors[team].y = y;
-            }
+            pendingCursorX[team] = x;
+            pendingCursorY[team] = y;
+            pendingCursors |= 1 << team;
+            cursorPositions[2 * team] = x;
+            cursorPositions[2 * team + 1] = y;
         } finally {
-            unlockCursorsWrite();
+            cursorsLock.unlockWrite(stamp);
         }
     }
     
     // ==================== ACCÈS AUX COMPTEURS ====================
     
     /**
-     * Obtient le nombre de fighters d'une équipe (thread-safe).
+     * Obtient le nombre de fighters publié d'une équipe (thread-safe, sans lock).
      */
     public int getFighterCount(int team) {
-        countersLock.readLock().lock();
-        try {
-            return teamFighterCount[team];
-        } finally {
-            countersLock.readLock().unlock();
-        }
+        return (int) COUNTS.getVolatile(fighterCounts, team);
     }
     
     /**
      * Définit le nombre de fighters d'une équipe (thread-safe).
+     * Visible tout de suite dans la vue, appliqué à la simulation au
+     * prochain {@link #synchronize()}.
      */
     public void setFighterCount(int team, int count) {
-        countersLock.writeLock().lock();
+        long stamp = cursorsLock.writeLock();
         try {
-            teamFighterCount[team] = count;
+            pendingCountValue[team] = count;
+            pendingCountDelta[team] = 0;
+            pendingCountSets |= 1 << team;
+            COUNTS.setVolatile(fighterCounts, team, count);
         } finally {
-            countersLock.writeLock().unlock();
+            cursorsLock.unlockWrite(stamp);
         }
     }
     
     /**
-     * Incrémente le compteur d'une équipe (thread-safe, atomique).
+     * Incrémente le compteur d'une équipe (thread-safe, voir setFighterCount).
      */
     public void incrementFighterCount(int team) {
-        countersLock.writeLock().lock();
-        try {
-            teamFighterCount[team]++;
-        } finally {
-            countersLock.writeLock().unlock();
-        }
+        addFighterCount(team, 1);
     }
     
     /**
-     * Décrémente le compteur d'une équipe (thread-safe, atomique).
+     * Décrémente le compteur d'une équipe (thread-safe, voir setFighterCount).
      */
     public void decrementFighterCount(int team) {
-        countersLock.writeLock().lock();
+        addFighterCount(team, -1);
+    }
+    
+    private void addFighterCount(int team, int delta) {
+        long stamp = cursorsLock.writeLock();
         try {
-            teamFighterCount[team]--;
+            pendingCountDelta[team] += delta;
+            COUNTS.getAndAdd(fighterCounts, team, delta);
         } finally {
-            countersLock.writeLock().unlock();
+            cursorsLock.unlockWrite(stamp);
         }
     }
     
     /**
-     * Obtient une copie des compteurs (thread-safe).
+     * Obtient une copie des compteurs publiés (thread-safe).
      */
     public int[] getFighterCountsCopy() {
-        countersLock.readLock().lock();
-        try {
-            return teamFighterCount.clone();
-        } finally {
-            countersLock.readLock().unlock();
+        int[] copy = new int[fighterCounts.length];
+        copyFighterCounts(copy);
+        return copy;
+    }
+    
+    /**
+     * Copie les compteurs publiés dans un buffer fourni par l'appelant, sans
+     * allocation. Lecture optimiste : tous les compteurs viennent du même tick.
+     * 
+     * @param dest Buffer de destination (copie min(dest.length, nbCompteurs) valeurs)
+     */
+    public void copyFighterCounts(int[] dest) {
+        int n = Math.min(dest.length, fighterCounts.length);
+        long stamp = cursorsLock.tryOptimisticRead();
+        readCounts(dest, n);
+        if (!cursorsLock.validate(stamp)) {
+            stamp = cursorsLock.readLock();
+            try {
+                readCounts(dest, n);
+            } finally {
+                cursorsLock.unlockRead(stamp);
+            }
+        }
+    }
+    
+    private void readCounts(int[] dest, int n) {
+        for (int team = 0; team < n; team++) {
+            dest[team] = (int) COUNTS.getVolatile(fighterCounts, team);
         }
     }
     
@@ -441,17 +682,10 @@ public class GameState {
      */
     @Override
     public String toString() {
-        countersLock.readLock().lock();
-        try {
-            return String.format("GameState[teams=%d, fighters=[%d, %d], total=%d]",
-                activeTeams,
-                teamFighterCount[0],
-                activeTeams > 1 ? teamFighterCount[1] : 0,
-                teamFighterCount[0] + (activeTeams > 1 ? teamFighterCount[1] : 0)
-            );
-        } finally {
-            countersLock.readLock().unlock();
-        }
+        int count0 = getFighterCount(0);
+        int count1 = activeTeams > 1 ? getFighterCount(1) : 0;
+        return String.format("GameState[teams=%d, fighters=[%d, %d], total=%d]",
+            activeTeams, count0, count1, count0 + count1);
     }
 }
 
@@ -0,0 +1,111 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+/**
+ * Liste compacte des cellules dont le gradient d'une équipe a changé depuis
+ * le dernier rendu (application des curseurs et propagation).
+ *
+ * Une seule équipe est suivie à la fois (celle affichée par la heatmap) :
+ * tant qu'aucune équipe n'est suivie, les moteurs ne marquent rien et le
+ * suivi ne coûte qu'une comparaison par écriture du gradient.
+ *
+ * Non thread-safe : la propagation est séquentielle dans tous les moteurs.
+ */
+public class GradientChangeTracker {
+
+    /** Aucune équipe suivie. */
+    public static final int NO_TEAM = -1;
+
+    private final long[] changedBits;
+    private final int[] changedList;
+    private int changedCount;
+    private int team = NO_TEAM;
+    private boolean fullRedraw = true;
+
+    /**
+     * @param width  Largeur de la carte
+     * @param height Hauteur de la carte
+     */
+    public GradientChangeTracker(int width, int height) {
+        int cells = width * height;
+        this.changedBits = new long[(cells + 63) >>> 6];
+        this.changedList = new int[cells];
+    }
+
+    // ==================== MARQUAGE (simulation) ====================
+
+    /**
+     * Équipe suivie (NO_TEAM = aucune).
+     */
+    public int getTeam() {
+        return team;
+    }
+
+    /**
+     * Change d'équipe suivie : la liste repart de zéro et un rendu complet est
+     * demandé.
+     */
+    public void setTeam(int team) {
+        if (this.team != team) {
+            this.team = team;
+            clear();
+            requestFullRedraw();
+        }
+    }
+
+    /**
+     * Le gradient de la cellule a changé pour l'équipe suivie.
+     */
+    public void changed(int cell) {
+        if (cell < 0 || cell >= changedList.length) {
+            return;
+        }
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if ((changedBits[word] & bit) == 0) {
+            changedBits[word] |= bit;
+            changedList[changedCount++] = cell;
+        }
+    }
+
+    /**
+     * Demande un rendu complet (gradient importé, nouvelle partie...).
+     */
+    public void requestFullRedraw() {
+        fullRedraw = true;
+    }
+
+    // ==================== LECTURE (rendu) ====================
+
+    /**
+     * Indique si le prochain rendu doit tout recalculer.
+     */
+    public boolean isFullRedrawPending() {
+        return fullRedraw;
+    }
+
+    /**
+     * Nombre de cellules modifiées depuis le dernier clear().
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * Index (y * largeur + x) de la i-ème cellule modifiée.
+     */
+    public int getChangedCell(int i) {
+        return changedList[i];
+    }
+
+    /**
+     * Vide la liste après un rendu.
+     */
+    public void clear() {
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedList[i];
+            changedBits[cell >>> 6] &= ~(1L << cell);
+        }
+        changedCount = 0;
+        fullRedraw = false;
+    }
+}
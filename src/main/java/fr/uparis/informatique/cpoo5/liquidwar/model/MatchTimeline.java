@@ -0,0 +1,238 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import java.util.Arrays;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+
+/**
+ * Historique compact d'une partie (séries temporelles par équipe).
+ *
+ * <p>Un échantillon est enregistré à chaque tick dans des anneaux de tableaux
+ * primitifs, puis consolidé vers des niveaux plus grossiers, comme dans RRD :
+ * <ul>
+ *   <li>Niveau 0 : 1 point par tick</li>
+ *   <li>Niveau 1 : 1 point pour 16 ticks</li>
+ *   <li>Niveau 2 : 1 point pour 256 ticks</li>
+ *   <li>Niveau 3 : 1 point pour 4096 ticks (~5 h à 200 Hz)</li>
+ * </ul>
+ * Chaque niveau garde 1024 points : la mémoire est fixe (≈ 300 Ko pour
+ * 6 équipes) quelle que soit la durée de la partie.
+ *
+ * <p>Métriques par équipe :
+ * <ul>
+ *   <li>{@link #METRIC_COUNT} : nombre de combattants (moyenne sur la période)</li>
+ *   <li>{@link #METRIC_NET_CONVERSIONS} : gain net de combattants (somme sur la
+ *       période, négatif si l'équipe perd des combattants)</li>
+ *   <li>{@link #METRIC_CURSOR_DISTANCE} : distance du curseur au curseur ennemi
+ *       le plus proche (moyenne sur la période)</li>
+ * </ul>
+ *
+ * <p>Non thread-safe : écrit par le thread logique, lu par l'EDT (le timer
+ * logique Swing s'exécute lui aussi sur l'EDT). {@link #record} n'alloue rien.
+ */
+public final class MatchTimeline {
+
+    public static final int METRIC_COUNT = 0;
+    public static final int METRIC_NET_CONVERSIONS = 1;
+    public static final int METRIC_CURSOR_DISTANCE = 2;
+    public static final int METRICS = 3;
+
+    /** Nombre de niveaux de consolidation */
+    public static final int TIERS = 4;
+    /** Points conservés par niveau */
+    public static final int CAPACITY = 1024;
+    /** Facteur de consolidation entre deux niveaux */
+    public static final int FACTOR = 16;
+
+    private int teams;
+    private int stride;
+    private int[][] data;
+    private final int[] head = new int[TIERS];
+    private final int[] size = new int[TIERS];
+    private long[][] acc;
+    private final int[] accCount = new int[TIERS];
+    private int[][] scratch;
+    private int[] lastCounts;
+    private boolean hasLast;
+    private long totalTicks;
+
+    /**
+     * Crée un historique pour un nombre d'équipes.
+     */
+    public MatchTimeline(int teams) {
+        reset(teams);
+    }
+
+    /**
+     * Réinitialise l'historique (nouvelle partie).
+     */
+    public void reset(int teams) {
+        if (teams != this.teams || data == null) {
+            this.teams = teams;
+            this.stride = METRICS * teams;
+            data = new int[TIERS][CAPACITY * stride];
+            acc = new long[TIERS][stride];
+            scratch = new int[TIERS][stride];
+            lastCounts = new int[teams];
+        }
+        for (int tier = 0; tier < TIERS; tier++) {
+            head[tier] = 0;
+            size[tier] = 0;
+            accCount[tier] = 0;
+            Arrays.fill(acc[tier], 0L);
+        }
+        hasLast = false;
+        totalTicks = 0;
+    }
+
+    // ==================== ENREGISTREMENT ====================
+
+    /**
+     * Enregistre un échantillon (un tick). N'alloue rien.
+     *
+     * @param counts  Compteurs de combattants par équipe
+     * @param cursors Curseurs des équipes (peut contenir des null)
+     */
+    public void record(int[] counts, Cursor[] cursors) {
+        int[] sample = scratch[0];
+        for (int team = 0; team < teams; team++) {
+            int count = team < counts.length ? counts[team] : 0;
+            sample[METRIC_COUNT * teams + team] = count;
+            sample[METRIC_NET_CONVERSIONS * teams + team] = hasLast ? count - lastCounts[team] : 0;
+            sample[METRIC_CURSOR_DISTANCE * teams + team] = nearestEnemyDistance(cursors, team);
+            lastCounts[team] = count;
+        }
+        hasLast = true;
+        totalTicks++;
+        push(0, sample);
+    }
+
+    private int nearestEnemyDistance(Cursor[] cursors, int team) {
+        if (cursors == null || team >= cursors.length || cursors[team] == null) {
+            return 0;
+        }
+        Cursor own = cursors[team];
+        long best = Long.MAX_VALUE;
+        for (int other = 0; other < teams && other < cursors.length; other++) {
+            Cursor c = cursors[other];
+            if (other == team || c == null || c.active == 0) {
+                continue;
+            }
+            long dx = c.x - own.x;
+            long dy = c.y - own.y;
+            best = Math.min(best, dx * dx + dy * dy);
+        }
+        return best == Long.MAX_VALUE ? 0 : (int) Math.sqrt(best);
+    }
+
+    /**
+     * Ajoute un point à un niveau et consolide vers le niveau suivant.
+     */
+    private void push(int tier, int[] values) {
+        System.arraycopy(values, 0, data[tier], head[tier] * stride, stride);
+        head[tier] = (head[tier] + 1) % CAPACITY;
+        if (size[tier] < CAPACITY) {
+            size[tier]++;
+        }
+
+        int next = tier + 1;
+        if (next >= TIERS) {
+            return;
+        }
+        long[] sums = acc[next];
+        for (int i = 0; i < stride; i++) {
+            sums[i] += values[i];
+        }
+        if (++accCount[next] == FACTOR) {
+            int[] consolidated = scratch[next];
+            int conversionsStart = METRIC_NET_CONVERSIONS * teams;
+            for (int i = 0; i < stride; i++) {
+                boolean isSum = i >= conversionsStart && i < conversionsStart + teams;
+                consolidated[i] = (int) (isSum ? sums[i] : Math.round(sums[i] / (double) FACTOR));
+                sums[i] = 0;
+            }
+            accCount[next] = 0;
+            push(next, consolidated);
+        }
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Nombre d'équipes enregistrées.
+     */
+    public int getTeams() {
+        return teams;
+    }
+
+    /**
+     * Nombre total de ticks enregistrés depuis reset().
+     */
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    /**
+     * Nombre de ticks représentés par un point d'un niveau.
+     */
+    public static int getResolution(int tier) {
+        return 1 << (4 * tier); // FACTOR^tier
+    }
+
+    /**
+     * Nombre de points disponibles dans un niveau.
+     */
+    public int size(int tier) {
+        return size[tier];
+    }
+
+    /**
+     * Lit une valeur.
+     *
+     * @param tier   Niveau
+     * @param index  Index du point (0 = plus ancien conservé)
+     * @param metric Métrique (METRIC_*)
+     * @param team   Équipe
+     */
+    public int get(int tier, int index, int metric, int team) {
+        int start = (head[tier] - size[tier] + CAPACITY) % CAPACITY;
+        int slot = (start + index) % CAPACITY;
+        return data[tier][slot * stride + metric * teams + team];
+    }
+
+    /**
+     * Copie les points les plus récents d'une série dans un buffer, sans allocation.
+     *
+     * @return Nombre de points copiés (au plus dest.length)
+     */
+    public int copySeries(int tier, int metric, int team, int[] dest) {
+        int n = Math.min(dest.length, size[tier]);
+        int first = size[tier] - n;
+        for (int i = 0; i < n; i++) {
+            dest[i] = get(tier, first + i, metric, team);
+        }
+        return n;
+    }
+
+    /**
+     * Choisit le niveau le plus fin qui couvre toute la partie en au plus
+     * maxPoints points (ou le niveau le plus grossier à défaut).
+     */
+    public int selectTier(int maxPoints) {
+        for (int tier = 0; tier < TIERS; tier++) {
+            boolean coversAll = totalTicks <= (long) CAPACITY * getResolution(tier);
+            if (coversAll && size[tier] <= maxPoints) {
+                return tier;
+            }
+        }
+        return TIERS - 1;
+    }
+
+    /**
+     * Mémoire occupée par les séries (octets).
+     */
+    public long getMemoryBytes() {
+        return (long) TIERS * CAPACITY * stride * Integer.BYTES
+                + (long) TIERS * stride * (Long.BYTES + Integer.BYTES);
+    }
+}
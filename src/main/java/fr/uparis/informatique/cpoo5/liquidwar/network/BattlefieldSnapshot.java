@@ -0,0 +1,157 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.util.Arrays;
+import java.util.List;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GameState;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Photographie complète du champ de bataille à un tick : occupation de
+ * chaque cellule (équipe et santé), curseurs et effectifs.
+ *
+ * Contrairement à GameStateData (curseurs et effectifs seulement), elle
+ * suffit à reconstruire la partie chez un spectateur ou un joueur qui arrive
+ * en cours de partie. Transmise en delta par SnapshotEncoder.
+ *
+ * Les cellules sont rangées en deux plans (équipe + 1, 0 = vide ; santé
+ * bornée à 0..255), ce qui se compresse mieux qu'un entrelacement. Immuable
+ * une fois construite.
+ */
+public final class BattlefieldSnapshot {
+
+    /** Nombre de cellules de la carte */
+    public static final int CELLS = GameConfig.MAP_WIDTH * GameConfig.MAP_HEIGHT;
+
+    private final int tick;
+    private final int teams;
+    private final int[] cursorX;
+    private final int[] cursorY;
+    private final int[] fighterCounts;
+    private final byte[] cellTeam;
+    private final byte[] cellHealth;
+
+    BattlefieldSnapshot(int tick, int teams, int[] cursorX, int[] cursorY, int[] fighterCounts,
+            byte[] cellTeam, byte[] cellHealth) {
+        this.tick = tick;
+        this.teams = teams;
+        this.cursorX = cursorX;
+        this.cursorY = cursorY;
+        this.fighterCounts = fighterCounts;
+        this.cellTeam = cellTeam;
+        this.cellHealth = cellHealth;
+    }
+
+    /**
+     * Capture l'état de la simulation.
+     *
+     * À appeler depuis le thread de la simulation (ou sous son verrou).
+     *
+     * @param tick Tick de la simulation
+     */
+    public static BattlefieldSnapshot capture(int tick, List<Fighter> fighters, Cursor[] cursors,
+            int[] teamFighterCount, int teams) {
+        int[] cursorX = new int[teams];
+        int[] cursorY = new int[teams];
+        for (int team = 0; team < teams; team++) {
+            if (cursors[team] != null) {
+                cursorX[team] = cursors[team].x;
+                cursorY[team] = cursors[team].y;
+            }
+        }
+        byte[] cellTeam = new byte[CELLS];
+        byte[] cellHealth = new byte[CELLS];
+        for (Fighter f : fighters) {
+            int cell = f.y * GameConfig.MAP_WIDTH + f.x;
+            if (cell >= 0 && cell < CELLS) {
+                cellTeam[cell] = (byte) (f.team + 1);
+                cellHealth[cell] = (byte) Math.max(0, Math.min(255, f.health));
+            }
+        }
+        return new BattlefieldSnapshot(tick, teams, cursorX, cursorY, Arrays.copyOf(teamFighterCount, teams),
+                cellTeam, cellHealth);
+    }
+
+    /**
+     * Capture l'état partagé de la partie (voir capture ci-dessus).
+     */
+    public static BattlefieldSnapshot capture(int tick, GameState state) {
+        return capture(tick, state.getFighters(), state.getCursors(), state.getFighterCountsCopy(),
+                state.getActiveTeams());
+    }
+
+    /**
+     * Recrée les combattants (un par cellule occupée, dans l'ordre des
+     * cellules).
+     *
+     * @param out Liste à remplir (vidée au préalable)
+     */
+    public void toFighters(List<Fighter> out) {
+        out.clear();
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cellTeam[cell] != 0) {
+                Fighter f = new Fighter(cell % GameConfig.MAP_WIDTH, cell / GameConfig.MAP_WIDTH,
+                        cellTeam[cell] - 1);
+                f.health = cellHealth[cell] & 0xFF;
+                out.add(f);
+            }
+        }
+    }
+
+    /**
+     * Indique si deux snapshots décrivent le même champ de bataille (tick
+     * ignoré).
+     */
+    public boolean sameBattlefield(BattlefieldSnapshot other) {
+        return teams == other.teams
+                && Arrays.equals(cursorX, other.cursorX)
+                && Arrays.equals(cursorY, other.cursorY)
+                && Arrays.equals(fighterCounts, other.fighterCounts)
+                && Arrays.equals(cellTeam, other.cellTeam)
+                && Arrays.equals(cellHealth, other.cellHealth);
+    }
+
+    // ==================== ACCÈS (paquet : encodeur / décodeur) ====================
+
+    byte[] cellTeams() {
+        return cellTeam;
+    }
+
+    byte[] cellHealths() {
+        return cellHealth;
+    }
+
+    // ==================== ACCESSEURS ====================
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getTeams() {
+        return teams;
+    }
+
+    public int getCursorX(int team) {
+        return cursorX[team];
+    }
+
+    public int getCursorY(int team) {
+        return cursorY[team];
+    }
+
+    public int getFighterCount(int team) {
+        return fighterCounts[team];
+    }
+
+    /** Équipe présente sur une cellule, ou -1 si vide. */
+    public int getTeamAt(int x, int y) {
+        return cellTeam[y * GameConfig.MAP_WIDTH + x] - 1;
+    }
+
+    /** Santé du combattant d'une cellule (0 si vide). */
+    public int getHealthAt(int x, int y) {
+        return cellHealth[y * GameConfig.MAP_WIDTH + x] & 0xFF;
+    }
+}
@@ -0,0 +1,276 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.util.Arrays;
+
+/**
+ * Mesures d'une connexion : temps d'aller-retour (RTT), gigue, débit dans
+ * chaque sens et profondeur de la file d'envoi.
+ *
+ * Le RTT vient des PING numérotés ({@link NetworkProtocol#PING_INTERVAL_MS}) :
+ * le pair renvoie le numéro dans son PONG, l'instant d'envoi est gardé ici
+ * (horloge locale, pas besoin d'horloges synchronisées). La gigue est la
+ * variation d'un RTT au suivant, lissée comme dans RTP (RFC 3550).
+ *
+ * RTT et gigue sont aussi rangés dans des histogrammes à classes fixes
+ * ({@link #BUCKET_BOUNDS_MS}) : les percentiles en sont tirés sans garder
+ * les échantillons.
+ *
+ * Le serveur en tient une par client, le client une pour sa liaison au
+ * serveur. Thread-safe.
+ */
+public class ConnectionTelemetry {
+
+    /** Bornes supérieures (exclues) des classes des histogrammes, en ms ; la dernière classe est ouverte */
+    public static final int[] BUCKET_BOUNDS_MS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000 };
+
+    /** Au-delà de ce RTT (95e percentile), la connexion ralentit la partie */
+    public static final int LAGGING_RTT_MS = 150;
+
+    /** Au-delà de cette gigue, la connexion ralentit la partie */
+    public static final int LAGGING_JITTER_MS = 40;
+
+    // PING sans réponse après ce nombre d'envois suivants : perdus
+    private static final int MAX_PENDING_PINGS = 8;
+
+    // Fenêtre du calcul des débits
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    // PING en attente : numéro et instant d'envoi, rangés par numéro % taille
+    private final int[] pendingSeq = new int[MAX_PENDING_PINGS];
+    private final long[] pendingNanos = new long[MAX_PENDING_PINGS];
+    private int nextPing = 1;
+    private long pingsSent;
+    private long pongsReceived;
+
+    // RTT et gigue (ms)
+    private final long[] rttHistogram = new long[BUCKET_BOUNDS_MS.length + 1];
+    private final long[] jitterHistogram = new long[BUCKET_BOUNDS_MS.length + 1];
+    private double lastRttMs = -1;
+    private double minRttMs = Double.MAX_VALUE;
+    private double maxRttMs;
+    private double sumRttMs;
+    private double jitterMs;
+
+    // Débits : totaux et fenêtre glissante
+    private long bytesIn;
+    private long bytesOut;
+    private long messagesIn;
+    private long messagesOut;
+    private long windowStartNanos = System.nanoTime();
+    private final long[] windowStartTotals = new long[4];
+    private final double[] rates = new double[4];
+
+    // ==================== RTT ====================
+
+    /**
+     * Réserve le numéro du prochain PING et note son instant d'envoi.
+     *
+     * @return Numéro à placer dans le PING
+     */
+    public synchronized int nextPing(long nowNanos) {
+        int seq = nextPing++;
+        int slot = Math.floorMod(seq, MAX_PENDING_PINGS);
+        pendingSeq[slot] = seq;
+        pendingNanos[slot] = nowNanos;
+        pingsSent++;
+        return seq;
+    }
+
+    /**
+     * Enregistre le PONG d'un PING.
+     *
+     * @param seq Numéro renvoyé par le pair
+     * @return true si le PING était attendu (sinon ignoré : doublon, trop
+     *         ancien ou inconnu)
+     */
+    public synchronized boolean onPong(int seq, long nowNanos) {
+        int slot = Math.floorMod(seq, MAX_PENDING_PINGS);
+        if (seq <= 0 || pendingSeq[slot] != seq) {
+            return false;
+        }
+        pendingSeq[slot] = 0;
+        pongsReceived++;
+
+        double rtt = (nowNanos - pendingNanos[slot]) / 1e6;
+        if (lastRttMs >= 0) {
+            double delta = Math.abs(rtt - lastRttMs);
+            jitterMs += (delta - jitterMs) / 16;
+            jitterHistogram[bucket(delta)]++;
+        }
+        lastRttMs = rtt;
+        minRttMs = Math.min(minRttMs, rtt);
+        maxRttMs = Math.max(maxRttMs, rtt);
+        sumRttMs += rtt;
+        rttHistogram[bucket(rtt)]++;
+        return true;
+    }
+
+    private static int bucket(double ms) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (ms < BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    // ==================== DÉBIT ====================
+
+    /**
+     * Enregistre des octets ou des messages reçus.
+     */
+    public synchronized void recordReceived(int messages, int bytes) {
+        messagesIn += messages;
+        bytesIn += bytes;
+        roll(System.nanoTime());
+    }
+
+    /**
+     * Enregistre des octets ou des messages envoyés.
+     */
+    public synchronized void recordSent(int messages, int bytes) {
+        messagesOut += messages;
+        bytesOut += bytes;
+        roll(System.nanoTime());
+    }
+
+    /**
+     * Ferme la fenêtre de débit si elle a duré assez longtemps.
+     */
+    private void roll(long nowNanos) {
+        long elapsed = nowNanos - windowStartNanos;
+        if (elapsed < RATE_WINDOW_NANOS) {
+            return;
+        }
+        long[] totals = { bytesIn, bytesOut, messagesIn, messagesOut };
+        for (int i = 0; i < totals.length; i++) {
+            rates[i] = (totals[i] - windowStartTotals[i]) * 1e9 / elapsed;
+            windowStartTotals[i] = totals[i];
+        }
+        windowStartNanos = nowNanos;
+    }
+
+    // ==================== INSTANTANÉ ====================
+
+    /**
+     * Copie des mesures.
+     *
+     * @param playerId Joueur de la connexion (côté client : son propre ID)
+     * @param queuedFrames Trames dans la file d'envoi
+     * @param queuedBytes Octets dans la file d'envoi, -1 si inconnu
+     */
+    public synchronized Snapshot snapshot(int playerId, long nowNanos, int queuedFrames, int queuedBytes) {
+        roll(nowNanos);
+        return new Snapshot(this, playerId, queuedFrames, queuedBytes);
+    }
+
+    /**
+     * Percentile tiré de l'histogramme : borne supérieure de la classe qui
+     * l'atteint (le maximum observé pour la dernière classe).
+     */
+    private double percentile(long[] histogram, double fraction, double max) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            cumulated += histogram[i];
+            if (cumulated >= target) {
+                return Math.min(BUCKET_BOUNDS_MS[i], max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Mesures d'une connexion à un instant donné.
+     */
+    public static final class Snapshot {
+        public final int playerId;
+
+        /** Dernier RTT (ms), -1 avant le premier PONG */
+        public final double rttMs;
+        public final double minRttMs;
+        public final double avgRttMs;
+        public final double maxRttMs;
+        /** Médiane et 95e percentile du RTT (ms, classe de l'histogramme) */
+        public final double p50RttMs;
+        public final double p95RttMs;
+        /** Gigue lissée (ms) */
+        public final double jitterMs;
+        /** Effectifs par classe de {@link ConnectionTelemetry#BUCKET_BOUNDS_MS} */
+        public final long[] rttHistogram;
+        public final long[] jitterHistogram;
+
+        public final long pingsSent;
+        public final long pongsReceived;
+
+        /** Débits sur la dernière fenêtre d'une seconde */
+        public final double bytesInPerSecond;
+        public final double bytesOutPerSecond;
+        public final double messagesInPerSecond;
+        public final double messagesOutPerSecond;
+
+        /** File d'envoi : trames et octets (-1 si inconnu) */
+        public final int sendQueueFrames;
+        public final int sendQueueBytes;
+
+        private Snapshot(ConnectionTelemetry t, int playerId, int queuedFrames, int queuedBytes) {
+            this.playerId = playerId;
+            boolean measured = t.pongsReceived > 0;
+            rttMs = t.lastRttMs;
+            minRttMs = measured ? t.minRttMs : -1;
+            avgRttMs = measured ? t.sumRttMs / t.pongsReceived : -1;
+            maxRttMs = measured ? t.maxRttMs : -1;
+            p50RttMs = t.percentile(t.rttHistogram, 0.5, t.maxRttMs);
+            p95RttMs = t.percentile(t.rttHistogram, 0.95, t.maxRttMs);
+            jitterMs = t.jitterMs;
+            rttHistogram = t.rttHistogram.clone();
+            jitterHistogram = t.jitterHistogram.clone();
+            pingsSent = t.pingsSent;
+            pongsReceived = t.pongsReceived;
+            bytesInPerSecond = t.rates[0];
+            bytesOutPerSecond = t.rates[1];
+            messagesInPerSecond = t.rates[2];
+            messagesOutPerSecond = t.rates[3];
+            sendQueueFrames = queuedFrames;
+            sendQueueBytes = queuedBytes;
+        }
+
+        /** Indique si au moins un RTT a été mesuré */
+        public boolean hasRtt() {
+            return pongsReceived > 0;
+        }
+
+        /**
+         * Indique si cette connexion ralentit la partie (RTT ou gigue
+         * élevés).
+         */
+        public boolean isLagging() {
+            return hasRtt() && (p95RttMs > LAGGING_RTT_MS || jitterMs > LAGGING_JITTER_MS);
+        }
+
+        /**
+         * Résumé sur une ligne pour l'affichage.
+         */
+        public String describe() {
+            String rtt = hasRtt() ? String.format("%.0f ms ±%.0f", rttMs, jitterMs) : "-- ms";
+            return String.format("%s · ↓%.1f ↑%.1f Ko/s · file %d", rtt, bytesInPerSecond / 1000,
+                    bytesOutPerSecond / 1000, sendQueueFrames);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("joueur %d : RTT %.1f ms (min %.1f, p50 %.0f, p95 %.0f, max %.1f), gigue %.1f ms, "
+                    + "%d/%d PONG, ↓%.0f o/s %.0f msg/s, ↑%.0f o/s %.0f msg/s, file %d trames, RTT %s",
+                    playerId, rttMs, minRttMs, p50RttMs, p95RttMs, maxRttMs, jitterMs, pongsReceived, pingsSent,
+                    bytesInPerSecond, messagesInPerSecond, bytesOutPerSecond, messagesOutPerSecond,
+                    sendQueueFrames, Arrays.toString(rttHistogram));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Détection des désynchronisations entre pairs en lockstep.
+ *
+ * Chaque pair simule seul : rien ne garantit que deux champs de bataille
+ * restent identiques (bug de déterminisme, entrée appliquée au mauvais
+ * tick...). Après chaque tick, le pair enregistre l'empreinte de son état
+ * (DirtyCellTracker#getStateHash(), tenue à jour incrémentalement) ; toutes
+ * les {@link NetworkProtocol#STATE_HASH_INTERVAL_TICKS}, les empreintes des
+ * ticks écoulés partent dans un GAME_STATE. Les empreintes reçues sont
+ * comparées tick par tick aux empreintes locales : la première différence
+ * donne un {@link DesyncReport} qui désigne le premier tick divergent, pas
+ * seulement le paquet qui le contient.
+ *
+ * Le serveur compare ses empreintes à celles de chaque client, chaque client
+ * aux seules empreintes du serveur : deux clients qui divergent entre eux
+ * divergent forcément du serveur.
+ *
+ * Les empreintes locales et distantes sont rangées dans des tampons
+ * circulaires de {@link #HISTORY} ticks (un pair peut être en avance sur
+ * l'autre). recordLocal() est appelé depuis la boucle de jeu, receive()
+ * depuis le thread réseau : les méthodes sont synchronisées.
+ */
+public class DesyncDetector {
+
+    /** Ticks d'empreintes conservés, par pair */
+    static final int HISTORY = 1024;
+
+    /**
+     * Reçoit les empreintes locales à envoyer aux autres pairs.
+     */
+    public interface HashSink {
+        void onLocalHashes(long firstTick, long[] hashes);
+    }
+
+    /**
+     * Notifié à la première divergence avec chaque pair (hors verrou).
+     */
+    public interface DesyncListener {
+        void onDesync(DesyncReport report);
+    }
+
+    /**
+     * Première divergence constatée avec un pair.
+     */
+    public static final class DesyncReport {
+        /** Équipe du pair */
+        public final int team;
+        /** Premier tick dont les empreintes diffèrent */
+        public final long tick;
+        /** Dernier tick comparé identique (0 si aucun) */
+        public final long lastAgreedTick;
+        public final long localHash;
+        public final long remoteHash;
+
+        DesyncReport(int team, long tick, long lastAgreedTick, long localHash, long remoteHash) {
+            this.team = team;
+            this.tick = tick;
+            this.lastAgreedTick = lastAgreedTick;
+            this.localHash = localHash;
+            this.remoteHash = remoteHash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("équipe %d divergente au tick %d (identique jusqu'au tick %d) : %016x ≠ %016x",
+                    team, tick, lastAgreedTick, localHash, remoteHash);
+        }
+    }
+
+    private final int teams;
+    private final int localTeam;
+    private final int interval;
+
+    // Empreintes par tick : tick stocké (-1 = vide) et valeur
+    private final long[] localTick = new long[HISTORY];
+    private final long[] localHash = new long[HISTORY];
+    private final long[][] remoteTick;
+    private final long[][] remoteHash;
+
+    // Comparaisons par pair
+    private final long[] lastAgreed;
+    private final DesyncReport[] reports;
+    private long comparedTicks;
+
+    // Paquet d'empreintes locales en cours (ticks consécutifs)
+    private final long[] batch;
+    private int batchSize;
+    private long batchStart;
+
+    private HashSink hashSink;
+    private DesyncListener listener;
+
+    /**
+     * @param teams     Nombre d'équipes (une par pair)
+     * @param localTeam Équipe de ce pair
+     * @param interval  Nombre d'empreintes par envoi
+     */
+    public DesyncDetector(int teams, int localTeam, int interval) {
+        if (interval < 1 || interval > HISTORY / 2) {
+            throw new IllegalArgumentException("Intervalle d'envoi invalide : " + interval);
+        }
+        this.teams = teams;
+        this.localTeam = localTeam;
+        this.interval = interval;
+        this.remoteTick = new long[teams][HISTORY];
+        this.remoteHash = new long[teams][HISTORY];
+        this.lastAgreed = new long[teams];
+        this.reports = new DesyncReport[teams];
+        this.batch = new long[interval];
+        Arrays.fill(localTick, -1);
+        for (long[] ticks : remoteTick) {
+            Arrays.fill(ticks, -1);
+        }
+    }
+
+    /**
+     * Définit le destinataire des empreintes locales (envoi réseau).
+     */
+    public synchronized void setHashSink(HashSink hashSink) {
+        this.hashSink = hashSink;
+    }
+
+    /**
+     * Définit le listener des divergences.
+     */
+    public synchronized void setDesyncListener(DesyncListener listener) {
+        this.listener = listener;
+    }
+
+    // ==================== EMPREINTES ====================
+
+    /**
+     * Enregistre l'empreinte de l'état local après un tick, la compare à
+     * celles déjà reçues pour ce tick et transmet le paquet à l'HashSink
+     * quand il est complet.
+     *
+     * @param tick Tick lockstep qui vient d'être simulé
+     * @param hash Empreinte de l'état après ce tick
+     */
+    public void recordLocal(long tick, long hash) {
+        long[] toSend = null;
+        long firstTick = 0;
+        HashSink sink;
+        List<DesyncReport> found = new ArrayList<>(0);
+        synchronized (this) {
+            int slot = (int) (tick % HISTORY);
+            localTick[slot] = tick;
+            localHash[slot] = hash;
+            for (int team = 0; team < teams; team++) {
+                compare(team, tick, found);
+            }
+
+            if (batchSize > 0 && tick != batchStart + batchSize) {
+                batchSize = 0; // Ticks non consécutifs : paquet abandonné
+            }
+            if (batchSize == 0) {
+                batchStart = tick;
+            }
+            batch[batchSize++] = hash;
+            if (batchSize == interval) {
+                toSend = batch.clone();
+                firstTick = batchStart;
+                batchSize = 0;
+            }
+            sink = hashSink;
+        }
+        notifyDesyncs(found);
+        // Envoi hors du verrou, comme les entrées de LockstepSession
+        if (toSend != null && sink != null) {
+            sink.onLocalHashes(firstTick, toSend);
+        }
+    }
+
+    /**
+     * Enregistre les empreintes d'un autre pair et les compare aux empreintes
+     * locales déjà connues.
+     *
+     * @param team      Équipe du pair
+     * @param firstTick Tick de la première empreinte
+     * @param hashes    Empreintes des ticks consécutifs
+     */
+    public void receive(int team, long firstTick, long[] hashes) {
+        if (team < 0 || team >= teams || team == localTeam) {
+            GameLogger.getInstance().warn("Désynchronisation : empreintes ignorées pour l'équipe %d", team);
+            return;
+        }
+        List<DesyncReport> found = new ArrayList<>(0);
+        synchronized (this) {
+            for (int i = 0; i < hashes.length; i++) {
+                long tick = firstTick + i;
+                if (tick <= 0) {
+                    continue;
+                }
+                int slot = (int) (tick % HISTORY);
+                remoteTick[team][slot] = tick;
+                remoteHash[team][slot] = hashes[i];
+                compare(team, tick, found);
+            }
+        }
+        notifyDesyncs(found);
+    }
+
+    /**
+     * Compare les empreintes d'un tick si les deux sont connues. Les ticks
+     * deviennent comparables dans l'ordre (empreintes locales et distantes
+     * arrivent chacune dans l'ordre) : la première différence est bien celle
+     * du premier tick divergent.
+     */
+    private void compare(int team, long tick, List<DesyncReport> found) {
+        if (team == localTeam || reports[team] != null) {
+            return;
+        }
+        int slot = (int) (tick % HISTORY);
+        if (localTick[slot] != tick || remoteTick[team][slot] != tick) {
+            return;
+        }
+        if (localHash[slot] == remoteHash[team][slot]) {
+            lastAgreed[team] = Math.max(lastAgreed[team], tick);
+            comparedTicks++;
+            return;
+        }
+        DesyncReport report = new DesyncReport(team, tick, lastAgreed[team], localHash[slot],
+                remoteHash[team][slot]);
+        reports[team] = report;
+        found.add(report);
+    }
+
+    private void notifyDesyncs(List<DesyncReport> found) {
+        if (found.isEmpty()) {
+            return;
+        }
+        DesyncListener current;
+        synchronized (this) {
+            current = listener;
+        }
+        for (DesyncReport report : found) {
+            GameLogger.getInstance().error("❌ Désynchronisation : %s", report);
+            if (current != null) {
+                current.onDesync(report);
+            }
+        }
+    }
+
+    // ==================== ACCESSEURS ====================
+
+    /**
+     * Indique si une divergence a été constatée avec au moins un pair.
+     */
+    public synchronized boolean isDesynced() {
+        for (DesyncReport report : reports) {
+            if (report != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Première divergence avec chaque pair concerné, par équipe croissante.
+     */
+    public synchronized List<DesyncReport> getReports() {
+        List<DesyncReport> list = new ArrayList<>();
+        for (DesyncReport report : reports) {
+            if (report != null) {
+                list.add(report);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Dernier tick comparé identique avec un pair (0 si aucun).
+     */
+    public synchronized long getLastAgreedTick(int team) {
+        return lastAgreed[team];
+    }
+
+    /** Nombre de ticks comparés identiques, tous pairs confondus. */
+    public synchronized long getComparedTicks() {
+        return comparedTicks;
+    }
+}
@@ -0,0 +1,202 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regroupe les entrées que le serveur relaie aux clients.
+ *
+ * Relayer chaque CURSOR_MOVE ou TICK_INPUT dès sa réception coûte une trame
+ * par entrée et par client : une souris en produit des dizaines par image.
+ * Ici les entrées s'accumulent pendant un tick logique
+ * ({@link NetworkProtocol#INPUT_BATCH_INTERVAL_MS}) puis partent en une
+ * seule trame INPUT_BATCH par client :
+ * <ul>
+ *   <li>les déplacements de curseur sont fusionnés par joueur (seul le
+ *   dernier compte)</li>
+ *   <li>les entrées de tick (lockstep) sont toutes gardées, dans l'ordre</li>
+ * </ul>
+ *
+ * Les compteurs comparent ce qui part avec ce qu'aurait coûté le relais
+ * message par message.
+ */
+public class InputBatcher {
+
+    /** Une entrée en attente */
+    private static final class Pending {
+        final int playerId;
+        long tick;
+        int x;
+        int y;
+
+        Pending(int playerId, long tick, int x, int y) {
+            this.playerId = playerId;
+            this.tick = tick;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private final long intervalNanos;
+    private final List<Pending> pending = new ArrayList<>();
+    private long firstPendingNanos;
+
+    // Compteurs
+    private long inputs;
+    private long coalesced;
+    private long relayMessages;
+    private long relayBytes;
+    private long batchFrames;
+    private long batchBytes;
+
+    /**
+     * @param intervalMs Attente maximale d'une entrée avant envoi
+     */
+    public InputBatcher(int intervalMs) {
+        this.intervalNanos = intervalMs * 1_000_000L;
+    }
+
+    /**
+     * Ajoute un déplacement de curseur ; remplace celui du même joueur
+     * encore en attente.
+     *
+     * @param frameBytes Taille de la trame CURSOR_MOVE d'origine
+     * @param recipients Clients qui l'auraient reçue sans regroupement
+     * @return true si le lot était vide (le prochain envoi est à planifier)
+     */
+    public synchronized boolean addCursor(int playerId, int x, int y, int frameBytes, int recipients) {
+        count(frameBytes, recipients);
+        for (Pending entry : pending) {
+            if (entry.playerId == playerId && entry.tick == NetworkMessage.InputBatch.CURSOR) {
+                entry.x = x;
+                entry.y = y;
+                coalesced++;
+                return false;
+            }
+        }
+        return add(new Pending(playerId, NetworkMessage.InputBatch.CURSOR, x, y));
+    }
+
+    /**
+     * Ajoute l'entrée d'un joueur pour un tick.
+     *
+     * @param frameBytes Taille de la trame TICK_INPUT relayée
+     * @param recipients Clients qui l'auraient reçue sans regroupement
+     * @return true si le lot était vide (le prochain envoi est à planifier)
+     */
+    public synchronized boolean addTickInput(int playerId, NetworkMessage.TickInput input, int frameBytes,
+            int recipients) {
+        count(frameBytes, recipients);
+        return add(new Pending(playerId, input.tick, input.x, input.y));
+    }
+
+    private void count(int frameBytes, int recipients) {
+        inputs++;
+        relayMessages += recipients;
+        relayBytes += (long) frameBytes * recipients;
+    }
+
+    private boolean add(Pending entry) {
+        boolean first = pending.isEmpty();
+        if (first) {
+            firstPendingNanos = System.nanoTime();
+        }
+        pending.add(entry);
+        return first;
+    }
+
+    /**
+     * Millisecondes avant le prochain envoi (0 s'il est dû), ou -1 si rien
+     * n'est en attente.
+     */
+    public synchronized long millisUntilFlush(long nowNanos) {
+        if (pending.isEmpty()) {
+            return -1;
+        }
+        long remaining = firstPendingNanos + intervalNanos - nowNanos;
+        return remaining <= 0 ? 0 : (remaining + 999_999) / 1_000_000;
+    }
+
+    /**
+     * Retire les entrées en attente.
+     *
+     * @return Le lot, ou null s'il est vide
+     */
+    public synchronized NetworkMessage.InputBatch drain() {
+        int size = pending.size();
+        if (size == 0) {
+            return null;
+        }
+        NetworkMessage.InputBatch batch = new NetworkMessage.InputBatch(new int[size], new long[size],
+                new int[size], new int[size]);
+        for (int i = 0; i < size; i++) {
+            Pending entry = pending.get(i);
+            batch.playerIds[i] = entry.playerId;
+            batch.ticks[i] = entry.tick;
+            batch.x[i] = entry.x;
+            batch.y[i] = entry.y;
+        }
+        pending.clear();
+        return batch;
+    }
+
+    /**
+     * Compte une trame INPUT_BATCH mise en file pour un client.
+     */
+    public synchronized void recordFrame(int frameBytes) {
+        batchFrames++;
+        batchBytes += frameBytes;
+    }
+
+    /**
+     * Compteurs depuis la création.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(inputs, coalesced, relayMessages, relayBytes, batchFrames, batchBytes);
+    }
+
+    /**
+     * Compteurs du regroupement (copie immuable).
+     */
+    public static final class Stats {
+        /** Entrées reçues */
+        public final long inputs;
+        /** Déplacements de curseur remplacés avant l'envoi */
+        public final long coalesced;
+        /** Trames qu'aurait envoyées le relais message par message */
+        public final long relayMessages;
+        /** Octets qu'aurait envoyés le relais message par message */
+        public final long relayBytes;
+        /** Trames INPUT_BATCH envoyées */
+        public final long batchFrames;
+        /** Octets des trames INPUT_BATCH */
+        public final long batchBytes;
+
+        Stats(long inputs, long coalesced, long relayMessages, long relayBytes, long batchFrames,
+                long batchBytes) {
+            this.inputs = inputs;
+            this.coalesced = coalesced;
+            this.relayMessages = relayMessages;
+            this.relayBytes = relayBytes;
+            this.batchFrames = batchFrames;
+            this.batchBytes = batchBytes;
+        }
+
+        /** Trames économisées */
+        public long getMessagesSaved() {
+            return relayMessages - batchFrames;
+        }
+
+        /** Octets économisés */
+        public long getBytesSaved() {
+            return relayBytes - batchBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d entrées (%d fusionnées) : %d trames / %d octets au lieu de %d / %d "
+                    + "(%d trames, %d octets économisés)", inputs, coalesced, batchFrames, batchBytes,
+                    relayMessages, relayBytes, getMessagesSaved(), getBytesSaved());
+        }
+    }
+}
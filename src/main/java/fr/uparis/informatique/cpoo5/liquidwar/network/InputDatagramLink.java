@@ -0,0 +1,323 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Un sens du flux d'entrées sur UDP, avec redondance (un objet par pair).
+ *
+ * Sur TCP, un paquet perdu bloque tout ce qui suit jusqu'à sa retransmission
+ * (blocage en tête de file) : le curseur se fige un instant. Ici chaque
+ * paquet répète toutes les entrées pas encore acquittées (au plus
+ * {@link #REDUNDANCY}) : une perte isolée est couverte par le paquet suivant,
+ * sans attendre de retransmission.
+ *
+ * <h2>Numérotation</h2>
+ * <ul>
+ *   <li>chaque paquet a un numéro ; chaque paquet porte aussi l'acquittement
+ *   du plus grand numéro reçu du pair</li>
+ *   <li>chaque entrée a un numéro ; un paquet porte une suite contiguë
+ *   d'entrées à partir de la plus ancienne non acquittée</li>
+ *   <li>une entrée est acquittée dès qu'un paquet qui la contenait l'est :
+ *   tous les paquets envoyés depuis son premier envoi la contiennent</li>
+ * </ul>
+ *
+ * Le récepteur ne livre que les entrées nouvelles, dans l'ordre : les
+ * doublons (redondance) et les paquets en retard (réordonnés) sont ignorés.
+ *
+ * <h2>Format</h2>
+ * <pre>
+ * 'L' 'U' version, type (HELLO ou DATA)
+ * HELLO : zigzag playerId, int jeton (reçu par TCP dans UDP_OFFER)
+ * DATA  : varint numéro, varint acquittement, varlong première entrée,
+ *         varint n, n entrées (zigzag joueur, varlong tick + 1, zigzag x, y)
+ * </pre>
+ */
+public class InputDatagramLink {
+
+    /** Entrées au plus par paquet (les plus anciennes non acquittées) */
+    public static final int REDUNDANCY = 32;
+
+    /** Taille maximale d'un paquet (tient dans une trame Ethernet) */
+    public static final int MAX_PACKET_SIZE = 1200;
+
+    static final byte HELLO = 0;
+    static final byte DATA = 1;
+
+    /** Une entrée en attente d'acquittement */
+    private static final class Entry {
+        final long seq;
+        final int playerId;
+        final long tick;
+        final int x;
+        final int y;
+        final long queuedNanos;
+        int firstPacket;
+
+        Entry(long seq, int playerId, long tick, int x, int y, long queuedNanos) {
+            this.seq = seq;
+            this.playerId = playerId;
+            this.tick = tick;
+            this.x = x;
+            this.y = y;
+            this.queuedNanos = queuedNanos;
+        }
+    }
+
+    // Envoi
+    private final ArrayDeque<Entry> unacked = new ArrayDeque<>();
+    private long nextEntrySeq = 1;
+    private int nextPacket = 1;
+    private int peerAck;
+
+    // Réception
+    private int highestReceived;
+    private boolean ackPending;
+    private long nextExpectedEntry = 1;
+
+    // Compteurs
+    private long packetsSent;
+    private long packetsReceived;
+    private long entriesResent;
+    private long duplicatesIgnored;
+
+    /**
+     * Met une entrée en attente d'envoi.
+     *
+     * @param tick Tick de l'entrée, ou InputBatch.CURSOR
+     */
+    public synchronized void queue(int playerId, long tick, int x, int y) {
+        unacked.addLast(new Entry(nextEntrySeq++, playerId, tick, x, y, System.nanoTime()));
+    }
+
+    /**
+     * Indique s'il y a des entrées non acquittées ou un acquittement à
+     * envoyer.
+     */
+    public synchronized boolean hasOutgoing() {
+        return ackPending || !unacked.isEmpty();
+    }
+
+    /**
+     * Indique si une entrée attend son acquittement depuis plus de timeoutMs
+     * (pair injoignable en UDP).
+     */
+    public synchronized boolean isStale(long nowNanos, long timeoutMs) {
+        Entry oldest = unacked.peekFirst();
+        return oldest != null && nowNanos - oldest.queuedNanos > timeoutMs * 1_000_000L;
+    }
+
+    /**
+     * Retire les entrées non acquittées (repli sur TCP).
+     *
+     * @return Les entrées, ou null s'il n'y en a aucune
+     */
+    public synchronized NetworkMessage.InputBatch drainUnacked() {
+        int size = unacked.size();
+        if (size == 0) {
+            return null;
+        }
+        NetworkMessage.InputBatch batch = new NetworkMessage.InputBatch(new int[size], new long[size],
+                new int[size], new int[size]);
+        int i = 0;
+        for (Entry entry : unacked) {
+            batch.playerIds[i] = entry.playerId;
+            batch.ticks[i] = entry.tick;
+            batch.x[i] = entry.x;
+            batch.y[i] = entry.y;
+            i++;
+        }
+        unacked.clear();
+        return batch;
+    }
+
+    // ==================== ENVOI ====================
+
+    /**
+     * Écrit le prochain paquet DATA : acquittement et entrées non acquittées.
+     */
+    public synchronized void writePacket(ByteBuffer out) {
+        int packet = nextPacket++;
+        writeHeader(out, DATA);
+        WireCodec.putVarInt(out, packet);
+        WireCodec.putVarInt(out, highestReceived);
+        ackPending = false;
+
+        Entry first = unacked.peekFirst();
+        WireCodec.putVarLong(out, first != null ? first.seq : nextEntrySeq);
+        int count = Math.min(unacked.size(), REDUNDANCY);
+        WireCodec.putVarInt(out, count);
+        int written = 0;
+        for (Entry entry : unacked) {
+            if (written == count) {
+                break;
+            }
+            WireCodec.putVarInt(out, WireCodec.zigzag(entry.playerId));
+            WireCodec.putVarLong(out, entry.tick + 1);
+            WireCodec.putVarInt(out, WireCodec.zigzag(entry.x));
+            WireCodec.putVarInt(out, WireCodec.zigzag(entry.y));
+            if (entry.firstPacket == 0) {
+                entry.firstPacket = packet;
+            } else {
+                entriesResent++;
+            }
+            written++;
+        }
+        packetsSent++;
+    }
+
+    // ==================== RÉCEPTION ====================
+
+    /**
+     * Lit un paquet DATA (en-tête déjà lu par {@link #readHeader}).
+     *
+     * @return Les entrées nouvelles, dans l'ordre (éventuellement aucune)
+     * @throws ProtocolException Si le paquet est invalide
+     */
+    public synchronized NetworkMessage.InputBatch readPacket(ByteBuffer in) throws ProtocolException {
+        try {
+            int packet = WireCodec.getVarInt(in);
+            int ack = WireCodec.getVarInt(in);
+            long firstEntry = WireCodec.getVarLong(in);
+            int count = WireCodec.getVarInt(in);
+            if (packet <= 0 || ack < 0 || ack >= nextPacket || firstEntry <= 0
+                    || count < 0 || count > REDUNDANCY || count > in.remaining() / 4) {
+                throw new ProtocolException("Paquet d'entrées invalide");
+            }
+            packetsReceived++;
+            if (packet > highestReceived) {
+                highestReceived = packet;
+            }
+            // Acquitter les paquets qui portent des entrées (pas les
+            // acquittements seuls : ils se répondraient sans fin)
+            ackPending |= count > 0;
+            acknowledge(ack);
+
+            NetworkMessage.InputBatch batch = new NetworkMessage.InputBatch(new int[count], new long[count],
+                    new int[count], new int[count]);
+            int fresh = 0;
+            for (int i = 0; i < count; i++) {
+                int playerId = WireCodec.unzigzag(WireCodec.getVarInt(in));
+                long tick = WireCodec.getVarLong(in) - 1;
+                int x = WireCodec.unzigzag(WireCodec.getVarInt(in));
+                int y = WireCodec.unzigzag(WireCodec.getVarInt(in));
+                long seq = firstEntry + i;
+                if (seq < nextExpectedEntry) {
+                    duplicatesIgnored++;
+                } else if (seq == nextExpectedEntry) {
+                    batch.playerIds[fresh] = playerId;
+                    batch.ticks[fresh] = tick;
+                    batch.x[fresh] = x;
+                    batch.y[fresh] = y;
+                    fresh++;
+                    nextExpectedEntry++;
+                }
+                // seq > attendu : impossible (suite contiguë depuis la plus
+                // ancienne non acquittée), ignoré par prudence
+            }
+            if (in.hasRemaining()) {
+                throw new ProtocolException("Octets en trop dans le paquet d'entrées");
+            }
+            if (fresh < count) {
+                batch = new NetworkMessage.InputBatch(Arrays.copyOf(batch.playerIds, fresh),
+                        Arrays.copyOf(batch.ticks, fresh), Arrays.copyOf(batch.x, fresh),
+                        Arrays.copyOf(batch.y, fresh));
+            }
+            return batch;
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Paquet d'entrées tronqué");
+        }
+    }
+
+    /**
+     * Le pair a reçu le paquet ack : toutes les entrées envoyées au plus tard
+     * dans ce paquet sont arrivées.
+     */
+    private void acknowledge(int ack) {
+        if (ack <= peerAck) {
+            return;
+        }
+        peerAck = ack;
+        while (!unacked.isEmpty()) {
+            int firstPacket = unacked.peekFirst().firstPacket;
+            if (firstPacket == 0 || firstPacket > ack) {
+                break;
+            }
+            unacked.pollFirst();
+        }
+    }
+
+    // ==================== EN-TÊTES ====================
+
+    static void writeHeader(ByteBuffer out, byte type) {
+        out.put((byte) 'L').put((byte) 'U').put(WireCodec.VERSION).put(type);
+    }
+
+    /**
+     * Lit l'en-tête d'un paquet.
+     *
+     * @return HELLO ou DATA
+     * @throws ProtocolException Si ce n'est pas un paquet d'entrées de cette
+     *                           version
+     */
+    static byte readHeader(ByteBuffer in) throws ProtocolException {
+        if (in.remaining() < 4 || in.get() != 'L' || in.get() != 'U' || in.get() != WireCodec.VERSION) {
+            throw new ProtocolException("Paquet UDP inconnu");
+        }
+        byte type = in.get();
+        if (type != HELLO && type != DATA) {
+            throw new ProtocolException("Type de paquet UDP inconnu : " + type);
+        }
+        return type;
+    }
+
+    /**
+     * Écrit le paquet HELLO d'un client (association adresse UDP -> joueur).
+     */
+    static void writeHello(ByteBuffer out, int playerId, int token) {
+        writeHeader(out, HELLO);
+        WireCodec.putVarInt(out, WireCodec.zigzag(playerId));
+        out.putInt(token);
+    }
+
+    /**
+     * Lit un paquet HELLO (en-tête déjà lu).
+     *
+     * @return { playerId, jeton }
+     */
+    static int[] readHello(ByteBuffer in) throws ProtocolException {
+        try {
+            return new int[] { WireCodec.unzigzag(WireCodec.getVarInt(in)), in.getInt() };
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Paquet HELLO tronqué");
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    public synchronized long getPacketsSent() {
+        return packetsSent;
+    }
+
+    public synchronized long getPacketsReceived() {
+        return packetsReceived;
+    }
+
+    /** Entrées répétées dans un paquet suivant (redondance) */
+    public synchronized long getEntriesResent() {
+        return entriesResent;
+    }
+
+    /** Entrées reçues en double et ignorées */
+    public synchronized long getDuplicatesIgnored() {
+        return duplicatesIgnored;
+    }
+
+    /** Entrées en attente d'acquittement */
+    public synchronized int getUnackedCount() {
+        return unacked.size();
+    }
+}
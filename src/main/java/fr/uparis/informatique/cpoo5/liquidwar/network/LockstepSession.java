@@ -0,0 +1,481 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.util.Arrays;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Session de lockstep déterministe pour une partie réseau.
+ *
+ * Les pairs n'échangent que la position du curseur de leur équipe, une fois
+ * par tick, étiquetée par le numéro de tick auquel elle s'applique. Tous les
+ * pairs partent du même état (même carte, même graine de placement) et
+ * exécutent la même simulation séquentielle : appliquer les mêmes entrées aux
+ * mêmes ticks suffit à obtenir le même champ de bataille partout.
+ *
+ * Délai d'entrée : l'entrée locale échantillonnée avant le tick T s'applique
+ * au tick T + délai. Tant que la latence reste inférieure à délai × durée d'un
+ * tick, les entrées distantes arrivent avant d'être nécessaires et la
+ * simulation n'attend jamais. Sinon le tick est retardé (attente comptée dans
+ * getStalls()) jusqu'à réception. Les ticks 1..délai n'ont pas d'entrée : les
+ * curseurs restent à leur position de départ.
+ *
+ * Les entrées sont rangées dans un tampon circulaire par équipe (WINDOW ticks,
+ * aucune allocation par tick). Un pair ne peut pas avoir plus de
+ * 2 × délai + 2 ticks d'avance sur un autre, d'où le délai maximal.
+ *
+ * Rollback (fenêtre de K ticks, 0 = lockstep pur) : au lieu d'attendre une
+ * entrée distante, le tick est simulé avec une entrée prédite (le curseur du
+ * pair ne bouge pas), tant que le tick reste à moins de K ticks du dernier
+ * tick dont toutes les entrées sont connues (getConfirmedTick()). Quand
+ * l'entrée réelle arrive et diffère de la prédiction, takeRollbackTick()
+ * donne le premier tick faux : la boucle de jeu restaure l'état du tick
+ * précédent (SnapshotRing), appelle rewindTo() puis re-simule jusqu'au tick
+ * courant. Le délai d'entrée peut alors être plus court que la latence.
+ *
+ * Après chaque tick, l'empreinte de l'état est confiée à la session
+ * (recordStateHash()), qui la transmet au {@link DesyncDetector} une fois le
+ * tick définitif (toutes ses entrées connues, aucune correction en attente).
+ *
+ * receiveInput() est appelé depuis le thread réseau, le reste depuis la
+ * boucle de jeu : les méthodes sont synchronisées.
+ */
+public class LockstepSession {
+
+    /** Taille du tampon d'entrées par équipe (ticks) */
+    static final int WINDOW = 256;
+
+    /** Délai d'entrée maximal (ticks), voir la borne d'avance ci-dessus */
+    public static final int MAX_INPUT_DELAY = (WINDOW - 4) / 2;
+
+    /**
+     * Fenêtre de rollback maximale (ticks). Avec le rollback, un pair peut
+     * avoir jusqu'à 2 × (délai + fenêtre) + 2 ticks d'avance : délai +
+     * fenêtre ne doit pas dépasser MAX_INPUT_DELAY.
+     */
+    public static final int MAX_ROLLBACK_WINDOW = 64;
+
+    /**
+     * Reçoit les entrées locales à envoyer aux autres pairs.
+     */
+    public interface InputSink {
+        void onLocalInput(NetworkMessage.TickInput input);
+    }
+
+    private final int teams;
+    private final int localTeam;
+    private final int inputDelay;
+    private final int rollbackWindow;
+
+    // Tampons circulaires : tick de l'entrée stockée (-1 = vide) et position
+    private final long[][] inputTick;
+    private final int[][] inputX;
+    private final int[][] inputY;
+
+    // Rollback : position appliquée à chaque tick simulé et prédiction ou non
+    private final long[][] appliedTick;
+    private final int[][] appliedX;
+    private final int[][] appliedY;
+    private final boolean[][] predicted;
+
+    // Dernier tick simulé
+    private long currentTick;
+    // Prochain tick pour lequel l'entrée locale sera produite
+    private long nextLocalTick;
+    // Dernier tick dont les entrées de toutes les équipes (et de tous les
+    // ticks précédents) sont connues
+    private long confirmedTick;
+    // Premier tick simulé avec une prédiction fausse (-1 = aucun)
+    private long rollbackTick = -1;
+
+    // Empreintes des ticks simulés, transmises au détecteur une fois définitives
+    private final long[] hashTick = new long[WINDOW];
+    private final long[] hashValue = new long[WINDOW];
+    private long lastHashedTick;
+
+    private InputSink inputSink;
+    private long stalls;
+    private long predictedTicks;
+    private long rollbacks;
+
+    private final DesyncDetector desyncDetector;
+
+    /**
+     * @param teams      Nombre d'équipes (une par pair)
+     * @param localTeam  Équipe contrôlée par ce pair
+     * @param inputDelay Délai d'entrée en ticks (0..MAX_INPUT_DELAY)
+     */
+    public LockstepSession(int teams, int localTeam, int inputDelay) {
+        this(teams, localTeam, inputDelay, 0);
+    }
+
+    /**
+     * @param teams          Nombre d'équipes (une par pair)
+     * @param localTeam      Équipe contrôlée par ce pair
+     * @param inputDelay     Délai d'entrée en ticks
+     * @param rollbackWindow Ticks simulables avec des entrées prédites
+     *                       (0..MAX_ROLLBACK_WINDOW, 0 = lockstep pur) ;
+     *                       délai + fenêtre ≤ MAX_INPUT_DELAY
+     */
+    public LockstepSession(int teams, int localTeam, int inputDelay, int rollbackWindow) {
+        if (teams < 1 || teams > GameConfig.MAX_TEAMS) {
+            throw new IllegalArgumentException("Nombre d'équipes invalide : " + teams);
+        }
+        if (localTeam < 0 || localTeam >= teams) {
+            throw new IllegalArgumentException("Équipe locale invalide : " + localTeam);
+        }
+        if (inputDelay < 0 || inputDelay > MAX_INPUT_DELAY) {
+            throw new IllegalArgumentException("Délai d'entrée invalide : " + inputDelay);
+        }
+        if (rollbackWindow < 0 || rollbackWindow > MAX_ROLLBACK_WINDOW
+                || inputDelay + rollbackWindow > MAX_INPUT_DELAY) {
+            throw new IllegalArgumentException("Fenêtre de rollback invalide : " + rollbackWindow);
+        }
+        this.teams = teams;
+        this.localTeam = localTeam;
+        this.inputDelay = inputDelay;
+        this.rollbackWindow = rollbackWindow;
+        this.inputTick = new long[teams][WINDOW];
+        this.inputX = new int[teams][WINDOW];
+        this.inputY = new int[teams][WINDOW];
+        this.appliedTick = new long[teams][WINDOW];
+        this.appliedX = new int[teams][WINDOW];
+        this.appliedY = new int[teams][WINDOW];
+        this.predicted = new boolean[teams][WINDOW];
+        for (int team = 0; team < teams; team++) {
+            Arrays.fill(inputTick[team], -1);
+            Arrays.fill(appliedTick[team], -1);
+        }
+        Arrays.fill(hashTick, -1);
+        this.nextLocalTick = inputDelay + 1;
+        this.confirmedTick = inputDelay;
+        this.desyncDetector = new DesyncDetector(teams, localTeam, NetworkProtocol.STATE_HASH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Définit le destinataire des entrées locales (envoi réseau).
+     */
+    public synchronized void setInputSink(InputSink inputSink) {
+        this.inputSink = inputSink;
+    }
+
+    // ==================== ENTRÉES ====================
+
+    /**
+     * Enregistre la position locale pour le prochain tick sans entrée locale,
+     * si ce tick est dans la fenêtre du délai, et la transmet à l'InputSink.
+     *
+     * À appeler avant chaque tick, y compris quand la simulation attend : une
+     * seule entrée est produite par tick simulé.
+     *
+     * @return L'entrée produite, ou null si elle était déjà produite
+     */
+    public NetworkMessage.TickInput scheduleLocalInput(int x, int y) {
+        NetworkMessage.TickInput input;
+        InputSink sink;
+        synchronized (this) {
+            if (nextLocalTick > currentTick + 1 + inputDelay) {
+                return null;
+            }
+            input = new NetworkMessage.TickInput(nextLocalTick, x, y);
+            store(localTeam, input);
+            nextLocalTick++;
+            sink = inputSink;
+        }
+        // Envoi hors du verrou : le réseau peut appeler receiveInput() en retour
+        if (sink != null) {
+            sink.onLocalInput(input);
+        }
+        return input;
+    }
+
+    /**
+     * Enregistre l'entrée d'un autre pair.
+     *
+     * En rollback, une entrée d'un tick déjà simulé avec une prédiction est
+     * comparée à la position prédite : si elles diffèrent, le tick devient le
+     * point de départ de la prochaine re-simulation (takeRollbackTick()).
+     *
+     * @param team  Équipe du pair
+     * @param input Entrée reçue
+     */
+    public synchronized void receiveInput(int team, NetworkMessage.TickInput input) {
+        if (team < 0 || team >= teams || team == localTeam) {
+            GameLogger.getInstance().warn("Lockstep : entrée ignorée pour l'équipe %d", team);
+            return;
+        }
+        int slot = (int) (input.tick % WINDOW);
+        if (rollbackWindow > 0 && input.tick > inputDelay && input.tick <= currentTick
+                && inputTick[team][slot] != input.tick && appliedTick[team][slot] == input.tick) {
+            // Tick déjà simulé avec une prédiction
+            if (predicted[team][slot]
+                    && (appliedX[team][slot] != input.x || appliedY[team][slot] != input.y)) {
+                if (rollbackTick < 0 || input.tick < rollbackTick) {
+                    rollbackTick = input.tick;
+                }
+            }
+            predicted[team][slot] = false;
+            store(team, input);
+            return;
+        }
+        if (input.tick <= Math.max(currentTick, inputDelay)) {
+            if (inputTick[team][slot] != input.tick) {
+                GameLogger.getInstance().warn("Lockstep : entrée tardive de l'équipe %d (tick %d, courant %d)",
+                        team, input.tick, currentTick);
+            }
+            return;
+        }
+        if (input.tick - Math.min(currentTick, confirmedTick) > WINDOW) {
+            GameLogger.getInstance().warn("Lockstep : entrée trop en avance de l'équipe %d (tick %d, courant %d)",
+                    team, input.tick, currentTick);
+            return;
+        }
+        store(team, input);
+    }
+
+    private void store(int team, NetworkMessage.TickInput input) {
+        int slot = (int) (input.tick % WINDOW);
+        inputTick[team][slot] = input.tick;
+        inputX[team][slot] = input.x;
+        inputY[team][slot] = input.y;
+        if (input.tick == confirmedTick + 1) {
+            advanceConfirmedTick();
+        }
+    }
+
+    /**
+     * Avance confirmedTick tant que les entrées de toutes les équipes sont
+     * connues pour le tick suivant.
+     */
+    private void advanceConfirmedTick() {
+        while (true) {
+            long next = confirmedTick + 1;
+            int slot = (int) (next % WINDOW);
+            for (int team = 0; team < teams; team++) {
+                if (inputTick[team][slot] != next) {
+                    return;
+                }
+            }
+            confirmedTick = next;
+        }
+    }
+
+    // ==================== AVANCEMENT ====================
+
+    /**
+     * Indique si le prochain tick peut être simulé : les entrées de toutes
+     * les équipes sont connues ou, en rollback, l'entrée locale est connue et
+     * le tick reste dans la fenêtre de prédiction.
+     */
+    public synchronized boolean isReady() {
+        if (waitingFor() < 0) {
+            return true;
+        }
+        long next = currentTick + 1;
+        return next - confirmedTick <= rollbackWindow && inputTick[localTeam][(int) (next % WINDOW)] == next;
+    }
+
+    /**
+     * Première équipe dont l'entrée manque pour le prochain tick, ou -1.
+     */
+    public synchronized int waitingFor() {
+        long next = currentTick + 1;
+        if (next <= inputDelay) {
+            return -1;
+        }
+        int slot = (int) (next % WINDOW);
+        for (int team = 0; team < teams; team++) {
+            if (inputTick[team][slot] != next) {
+                return team;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compte un tick retardé faute d'entrée.
+     */
+    public synchronized void recordStall() {
+        stalls++;
+    }
+
+    /**
+     * Applique les entrées du prochain tick aux curseurs et avance d'un tick.
+     *
+     * Un curseur déplacé repart avec une valeur de gradient maximale, comme un
+     * déplacement à la souris. En rollback, une entrée distante manquante est
+     * prédite : le curseur reste où il est.
+     *
+     * @return true si au moins un curseur a bougé (gradient à propager)
+     * @throws IllegalStateException si une entrée manque (voir isReady())
+     */
+    public synchronized boolean applyNextTick(Cursor[] cursors, int[] cursorVal) {
+        if (!isReady()) {
+            throw new IllegalStateException("Entrée manquante pour l'équipe " + waitingFor());
+        }
+        long next = ++currentTick;
+        if (next <= inputDelay) {
+            return false;
+        }
+        int slot = (int) (next % WINDOW);
+        boolean moved = false;
+        boolean anyPrediction = false;
+        for (int team = 0; team < teams; team++) {
+            Cursor cursor = cursors[team];
+            if (cursor == null) {
+                continue;
+            }
+            boolean known = inputTick[team][slot] == next;
+            int x = known ? inputX[team][slot] : cursor.x;
+            int y = known ? inputY[team][slot] : cursor.y;
+            if (rollbackWindow > 0) {
+                appliedTick[team][slot] = next;
+                appliedX[team][slot] = x;
+                appliedY[team][slot] = y;
+                predicted[team][slot] = !known;
+                anyPrediction |= !known;
+            }
+            if (cursor.x != x || cursor.y != y) {
+                cursor.x = x;
+                cursor.y = y;
+                cursorVal[team] = GameConfig.CURSOR_START_GRADIENT;
+                moved = true;
+            }
+        }
+        if (anyPrediction) {
+            predictedTicks++;
+        }
+        return moved;
+    }
+
+    // ==================== ROLLBACK ====================
+
+    /**
+     * Premier tick à re-simuler après une prédiction fausse, ou -1 ; la
+     * demande est consommée.
+     */
+    public synchronized long takeRollbackTick() {
+        long tick = rollbackTick;
+        rollbackTick = -1;
+        if (tick >= 0) {
+            rollbacks++;
+        }
+        return tick;
+    }
+
+    /**
+     * Revient au tick donné, dont l'état vient d'être restauré : les ticks
+     * suivants seront re-simulés par applyNextTick().
+     *
+     * @throws IllegalArgumentException si le tick sort de la fenêtre de
+     *                                  rollback
+     */
+    public synchronized void rewindTo(long tick) {
+        if (tick > currentTick || currentTick - tick > rollbackWindow) {
+            throw new IllegalArgumentException(String.format("Retour au tick %d impossible (courant %d, fenêtre %d)",
+                    tick, currentTick, rollbackWindow));
+        }
+        currentTick = tick;
+    }
+
+    // ==================== EMPREINTES ====================
+
+    /**
+     * Enregistre l'empreinte de l'état après le dernier tick simulé et
+     * transmet au DesyncDetector celles des ticks devenus définitifs (en
+     * lockstep pur, tout tick simulé l'est).
+     */
+    public void recordStateHash(long hash) {
+        long from;
+        long to;
+        long[] hashes;
+        synchronized (this) {
+            int slot = (int) (currentTick % WINDOW);
+            hashTick[slot] = currentTick;
+            hashValue[slot] = hash;
+
+            long finalTick = finalTick();
+            if (finalTick <= lastHashedTick) {
+                return;
+            }
+            from = lastHashedTick + 1;
+            to = finalTick;
+            hashes = new long[(int) (to - from + 1)];
+            for (long tick = from; tick <= to; tick++) {
+                int s = (int) (tick % WINDOW);
+                hashes[(int) (tick - from)] = hashTick[s] == tick ? hashValue[s] : 0;
+            }
+            lastHashedTick = finalTick;
+        }
+        // Hors du verrou : le détecteur peut envoyer ses empreintes
+        for (long tick = from; tick <= to; tick++) {
+            desyncDetector.recordLocal(tick, hashes[(int) (tick - from)]);
+        }
+    }
+
+    /**
+     * Dernier tick définitif : simulé avec les entrées de toutes les équipes
+     * et sans correction en attente. Son état ne changera plus (en lockstep
+     * pur, c'est le tick courant).
+     */
+    public synchronized long getFinalTick() {
+        return finalTick();
+    }
+
+    private long finalTick() {
+        long tick = Math.min(currentTick, confirmedTick);
+        if (rollbackTick >= 0) {
+            tick = Math.min(tick, rollbackTick - 1);
+        }
+        return tick;
+    }
+
+    // ==================== ACCESSEURS ====================
+
+    /** Dernier tick simulé. */
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** Nombre de ticks retardés en attente d'une entrée distante. */
+    public synchronized long getStalls() {
+        return stalls;
+    }
+
+    /** Dernier tick dont toutes les entrées sont connues. */
+    public synchronized long getConfirmedTick() {
+        return confirmedTick;
+    }
+
+    /** Nombre de ticks simulés avec au moins une entrée prédite. */
+    public synchronized long getPredictedTicks() {
+        return predictedTicks;
+    }
+
+    /** Nombre de re-simulations après une prédiction fausse. */
+    public synchronized long getRollbacks() {
+        return rollbacks;
+    }
+
+    public int getRollbackWindow() {
+        return rollbackWindow;
+    }
+
+    public int getTeams() {
+        return teams;
+    }
+
+    public int getLocalTeam() {
+        return localTeam;
+    }
+
+    public int getInputDelay() {
+        return inputDelay;
+    }
+
+    public DesyncDetector getDesyncDetector() {
+        return desyncDetector;
+    }
+}
@@ -2,12 +2,18 @@ package fr.uparis.informatique.cpoo5.liquidwar.network;
 
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
 import java.net.Socket;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -21,6 +27,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *   <li><b>Thread de réception</b> : Écoute les messages du serveur</li>
  *   <li><b>Thread d'envoi</b> : Envoie les messages en file d'attente</li>
  *   <li><b>Queue thread-safe</b> : File de messages à envoyer</li>
+ *   <li><b>Entrées sur UDP</b> (option) : Si le serveur le propose
+ *   (UDP_OFFER), les entrées passent par {@link UdpInputClient}</li>
+ *   <li><b>Mesures</b> : PING numéroté chaque seconde, RTT, gigue et débits
+ *   dans {@link ConnectionTelemetry}</li>
  * </ul>
  * 
  * <h2>Utilisation</h2>
@@ -41,14 +51,21 @@ public class NetworkClient {
     private final String host;
     private final int port;
     private Socket socket;
-    private ObjectOutputStream out;
-    private ObjectInputStream in;
+    private OutputStream out;
+    private InputStream in;
     private final AtomicBoolean connected;
     private Thread receiveThread;
     private Thread sendThread;
     private final BlockingQueue<NetworkMessage> sendQueue;
     private NetworkClientListener listener;
     private int myPlayerId = -1;
+    // Snapshots reçus (bases des deltas), utilisé par le thread de réception
+    private final SnapshotDecoder snapshotDecoder = new SnapshotDecoder();
+    // Transport UDP des entrées (null tant qu'il n'est pas actif)
+    private boolean udpInputsEnabled;
+    private volatile UdpInputClient udpInputs;
+    
+    private final ConnectionTelemetry telemetry = new ConnectionTelemetry();
     
     private final GameLogger logger = GameLogger.getInstance();
     
@@ -111,6 +128,33 @@ public class NetworkClient {
          * @param minPlayers Nombre minimum de joueurs requis
          */
         void onLobbyUpdate(int connectedPlayers, int minPlayers);
+        
+        /**
+         * Appelé avant onGameStart() quand le serveur envoie les paramètres
+         * de la partie (lockstep).
+         * 
+         * @param settings Graine, nombre d'équipes et délai d'entrée
+         */
+        default void onMatchSettings(NetworkMessage.MatchSettings settings) {
+        }
+        
+        /**
+         * Appelé quand l'entrée d'un autre joueur pour un tick est reçue.
+         * 
+         * @param playerId ID du joueur (-1 = serveur)
+         * @param input Entrée du joueur
+         */
+        default void onTickInput(int playerId, NetworkMessage.TickInput input) {
+        }
+        
+        /**
+         * Appelé quand un snapshot du champ de bataille est reçu et décodé
+         * (partie rejointe en cours, spectateur).
+         * 
+         * @param snapshot État complet du champ de bataille
+         */
+        default void onSnapshot(BattlefieldSnapshot snapshot) {
+        }
     }
     
     /**
@@ -135,6 +179,16 @@ public class NetworkClient {
         this.listener = listener;
     }
     
+    /**
+     * Accepte le transport UDP des entrées si le serveur le propose (à
+     * appeler avant connect()).
+     * 
+     * @param enabled true pour l'accepter
+     */
+    public void setUdpInputsEnabled(boolean enabled) {
+        this.udpInputsEnabled = enabled;
+    }
+    
     /**
      * Se connecte au serveur.
      * 
@@ -151,10 +205,11 @@ public class NetworkClient {
         socket = new Socket(host, port);
         socket.setSoTimeout(NetworkProtocol.CLIENT_TIMEOUT_MS);
         
-        // Initialiser les streams (IMPORTANT: out avant in!)
-        out = new ObjectOutputStream(socket.getOutputStream());
-        out.flush();
-        in = new ObjectInputStream(socket.getInputStream());
+        // Échanger les en-têtes (IMPORTANT: écrire avant de lire!)
+        out = new BufferedOutputStream(socket.getOutputStream());
+        WireCodec.writePreamble(out);
+        in = new BufferedInputStream(new CountingInputStream(socket.getInputStream()));
+        WireCodec.readPreamble(in);
         
         connected.set(true);
         
@@ -174,6 +229,11 @@ public class NetworkClient {
         }
         
         logger.info("Déconnexion du serveur...");
+        UdpInputClient udp = udpInputs;
+        udpInputs = null;
+        if (udp != null) {
+            udp.close();
+        }
         
         // Envoyer un message de déconnexion
         try {
@@ -214,7 +274,8 @@ public class NetworkClient {
     private void receiveLoop() {
         while (connected.get()) {
             try {
-                NetworkMessage message = (NetworkMessage) in.readObject();
+                NetworkMessage message = WireCodec.readFrame(in);
+                telemetry.recordReceived(1, 0); // octets comptés par CountingInputStream
                 handleMessage(message);
             } catch (IOException e) {
                 if (connected.get()) {
@@ -222,24 +283,32 @@ public class NetworkClient {
                     disconnect();
                 }
                 break;
-            } catch (ClassNotFoundException e) {
-                logger.error("Message invalide reçu");
             }
         }
     }
     
     /**
-     * Boucle d'envoi des messages.
+     * Boucle d'envoi des messages, et PING à intervalle régulier.
      */
     private void sendLoop() {
+        long nextPing = System.nanoTime();
         while (connected.get()) {
             try {
-                NetworkMessage message = sendQueue.take();
+                long untilPing = nextPing - System.nanoTime();
+                NetworkMessage message = untilPing > 0 ? sendQueue.poll(untilPing, TimeUnit.NANOSECONDS) : null;
+                if (message == null) {
+                    long now = System.nanoTime();
+                    message = new NetworkMessage(NetworkMessage.MessageType.PING, myPlayerId,
+                            new int[] { telemetry.nextPing(now) });
+                    nextPing = now + NetworkProtocol.PING_INTERVAL_MS * 1_000_000L;
+                }
                 
                 synchronized (out) {
-                    out.writeObject(message);
-                    out.flush();
-                    out.reset();
+                    telemetry.recordSent(1, WireCodec.writeFrame(message, out));
+                    // Regrouper les messages déjà en file dans un seul envoi
+                    if (sendQueue.isEmpty()) {
+                        out.flush();
+                    }
                 }
                 
             } catch (InterruptedException e) {
@@ -273,6 +342,10 @@ public class NetworkClient {
                 
             case GAME_START:
                 logger.info("La partie commence!");
+                NetworkMessage.MatchSettings settings = message.getDataAsMatchSettings();
+                if (settings != null) {
+                    listener.onMatchSettings(settings);
+                }
                 listener.onGameStart();
                 break;
             
@@ -299,6 +372,34 @@ public class NetworkClient {
                 }
                 break;
                 
+            case TICK_INPUT:
+                NetworkMessage.TickInput input = message.getDataAsTickInput();
+                if (input != null) {
+                    listener.onTickInput(message.getPlayerId(), input);
+                }
+                break;
+                
+            case INPUT_BATCH:
+                NetworkMessage.InputBatch batch = message.getDataAsInputBatch();
+                if (batch != null) {
+                    handleInputBatch(batch);
+                }
+                break;
+                
+            case UDP_OFFER:
+                int[] offer = message.getDataAsIntArray();
+                if (offer != null && offer.length == 2 && udpInputsEnabled && udpInputs == null) {
+                    startUdpInputs(offer[0], offer[1]);
+                }
+                break;
+                
+            case SNAPSHOT:
+                NetworkMessage.SnapshotData snapshotData = message.getDataAsSnapshot();
+                if (snapshotData != null) {
+                    handleSnapshot(snapshotData);
+                }
+                break;
+                
             case GAME_OVER:
                 int[] data = message.getDataAsIntArray();
                 int winnerId = (data != null && data.length > 0) ? data[0] : -1;
@@ -312,8 +413,17 @@ public class NetworkClient {
                 listener.onError(error != null ? error : "Erreur inconnue");
                 break;
                 
+            case PING:
+                // Renvoyer le numéro : le serveur en tire le RTT
+                sendMessage(new NetworkMessage(NetworkMessage.MessageType.PONG, myPlayerId,
+                        message.getDataAsIntArray()));
+                break;
+                
             case PONG:
-                // Réponse au ping - connexion OK
+                int[] pong = message.getDataAsIntArray();
+                if (pong != null && pong.length == 1) {
+                    telemetry.onPong(pong[0], System.nanoTime());
+                }
                 break;
                 
             default:
@@ -321,6 +431,80 @@ public class NetworkClient {
         }
     }
     
+    /**
+     * Distribue les entrées relayées par le serveur, dans l'ordre du lot.
+     */
+    private void handleInputBatch(NetworkMessage.InputBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            int playerId = batch.playerIds[i];
+            if (batch.ticks[i] == NetworkMessage.InputBatch.CURSOR) {
+                listener.onCursorMoved(playerId, batch.x[i], batch.y[i]);
+            } else if (playerId != myPlayerId) {
+                listener.onTickInput(playerId, new NetworkMessage.TickInput(batch.ticks[i], batch.x[i], batch.y[i]));
+            }
+        }
+    }
+    
+    /**
+     * Démarre le transport UDP des entrées vers le port proposé.
+     */
+    private void startUdpInputs(int udpPort, int token) {
+        UdpInputClient udp = new UdpInputClient(new InetSocketAddress(socket.getInetAddress(), udpPort),
+                myPlayerId, token, telemetry, this::handleInputBatch, this::fallbackToTcp);
+        try {
+            udp.start();
+            udpInputs = udp;
+        } catch (IOException e) {
+            logger.warn("Transport UDP indisponible (%s) : entrées sur TCP", e.getMessage());
+        }
+    }
+    
+    /**
+     * Le transport UDP s'est arrêté : renvoyer par TCP les entrées qu'il
+     * n'a pas pu faire acquitter.
+     */
+    private void fallbackToTcp(NetworkMessage.InputBatch pending) {
+        udpInputs = null;
+        if (pending == null) {
+            return;
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.ticks[i] == NetworkMessage.InputBatch.CURSOR) {
+                sendCursorMove(pending.x[i], pending.y[i]);
+            } else {
+                sendTickInput(new NetworkMessage.TickInput(pending.ticks[i], pending.x[i], pending.y[i]));
+            }
+        }
+    }
+    
+    /**
+     * Indique si les entrées passent par UDP.
+     */
+    public boolean isUsingUdpInputs() {
+        UdpInputClient udp = udpInputs;
+        return udp != null && udp.isReady();
+    }
+    
+    /**
+     * Décode un snapshot et l'acquitte (il devient la base des prochains
+     * deltas). Sur une base inconnue ou des données invalides, une image
+     * complète est demandée.
+     */
+    private void handleSnapshot(NetworkMessage.SnapshotData data) {
+        BattlefieldSnapshot snapshot;
+        try {
+            snapshot = snapshotDecoder.decode(data);
+        } catch (ProtocolException e) {
+            logger.warn("Snapshot rejeté (%s) : image complète demandée", e.getMessage());
+            snapshotDecoder.reset();
+            sendMessage(new NetworkMessage(NetworkMessage.MessageType.SNAPSHOT_ACK, myPlayerId, new int[] { -1 }));
+            return;
+        }
+        sendMessage(new NetworkMessage(NetworkMessage.MessageType.SNAPSHOT_ACK, myPlayerId,
+                new int[] { snapshot.getTick() }));
+        listener.onSnapshot(snapshot);
+    }
+    
     /**
      * Envoie un mouvement de curseur au serveur.
      * 
@@ -331,6 +515,10 @@ public class NetworkClient {
         if (!connected.get()) {
             return;
         }
+        UdpInputClient udp = udpInputs;
+        if (udp != null && udp.send(NetworkMessage.InputBatch.CURSOR, x, y)) {
+            return;
+        }
         
         NetworkMessage.CursorPosition pos = new NetworkMessage.CursorPosition(x, y);
         NetworkMessage message = new NetworkMessage(
@@ -338,6 +526,29 @@ public class NetworkClient {
         sendMessage(message);
     }
     
+    /**
+     * Envoie l'entrée locale pour un tick (lockstep), par UDP si le
+     * transport est actif.
+     * 
+     * @param input Entrée du joueur
+     */
+    public void sendTickInput(NetworkMessage.TickInput input) {
+        UdpInputClient udp = udpInputs;
+        if (udp != null && udp.send(input.tick, input.x, input.y)) {
+            return;
+        }
+        sendMessage(new NetworkMessage(NetworkMessage.MessageType.TICK_INPUT, myPlayerId, input));
+    }
+    
+    /**
+     * Envoie un état de jeu au serveur (empreintes d'état en lockstep).
+     * 
+     * @param state État à envoyer
+     */
+    public void sendGameState(NetworkMessage.GameStateData state) {
+        sendMessage(new NetworkMessage(NetworkMessage.MessageType.GAME_STATE, myPlayerId, state));
+    }
+    
     /**
      * Envoie un message au serveur (ajouté à la queue).
      * 
@@ -360,7 +571,15 @@ public class NetworkClient {
      * Envoie un ping au serveur pour vérifier la connexion.
      */
     public void sendPing() {
-        sendMessage(new NetworkMessage(NetworkMessage.MessageType.PING, myPlayerId));
+        sendMessage(new NetworkMessage(NetworkMessage.MessageType.PING, myPlayerId,
+                new int[] { telemetry.nextPing(System.nanoTime()) }));
+    }
+    
+    /**
+     * Mesures de la liaison au serveur (RTT, gigue, débits, file d'envoi).
+     */
+    public ConnectionTelemetry.Snapshot getTelemetry() {
+        return telemetry.snapshot(myPlayerId, System.nanoTime(), sendQueue.size(), -1);
     }
     
     /**
@@ -398,5 +617,31 @@ public class NetworkClient {
     public int getPort() {
         return port;
     }
+    
+    /**
+     * Compte les octets reçus du serveur (sous le tampon de lecture).
+     */
+    private class CountingInputStream extends FilterInputStream {
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                telemetry.recordReceived(0, 1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                telemetry.recordReceived(0, n);
+            }
+            return n;
+        }
+    }
 }
-
@@ -0,0 +1,89 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+/**
+ * Conditions réseau simulées pour un sens d'une liaison (voir
+ * NetworkSimulator).
+ *
+ * TCP ne perd pas d'octets : un segment « perdu » arrive avec le délai de
+ * retransmission en plus, et retarde tout ce qui le suit (blocage en tête de
+ * file), comme sur un vrai lien.
+ */
+public final class NetworkConditions {
+
+    /** Aucune dégradation */
+    public static final NetworkConditions PERFECT = new NetworkConditions(0, 0, 0, 0, 0);
+
+    /** Réseau local : quelques ms, pas de perte */
+    public static final NetworkConditions LAN = new NetworkConditions(2, 1, 0, 0, 1);
+
+    /** Internet correct : 40 ms, 10 ms de gigue, 1 % de pertes, 1 Mo/s */
+    public static final NetworkConditions WAN = new NetworkConditions(40, 10, 1_000_000, 0.01, 1);
+
+    /** Connexion mobile : 120 ms, 40 ms de gigue, 5 % de pertes, 100 Ko/s */
+    public static final NetworkConditions MOBILE = new NetworkConditions(120, 40, 100_000, 0.05, 1);
+
+    /** Délai de retransmission d'un segment perdu (RTO minimal de Linux) */
+    public static final int DEFAULT_RETRANSMIT_MS = 200;
+
+    /** Latence d'un sens (ms) */
+    public final int latencyMs;
+
+    /** Gigue : délai supplémentaire uniforme dans [0, jitterMs] */
+    public final int jitterMs;
+
+    /** Débit maximal (octets/s), 0 = illimité */
+    public final int bytesPerSecond;
+
+    /** Probabilité de perte d'un segment, dans [0, 1[ */
+    public final double lossRate;
+
+    /** Délai ajouté à un segment perdu (ms) */
+    public final int retransmitMs;
+
+    /** Graine du tirage de la gigue et des pertes */
+    public final long seed;
+
+    /**
+     * @param latencyMs Latence d'un sens (ms)
+     * @param jitterMs Gigue maximale (ms)
+     * @param bytesPerSecond Débit maximal, 0 = illimité
+     * @param lossRate Probabilité de perte d'un segment
+     * @param seed Graine (même graine, mêmes tirages)
+     */
+    public NetworkConditions(int latencyMs, int jitterMs, int bytesPerSecond, double lossRate, long seed) {
+        this(latencyMs, jitterMs, bytesPerSecond, lossRate, DEFAULT_RETRANSMIT_MS, seed);
+    }
+
+    /**
+     * @param retransmitMs Délai ajouté à un segment perdu (ms)
+     */
+    public NetworkConditions(int latencyMs, int jitterMs, int bytesPerSecond, double lossRate,
+            int retransmitMs, long seed) {
+        if (latencyMs < 0 || jitterMs < 0 || bytesPerSecond < 0 || retransmitMs < 0) {
+            throw new IllegalArgumentException("Délais et débit doivent être positifs");
+        }
+        if (lossRate < 0 || lossRate >= 1) {
+            throw new IllegalArgumentException("Taux de perte hors de [0, 1[ : " + lossRate);
+        }
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.bytesPerSecond = bytesPerSecond;
+        this.lossRate = lossRate;
+        this.retransmitMs = retransmitMs;
+        this.seed = seed;
+    }
+
+    /**
+     * Mêmes conditions avec une autre graine (l'autre sens d'une liaison,
+     * une autre connexion).
+     */
+    public NetworkConditions withSeed(long seed) {
+        return new NetworkConditions(latencyMs, jitterMs, bytesPerSecond, lossRate, retransmitMs, seed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ms ±%d, %s, %.1f %% de pertes", latencyMs, jitterMs,
+                bytesPerSecond == 0 ? "débit illimité" : (bytesPerSecond / 1000) + " Ko/s", lossRate * 100);
+    }
+}
@@ -1,8 +1,10 @@
 package fr.uparis.informatique.cpoo5.liquidwar.network;
 
-import java.awt.Point;
 import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.List;
 
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
 import fr.uparis.informatique.cpoo5.liquidwar.model.GameState;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
 
@@ -14,6 +16,12 @@ import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
  * le système réseau (NetworkServer/NetworkClient). Elle synchronise
  * l'état du jeu entre les joueurs connectés.
  * 
+ * <p>
+ * En partie, les pairs fonctionnent en lockstep (voir LockstepSession) :
+ * seules les entrées par tick circulent, la synchronisation périodique de
+ * l'état (GAME_STATE) est alors suspendue. Les GAME_STATE ne portent plus
+ * que les empreintes d'état comparées par le DesyncDetector de la session.
+ * 
  * @author Liquid War Team
  * @version 2.0
  * @since 2025-12-02
@@ -30,6 +38,15 @@ public class NetworkGameController {
 
     // Listener pour les mises à jour du lobby (utilisé par le client)
     private LobbyUpdateListener lobbyUpdateListener;
+    // Listener de début de partie (utilisé par le client)
+    private MatchStartListener matchStartListener;
+    // Listener des snapshots (client arrivé en cours de partie)
+    private SnapshotListener snapshotListener;
+    // Tick du dernier snapshot envoyé (serveur)
+    private long lastSnapshotTick = -1;
+
+    // Lockstep de la partie en cours (null dans le lobby)
+    private volatile LockstepSession lockstep;
 
     private final GameLogger logger = GameLogger.getInstance();
 
@@ -40,6 +57,22 @@ public class NetworkGameController {
         void onLobbyUpdate(int connectedPlayers, int minPlayers);
     }
 
+    /**
+     * Interface pour être notifié du début de partie (côté client).
+     * Appelée depuis le thread réseau.
+     */
+    public interface MatchStartListener {
+        void onMatchStart(NetworkMessage.MatchSettings settings);
+    }
+
+    /**
+     * Interface pour recevoir les snapshots du champ de bataille (côté
+     * client, spectateur). Appelée depuis le thread réseau.
+     */
+    public interface SnapshotListener {
+        void onSnapshot(BattlefieldSnapshot snapshot);
+    }
+
     /**
      * Crée un nouveau contrôleur de jeu réseau.
      * 
@@ -59,6 +92,20 @@ public class NetworkGameController {
         this.lobbyUpdateListener = listener;
     }
 
+    /**
+     * Définit le listener de début de partie.
+     */
+    public void setMatchStartListener(MatchStartListener listener) {
+        this.matchStartListener = listener;
+    }
+
+    /**
+     * Définit le listener des snapshots.
+     */
+    public void setSnapshotListener(SnapshotListener listener) {
+        this.snapshotListener = listener;
+    }
+
     /**
      * Définit l'état du jeu (appelé après la création du GameCanvas).
      * 
@@ -102,6 +149,7 @@ public class NetworkGameController {
 
         server = new NetworkServer(port);
         server.setListener(new ServerListener());
+        server.setUdpInputsEnabled(GameOptions.getInstance().isNetworkUdpInputsEnabled());
         server.start();
 
         logger.info("Serveur démarré - Vous êtes l'équipe %d", myTeamId);
@@ -124,6 +172,7 @@ public class NetworkGameController {
 
         client = new NetworkClient(host, port);
         client.setListener(new ClientListener());
+        client.setUdpInputsEnabled(GameOptions.getInstance().isNetworkUdpInputsEnabled());
         client.connect();
 
         logger.info("Connexion au serveur %s:%d...", host, port);
@@ -142,6 +191,7 @@ public class NetworkGameController {
             client.disconnect();
             client = null;
         }
+        lockstep = null;
 
         logger.info("Réseau arrêté");
     }
@@ -170,6 +220,102 @@ public class NetworkGameController {
         }
     }
 
+    // ==================== LOCKSTEP ====================
+
+    /**
+     * Choisit les paramètres d'une nouvelle partie (côté serveur) : graine
+     * aléatoire et délai d'entrée des options.
+     * 
+     * @param teams Nombre d'équipes (une par joueur)
+     */
+    public NetworkMessage.MatchSettings createMatchSettings(int teams) {
+        return new NetworkMessage.MatchSettings(new SecureRandom().nextLong(), teams,
+                GameOptions.getInstance().getNetworkInputDelay());
+    }
+
+    /**
+     * Démarre le lockstep pour la partie décrite. Côté serveur, les
+     * paramètres sont aussi envoyés aux clients avec GAME_START.
+     *
+     * La fenêtre de rollback vient des options locales (chaque pair choisit
+     * d'attendre ou de prédire), bornée par le délai de la partie.
+     * 
+     * @param settings Paramètres communs de la partie
+     * @return Session de la partie
+     */
+    public LockstepSession startLockstep(NetworkMessage.MatchSettings settings) {
+        int rollbackWindow = Math.min(GameOptions.getInstance().getNetworkRollbackWindow(),
+                Math.min(LockstepSession.MAX_ROLLBACK_WINDOW, LockstepSession.MAX_INPUT_DELAY - settings.inputDelay));
+        LockstepSession session = new LockstepSession(settings.teams, myTeamId, settings.inputDelay,
+                Math.max(0, rollbackWindow));
+        session.setInputSink(this::sendTickInput);
+        session.getDesyncDetector().setHashSink(this::sendStateHashes);
+        lockstep = session;
+        logger.info("🔒 Lockstep démarré : équipe %d/%d, délai %d ticks, rollback %d ticks, graine %d",
+                myTeamId, settings.teams, settings.inputDelay, session.getRollbackWindow(), settings.seed);
+
+        if (server != null) {
+            server.broadcast(new NetworkMessage(NetworkMessage.MessageType.GAME_START, -1, settings));
+            logger.info("📢 Message GAME_START envoyé à tous les clients");
+        }
+        return session;
+    }
+
+    /**
+     * Session lockstep de la partie en cours, ou null.
+     */
+    public LockstepSession getLockstepSession() {
+        return lockstep;
+    }
+
+    /**
+     * Envoie l'entrée locale d'un tick aux autres pairs.
+     */
+    private void sendTickInput(NetworkMessage.TickInput input) {
+        if (server != null) {
+            server.sendTickInput(input);
+        } else if (client != null) {
+            client.sendTickInput(input);
+        }
+    }
+
+    /**
+     * Transmet l'entrée d'un pair à la session (playerId réseau -> équipe).
+     */
+    private void receiveTickInput(int playerId, NetworkMessage.TickInput input) {
+        LockstepSession session = lockstep;
+        if (session != null) {
+            session.receiveInput(playerId + 1, input);
+        }
+    }
+
+    /**
+     * Envoie les empreintes d'état des derniers ticks : le serveur à tous les
+     * clients, un client au serveur.
+     */
+    private void sendStateHashes(long firstTick, long[] hashes) {
+        NetworkMessage.GameStateData current = buildGameStateData();
+        NetworkMessage.GameStateData state = current != null
+                ? new NetworkMessage.GameStateData(current.cursorPositions, current.fighterCounts, gameTick,
+                        firstTick, hashes)
+                : new NetworkMessage.GameStateData(new int[0][], new int[0], gameTick, firstTick, hashes);
+        if (server != null) {
+            server.broadcast(new NetworkMessage(NetworkMessage.MessageType.GAME_STATE, -1, state));
+        } else if (client != null) {
+            client.sendGameState(state);
+        }
+    }
+
+    /**
+     * Transmet les empreintes d'un pair au détecteur de la session.
+     */
+    private void receiveStateHashes(int team, NetworkMessage.GameStateData state) {
+        LockstepSession session = lockstep;
+        if (session != null && state.stateHashes.length > 0) {
+            session.getDesyncDetector().receive(team, state.hashTick, state.stateHashes);
+        }
+    }
+
     /**
      * Broadcast une mise à jour du lobby à tous les clients.
      */
@@ -186,10 +332,36 @@ public class NetworkGameController {
     }
 
     /**
-     * Incrémente le tick du jeu (appelé à chaque frame).
+     * Incrémente le tick du jeu (appelé à chaque frame, depuis le thread de
+     * la simulation).
+     * 
+     * <p>
+     * En lockstep, le serveur envoie périodiquement un snapshot du champ de
+     * bataille aux clients qui ne jouent pas (arrivés après le début).
      */
     public void tick() {
         gameTick++;
+        if (server != null && gameTick % NetworkProtocol.SNAPSHOT_INTERVAL_TICKS == 0) {
+            sendSnapshots();
+        }
+    }
+
+    /**
+     * Capture et envoie un snapshot aux spectateurs, s'il y en a.
+     */
+    private void sendSnapshots() {
+        LockstepSession session = lockstep;
+        if (session == null || gameState == null || getPlayerCount() <= session.getTeams()) {
+            return;
+        }
+        long tick = session.getCurrentTick();
+        if (tick == lastSnapshotTick) {
+            return; // Simulation en attente : rien de nouveau
+        }
+        lastSnapshotTick = tick;
+        int teams = session.getTeams();
+        server.sendSnapshot(BattlefieldSnapshot.capture((int) tick, gameState),
+                playerId -> playerId + 1 >= teams);
     }
 
     /**
@@ -232,6 +404,22 @@ public class NetworkGameController {
         return 0;
     }
 
+    /**
+     * Mesures réseau : côté serveur une par client connecté, côté client
+     * celle de sa liaison au serveur.
+     *
+     * @return Mesures par ID de joueur croissant (vide hors connexion)
+     */
+    public List<ConnectionTelemetry.Snapshot> getNetworkTelemetry() {
+        if (server != null && server.isRunning()) {
+            return server.getClientTelemetry();
+        }
+        if (client != null && client.isConnected()) {
+            return List.of(client.getTelemetry());
+        }
+        return List.of();
+    }
+
     // ==================== LISTENER SERVEUR ====================
 
     /**
@@ -273,7 +461,18 @@ public class NetworkGameController {
 
         @Override
         public NetworkMessage.GameStateData getCurrentGameState() {
-            return buildGameStateData();
+            // En lockstep, chaque pair calcule lui-même l'état
+            return lockstep != null ? null : buildGameStateData();
+        }
+
+        @Override
+        public void onTickInput(int playerId, NetworkMessage.TickInput input) {
+            receiveTickInput(playerId, input);
+        }
+
+        @Override
+        public void onGameStateReceived(int playerId, NetworkMessage.GameStateData state) {
+            receiveStateHashes(playerId + 1, state);
         }
     }
 
@@ -291,14 +490,44 @@ public class NetworkGameController {
             logger.info("Message du serveur: %s", message);
         }
 
+        @Override
+        public void onMatchSettings(NetworkMessage.MatchSettings settings) {
+            if (myTeamId >= settings.teams) {
+                logger.error("❌ Équipe %d hors de la partie (%d équipes)", myTeamId, settings.teams);
+                return;
+            }
+            // Session créée dès maintenant : les entrées du serveur suivent
+            // immédiatement GAME_START
+            startLockstep(settings);
+            if (matchStartListener != null) {
+                matchStartListener.onMatchStart(settings);
+            }
+        }
+
         @Override
         public void onGameStart() {
             logger.info("🎮 La partie commence!");
         }
 
+        @Override
+        public void onTickInput(int playerId, NetworkMessage.TickInput input) {
+            receiveTickInput(playerId, input);
+        }
+
+        @Override
+        public void onSnapshot(BattlefieldSnapshot snapshot) {
+            if (lockstep == null && snapshotListener != null) {
+                snapshotListener.onSnapshot(snapshot);
+            }
+        }
+
         @Override
         public void onGameStateReceived(NetworkMessage.GameStateData state) {
-            applyGameState(state);
+            if (lockstep != null) {
+                receiveStateHashes(0, state); // Le serveur joue l'équipe 0
+            } else {
+                applyGameState(state);
+            }
         }
 
         @Override
@@ -365,12 +594,10 @@ public class NetworkGameController {
         }
 
         int teams = gameState.getActiveTeams();
+        // Les tableaux appartiennent au message (envoyé de façon asynchrone) :
+        // on les remplit directement, sans Point intermédiaire
         int[][] cursorPositions = new int[teams][2];
-        for (int i = 0; i < teams; i++) {
-            Point pos = gameState.getCursorPosition(i);
-            cursorPositions[i][0] = pos.x;
-            cursorPositions[i][1] = pos.y;
-        }
+        gameState.copyCursorPositions(cursorPositions);
 
         int[] fighterCounts = gameState.getFighterCountsCopy();
         return new NetworkMessage.GameStateData(cursorPositions, fighterCounts, gameTick);
@@ -380,7 +607,7 @@ public class NetworkGameController {
      * Applique un état de jeu reçu du réseau.
      */
     private void applyGameState(NetworkMessage.GameStateData state) {
-        if (state == null || gameState == null) {
+        if (state == null || gameState == null || lockstep != null) {
             return;
         }
 
@@ -6,8 +6,9 @@ import java.io.Serializable;
  * Message réseau pour la communication entre serveur et clients.
  * 
  * <p>Cette classe encapsule tous les types de messages échangés pendant
- * une partie multijoueur en réseau. Les messages sont sérialisables
- * pour faciliter l'envoi via Socket.
+ * une partie multijoueur en réseau. Sur le réseau, ils sont encodés en
+ * binaire compact par {@link WireCodec} (ils restent sérialisables pour
+ * les usages hors réseau).
  * 
  * <h2>Types de messages</h2>
  * <ul>
@@ -18,8 +19,13 @@ import java.io.Serializable;
  *   <li><b>GAME_STATE</b> : État complet du jeu (synchronisation)</li>
  *   <li><b>GAME_OVER</b> : Fin de partie</li>
  *   <li><b>DISCONNECT</b> : Déconnexion d'un joueur</li>
- *   <li><b>PING</b> : Vérification de connexion</li>
- *   <li><b>PONG</b> : Réponse au ping</li>
+ *   <li><b>PING</b> : Vérification de connexion (numéro, mesure du RTT)</li>
+ *   <li><b>PONG</b> : Réponse au ping (même numéro)</li>
+ *   <li><b>TICK_INPUT</b> : Entrée d'un joueur pour un tick (lockstep)</li>
+ *   <li><b>SNAPSHOT</b> : État complet du champ de bataille (spectateurs)</li>
+ *   <li><b>SNAPSHOT_ACK</b> : Acquittement d'un snapshot (base des deltas)</li>
+ *   <li><b>INPUT_BATCH</b> : Entrées des joueurs relayées, regroupées par tick</li>
+ *   <li><b>UDP_OFFER</b> : Proposition du transport UDP des entrées</li>
  * </ul>
  * 
  * @author Liquid War Team
@@ -30,7 +36,10 @@ public class NetworkMessage implements Serializable {
     private static final long serialVersionUID = 1L;
     
     /**
-     * Types de messages réseau
+     * Types de messages réseau.
+     * 
+     * <p>L'ordinal sert d'identifiant sur le réseau (WireCodec) : ajouter les
+     * nouveaux types à la fin et incrémenter WireCodec.VERSION.
      */
     public enum MessageType {
         /** Demande de connexion */
@@ -54,7 +63,17 @@ public class NetworkMessage implements Serializable {
         /** Réponse au ping */
         PONG,
         /** Erreur */
-        ERROR
+        ERROR,
+        /** Entrée d'un joueur pour un tick donné (lockstep) */
+        TICK_INPUT,
+        /** État complet du champ de bataille, en delta (serveur -> spectateur) */
+        SNAPSHOT,
+        /** Acquittement d'un snapshot : int[] { tick }, -1 = image complète */
+        SNAPSHOT_ACK,
+        /** Entrées relayées par le serveur, une trame par tick (InputBatch) */
+        INPUT_BATCH,
+        /** Transport UDP des entrées proposé au client : int[] { port, jeton } */
+        UDP_OFFER
     }
     
     /** Type du message */
@@ -77,10 +96,22 @@ public class NetworkMessage implements Serializable {
      * @param data Données associées au message
      */
     public NetworkMessage(MessageType type, int playerId, Object data) {
+        this(type, playerId, data, System.currentTimeMillis());
+    }
+    
+    /**
+     * Reconstruit un message reçu (timestamp de l'émetteur).
+     * 
+     * @param type Type du message
+     * @param playerId ID du joueur émetteur
+     * @param data Données associées au message
+     * @param timestamp Timestamp d'origine
+     */
+    NetworkMessage(MessageType type, int playerId, Object data, long timestamp) {
         this.type = type;
         this.playerId = playerId;
         this.data = data;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
     }
     
     /**
@@ -158,6 +189,42 @@ public class NetworkMessage implements Serializable {
         return (data instanceof LobbyInfo) ? (LobbyInfo) data : null;
     }
     
+    /**
+     * Obtient les données sous forme de MatchSettings.
+     * 
+     * @return Données en tant que MatchSettings, ou null sinon
+     */
+    public MatchSettings getDataAsMatchSettings() {
+        return (data instanceof MatchSettings) ? (MatchSettings) data : null;
+    }
+    
+    /**
+     * Obtient les données sous forme de TickInput.
+     * 
+     * @return Données en tant que TickInput, ou null sinon
+     */
+    public TickInput getDataAsTickInput() {
+        return (data instanceof TickInput) ? (TickInput) data : null;
+    }
+    
+    /**
+     * Obtient les données sous forme de SnapshotData.
+     * 
+     * @return Données en tant que SnapshotData, ou null sinon
+     */
+    public SnapshotData getDataAsSnapshot() {
+        return (data instanceof SnapshotData) ? (SnapshotData) data : null;
+    }
+    
+    /**
+     * Obtient les données sous forme d'InputBatch.
+     * 
+     * @return Données en tant qu'InputBatch, ou null sinon
+     */
+    public InputBatch getDataAsInputBatch() {
+        return (data instanceof InputBatch) ? (InputBatch) data : null;
+    }
+    
     @Override
     public String toString() {
         return String.format("NetworkMessage[type=%s, playerId=%d, timestamp=%d, data=%s]",
@@ -201,16 +268,32 @@ public class NetworkMessage implements Serializable {
         /** Tick du jeu actuel */
         public final long gameTick;
         
+        /** Tick lockstep de la première empreinte de stateHashes */
+        public final long hashTick;
+        
+        /**
+         * Empreintes de l'état après chaque tick lockstep, à partir de
+         * hashTick (vide hors lockstep)
+         */
+        public final long[] stateHashes;
+        
         public GameStateData(int[][] cursorPositions, int[] fighterCounts, long gameTick) {
+            this(cursorPositions, fighterCounts, gameTick, 0, new long[0]);
+        }
+        
+        public GameStateData(int[][] cursorPositions, int[] fighterCounts, long gameTick,
+                long hashTick, long[] stateHashes) {
             this.cursorPositions = cursorPositions;
             this.fighterCounts = fighterCounts;
             this.gameTick = gameTick;
+            this.hashTick = hashTick;
+            this.stateHashes = stateHashes;
         }
         
         @Override
         public String toString() {
-            return String.format("GameStateData[tick=%d, teams=%d]", 
-                    gameTick, fighterCounts.length);
+            return String.format("GameStateData[tick=%d, teams=%d, hashes=%d@%d]", 
+                    gameTick, fighterCounts.length, stateHashes.length, hashTick);
         }
     }
     
@@ -241,5 +324,150 @@ public class NetworkMessage implements Serializable {
                     connectedPlayers, minPlayers);
         }
     }
+    
+    /**
+     * Paramètres d'une partie en lockstep, envoyés avec GAME_START : tous les
+     * pairs initialisent la même partie à partir de la même graine.
+     */
+    public static class MatchSettings implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /** Graine du placement initial des combattants */
+        public final long seed;
+        
+        /** Nombre d'équipes */
+        public final int teams;
+        
+        /** Délai d'entrée en ticks (une entrée produite au tick T s'applique à T + délai) */
+        public final int inputDelay;
+        
+        public MatchSettings(long seed, int teams, int inputDelay) {
+            this.seed = seed;
+            this.teams = teams;
+            this.inputDelay = inputDelay;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("MatchSettings[seed=%d, teams=%d, delay=%d]", seed, teams, inputDelay);
+        }
+    }
+    
+    /**
+     * Position du curseur d'un joueur pour un tick de simulation (lockstep).
+     */
+    public static class TickInput implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /** Tick auquel l'entrée s'applique */
+        public final long tick;
+        
+        public final int x;
+        public final int y;
+        
+        public TickInput(long tick, int x, int y) {
+            this.tick = tick;
+            this.x = x;
+            this.y = y;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("TickInput(%d: %d, %d)", tick, x, y);
+        }
+    }
+    
+    /**
+     * Snapshot du champ de bataille compressé (voir SnapshotEncoder).
+     */
+    public static class SnapshotData implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /** Tick du snapshot */
+        public final int tick;
+        
+        /** Tick de la base du delta, ou -1 pour une image complète */
+        public final int baseTick;
+        
+        /** Cellules et curseurs compressés */
+        public final byte[] payload;
+        
+        public SnapshotData(int tick, int baseTick, byte[] payload) {
+            this.tick = tick;
+            this.baseTick = baseTick;
+            this.payload = payload;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("SnapshotData[tick=%d, base=%d, %d octets]", tick, baseTick, payload.length);
+        }
+    }
+    
+    /**
+     * Entrées de plusieurs joueurs relayées en une seule trame (voir
+     * InputBatcher). Une entrée de tick négatif ({@link #CURSOR}) est un
+     * simple déplacement de curseur.
+     */
+    public static class InputBatch implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        /** Tick d'une entrée hors lockstep (CURSOR_MOVE regroupé) */
+        public static final long CURSOR = -1;
+        
+        /** Émetteur de chaque entrée (-1 = serveur) */
+        public final int[] playerIds;
+        
+        /** Tick de chaque entrée, ou CURSOR */
+        public final long[] ticks;
+        
+        public final int[] x;
+        public final int[] y;
+        
+        public InputBatch(int[] playerIds, long[] ticks, int[] x, int[] y) {
+            this.playerIds = playerIds;
+            this.ticks = ticks;
+            this.x = x;
+            this.y = y;
+        }
+        
+        /** Nombre d'entrées */
+        public int size() {
+            return playerIds.length;
+        }
+        
+        /**
+         * Le lot sans les entrées de tick d'un joueur (qui les connaît déjà).
+         * 
+         * @return Ce lot s'il n'en contient aucune, sinon une copie filtrée
+         */
+        public InputBatch withoutTickInputsFrom(int playerId) {
+            int kept = 0;
+            for (int i = 0; i < playerIds.length; i++) {
+                if (playerIds[i] != playerId || ticks[i] == CURSOR) {
+                    kept++;
+                }
+            }
+            if (kept == playerIds.length) {
+                return this;
+            }
+            InputBatch filtered = new InputBatch(new int[kept], new long[kept], new int[kept], new int[kept]);
+            int j = 0;
+            for (int i = 0; i < playerIds.length; i++) {
+                if (playerIds[i] != playerId || ticks[i] == CURSOR) {
+                    filtered.playerIds[j] = playerIds[i];
+                    filtered.ticks[j] = ticks[i];
+                    filtered.x[j] = x[i];
+                    filtered.y[j] = y[i];
+                    j++;
+                }
+            }
+            return filtered;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("InputBatch[%d entrées]", size());
+        }
+    }
 }
-
@@ -1,5 +1,7 @@
 package fr.uparis.informatique.cpoo5.liquidwar.network;
 
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+
 /**
  * Constantes et utilitaires pour le protocole réseau de Liquid War.
  * 
@@ -11,7 +13,7 @@ package fr.uparis.informatique.cpoo5.liquidwar.network;
  *   <li><b>Port</b> : 14000 (par défaut)</li>
  *   <li><b>Max joueurs</b> : 4 équipes simultanées</li>
  *   <li><b>Timeout</b> : 30 secondes</li>
- *   <li><b>Ping interval</b> : 5 secondes</li>
+ *   <li><b>Ping interval</b> : 1 seconde (mesure du RTT)</li>
  * </ul>
  * 
  * @author Liquid War Team
@@ -31,14 +33,51 @@ public final class NetworkProtocol {
     /** Timeout de connexion en millisecondes (30 secondes) */
     public static final int CONNECTION_TIMEOUT_MS = 30000;
     
-    /** Intervalle entre les pings en millisecondes (5 secondes) */
-    public static final int PING_INTERVAL_MS = 5000;
+    /** Intervalle entre les pings en millisecondes (1 seconde, mesure du RTT) */
+    public static final int PING_INTERVAL_MS = 1000;
     
     /** Timeout pour considérer un client déconnecté (15 secondes) */
     public static final int CLIENT_TIMEOUT_MS = 15000;
     
     /** Intervalle de synchronisation de l'état du jeu (100ms = 10 fois/seconde) */
     public static final int SYNC_INTERVAL_MS = 100;
+
+    /**
+     * Intervalle entre deux snapshots du champ de bataille envoyés aux
+     * spectateurs, en ticks logiques (20 ticks = 100 ms à 200 Hz)
+     */
+    public static final int SNAPSHOT_INTERVAL_TICKS = 20;
+
+    /**
+     * Intervalle d'envoi des empreintes d'état en lockstep, en ticks logiques
+     * : chaque GAME_STATE porte les empreintes des ticks écoulés depuis le
+     * précédent (voir DesyncDetector)
+     */
+    public static final int STATE_HASH_INTERVAL_TICKS = 20;
+    
+    /**
+     * Intervalle de regroupement des entrées relayées par le serveur (un tick
+     * logique) : une trame INPUT_BATCH par client et par intervalle
+     */
+    public static final int INPUT_BATCH_INTERVAL_MS = GameConfig.LOGIC_TIMER_INTERVAL_MS;
+    
+    /** Intervalle entre deux HELLO du client tant que le serveur n'a pas répondu en UDP */
+    public static final int UDP_HELLO_INTERVAL_MS = 100;
+    
+    /**
+     * Délai sans réponse (HELLO) ou sans acquittement (entrées) au-delà
+     * duquel les entrées repassent sur TCP
+     */
+    public static final int UDP_FALLBACK_MS = 2000;
+    
+    /**
+     * Octets en attente d'envoi vers un client au-delà desquels le serveur
+     * saute les états de jeu (remplacés par les suivants) pour ce client
+     */
+    public static final int CLIENT_QUEUE_DEGRADE_BYTES = 64 * 1024;
+    
+    /** Octets en attente au-delà desquels un client trop lent est déconnecté */
+    public static final int CLIENT_QUEUE_MAX_BYTES = 512 * 1024;
     
     // ==================== MESSAGES SYSTÈME ====================
     
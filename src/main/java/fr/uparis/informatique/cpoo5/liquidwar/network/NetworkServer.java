@@ -3,29 +3,58 @@ package fr.uparis.informatique.cpoo5.liquidwar.network;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.SocketAddress;
+import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntPredicate;
 
 /**
  * Serveur de jeu pour le mode multijoueur en réseau.
- * 
+ *
  * <p>Ce serveur gère les connexions des clients, synchronise l'état du jeu
  * et transmet les mouvements des curseurs entre les joueurs.
- * 
+ *
  * <h2>Architecture</h2>
  * <ul>
- *   <li><b>Thread principal</b> : Accepte les connexions entrantes</li>
- *   <li><b>Threads clients</b> : Un thread virtuel par client connecté</li>
+ *   <li><b>Thread réseau</b> : Un seul Selector non bloquant pour
+ *   l'acceptation, la lecture et l'écriture de tous les clients</li>
+ *   <li><b>Files d'envoi</b> : Une file bornée par client ; broadcast() encode
+ *   le message une fois et ne fait que l'ajouter aux files, sans jamais
+ *   attendre une socket</li>
+ *   <li><b>Relais des entrées</b> : Les CURSOR_MOVE et TICK_INPUT reçus sont
+ *   regroupés ({@link InputBatcher}) et partent en une trame INPUT_BATCH par
+ *   client et par tick logique</li>
+ *   <li><b>Entrées sur UDP</b> (option) : Un DatagramChannel sur le même port,
+ *   surveillé par le même Selector ; chaque client qui s'y associe reçoit ses
+ *   entrées par {@link InputDatagramLink} au lieu de TCP</li>
  *   <li><b>Thread de synchronisation</b> : Broadcast périodique de l'état</li>
  * </ul>
- * 
+ *
+ * <h2>Clients lents</h2>
+ * Un client qui ne lit pas assez vite ne ralentit pas les autres : au-delà
+ * de {@link NetworkProtocol#CLIENT_QUEUE_DEGRADE_BYTES} en attente, il ne
+ * reçoit plus les états de jeu périodiques (le suivant remplace le
+ * précédent) ; au-delà de {@link NetworkProtocol#CLIENT_QUEUE_MAX_BYTES},
+ * il est déconnecté.
+ *
  * <h2>Utilisation</h2>
  * <pre>{@code
  * NetworkServer server = new NetworkServer(14000);
@@ -33,61 +62,102 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * // ... partie en cours ...
  * server.stop();
  * }</pre>
- * 
+ *
  * @author Liquid War Team
  * @version 2.0
  * @since 2025-12-02
  */
 public class NetworkServer {
-    
+
+    // Trames écrites au plus par appel à write() (écriture groupée)
+    private static final int MAX_GATHER = 16;
+
     private final int port;
-    private ServerSocket serverSocket;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
     private final List<ClientHandler> clients;
     private final AtomicBoolean running;
-    private Thread acceptThread;
+    private Thread selectorThread;
     private Thread syncThread;
     private NetworkServerListener listener;
-    
+
+    // Clients ayant de nouvelles trames à envoyer (traités par le thread réseau)
+    private final ConcurrentLinkedQueue<ClientHandler> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    // Entrées à relayer au prochain tick
+    private final InputBatcher inputBatcher = new InputBatcher(NetworkProtocol.INPUT_BATCH_INTERVAL_MS);
+
+    // Transport UDP des entrées (null si désactivé ; tampons du thread réseau)
+    private boolean udpInputsEnabled;
+    private DatagramChannel udpChannel;
+    private final Map<SocketAddress, ClientHandler> udpClients = new ConcurrentHashMap<>();
+    private final ByteBuffer datagramIn = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+    private final ByteBuffer datagramOut = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+    private final SecureRandom udpTokens = new SecureRandom();
+    private long nextDatagramFlush;
+
+    // Prochain PING des clients (mesure du RTT)
+    private long nextPing;
+
     private final GameLogger logger = GameLogger.getInstance();
-    
+
     /**
      * Interface pour les événements du serveur.
      */
     public interface NetworkServerListener {
         /**
          * Appelé quand un client se connecte.
-         * 
+         *
          * @param playerId ID du joueur connecté
          */
         void onClientConnected(int playerId);
-        
+
         /**
          * Appelé quand un client se déconnecte.
-         * 
+         *
          * @param playerId ID du joueur déconnecté
          */
         void onClientDisconnected(int playerId);
-        
+
         /**
          * Appelé quand un curseur est déplacé.
-         * 
+         *
          * @param playerId ID du joueur
          * @param x Position X
          * @param y Position Y
          */
         void onCursorMoved(int playerId, int x, int y);
-        
+
         /**
          * Appelé pour obtenir l'état actuel du jeu.
-         * 
+         *
          * @return État du jeu à synchroniser
          */
         NetworkMessage.GameStateData getCurrentGameState();
+
+        /**
+         * Appelé quand un client envoie son entrée pour un tick (lockstep).
+         *
+         * @param playerId ID du joueur
+         * @param input Entrée du joueur
+         */
+        default void onTickInput(int playerId, NetworkMessage.TickInput input) {
+        }
+
+        /**
+         * Appelé quand un client envoie un GAME_STATE (empreintes d'état en
+         * lockstep).
+         *
+         * @param playerId ID du joueur
+         * @param state État envoyé par le client
+         */
+        default void onGameStateReceived(int playerId, NetworkMessage.GameStateData state) {
+        }
     }
-    
+
     /**
      * Crée un nouveau serveur sur le port spécifié.
-     * 
+     *
      * @param port Port d'écoute
      */
     public NetworkServer(int port) {
@@ -95,19 +165,29 @@ public class NetworkServer {
         this.clients = new CopyOnWriteArrayList<>();
         this.running = new AtomicBoolean(false);
     }
-    
+
     /**
      * Définit le listener pour les événements serveur.
-     * 
+     *
      * @param listener Listener à notifier
      */
     public void setListener(NetworkServerListener listener) {
         this.listener = listener;
     }
-    
+
+    /**
+     * Active le transport UDP des entrées (à appeler avant start()). Les
+     * clients qui l'activent aussi y basculent ; les autres restent en TCP.
+     *
+     * @param enabled true pour ouvrir le port UDP
+     */
+    public void setUdpInputsEnabled(boolean enabled) {
+        this.udpInputsEnabled = enabled;
+    }
+
     /**
      * Démarre le serveur.
-     * 
+     *
      * @throws IOException Si le serveur ne peut pas être démarré
      */
     public void start() throws IOException {
@@ -115,24 +195,35 @@ public class NetworkServer {
             logger.warn("Le serveur est déjà démarré");
             return;
         }
-        
-        serverSocket = new ServerSocket(port);
-        serverSocket.setSoTimeout(1000); // Timeout pour permettre l'arrêt propre
+
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+        if (udpInputsEnabled) {
+            openUdpChannel();
+        }
         running.set(true);
-        
+
         logger.info("╔════════════════════════════════════════════╗");
         logger.info("║  🌐 SERVEUR LIQUID WAR DÉMARRÉ            ║");
         logger.info("║  Port: %-36d║", port);
         logger.info("║  Max joueurs: %-28d║", NetworkProtocol.MAX_PLAYERS);
         logger.info("╚════════════════════════════════════════════╝");
-        
-        // Thread pour accepter les connexions
-        acceptThread = Thread.ofVirtual().start(() -> acceptClients());
-        
+
+        // Thread réseau : connexions, lectures et écritures
+        selectorThread = Thread.ofPlatform().name("network-selector").daemon().start(this::selectLoop);
+
         // Thread pour synchroniser l'état du jeu
         syncThread = Thread.ofVirtual().start(() -> synchronizeGameState());
     }
-    
+
     /**
      * Arrête le serveur et déconnecte tous les clients.
      */
@@ -140,97 +231,231 @@ public class NetworkServer {
         if (!running.get()) {
             return;
         }
-        
+
         logger.info("Arrêt du serveur...");
         running.set(false);
-        
-        // Déconnecter tous les clients
+        selector.wakeup();
+
+        // Attendre les threads (le thread réseau ferme les sockets en sortant)
+        try {
+            if (selectorThread != null) selectorThread.join(2000);
+            if (syncThread != null) syncThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Déconnecter les clients restants (thread réseau bloqué)
         for (ClientHandler client : new ArrayList<>(clients)) {
             client.disconnect();
         }
         clients.clear();
-        
-        // Fermer le socket serveur
+        closeQuietly();
+
+        InputBatcher.Stats stats = inputBatcher.getStats();
+        if (stats.inputs > 0) {
+            logger.info("Relais des entrées : %s", stats);
+        }
+        logger.info("Serveur arrêté");
+    }
+
+    /**
+     * Ouvre le port UDP des entrées ; en cas d'échec le serveur reste en TCP.
+     */
+    private void openUdpChannel() {
         try {
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
-            }
+            udpChannel = DatagramChannel.open();
+            udpChannel.configureBlocking(false);
+            udpChannel.bind(new InetSocketAddress(port));
+            udpChannel.register(selector, SelectionKey.OP_READ);
+            logger.info("📡 Entrées UDP sur le port %d", port);
         } catch (IOException e) {
-            logger.error("Erreur lors de la fermeture du serveur: " + e.getMessage());
+            logger.warn("Port UDP %d indisponible (%s) : entrées sur TCP uniquement", port, e.getMessage());
+            try {
+                udpChannel.close();
+            } catch (IOException ignored) {
+                // Ignorer
+            }
+            udpChannel = null;
         }
-        
-        // Attendre les threads
+    }
+
+    private void closeQuietly() {
         try {
-            if (acceptThread != null) acceptThread.join(2000);
-            if (syncThread != null) syncThread.join(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            if (udpChannel != null && udpChannel.isOpen()) {
+                udpChannel.close();
+            }
+            if (serverChannel != null && serverChannel.isOpen()) {
+                serverChannel.close();
+            }
+            if (selector != null && selector.isOpen()) {
+                selector.close();
+            }
+        } catch (IOException e) {
+            logger.error("Erreur lors de la fermeture du serveur: " + e.getMessage());
         }
-        
-        logger.info("Serveur arrêté");
     }
-    
+
+    // ==================== THREAD RÉSEAU ====================
+
     /**
-     * Boucle d'acceptation des clients.
+     * Boucle du Selector : acceptation, lecture et écriture sans blocage.
      */
-    private void acceptClients() {
-        while (running.get()) {
-            try {
-                Socket clientSocket = serverSocket.accept();
-                
-                // Vérifier si le serveur est plein
-                if (clients.size() >= NetworkProtocol.MAX_PLAYERS) {
-                    logger.warn("Connexion refusée: serveur plein");
-                    sendErrorAndClose(clientSocket, NetworkProtocol.getServerFullMessage());
-                    continue;
+    private void selectLoop() {
+        try {
+            while (running.get()) {
+                // Se réveiller à temps pour le prochain lot d'entrées
+                long untilFlush = inputBatcher.millisUntilFlush(System.nanoTime());
+                if (untilFlush == 0) {
+                    flushInputs();
+                    untilFlush = -1;
                 }
-                
-                // Créer un handler pour ce client
-                int playerId = clients.size();
-                ClientHandler handler = new ClientHandler(clientSocket, playerId);
-                clients.add(handler);
-                
-                // Démarrer le thread du client
-                Thread.ofVirtual().start(handler);
-                
-                logger.info("Client connecté: Joueur %d (%s)", playerId, 
-                        clientSocket.getInetAddress().getHostAddress());
-                
-                // Notifier le listener
-                if (listener != null) {
-                    listener.onClientConnected(playerId);
+                long timeout = untilFlush > 0 ? untilFlush : NetworkProtocol.PING_INTERVAL_MS;
+                if (!udpClients.isEmpty()) {
+                    timeout = Math.min(timeout, flushDatagrams());
                 }
-                
-            } catch (SocketTimeoutException e) {
-                // Normal - timeout pour permettre la vérification de running
-            } catch (IOException e) {
-                if (running.get()) {
-                    logger.error("Erreur lors de l'acceptation d'un client: " + e.getMessage());
+                timeout = Math.min(timeout, pingClients());
+
+                // Clients ayant de nouvelles trames : surveiller l'écriture.
+                // Juste avant select() : les trames mises en file par ce
+                // thread (lots, PING) ne réveillent pas le Selector
+                ClientHandler pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    pending.enableWrite();
+                }
+                selector.select(timeout);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptClient();
+                        continue;
+                    }
+                    if (key.channel() == udpChannel) {
+                        readDatagrams();
+                        continue;
+                    }
+                    ClientHandler client = (ClientHandler) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            client.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            client.write();
+                        }
+                    } catch (CancelledKeyException e) {
+                        // Client déconnecté depuis un autre thread
+                    } catch (RuntimeException e) {
+                        dropClient(client, e);
+                    }
                 }
             }
+        } catch (IOException | RuntimeException e) {
+            if (running.get()) {
+                logger.error("Erreur du thread réseau: " + e.getMessage());
+            }
+        } finally {
+            for (ClientHandler client : new ArrayList<>(clients)) {
+                client.disconnect();
+            }
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Accepte une connexion entrante.
+     */
+    private void acceptClient() {
+        SocketChannel channel;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+        } catch (IOException e) {
+            if (running.get()) {
+                logger.error("Erreur lors de l'acceptation d'un client: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Vérifier si le serveur est plein
+        if (clients.size() >= NetworkProtocol.MAX_PLAYERS) {
+            logger.warn("Connexion refusée: serveur plein");
+            sendErrorAndClose(channel, NetworkProtocol.getServerFullMessage());
+            return;
+        }
+
+        // Créer un handler pour ce client
+        int playerId = clients.size();
+        ClientHandler handler = new ClientHandler(channel, playerId);
+        try {
+            handler.key = channel.register(selector, SelectionKey.OP_READ, handler);
+        } catch (ClosedChannelException e) {
+            return;
+        }
+        clients.add(handler);
+
+        // En-tête puis confirmation de connexion
+        handler.enqueue(WireCodec.preambleBuffer(), false);
+        handler.sendMessage(new NetworkMessage(
+                NetworkMessage.MessageType.CONNECTED, playerId,
+                NetworkProtocol.WELCOME_MESSAGE));
+        if (udpChannel != null) {
+            // Jeton non nul : 0 = pas d'offre UDP
+            handler.udpToken = udpTokens.nextInt() | 1;
+            handler.sendMessage(new NetworkMessage(NetworkMessage.MessageType.UDP_OFFER, playerId,
+                    new int[] { port, handler.udpToken }));
+        }
+
+        logger.info("Client connecté: Joueur %d (%s)", playerId,
+                channel.socket().getInetAddress().getHostAddress());
+
+        // Notifier le listener
+        if (listener != null) {
+            try {
+                listener.onClientConnected(playerId);
+            } catch (RuntimeException e) {
+                dropClient(handler, e);
+            }
         }
     }
-    
+
     /**
-     * Envoie une erreur à un socket puis le ferme.
+     * Erreur inattendue en traitant un client (listener compris, appelé sur
+     * ce thread) : seul ce client est déconnecté, les autres continuent.
      */
-    private void sendErrorAndClose(Socket socket, String errorMessage) {
-        try (ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream())) {
+    private void dropClient(ClientHandler client, RuntimeException e) {
+        logger.error("Erreur en traitant le joueur %d, déconnexion: %s", client.playerId, e);
+        client.disconnect();
+    }
+
+    /**
+     * Envoie une erreur à un socket puis le ferme (quelques octets : tiennent
+     * dans le tampon d'envoi d'une socket neuve).
+     */
+    private void sendErrorAndClose(SocketChannel channel, String errorMessage) {
+        try {
             NetworkMessage error = new NetworkMessage(
                     NetworkMessage.MessageType.ERROR, -1, errorMessage);
-            out.writeObject(error);
-            out.flush();
+            channel.write(new ByteBuffer[] { WireCodec.preambleBuffer(), WireCodec.encodeToBuffer(error) });
         } catch (IOException e) {
             logger.error("Erreur lors de l'envoi d'erreur: " + e.getMessage());
         } finally {
             try {
-                socket.close();
+                channel.close();
             } catch (IOException e) {
                 // Ignorer
             }
         }
     }
-    
+
     /**
      * Boucle de synchronisation de l'état du jeu.
      */
@@ -238,7 +463,7 @@ public class NetworkServer {
         while (running.get()) {
             try {
                 Thread.sleep(NetworkProtocol.SYNC_INTERVAL_MS);
-                
+
                 // Obtenir l'état actuel du jeu
                 if (listener != null && !clients.isEmpty()) {
                     NetworkMessage.GameStateData state = listener.getCurrentGameState();
@@ -248,154 +473,657 @@ public class NetworkServer {
                         broadcast(message);
                     }
                 }
-                
+
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
             }
         }
     }
-    
+
     /**
      * Envoie un message à tous les clients connectés.
-     * 
+     *
+     * <p>Le message est encodé une seule fois ; l'envoi est asynchrone.
+     *
      * @param message Message à envoyer
      */
     public void broadcast(NetworkMessage message) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        ByteBuffer frame = WireCodec.encodeToBuffer(message);
+        boolean replaceable = message.getType() == NetworkMessage.MessageType.GAME_STATE;
+        for (ClientHandler client : clients) {
+            client.enqueue(frame.duplicate(), replaceable);
+        }
+    }
+
+    /**
+     * Relaie l'entrée locale du serveur pour un tick (lockstep) avec le
+     * prochain lot d'entrées.
+     *
+     * @param input Entrée du joueur du serveur
+     */
+    public void sendTickInput(NetworkMessage.TickInput input) {
+        int recipients = clients.size();
+        if (recipients == 0) {
+            return;
+        }
+        int frameBytes = WireCodec.tickInputFrameSize(-1, System.currentTimeMillis(), input);
+        scheduleFlush(inputBatcher.addTickInput(-1, input, frameBytes, recipients));
+    }
+
+    /**
+     * Réveille le thread réseau pour qu'il planifie l'envoi d'un nouveau lot.
+     */
+    private void scheduleFlush(boolean firstInput) {
+        if (firstInput && Thread.currentThread() != selectorThread) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Envoie les entrées regroupées : une trame par client, sans ses propres
+     * entrées de tick. La trame commune n'est encodée qu'une fois.
+     */
+    private void flushInputs() {
+        NetworkMessage.InputBatch batch = inputBatcher.drain();
+        if (batch == null) {
+            return;
+        }
+        ByteBuffer shared = null;
+        for (ClientHandler client : clients) {
+            NetworkMessage.InputBatch own = batch.withoutTickInputsFrom(client.playerId);
+            if (own.size() == 0) {
+                continue;
+            }
+            InputDatagramLink link = client.udpLink;
+            if (link != null) {
+                for (int i = 0; i < own.size(); i++) {
+                    link.queue(own.playerIds[i], own.ticks[i], own.x[i], own.y[i]);
+                }
+                client.sendDatagram();
+                continue;
+            }
+            ByteBuffer frame;
+            if (own == batch) {
+                if (shared == null) {
+                    shared = WireCodec.encodeToBuffer(
+                            new NetworkMessage(NetworkMessage.MessageType.INPUT_BATCH, -1, batch));
+                }
+                frame = shared.duplicate();
+            } else {
+                frame = WireCodec.encodeToBuffer(new NetworkMessage(NetworkMessage.MessageType.INPUT_BATCH, -1, own));
+            }
+            inputBatcher.recordFrame(frame.remaining());
+            client.enqueue(frame, false);
+        }
+    }
+
+    // ==================== ENTRÉES UDP (thread réseau) ====================
+
+    /**
+     * Lit les paquets UDP reçus : HELLO associe une adresse à un client
+     * (jeton reçu par TCP), DATA porte ses entrées.
+     */
+    private void readDatagrams() {
+        while (true) {
+            SocketAddress from;
+            datagramIn.clear();
+            try {
+                from = udpChannel.receive(datagramIn);
+            } catch (IOException e) {
+                logger.warn("Erreur de réception UDP: %s", e.getMessage());
+                return;
+            }
+            if (from == null) {
+                return;
+            }
+            datagramIn.flip();
+            try {
+                if (InputDatagramLink.readHeader(datagramIn) == InputDatagramLink.HELLO) {
+                    int[] hello = InputDatagramLink.readHello(datagramIn);
+                    bindDatagramClient(from, hello[0], hello[1]);
+                } else {
+                    ClientHandler client = udpClients.get(from);
+                    if (client != null) {
+                        try {
+                            client.receiveDatagram(datagramIn);
+                        } catch (RuntimeException e) {
+                            dropClient(client, e);
+                        }
+                    }
+                }
+            } catch (ProtocolException e) {
+                logger.debug("Paquet UDP ignoré (%s): %s", from, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Associe l'adresse d'un HELLO valide à son client, puis répond (le
+     * client bascule sur UDP à la première réponse).
+     */
+    private void bindDatagramClient(SocketAddress from, int playerId, int token) {
         for (ClientHandler client : clients) {
-            client.sendMessage(message);
+            if (client.playerId == playerId && client.udpToken == token && client.udpToken != 0) {
+                if (client.udpLink == null) {
+                    client.udpAddress = from;
+                    client.udpLink = new InputDatagramLink();
+                    udpClients.put(from, client);
+                    logger.info("📡 Joueur %d : entrées sur UDP (%s)", playerId, from);
+                }
+                if (from.equals(client.udpAddress)) {
+                    client.sendDatagram();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Renvoie les entrées non acquittées et les acquittements en attente,
+     * une fois par tick.
+     *
+     * @return Millisecondes avant le prochain passage
+     */
+    private long flushDatagrams() {
+        long now = System.nanoTime();
+        if (now >= nextDatagramFlush) {
+            nextDatagramFlush = now + NetworkProtocol.INPUT_BATCH_INTERVAL_MS * 1_000_000L;
+            for (ClientHandler client : udpClients.values()) {
+                client.flushDatagram(now);
+            }
+        }
+        return Math.max(1, (nextDatagramFlush - now + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Envoie un PING numéroté à chaque client, une fois par
+     * {@link NetworkProtocol#PING_INTERVAL_MS}.
+     *
+     * @return Millisecondes avant le prochain passage
+     */
+    private long pingClients() {
+        long now = System.nanoTime();
+        if (now >= nextPing) {
+            nextPing = now + NetworkProtocol.PING_INTERVAL_MS * 1_000_000L;
+            for (ClientHandler client : clients) {
+                client.sendMessage(new NetworkMessage(NetworkMessage.MessageType.PING, -1,
+                        new int[] { client.telemetry.nextPing(now) }));
+            }
+        }
+        return Math.max(1, (nextPing - now + 999_999) / 1_000_000);
+    }
+
+    /**
+     * Mesures de chaque client connecté (RTT, gigue, débits, file d'envoi),
+     * par ID de joueur croissant.
+     */
+    public List<ConnectionTelemetry.Snapshot> getClientTelemetry() {
+        long now = System.nanoTime();
+        List<ConnectionTelemetry.Snapshot> snapshots = new ArrayList<>();
+        for (ClientHandler client : clients) {
+            snapshots.add(client.telemetrySnapshot(now));
         }
+        snapshots.sort((a, b) -> Integer.compare(a.playerId, b.playerId));
+        return snapshots;
+    }
+
+    /**
+     * Nombre de clients dont les entrées passent par UDP.
+     */
+    public int getUdpClientCount() {
+        return udpClients.size();
     }
-    
+
+    /**
+     * Compteurs du regroupement des entrées relayées (trames et octets
+     * économisés).
+     */
+    public InputBatcher.Stats getInputStats() {
+        return inputBatcher.getStats();
+    }
+
+    /**
+     * Envoie un snapshot du champ de bataille à certains clients, chacun en
+     * delta contre le dernier snapshot qu'il a acquitté (voir
+     * SnapshotEncoder). Sauté pour un client en retard, comme GAME_STATE.
+     *
+     * @param snapshot Snapshot à envoyer
+     * @param recipients Filtre sur l'ID des joueurs destinataires
+     */
+    public void sendSnapshot(BattlefieldSnapshot snapshot, IntPredicate recipients) {
+        for (ClientHandler client : clients) {
+            if (recipients.test(client.playerId)) {
+                client.sendSnapshot(snapshot);
+            }
+        }
+    }
+
     /**
      * Envoie un message à un client spécifique.
-     * 
+     *
      * @param playerId ID du joueur destinataire
      * @param message Message à envoyer
      */
     public void sendToPlayer(int playerId, NetworkMessage message) {
-        if (playerId >= 0 && playerId < clients.size()) {
-            clients.get(playerId).sendMessage(message);
+        for (ClientHandler client : clients) {
+            if (client.playerId == playerId) {
+                client.sendMessage(message);
+                return;
+            }
         }
     }
-    
+
     /**
      * Obtient le nombre de clients connectés.
-     * 
+     *
      * @return Nombre de clients
      */
     public int getClientCount() {
         return clients.size();
     }
-    
+
     /**
      * Vérifie si le serveur est en cours d'exécution.
-     * 
+     *
      * @return true si le serveur est actif
      */
     public boolean isRunning() {
         return running.get();
     }
-    
+
     // ==================== HANDLER POUR CHAQUE CLIENT ====================
-    
+
     /**
-     * Gère la communication avec un client spécifique.
+     * État d'un client : tampon de lecture et file d'envoi bornée.
+     *
+     * <p>read() et write() ne sont appelés que par le thread réseau ;
+     * enqueue() peut l'être depuis n'importe quel thread.
      */
-    private class ClientHandler implements Runnable {
-        private final Socket socket;
+    private class ClientHandler {
+        private final SocketChannel channel;
         private final int playerId;
-        private ObjectOutputStream out;
-        private ObjectInputStream in;
+        private SelectionKey key;
         private final AtomicBoolean connected;
-        
-        public ClientHandler(Socket socket, int playerId) {
-            this.socket = socket;
+
+        // Lecture (thread réseau ; non rendu au pool à la déconnexion, qui
+        // peut venir d'un autre thread)
+        private ByteBuffer inbound = WireCodec.acquireBuffer();
+        private boolean preambleReceived;
+
+        // Envoi (protégé par outbound)
+        private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+        private int queuedBytes;
+        private boolean writeScheduled;
+        private long skippedStates;
+
+        // Snapshots en delta (protégé par this, créé au premier envoi)
+        private SnapshotEncoder snapshots;
+
+        // Entrées sur UDP (thread réseau ; lien créé par le HELLO du client)
+        private int udpToken;
+        private volatile InputDatagramLink udpLink;
+        private volatile SocketAddress udpAddress;
+
+        // Mesures de la connexion
+        final ConnectionTelemetry telemetry;
+
+        public ClientHandler(SocketChannel channel, int playerId) {
+            this.channel = channel;
             this.playerId = playerId;
             this.connected = new AtomicBoolean(true);
+            this.telemetry = new ConnectionTelemetry();
         }
-        
-        @Override
-        public void run() {
+
+        /**
+         * Lit les octets disponibles et traite les trames complètes.
+         */
+        void read() {
             try {
-                // Initialiser les streams (IMPORTANT: out avant in!)
-                out = new ObjectOutputStream(socket.getOutputStream());
-                out.flush();
-                in = new ObjectInputStream(socket.getInputStream());
-                
-                // Envoyer la confirmation de connexion
-                NetworkMessage welcome = new NetworkMessage(
-                        NetworkMessage.MessageType.CONNECTED, playerId, 
-                        NetworkProtocol.WELCOME_MESSAGE);
-                sendMessage(welcome);
-                
-                // Boucle de réception des messages
-                while (connected.get() && running.get()) {
-                    try {
-                        NetworkMessage message = (NetworkMessage) in.readObject();
-                        handleMessage(message);
-                    } catch (ClassNotFoundException e) {
-                        logger.error("Message invalide reçu du joueur %d", playerId);
+                int n = channel.read(inbound);
+                if (n < 0) {
+                    logger.info("Joueur %d a fermé la connexion", playerId);
+                    disconnect();
+                    return;
+                }
+                inbound.flip();
+                if (!preambleReceived) {
+                    preambleReceived = WireCodec.readPreamble(inbound);
+                }
+                NetworkMessage message;
+                int frameStart = inbound.position();
+                while (preambleReceived && connected.get()
+                        && (message = WireCodec.decodeFrame(inbound)) != null) {
+                    int frameBytes = inbound.position() - frameStart;
+                    telemetry.recordReceived(1, frameBytes);
+                    handleMessage(message, frameBytes);
+                    frameStart = inbound.position();
+                }
+                inbound.compact();
+
+                // Trame plus grande que le tampon : l'agrandir
+                if (!inbound.hasRemaining()) {
+                    if (inbound.capacity() > WireCodec.MAX_FRAME_SIZE) {
+                        throw new ProtocolException("Trame trop grande");
                     }
+                    ByteBuffer larger = ByteBuffer.allocate(inbound.capacity() * 2);
+                    inbound.flip();
+                    larger.put(inbound);
+                    WireCodec.releaseBuffer(inbound);
+                    inbound = larger;
                 }
-                
+            } catch (ProtocolException e) {
+                logger.error("Message invalide reçu du joueur %d: %s", playerId, e.getMessage());
+                disconnect();
             } catch (IOException e) {
                 if (connected.get()) {
                     logger.info("Joueur %d déconnecté: %s", playerId, e.getMessage());
                 }
-            } finally {
                 disconnect();
             }
         }
-        
+
         /**
          * Traite un message reçu du client.
+         *
+         * @param frameBytes Taille de la trame reçue (statistiques du relais)
          */
-        private void handleMessage(NetworkMessage message) {
+        private void handleMessage(NetworkMessage message, int frameBytes) {
             switch (message.getType()) {
                 case CURSOR_MOVE:
                     NetworkMessage.CursorPosition pos = message.getDataAsCursorPosition();
-                    if (pos != null && listener != null) {
-                        listener.onCursorMoved(playerId, pos.x, pos.y);
-                        // Transmettre le mouvement aux autres joueurs
-                        broadcast(message);
+                    if (pos != null) {
+                        handleCursorMove(pos.x, pos.y, frameBytes);
                     }
                     break;
-                    
+
+                case TICK_INPUT:
+                    NetworkMessage.TickInput input = message.getDataAsTickInput();
+                    if (input != null) {
+                        handleTickInput(input, frameBytes);
+                    }
+                    break;
+
+                case GAME_STATE:
+                    NetworkMessage.GameStateData state = message.getDataAsGameState();
+                    if (state != null && listener != null) {
+                        listener.onGameStateReceived(playerId, state);
+                    }
+                    break;
+
                 case PING:
-                    // Répondre au ping
-                    sendMessage(new NetworkMessage(NetworkMessage.MessageType.PONG, playerId));
+                    // Répondre au ping (avec son numéro)
+                    sendMessage(new NetworkMessage(NetworkMessage.MessageType.PONG, playerId,
+                            message.getDataAsIntArray()));
                     break;
-                    
+
+                case PONG:
+                    int[] pong = message.getDataAsIntArray();
+                    if (pong != null && pong.length == 1) {
+                        telemetry.onPong(pong[0], System.nanoTime());
+                    }
+                    break;
+
+                case SNAPSHOT_ACK:
+                    int[] ack = message.getDataAsIntArray();
+                    if (ack != null && ack.length > 0) {
+                        synchronized (this) {
+                            if (snapshots != null) {
+                                snapshots.acknowledge(ack[0]);
+                            }
+                        }
+                    }
+                    break;
+
                 case DISCONNECT:
                     disconnect();
                     break;
-                    
+
                 default:
                     logger.warn("Message non géré: %s", message.getType());
             }
         }
-        
+
+        private void handleCursorMove(int x, int y, int frameBytes) {
+            if (listener != null) {
+                listener.onCursorMoved(playerId, x, y);
+                // Transmettre le mouvement à tous les joueurs au prochain tick
+                scheduleFlush(inputBatcher.addCursor(playerId, x, y, frameBytes, clients.size()));
+            }
+        }
+
+        private void handleTickInput(NetworkMessage.TickInput input, int frameBytes) {
+            if (listener != null) {
+                listener.onTickInput(playerId, input);
+            }
+            // Relayer aux autres pairs (avec l'ID de la connexion) au prochain tick
+            scheduleFlush(inputBatcher.addTickInput(playerId, input, frameBytes, clients.size() - 1));
+        }
+
+        /**
+         * Traite un paquet DATA du client : ses nouvelles entrées, comme si
+         * elles étaient arrivées par TCP.
+         */
+        void receiveDatagram(ByteBuffer in) throws ProtocolException {
+            InputDatagramLink link = udpLink;
+            if (link == null) {
+                return;
+            }
+            telemetry.recordReceived(1, in.limit());
+            NetworkMessage.InputBatch batch = link.readPacket(in);
+            // Octets qu'aurait coûtés chaque entrée en trame TCP (statistiques)
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.ticks[i] == NetworkMessage.InputBatch.CURSOR) {
+                    handleCursorMove(batch.x[i], batch.y[i],
+                            WireCodec.cursorMoveFrameSize(playerId, now, batch.x[i], batch.y[i]));
+                } else {
+                    NetworkMessage.TickInput input = new NetworkMessage.TickInput(batch.ticks[i], batch.x[i],
+                            batch.y[i]);
+                    handleTickInput(input, WireCodec.tickInputFrameSize(playerId, now, input));
+                }
+            }
+        }
+
+        /**
+         * Envoie un paquet DATA au client (entrées non acquittées et
+         * acquittement).
+         */
+        void sendDatagram() {
+            InputDatagramLink link = udpLink;
+            if (link == null) {
+                return;
+            }
+            datagramOut.clear();
+            link.writePacket(datagramOut);
+            datagramOut.flip();
+            int bytes = datagramOut.remaining();
+            try {
+                udpChannel.send(datagramOut, udpAddress);
+                inputBatcher.recordFrame(bytes);
+                telemetry.recordSent(1, bytes);
+            } catch (IOException e) {
+                logger.warn("Erreur d'envoi UDP au joueur %d: %s", playerId, e.getMessage());
+            }
+        }
+
+        /**
+         * Passage périodique : renvoi, ou retour sur TCP si le client
+         * n'acquitte plus rien.
+         */
+        void flushDatagram(long nowNanos) {
+            InputDatagramLink link = udpLink;
+            if (link == null) {
+                return;
+            }
+            if (link.isStale(nowNanos, NetworkProtocol.UDP_FALLBACK_MS)) {
+                logger.warn("Joueur %d n'acquitte plus en UDP : entrées sur TCP", playerId);
+                unbindDatagram();
+                NetworkMessage.InputBatch pending = link.drainUnacked();
+                if (pending != null) {
+                    sendMessage(new NetworkMessage(NetworkMessage.MessageType.INPUT_BATCH, -1, pending));
+                }
+            } else if (link.hasOutgoing()) {
+                sendDatagram();
+            }
+        }
+
+        private void unbindDatagram() {
+            udpLink = null;
+            SocketAddress address = udpAddress;
+            if (address != null) {
+                udpClients.remove(address, this);
+            }
+        }
+
         /**
-         * Envoie un message au client.
+         * Envoie un message au client (asynchrone).
          */
         public void sendMessage(NetworkMessage message) {
-            if (!connected.get() || out == null) {
+            if (!connected.get()) {
+                return;
+            }
+            enqueue(WireCodec.encodeToBuffer(message),
+                    message.getType() == NetworkMessage.MessageType.GAME_STATE);
+        }
+
+        /**
+         * Encode un snapshot pour ce client et le met en file.
+         */
+        synchronized void sendSnapshot(BattlefieldSnapshot snapshot) {
+            if (!connected.get()) {
+                return;
+            }
+            if (snapshots == null) {
+                snapshots = new SnapshotEncoder();
+            }
+            NetworkMessage message = new NetworkMessage(NetworkMessage.MessageType.SNAPSHOT, -1,
+                    snapshots.encode(snapshot));
+            enqueue(WireCodec.encodeToBuffer(message), true);
+        }
+
+        /**
+         * Ajoute une trame encodée à la file d'envoi.
+         *
+         * @param frame Trame prête à être lue
+         * @param replaceable true si la trame peut être sautée quand le client
+         *            est en retard (état périodique)
+         */
+        void enqueue(ByteBuffer frame, boolean replaceable) {
+            if (!connected.get()) {
                 return;
             }
-            
+            boolean schedule;
+            synchronized (outbound) {
+                if (replaceable && queuedBytes > NetworkProtocol.CLIENT_QUEUE_DEGRADE_BYTES) {
+                    if (skippedStates++ == 0) {
+                        logger.warn("Joueur %d en retard (%d octets en attente) : états de jeu sautés",
+                                playerId, queuedBytes);
+                    }
+                    return;
+                }
+                if (queuedBytes + frame.remaining() > NetworkProtocol.CLIENT_QUEUE_MAX_BYTES) {
+                    schedule = false;
+                } else {
+                    telemetry.recordSent(1, frame.remaining());
+                    outbound.addLast(frame);
+                    queuedBytes += frame.remaining();
+                    schedule = !writeScheduled;
+                    writeScheduled = true;
+                    if (queuedBytes <= NetworkProtocol.CLIENT_QUEUE_DEGRADE_BYTES && skippedStates > 0) {
+                        logger.info("Joueur %d rattrapé (%d états sautés)", playerId, skippedStates);
+                        skippedStates = 0;
+                    }
+                    frame = null;
+                }
+            }
+            if (frame != null) {
+                logger.warn("Joueur %d trop lent (plus de %d octets en attente) : déconnexion",
+                        playerId, NetworkProtocol.CLIENT_QUEUE_MAX_BYTES);
+                disconnect();
+                return;
+            }
+            if (schedule) {
+                pendingWrites.offer(this);
+                if (Thread.currentThread() != selectorThread) {
+                    selector.wakeup();
+                }
+            }
+        }
+
+        /**
+         * Mesures de la connexion, avec la file d'envoi actuelle.
+         */
+        ConnectionTelemetry.Snapshot telemetrySnapshot(long nowNanos) {
+            int frames;
+            int bytes;
+            synchronized (outbound) {
+                frames = outbound.size();
+                bytes = queuedBytes;
+            }
+            return telemetry.snapshot(playerId, nowNanos, frames, bytes);
+        }
+
+        /**
+         * Active la surveillance de l'écriture (thread réseau).
+         */
+        void enableWrite() {
+            if (key != null && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Écrit autant de trames que la socket en accepte, en un seul appel
+         * système (écriture groupée).
+         */
+        void write() {
+            ByteBuffer[] batch = new ByteBuffer[MAX_GATHER];
             try {
-                synchronized (out) {
-                    out.writeObject(message);
-                    out.flush();
-                    out.reset(); // Éviter l'accumulation de références
+                while (true) {
+                    int count;
+                    synchronized (outbound) {
+                        count = 0;
+                        for (ByteBuffer frame : outbound) {
+                            batch[count++] = frame;
+                            if (count == MAX_GATHER) {
+                                break;
+                            }
+                        }
+                        if (count == 0) {
+                            // File vide : ne plus surveiller l'écriture
+                            writeScheduled = false;
+                            if (key.isValid()) {
+                                key.interestOps(SelectionKey.OP_READ);
+                            }
+                            return;
+                        }
+                    }
+
+                    long written = channel.write(batch, 0, count);
+
+                    synchronized (outbound) {
+                        queuedBytes -= (int) written;
+                        while (!outbound.isEmpty() && !outbound.peekFirst().hasRemaining()) {
+                            outbound.pollFirst();
+                        }
+                    }
+                    if (batch[count - 1].hasRemaining()) {
+                        // Socket pleine : reprendre au prochain OP_WRITE
+                        return;
+                    }
                 }
             } catch (IOException e) {
-                logger.error("Erreur lors de l'envoi au joueur %d: %s", playerId, e.getMessage());
+                if (connected.get()) {
+                    logger.error("Erreur lors de l'envoi au joueur %d: %s", playerId, e.getMessage());
+                }
                 disconnect();
             }
         }
-        
+
         /**
          * Déconnecte le client proprement.
          */
@@ -403,23 +1131,36 @@ public class NetworkServer {
             if (!connected.compareAndSet(true, false)) {
                 return; // Déjà déconnecté
             }
-            
+
             try {
-                if (in != null) in.close();
-                if (out != null) out.close();
-                if (socket != null && !socket.isClosed()) socket.close();
+                if (key != null) key.cancel();
+                channel.close();
             } catch (IOException e) {
                 logger.error("Erreur lors de la déconnexion du joueur %d", playerId);
             }
-            
+            synchronized (outbound) {
+                outbound.clear();
+                queuedBytes = 0;
+            }
+            synchronized (this) {
+                if (snapshots != null) {
+                    snapshots.release();
+                    snapshots = null;
+                }
+            }
+            unbindDatagram();
+
             clients.remove(this);
             logger.info("Joueur %d déconnecté", playerId);
-            
-            // Notifier le listener
+
+            // Notifier le listener (sans interrompre le thread réseau)
             if (listener != null) {
-                listener.onClientDisconnected(playerId);
+                try {
+                    listener.onClientDisconnected(playerId);
+                } catch (RuntimeException e) {
+                    logger.error("Erreur du listener à la déconnexion du joueur %d: %s", playerId, e);
+                }
             }
         }
     }
 }
-
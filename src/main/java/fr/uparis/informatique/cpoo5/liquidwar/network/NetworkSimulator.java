@@ -0,0 +1,284 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Proxy TCP local qui dégrade la liaison entre un client et le serveur.
+ *
+ * Les clients se connectent au port du simulateur au lieu de celui du
+ * serveur ; chaque sens de chaque connexion passe par un {@link Link} qui
+ * applique les {@link NetworkConditions} : latence, gigue, débit maximal et
+ * pertes (retransmission). Aucune modification de NetworkServer ni de
+ * NetworkClient : la prédiction, les snapshots et le lockstep se mesurent
+ * sur localhost comme sur un vrai lien, de façon reproductible (tirages
+ * issus de la graine, connexion par connexion).
+ *
+ * Le transport UDP des entrées ne passe pas par le simulateur : le client
+ * l'adresse directement au port annoncé par le serveur.
+ */
+public class NetworkSimulator {
+
+    /** Taille d'un segment (MSS Ethernet) : unité de perte et de débit */
+    static final int SEGMENT_SIZE = 1460;
+
+    /**
+     * Un sens d'une liaison : calcule l'instant d'arrivée de chaque segment.
+     * Déterministe pour une graine et une suite de segments donnés.
+     */
+    static final class Link {
+        private final NetworkConditions conditions;
+        private final Random random;
+        private long linkFreeNanos;
+        private long lastArrivalNanos;
+        private long lost;
+
+        Link(NetworkConditions conditions) {
+            this.conditions = conditions;
+            this.random = new Random(conditions.seed);
+        }
+
+        /**
+         * @param bytes Taille du segment
+         * @param nowNanos Instant d'émission
+         * @return Instant d'arrivée ; jamais avant le segment précédent (TCP
+         *         livre dans l'ordre)
+         */
+        long schedule(int bytes, long nowNanos) {
+            // Débit : le segment attend que le lien soit libre
+            long start = Math.max(nowNanos, linkFreeNanos);
+            if (conditions.bytesPerSecond > 0) {
+                start += bytes * 1_000_000_000L / conditions.bytesPerSecond;
+            }
+            linkFreeNanos = start;
+
+            // Tirages toujours faits, dans le même ordre : reproductibles
+            int jitter = random.nextInt(conditions.jitterMs + 1);
+            boolean isLost = random.nextDouble() < conditions.lossRate;
+            long delayMs = conditions.latencyMs + jitter;
+            if (isLost) {
+                delayMs += conditions.retransmitMs;
+                lost++;
+            }
+            lastArrivalNanos = Math.max(start + delayMs * 1_000_000L, lastArrivalNanos);
+            return lastArrivalNanos;
+        }
+
+        long getLost() {
+            return lost;
+        }
+    }
+
+    /** Un segment en transit */
+    private record Segment(byte[] bytes, long arrivalNanos) {
+    }
+
+    /** Fin de flux : fermer l'écriture de l'autre côté */
+    private static final Segment END = new Segment(new byte[0], 0);
+
+    private final int listenPort;
+    private final String targetHost;
+    private final int targetPort;
+    private final NetworkConditions upstream;
+    private final NetworkConditions downstream;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private int connections;
+
+    // Compteurs
+    private final AtomicLong bytesForwarded = new AtomicLong();
+    private final AtomicLong segmentsForwarded = new AtomicLong();
+    private final AtomicLong segmentsLost = new AtomicLong();
+
+    private final GameLogger logger = GameLogger.getInstance();
+
+    /**
+     * Simulateur symétrique.
+     *
+     * @param listenPort Port local à donner aux clients (0 = port libre)
+     * @param targetHost Hôte du serveur
+     * @param targetPort Port du serveur
+     * @param conditions Conditions de chaque sens
+     */
+    public NetworkSimulator(int listenPort, String targetHost, int targetPort, NetworkConditions conditions) {
+        this(listenPort, targetHost, targetPort, conditions, conditions.withSeed(conditions.seed + 1));
+    }
+
+    /**
+     * @param upstream Conditions client -> serveur
+     * @param downstream Conditions serveur -> client
+     */
+    public NetworkSimulator(int listenPort, String targetHost, int targetPort,
+            NetworkConditions upstream, NetworkConditions downstream) {
+        this.listenPort = listenPort;
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        this.upstream = upstream;
+        this.downstream = downstream;
+    }
+
+    /**
+     * Ouvre le port local et accepte les connexions.
+     *
+     * @throws IOException Si le port ne peut pas être ouvert
+     */
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress("localhost", listenPort));
+        running.set(true);
+        acceptThread = Thread.ofPlatform().name("network-simulator").daemon().start(this::acceptLoop);
+        logger.info("🧪 Simulateur réseau :%d -> %s:%d (montant %s, descendant %s)",
+                getPort(), targetHost, targetPort, upstream, downstream);
+    }
+
+    /**
+     * Ferme le port local et toutes les connexions.
+     */
+    public void stop() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+        closeQuietly(serverSocket);
+        for (Socket socket : sockets) {
+            closeQuietly(socket);
+        }
+        sockets.clear();
+        try {
+            acceptThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("🧪 Simulateur réseau arrêté : %d octets, %d segments, %d perdus",
+                getBytesForwarded(), getSegmentsForwarded(), getSegmentsLost());
+    }
+
+    /**
+     * Port local effectif (utile avec listenPort = 0).
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // ==================== RELAIS ====================
+
+    private void acceptLoop() {
+        while (running.get()) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (running.get()) {
+                    logger.warn("Simulateur réseau : accept échoué (%s)", e.getMessage());
+                }
+                return;
+            }
+            try {
+                Socket server = new Socket(targetHost, targetPort);
+                client.setTcpNoDelay(true);
+                server.setTcpNoDelay(true);
+                sockets.add(client);
+                sockets.add(server);
+
+                // Graines distinctes par connexion et par sens, dans l'ordre d'acceptation
+                long offset = 2L * connections++;
+                relay(client, server, new Link(upstream.withSeed(upstream.seed + offset)));
+                relay(server, client, new Link(downstream.withSeed(downstream.seed + offset)));
+            } catch (IOException e) {
+                logger.warn("Simulateur réseau : serveur injoignable (%s)", e.getMessage());
+                closeQuietly(client);
+            }
+        }
+    }
+
+    /**
+     * Relaie un sens : un thread lit et date les segments, un autre les
+     * écrit à leur instant d'arrivée.
+     */
+    private void relay(Socket from, Socket to, Link link) throws IOException {
+        InputStream in = from.getInputStream();
+        OutputStream out = to.getOutputStream();
+        BlockingQueue<Segment> inFlight = new LinkedBlockingQueue<>();
+
+        Thread.ofVirtual().start(() -> {
+            byte[] buffer = new byte[SEGMENT_SIZE];
+            try {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    long lostBefore = link.getLost();
+                    inFlight.add(new Segment(Arrays.copyOf(buffer, read), link.schedule(read, System.nanoTime())));
+                    segmentsLost.addAndGet(link.getLost() - lostBefore);
+                }
+            } catch (IOException e) {
+                // Connexion fermée
+            }
+            inFlight.add(END);
+        });
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                while (true) {
+                    Segment segment = inFlight.take();
+                    if (segment == END) {
+                        to.shutdownOutput();
+                        return;
+                    }
+                    long wait;
+                    while ((wait = segment.arrivalNanos() - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    out.write(segment.bytes());
+                    out.flush();
+                    bytesForwarded.addAndGet(segment.bytes().length);
+                    segmentsForwarded.incrementAndGet();
+                }
+            } catch (IOException | InterruptedException e) {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        });
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+            // Ignorer
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    public long getBytesForwarded() {
+        return bytesForwarded.get();
+    }
+
+    public long getSegmentsForwarded() {
+        return segmentsForwarded.get();
+    }
+
+    /** Segments retardés par une retransmission simulée */
+    public long getSegmentsLost() {
+        return segmentsLost.get();
+    }
+}
@@ -0,0 +1,146 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.net.ProtocolException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+
+/**
+ * Décodeur des snapshots produits par SnapshotEncoder, côté destinataire.
+ *
+ * Garde les HISTORY derniers snapshots décodés : la base annoncée par un
+ * delta est toujours l'un d'eux, puisque l'encodeur n'utilise que des
+ * snapshots acquittés.
+ */
+public class SnapshotDecoder {
+
+    private final Inflater inflater = new Inflater();
+    private final byte[] raw = new byte[SnapshotEncoder.RAW_CAPACITY];
+
+    private final BattlefieldSnapshot[] received = new BattlefieldSnapshot[SnapshotEncoder.HISTORY];
+    private int nextSlot;
+
+    /**
+     * Décode un snapshot et le garde comme base possible.
+     *
+     * @throws ProtocolException Si la base est inconnue ou les données
+     *                           invalides (demander alors une image complète)
+     */
+    public synchronized BattlefieldSnapshot decode(NetworkMessage.SnapshotData data) throws ProtocolException {
+        BattlefieldSnapshot base = null;
+        if (data.baseTick >= 0) {
+            base = find(data.baseTick);
+            if (base == null) {
+                throw new ProtocolException("Base de snapshot inconnue : tick " + data.baseTick);
+            }
+        }
+
+        int length = inflate(data.payload);
+        BattlefieldSnapshot snapshot;
+        try {
+            snapshot = readRaw(data.tick, ByteBuffer.wrap(raw, 0, length), base);
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Snapshot tronqué");
+        }
+
+        received[nextSlot] = snapshot;
+        nextSlot = (nextSlot + 1) % received.length;
+        return snapshot;
+    }
+
+    /**
+     * Oublie les snapshots reçus (après une demande d'image complète).
+     */
+    public synchronized void reset() {
+        Arrays.fill(received, null);
+    }
+
+    /**
+     * Libère le décompresseur natif.
+     */
+    public synchronized void release() {
+        inflater.end();
+        reset();
+    }
+
+    private BattlefieldSnapshot find(int tick) {
+        for (BattlefieldSnapshot snapshot : received) {
+            if (snapshot != null && snapshot.getTick() == tick) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    private int inflate(byte[] payload) throws ProtocolException {
+        inflater.reset();
+        inflater.setInput(payload);
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == raw.length) {
+                    throw new ProtocolException("Snapshot décompressé trop grand");
+                }
+                int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(SnapshotEncoder.DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new ProtocolException("Snapshot compressé tronqué");
+                    }
+                }
+                length += n;
+            }
+        } catch (DataFormatException | IllegalArgumentException e) {
+            // IllegalArgumentException : identifiant de dictionnaire altéré
+            throw new ProtocolException("Snapshot compressé invalide : " + e.getMessage());
+        }
+        return length;
+    }
+
+    /**
+     * Lit le format de SnapshotEncoder.writeRaw.
+     */
+    static BattlefieldSnapshot readRaw(int tick, ByteBuffer in, BattlefieldSnapshot base)
+            throws ProtocolException {
+        int teams = WireCodec.getVarInt(in);
+        if (teams < 1 || teams > GameConfig.MAX_TEAMS) {
+            throw new ProtocolException("Nombre d'équipes invalide : " + teams);
+        }
+        int[] cursorX = new int[teams];
+        int[] cursorY = new int[teams];
+        int[] counts = new int[teams];
+        for (int team = 0; team < teams; team++) {
+            cursorX[team] = WireCodec.getVarInt(in);
+            cursorY[team] = WireCodec.getVarInt(in);
+            counts[team] = WireCodec.getVarInt(in);
+        }
+
+        int cells = BattlefieldSnapshot.CELLS;
+        byte[] cellTeam = base != null ? base.cellTeams().clone() : new byte[cells];
+        byte[] cellHealth = base != null ? base.cellHealths().clone() : new byte[cells];
+        int cell = 0;
+        while (cell < cells) {
+            int unchanged = WireCodec.getVarInt(in);
+            int literals = WireCodec.getVarInt(in);
+            if (unchanged < 0 || literals < 0 || unchanged + literals == 0
+                    || (long) cell + unchanged + literals > cells
+                    || literals > in.remaining() / 2) {
+                throw new ProtocolException("Plage de cellules invalide");
+            }
+            cell += unchanged;
+            for (int i = 0; i < literals; i++) {
+                cellTeam[cell + i] ^= in.get();
+            }
+            for (int i = 0; i < literals; i++) {
+                cellHealth[cell + i] ^= in.get();
+            }
+            cell += literals;
+        }
+        return new BattlefieldSnapshot(tick, teams, cursorX, cursorY, counts, cellTeam, cellHealth);
+    }
+}
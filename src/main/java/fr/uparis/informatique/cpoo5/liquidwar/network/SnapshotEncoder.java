@@ -0,0 +1,192 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+
+/**
+ * Encodeur de snapshots pour un destinataire.
+ *
+ * Chaque cellule est encodée en XOR avec le dernier snapshot acquitté par le
+ * destinataire (SNAPSHOT_ACK), ou telle quelle s'il n'en a acquitté aucun
+ * (image complète). Entre deux synchronisations seule une petite partie des
+ * cellules change : le flux se réduit à quelques plages.
+ *
+ * Format avant compression :
+ * <pre>
+ * varint équipes, puis par équipe : varint x, y, effectif
+ * plages jusqu'à la dernière cellule :
+ *   varint cellules inchangées, varint n, n octets équipe, n octets santé
+ * </pre>
+ *
+ * Le tout est compressé par Deflater avec un dictionnaire prédéfini (motifs
+ * d'équipes et de santé pleine), utile dès les premiers octets d'un message
+ * court.
+ *
+ * L'historique garde les HISTORY derniers envois. Un acquittement qui n'y
+ * figure plus (ou plus ancien que la base courante) est ignoré : les deltas
+ * continuent contre la base courante, que le destinataire a déjà acquittée.
+ * Seul un acquittement négatif (destinataire perdu) fait repartir
+ * l'encodeur sur une image complète.
+ */
+public class SnapshotEncoder {
+
+    /** Snapshots envoyés gardés comme bases possibles */
+    static final int HISTORY = 8;
+
+    /** Taille maximale d'un snapshot décompressé (une plage par cellule au pire) */
+    static final int RAW_CAPACITY = BattlefieldSnapshot.CELLS * 4 + 256;
+
+    /** Dictionnaire prédéfini partagé avec SnapshotDecoder */
+    static final byte[] DICTIONARY = buildDictionary();
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final ByteBuffer raw = ByteBuffer.allocate(RAW_CAPACITY);
+    private byte[] compressed = new byte[16 * 1024];
+
+    private final BattlefieldSnapshot[] sent = new BattlefieldSnapshot[HISTORY];
+    private int nextSlot;
+    private BattlefieldSnapshot acknowledged;
+
+    /**
+     * Encode un snapshot en delta contre la dernière base acquittée.
+     *
+     * @return Données du message SNAPSHOT
+     */
+    public synchronized NetworkMessage.SnapshotData encode(BattlefieldSnapshot snapshot) {
+        BattlefieldSnapshot base = acknowledged;
+        raw.clear();
+        writeRaw(snapshot, base, raw);
+
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(raw.array(), 0, raw.position());
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        sent[nextSlot] = snapshot;
+        nextSlot = (nextSlot + 1) % HISTORY;
+        return new NetworkMessage.SnapshotData(snapshot.getTick(), base != null ? base.getTick() : -1,
+                Arrays.copyOf(compressed, length));
+    }
+
+    /**
+     * Le destinataire a décodé le snapshot d'un tick : il devient la base des
+     * prochains deltas. Un tick négatif réclame une image complète.
+     */
+    public synchronized void acknowledge(int tick) {
+        if (tick < 0) {
+            acknowledged = null;
+            return;
+        }
+        if (acknowledged != null && tick <= acknowledged.getTick()) {
+            return;
+        }
+        for (BattlefieldSnapshot snapshot : sent) {
+            if (snapshot != null && snapshot.getTick() == tick) {
+                acknowledged = snapshot;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tick de la base courante, ou -1 (image complète).
+     */
+    public synchronized int getAcknowledgedTick() {
+        return acknowledged != null ? acknowledged.getTick() : -1;
+    }
+
+    /**
+     * Libère le compresseur natif.
+     */
+    public synchronized void release() {
+        deflater.end();
+        Arrays.fill(sent, null);
+        acknowledged = null;
+    }
+
+    // ==================== FORMAT ====================
+
+    /**
+     * Écrit le snapshot non compressé (voir le format ci-dessus).
+     *
+     * @param base Base du delta, ou null pour une image complète
+     */
+    static void writeRaw(BattlefieldSnapshot snapshot, BattlefieldSnapshot base, ByteBuffer out) {
+        int teams = snapshot.getTeams();
+        WireCodec.putVarInt(out, teams);
+        for (int team = 0; team < teams; team++) {
+            WireCodec.putVarInt(out, snapshot.getCursorX(team));
+            WireCodec.putVarInt(out, snapshot.getCursorY(team));
+            WireCodec.putVarInt(out, snapshot.getFighterCount(team));
+        }
+
+        byte[] cellTeam = snapshot.cellTeams();
+        byte[] cellHealth = snapshot.cellHealths();
+        byte[] baseTeam = base != null ? base.cellTeams() : null;
+        byte[] baseHealth = base != null ? base.cellHealths() : null;
+        int cells = BattlefieldSnapshot.CELLS;
+        int cell = 0;
+        while (cell < cells) {
+            int runStart = cell;
+            while (cell < cells && !changed(cellTeam, cellHealth, baseTeam, baseHealth, cell)) {
+                cell++;
+            }
+            int unchanged = cell - runStart;
+            int literalStart = cell;
+            while (cell < cells && changed(cellTeam, cellHealth, baseTeam, baseHealth, cell)) {
+                cell++;
+            }
+            int literals = cell - literalStart;
+
+            WireCodec.putVarInt(out, unchanged);
+            WireCodec.putVarInt(out, literals);
+            for (int i = literalStart; i < cell; i++) {
+                out.put(baseTeam != null ? (byte) (cellTeam[i] ^ baseTeam[i]) : cellTeam[i]);
+            }
+            for (int i = literalStart; i < cell; i++) {
+                out.put(baseHealth != null ? (byte) (cellHealth[i] ^ baseHealth[i]) : cellHealth[i]);
+            }
+        }
+    }
+
+    private static boolean changed(byte[] cellTeam, byte[] cellHealth, byte[] baseTeam, byte[] baseHealth,
+            int cell) {
+        if (baseTeam == null) {
+            return cellTeam[cell] != 0 || cellHealth[cell] != 0;
+        }
+        return cellTeam[cell] != baseTeam[cell] || cellHealth[cell] != baseHealth[cell];
+    }
+
+    /**
+     * Motifs fréquents, du moins au plus probable (Deflate code plus court
+     * les références proches de la fin du dictionnaire) : petites longueurs
+     * de plages, plages d'équipes, santé pleine.
+     */
+    private static byte[] buildDictionary() {
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        for (int run = 1; run < 128; run++) {
+            dictionary.write(run);
+            dictionary.write(1);
+        }
+        for (int team = GameConfig.MAX_TEAMS; team >= 1; team--) {
+            for (int i = 0; i < 32; i++) {
+                dictionary.write(team);
+            }
+        }
+        for (int i = 0; i < 64; i++) {
+            dictionary.write(GameConfig.FIGHTER_INITIAL_HEALTH);
+        }
+        return dictionary.toByteArray();
+    }
+}
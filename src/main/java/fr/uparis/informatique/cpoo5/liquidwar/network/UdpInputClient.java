@@ -0,0 +1,249 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Côté client du transport UDP des entrées (voir InputDatagramLink).
+ *
+ * Envoie HELLO (ID et jeton reçus dans UDP_OFFER) jusqu'à la première
+ * réponse du serveur ; les entrées passent ensuite par UDP. Un thread
+ * réseau reçoit les paquets et, à chaque tick, renvoie les entrées non
+ * acquittées et les acquittements.
+ *
+ * Sans réponse ou sans acquittement pendant
+ * {@link NetworkProtocol#UDP_FALLBACK_MS}, le transport s'arrête : les
+ * entrées non acquittées sont rendues à NetworkClient qui les renvoie par
+ * TCP.
+ */
+public class UdpInputClient {
+
+    private final InetSocketAddress server;
+    private final int playerId;
+    private final int token;
+    private final ConnectionTelemetry telemetry;
+    private final Consumer<NetworkMessage.InputBatch> onInputs;
+    private final Consumer<NetworkMessage.InputBatch> onFallback;
+
+    private final InputDatagramLink link = new InputDatagramLink();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean ready;
+
+    private DatagramChannel channel;
+    private Selector selector;
+    private Thread thread;
+
+    // Réception (thread UDP) ; envoi protégé par this
+    private final ByteBuffer incoming = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+    private final ByteBuffer outgoing = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+    private long lastSendNanos;
+
+    private final GameLogger logger = GameLogger.getInstance();
+
+    /**
+     * @param server Adresse UDP du serveur
+     * @param playerId ID du joueur (HELLO)
+     * @param token Jeton reçu dans UDP_OFFER
+     * @param telemetry Mesures de la liaison (octets des paquets)
+     * @param onInputs Entrées relayées reçues (thread UDP)
+     * @param onFallback Appelé une fois à l'arrêt sur échec, avec les entrées
+     *            non acquittées (ou null) à renvoyer par TCP
+     */
+    public UdpInputClient(InetSocketAddress server, int playerId, int token, ConnectionTelemetry telemetry,
+            Consumer<NetworkMessage.InputBatch> onInputs, Consumer<NetworkMessage.InputBatch> onFallback) {
+        this.server = server;
+        this.playerId = playerId;
+        this.token = token;
+        this.telemetry = telemetry;
+        this.onInputs = onInputs;
+        this.onFallback = onFallback;
+    }
+
+    /**
+     * Ouvre le socket UDP et commence l'association.
+     *
+     * @throws IOException Si le socket ne peut pas être ouvert
+     */
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(server);
+            selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        running.set(true);
+        thread = Thread.ofPlatform().name("udp-inputs").daemon().start(this::loop);
+    }
+
+    /**
+     * Envoie une entrée par UDP si le serveur a répondu.
+     *
+     * @param tick Tick de l'entrée, ou InputBatch.CURSOR
+     * @return false si l'entrée doit passer par TCP
+     */
+    public synchronized boolean send(long tick, int x, int y) {
+        if (!ready) {
+            return false;
+        }
+        link.queue(playerId, tick, x, y);
+        sendPacket();
+        return true;
+    }
+
+    /**
+     * Indique si les entrées passent par UDP.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Arrête le transport (déconnexion).
+     */
+    public void close() {
+        running.set(false);
+        synchronized (this) {
+            ready = false;
+        }
+        try {
+            if (selector != null) {
+                selector.wakeup();
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Ignorer
+        }
+    }
+
+    /**
+     * Lien UDP (statistiques).
+     */
+    public InputDatagramLink getLink() {
+        return link;
+    }
+
+    // ==================== THREAD UDP ====================
+
+    private void loop() {
+        long started = System.nanoTime();
+        long lastHello = 0;
+        try {
+            while (running.get()) {
+                selector.select(NetworkProtocol.INPUT_BATCH_INTERVAL_MS);
+                selector.selectedKeys().clear();
+                receiveAll();
+
+                long now = System.nanoTime();
+                if (!ready) {
+                    if (now - started > NetworkProtocol.UDP_FALLBACK_MS * 1_000_000L) {
+                        logger.warn("Pas de réponse UDP du serveur : entrées sur TCP");
+                        fallback();
+                        return;
+                    }
+                    if (now - lastHello >= NetworkProtocol.UDP_HELLO_INTERVAL_MS * 1_000_000L) {
+                        sendHello();
+                        lastHello = now;
+                    }
+                } else if (link.isStale(now, NetworkProtocol.UDP_FALLBACK_MS)) {
+                    logger.warn("Entrées UDP non acquittées depuis %d ms : retour sur TCP",
+                            NetworkProtocol.UDP_FALLBACK_MS);
+                    fallback();
+                    return;
+                } else {
+                    resendIfIdle(now);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (running.get()) {
+                logger.warn("Transport UDP interrompu (%s) : entrées sur TCP", e.getMessage());
+                fallback();
+            }
+        }
+    }
+
+    private void receiveAll() throws IOException {
+        while (true) {
+            incoming.clear();
+            if (channel.receive(incoming) == null) {
+                return;
+            }
+            incoming.flip();
+            telemetry.recordReceived(1, incoming.remaining());
+            try {
+                if (InputDatagramLink.readHeader(incoming) != InputDatagramLink.DATA) {
+                    continue;
+                }
+                NetworkMessage.InputBatch batch = link.readPacket(incoming);
+                if (!ready) {
+                    ready = true;
+                    logger.info("📡 Entrées sur UDP (%s)", server);
+                }
+                if (batch.size() > 0) {
+                    onInputs.accept(batch);
+                }
+            } catch (ProtocolException e) {
+                logger.debug("Paquet UDP ignoré: %s", e.getMessage());
+            }
+        }
+    }
+
+    private synchronized void sendHello() throws IOException {
+        outgoing.clear();
+        InputDatagramLink.writeHello(outgoing, playerId, token);
+        outgoing.flip();
+        telemetry.recordSent(1, channel.write(outgoing));
+    }
+
+    /**
+     * Renvoie les entrées non acquittées et l'acquittement si rien n'est
+     * parti depuis un tick.
+     */
+    private synchronized void resendIfIdle(long now) {
+        if (link.hasOutgoing() && now - lastSendNanos >= NetworkProtocol.INPUT_BATCH_INTERVAL_MS * 1_000_000L) {
+            sendPacket();
+        }
+    }
+
+    private void sendPacket() {
+        outgoing.clear();
+        link.writePacket(outgoing);
+        outgoing.flip();
+        try {
+            telemetry.recordSent(1, channel.write(outgoing));
+        } catch (IOException e) {
+            // Paquet perdu : la redondance le couvre, l'absence
+            // d'acquittement finit par ramener les entrées sur TCP
+            logger.debug("Envoi UDP échoué: %s", e.getMessage());
+        }
+        lastSendNanos = System.nanoTime();
+    }
+
+    /**
+     * Arrête le transport et rend les entrées non acquittées pour TCP.
+     */
+    private void fallback() {
+        NetworkMessage.InputBatch pending;
+        synchronized (this) {
+            ready = false;
+            pending = link.drainUnacked();
+        }
+        close();
+        onFallback.accept(pending);
+    }
+}
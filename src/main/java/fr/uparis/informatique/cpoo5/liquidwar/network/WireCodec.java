@@ -0,0 +1,675 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Codec binaire compact des messages réseau (remplace la sérialisation
+ * Java).
+ *
+ * <p>Un ObjectOutputStream envoie le descripteur de classe à chaque message
+ * (à cause de reset()) et passe par la réflexion : un simple CURSOR_MOVE
+ * coûte plusieurs centaines d'octets. Ici, chaque message est une trame :
+ *
+ * <pre>
+ * varint  longueur du corps
+ * byte    type (ordinal de MessageType)
+ * zigzag  playerId
+ * varlong timestamp (ms)
+ * byte    nature des données (DATA_*)
+ * ...     données
+ * </pre>
+ *
+ * Les entiers sont des varints (7 bits par octet, zigzag pour les valeurs
+ * signées) : un CURSOR_MOVE tient en une quinzaine d'octets.
+ *
+ * <h2>Version</h2>
+ * Chaque côté envoie {@link #PREAMBLE} (magie "LW" + {@link #VERSION}) à
+ * l'ouverture de la connexion et vérifie celui du pair. Tout changement du
+ * format (nouveau type de message, nouvelle nature de données) incrémente
+ * VERSION.
+ *
+ * <h2>Buffers</h2>
+ * L'encodage et le décodage travaillent directement dans des ByteBuffer de
+ * {@link #BUFFER_SIZE} octets réutilisés ({@link #acquireBuffer()},
+ * {@link #releaseBuffer(ByteBuffer)}).
+ *
+ * @author Liquid War Team
+ */
+public final class WireCodec {
+
+    /** Version du format binaire */
+    public static final byte VERSION = 6;
+
+    /** En-tête envoyé à l'ouverture de la connexion */
+    static final byte[] PREAMBLE = { 'L', 'W', VERSION };
+
+    /** Taille maximale d'une trame (protection contre les longueurs aberrantes) */
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    /** Taille des buffers réutilisés */
+    public static final int BUFFER_SIZE = 8 * 1024;
+
+    // Nature des données d'un message
+    static final byte DATA_NONE = 0;
+    static final byte DATA_STRING = 1;
+    static final byte DATA_INT_ARRAY = 2;
+    static final byte DATA_CURSOR = 3;
+    static final byte DATA_GAME_STATE = 4;
+    static final byte DATA_LOBBY = 5;
+    static final byte DATA_MATCH_SETTINGS = 6;
+    static final byte DATA_TICK_INPUT = 7;
+    static final byte DATA_SNAPSHOT = 8;
+    static final byte DATA_INPUT_BATCH = 9;
+
+    private static final NetworkMessage.MessageType[] TYPES = NetworkMessage.MessageType.values();
+
+    // Buffers libres (au plus MAX_POOLED conservés)
+    private static final int MAX_POOLED = 32;
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructeur privé pour empêcher l'instanciation.
+     */
+    private WireCodec() {
+        throw new AssertionError("WireCodec ne peut pas être instancié");
+    }
+
+    // ==================== BUFFERS ====================
+
+    /**
+     * Obtient un buffer vide de BUFFER_SIZE octets (réutilisé si possible).
+     */
+    public static ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Rend un buffer obtenu par acquireBuffer(). Les buffers d'une autre
+     * taille (trames exceptionnellement grandes) sont abandonnés au GC.
+     */
+    public static void releaseBuffer(ByteBuffer buffer) {
+        if (buffer != null && buffer.capacity() == BUFFER_SIZE && POOL.size() < MAX_POOLED) {
+            POOL.offer(buffer);
+        }
+    }
+
+    // ==================== TRAMES (ByteBuffer) ====================
+
+    /**
+     * Écrit une trame complète (longueur + corps) à la position du buffer.
+     *
+     * @throws BufferOverflowException Si le buffer est trop petit (position
+     *                                 inchangée)
+     * @throws IllegalArgumentException Si les données ne sont pas encodables
+     */
+    public static void encodeFrame(NetworkMessage message, ByteBuffer out) {
+        int start = out.position();
+        try {
+            // Longueur sur un octet dans le cas courant (corps < 128 octets),
+            // décalée sinon
+            out.put((byte) 0);
+            int bodyStart = out.position();
+            encodeBody(message, out);
+            int bodyLength = out.position() - bodyStart;
+            if (bodyLength > MAX_FRAME_SIZE) {
+                throw new IllegalArgumentException("Trame trop grande : " + bodyLength + " octets");
+            }
+            int prefix = varIntSize(bodyLength);
+            if (prefix > 1) {
+                if (out.limit() - out.position() < prefix - 1) {
+                    throw new BufferOverflowException();
+                }
+                shift(out, bodyStart, bodyLength, prefix - 1);
+            }
+            out.position(start);
+            putVarInt(out, bodyLength);
+            out.position(start + prefix + bodyLength);
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            out.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Lit une trame complète si elle est entièrement présente dans le buffer.
+     *
+     * @return Le message, ou null si la trame est incomplète (position
+     *         inchangée)
+     * @throws ProtocolException Si la trame est invalide
+     */
+    public static NetworkMessage decodeFrame(ByteBuffer in) throws ProtocolException {
+        int start = in.position();
+        int length = 0;
+        int shift = 0;
+        while (true) {
+            if (!in.hasRemaining()) {
+                in.position(start);
+                return null;
+            }
+            byte b = in.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new ProtocolException("Longueur de trame invalide");
+            }
+        }
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new ProtocolException("Longueur de trame invalide : " + length);
+        }
+        if (in.remaining() < length) {
+            in.position(start);
+            return null;
+        }
+        int end = in.position() + length;
+        int limit = in.limit();
+        in.limit(end);
+        try {
+            NetworkMessage message = decodeBody(in);
+            if (in.hasRemaining()) {
+                throw new ProtocolException("Octets en trop dans la trame " + message.getType());
+            }
+            return message;
+        } finally {
+            in.limit(limit);
+            in.position(end);
+        }
+    }
+
+    /**
+     * Encode une trame dans un buffer de taille exacte, prêt à être lu (à
+     * partager entre plusieurs destinataires via duplicate()).
+     */
+    public static ByteBuffer encodeToBuffer(NetworkMessage message) {
+        ByteBuffer buffer = encodeGrowing(message, acquireBuffer());
+        ByteBuffer frame = ByteBuffer.allocate(buffer.position());
+        buffer.flip();
+        frame.put(buffer).flip();
+        releaseBuffer(buffer);
+        return frame;
+    }
+
+    /**
+     * Taille de la trame CURSOR_MOVE équivalente à une entrée, calculée sans
+     * l'encoder (statistiques du relais, une fois par entrée relayée).
+     */
+    static int cursorMoveFrameSize(int playerId, long timestamp, int x, int y) {
+        return frameSizeForBody(headerSize(playerId, timestamp)
+                + varIntSize(zigzag(x)) + varIntSize(zigzag(y)));
+    }
+
+    /**
+     * Taille de la trame TICK_INPUT équivalente à une entrée, calculée sans
+     * l'encoder (voir cursorMoveFrameSize).
+     */
+    static int tickInputFrameSize(int playerId, long timestamp, NetworkMessage.TickInput input) {
+        return frameSizeForBody(headerSize(playerId, timestamp)
+                + varLongSize(input.tick) + varIntSize(zigzag(input.x)) + varIntSize(zigzag(input.y)));
+    }
+
+    // Type, joueur, timestamp et nature des données (voir encodeBody)
+    private static int headerSize(int playerId, long timestamp) {
+        return 1 + varIntSize(zigzag(playerId)) + varLongSize(timestamp) + 1;
+    }
+
+    private static int frameSizeForBody(int bodyLength) {
+        return varIntSize(bodyLength) + bodyLength;
+    }
+
+    /**
+     * Vérifie l'en-tête de connexion du pair s'il est entièrement présent
+     * dans le buffer (lecteurs non bloquants).
+     *
+     * @return true si l'en-tête a été lu, false s'il est incomplet (position
+     *         inchangée)
+     * @throws ProtocolException Si le pair ne parle pas le même protocole
+     */
+    public static boolean readPreamble(ByteBuffer in) throws ProtocolException {
+        if (in.remaining() < PREAMBLE.length) {
+            return false;
+        }
+        byte[] header = new byte[PREAMBLE.length];
+        in.get(header);
+        checkPreamble(header);
+        return true;
+    }
+
+    /**
+     * Copie de l'en-tête de connexion, prête à être écrite.
+     */
+    public static ByteBuffer preambleBuffer() {
+        return ByteBuffer.wrap(PREAMBLE.clone());
+    }
+
+    // ==================== TRAMES (flux bloquants) ====================
+
+    /**
+     * Envoie l'en-tête de connexion (magie + version).
+     */
+    public static void writePreamble(OutputStream out) throws IOException {
+        out.write(PREAMBLE);
+        out.flush();
+    }
+
+    /**
+     * Lit et vérifie l'en-tête de connexion du pair.
+     *
+     * @throws ProtocolException Si le pair ne parle pas le même protocole
+     */
+    public static void readPreamble(InputStream in) throws IOException {
+        byte[] header = new byte[PREAMBLE.length];
+        readFully(in, header, 0, header.length);
+        checkPreamble(header);
+    }
+
+    private static void checkPreamble(byte[] header) throws ProtocolException {
+        if (header[0] != PREAMBLE[0] || header[1] != PREAMBLE[1]) {
+            throw new ProtocolException("Le pair ne parle pas le protocole Liquid War");
+        }
+        if (header[2] != VERSION) {
+            throw new ProtocolException(String.format(
+                    "Version de protocole incompatible (locale %d, distante %d)", VERSION, header[2]));
+        }
+    }
+
+    /**
+     * Encode un message dans un buffer réutilisé et l'écrit sur le flux (sans
+     * flush).
+     *
+     * @return Nombre d'octets écrits
+     */
+    public static int writeFrame(NetworkMessage message, OutputStream out) throws IOException {
+        ByteBuffer buffer = acquireBuffer();
+        try {
+            buffer = encodeGrowing(message, buffer);
+            out.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            return buffer.position();
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Lit une trame complète sur le flux (bloquant).
+     *
+     * @throws EOFException      Si le flux se termine
+     * @throws ProtocolException Si la trame est invalide
+     */
+    public static NetworkMessage readFrame(InputStream in) throws IOException {
+        int length = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Connexion fermée");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new ProtocolException("Longueur de trame invalide");
+            }
+        }
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new ProtocolException("Longueur de trame invalide : " + length);
+        }
+
+        ByteBuffer buffer = length <= BUFFER_SIZE ? acquireBuffer() : ByteBuffer.allocate(length);
+        try {
+            readFully(in, buffer.array(), buffer.arrayOffset(), length);
+            buffer.limit(length);
+            NetworkMessage message = decodeBody(buffer);
+            if (buffer.hasRemaining()) {
+                throw new ProtocolException("Octets en trop dans la trame " + message.getType());
+            }
+            return message;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Encode une trame en agrandissant le buffer si nécessaire.
+     *
+     * @return Le buffer contenant la trame (celui donné ou un plus grand)
+     */
+    static ByteBuffer encodeGrowing(NetworkMessage message, ByteBuffer buffer) {
+        while (true) {
+            try {
+                encodeFrame(message, buffer);
+                return buffer;
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() > MAX_FRAME_SIZE) {
+                    throw new IllegalArgumentException("Trame trop grande pour " + message.getType());
+                }
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                releaseBuffer(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    // ==================== CORPS ====================
+
+    private static void encodeBody(NetworkMessage message, ByteBuffer out) {
+        out.put((byte) message.getType().ordinal());
+        putVarInt(out, zigzag(message.getPlayerId()));
+        putVarLong(out, message.getTimestamp());
+
+        Object data = message.getData();
+        if (data == null) {
+            out.put(DATA_NONE);
+        } else if (data instanceof String) {
+            out.put(DATA_STRING);
+            putString(out, (String) data);
+        } else if (data instanceof int[]) {
+            out.put(DATA_INT_ARRAY);
+            putIntArray(out, (int[]) data);
+        } else if (data instanceof NetworkMessage.CursorPosition) {
+            NetworkMessage.CursorPosition pos = (NetworkMessage.CursorPosition) data;
+            out.put(DATA_CURSOR);
+            putVarInt(out, zigzag(pos.x));
+            putVarInt(out, zigzag(pos.y));
+        } else if (data instanceof NetworkMessage.GameStateData) {
+            NetworkMessage.GameStateData state = (NetworkMessage.GameStateData) data;
+            out.put(DATA_GAME_STATE);
+            putVarLong(out, state.gameTick);
+            putVarInt(out, state.cursorPositions.length);
+            for (int[] position : state.cursorPositions) {
+                putIntArray(out, position);
+            }
+            putIntArray(out, state.fighterCounts);
+            putVarLong(out, state.hashTick);
+            putVarInt(out, state.stateHashes.length);
+            for (long hash : state.stateHashes) {
+                out.putLong(hash);
+            }
+        } else if (data instanceof NetworkMessage.LobbyInfo) {
+            NetworkMessage.LobbyInfo lobby = (NetworkMessage.LobbyInfo) data;
+            out.put(DATA_LOBBY);
+            putVarInt(out, lobby.connectedPlayers);
+            putVarInt(out, lobby.minPlayers);
+            putString(out, lobby.welcomeMessage);
+        } else if (data instanceof NetworkMessage.MatchSettings) {
+            NetworkMessage.MatchSettings settings = (NetworkMessage.MatchSettings) data;
+            out.put(DATA_MATCH_SETTINGS);
+            out.putLong(settings.seed);
+            putVarInt(out, settings.teams);
+            putVarInt(out, settings.inputDelay);
+        } else if (data instanceof NetworkMessage.TickInput) {
+            NetworkMessage.TickInput input = (NetworkMessage.TickInput) data;
+            out.put(DATA_TICK_INPUT);
+            putVarLong(out, input.tick);
+            putVarInt(out, zigzag(input.x));
+            putVarInt(out, zigzag(input.y));
+        } else if (data instanceof NetworkMessage.SnapshotData) {
+            NetworkMessage.SnapshotData snapshot = (NetworkMessage.SnapshotData) data;
+            out.put(DATA_SNAPSHOT);
+            putVarInt(out, snapshot.tick);
+            putVarInt(out, zigzag(snapshot.baseTick));
+            putVarInt(out, snapshot.payload.length);
+            out.put(snapshot.payload);
+        } else if (data instanceof NetworkMessage.InputBatch) {
+            NetworkMessage.InputBatch batch = (NetworkMessage.InputBatch) data;
+            out.put(DATA_INPUT_BATCH);
+            putVarInt(out, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                putVarInt(out, zigzag(batch.playerIds[i]));
+                // CURSOR (-1) -> 0
+                putVarLong(out, batch.ticks[i] + 1);
+                putVarInt(out, zigzag(batch.x[i]));
+                putVarInt(out, zigzag(batch.y[i]));
+            }
+        } else {
+            throw new IllegalArgumentException("Données non encodables : " + data.getClass().getName());
+        }
+    }
+
+    private static NetworkMessage decodeBody(ByteBuffer in) throws ProtocolException {
+        try {
+            int typeIndex = in.get() & 0xFF;
+            if (typeIndex >= TYPES.length) {
+                throw new ProtocolException("Type de message inconnu : " + typeIndex);
+            }
+            NetworkMessage.MessageType type = TYPES[typeIndex];
+            int playerId = unzigzag(getVarInt(in));
+            long timestamp = getVarLong(in);
+
+            Object data;
+            byte kind = in.get();
+            switch (kind) {
+                case DATA_NONE:
+                    data = null;
+                    break;
+                case DATA_STRING:
+                    data = getString(in);
+                    break;
+                case DATA_INT_ARRAY:
+                    data = getIntArray(in);
+                    break;
+                case DATA_CURSOR:
+                    data = new NetworkMessage.CursorPosition(unzigzag(getVarInt(in)), unzigzag(getVarInt(in)));
+                    break;
+                case DATA_GAME_STATE: {
+                    long tick = getVarLong(in);
+                    int[][] positions = new int[checkLength(getVarInt(in), in)][];
+                    for (int i = 0; i < positions.length; i++) {
+                        positions[i] = getIntArray(in);
+                    }
+                    int[] fighterCounts = getIntArray(in);
+                    long hashTick = getVarLong(in);
+                    long[] hashes = new long[checkLength(getVarInt(in), in)];
+                    for (int i = 0; i < hashes.length; i++) {
+                        hashes[i] = in.getLong();
+                    }
+                    data = new NetworkMessage.GameStateData(positions, fighterCounts, tick, hashTick, hashes);
+                    break;
+                }
+                case DATA_LOBBY:
+                    data = new NetworkMessage.LobbyInfo(getVarInt(in), getVarInt(in), getString(in));
+                    break;
+                case DATA_MATCH_SETTINGS:
+                    data = new NetworkMessage.MatchSettings(in.getLong(), getVarInt(in), getVarInt(in));
+                    break;
+                case DATA_TICK_INPUT:
+                    data = new NetworkMessage.TickInput(getVarLong(in), unzigzag(getVarInt(in)),
+                            unzigzag(getVarInt(in)));
+                    break;
+                case DATA_SNAPSHOT:
+                    int tick = getVarInt(in);
+                    int baseTick = unzigzag(getVarInt(in));
+                    byte[] payload = new byte[checkLength(getVarInt(in), in)];
+                    in.get(payload);
+                    data = new NetworkMessage.SnapshotData(tick, baseTick, payload);
+                    break;
+                case DATA_INPUT_BATCH: {
+                    int count = getVarInt(in);
+                    // Au moins 4 octets par entrée
+                    if (count < 0 || count > in.remaining() / 4) {
+                        throw new ProtocolException("Nombre d'entrées invalide : " + count);
+                    }
+                    NetworkMessage.InputBatch batch = new NetworkMessage.InputBatch(new int[count],
+                            new long[count], new int[count], new int[count]);
+                    for (int i = 0; i < count; i++) {
+                        batch.playerIds[i] = unzigzag(getVarInt(in));
+                        batch.ticks[i] = getVarLong(in) - 1;
+                        batch.x[i] = unzigzag(getVarInt(in));
+                        batch.y[i] = unzigzag(getVarInt(in));
+                    }
+                    data = batch;
+                    break;
+                }
+                default:
+                    throw new ProtocolException("Nature de données inconnue : " + kind);
+            }
+            return new NetworkMessage(type, playerId, data, timestamp);
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Trame tronquée");
+        }
+    }
+
+    // ==================== PRIMITIVES ====================
+
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) throws ProtocolException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("Varint trop long");
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) throws ProtocolException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("Varlong trop long");
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putIntArray(ByteBuffer out, int[] values) {
+        putVarInt(out, values.length);
+        for (int value : values) {
+            putVarInt(out, zigzag(value));
+        }
+    }
+
+    private static int[] getIntArray(ByteBuffer in) throws ProtocolException {
+        int[] values = new int[checkLength(getVarInt(in), in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = unzigzag(getVarInt(in));
+        }
+        return values;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            putVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // 0 = null, n + 1 = chaîne de n octets
+        putVarInt(out, bytes.length + 1);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) throws ProtocolException {
+        int length = getVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        length = checkLength(length - 1, in);
+        if (!in.hasArray()) {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Une longueur annoncée ne peut pas dépasser les octets restants (chaque
+     * élément occupe au moins un octet) : évite d'allouer sur une trame
+     * corrompue.
+     */
+    private static int checkLength(int length, ByteBuffer in) throws ProtocolException {
+        if (length < 0 || length > in.remaining()) {
+            throw new ProtocolException("Longueur invalide : " + length);
+        }
+        return length;
+    }
+
+    private static void shift(ByteBuffer buffer, int from, int length, int by) {
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset();
+            System.arraycopy(array, offset + from, array, offset + from + by, length);
+        } else {
+            for (int i = length - 1; i >= 0; i--) {
+                buffer.put(from + by + i, buffer.get(from + i));
+            }
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] target, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(target, offset + read, length - read);
+            if (n < 0) {
+                throw new EOFException("Connexion fermée");
+            }
+            read += n;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Initialiseur du jeu Liquid War.
@@ -32,6 +34,20 @@ public class GameInitializer {
                                        int[][][] FIGHTER_MOVE_X_ALT, int[][][] FIGHTER_MOVE_Y_ALT,
                                        int[][] DIR_MOVE_X, int[][] DIR_MOVE_Y,
                                        int[][] updateTime, int[][] cursorPosX, int[][] cursorPosY) {
+        initMoveTables(LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT,
+                DIR_MOVE_X, DIR_MOVE_Y);
+        resetCursorTracking(updateTime, cursorPosX, cursorPosY);
+    }
+
+    /**
+     * Initialise uniquement les tables de directions (sans les tableaux par cellule).
+     * 
+     * Utilisé par les moteurs qui n'ont pas besoin de updateTime/cursorPosX/cursorPosY
+     * (moteur MESH optimisé).
+     */
+    public static void initMoveTables(int[] LOCAL_DIR, int[][][] FIGHTER_MOVE_DIR,
+                                      int[][][] FIGHTER_MOVE_X_ALT, int[][][] FIGHTER_MOVE_Y_ALT,
+                                      int[][] DIR_MOVE_X, int[][] DIR_MOVE_Y) {
         // Initialiser LOCAL_DIR (mapping des codes directionnels)
         // Code directionnel : 1=N, 2=E, 4=S, 8=W (combinaisons possibles)
         int[][] localDirMap = {
@@ -82,13 +98,17 @@ public class GameInitializer {
             }
         }
 
-        // Initialiser updateTime, cursorPosX, cursorPosY à -1 (comme dans le code C)
-        for (int team = 0; team < 6; team++) {
-            for (int i = 0; i < MAP_HEIGHT * MAP_WIDTH; i++) {
-                updateTime[team][i] = -1;
-                cursorPosX[team][i] = -1;
-                cursorPosY[team][i] = -1;
-            }
+    }
+
+    /**
+     * Initialise updateTime, cursorPosX, cursorPosY à -1 (comme dans le code C).
+     * Seules les équipes effectivement allouées (longueur des tableaux) sont traitées.
+     */
+    public static void resetCursorTracking(int[][] updateTime, int[][] cursorPosX, int[][] cursorPosY) {
+        for (int team = 0; team < updateTime.length; team++) {
+            Arrays.fill(updateTime[team], -1);
+            Arrays.fill(cursorPosX[team], -1);
+            Arrays.fill(cursorPosY[team], -1);
         }
     }
     
@@ -99,6 +119,21 @@ public class GameInitializer {
     public static void spawnInitialFighters(int team, int centerX, int centerY, int count,
                                            ArrayList<Fighter> fighters, int[] teamFighterCount,
                                            int[][] map) {
+        spawnInitialFighters(team, centerX, centerY, count, fighters, teamFighterCount, map, null);
+    }
+    
+    /**
+     * Spawner des fighters initiaux à partir d'un générateur donné.
+     * 
+     * Avec un générateur initialisé par une graine commune, tous les pairs d'une
+     * partie réseau obtiennent les mêmes combattants dans le même ordre
+     * (StrictMath : résultat identique sur toutes les machines).
+     * 
+     * @param random Générateur, ou null pour Math.random()
+     */
+    public static void spawnInitialFighters(int team, int centerX, int centerY, int count,
+                                           ArrayList<Fighter> fighters, int[] teamFighterCount,
+                                           int[][] map, Random random) {
         int radius = GameConfig.FIGHTER_SPAWN_RADIUS;
         int spawned = 0;
         int attempts = 0;
@@ -108,10 +143,11 @@ public class GameInitializer {
             attempts++;
             
             // Spawn en spirale pour garantir le nombre exact
-            double angle = Math.random() * 2 * Math.PI;
-            double distance = Math.random() * (radius + attempts / 100.0);  // Augmenter progressivement le rayon
-            int x = centerX + (int) (Math.cos(angle) * distance);
-            int y = centerY + (int) (Math.sin(angle) * distance);
+            double angle = (random != null ? random.nextDouble() : Math.random()) * 2 * Math.PI;
+            double distance = (random != null ? random.nextDouble() : Math.random())
+                    * (radius + attempts / 100.0);  // Augmenter progressivement le rayon
+            int x = centerX + (int) (StrictMath.cos(angle) * distance);
+            int y = centerY + (int) (StrictMath.sin(angle) * distance);
             
             if (x >= 0 && x < MAP_WIDTH && y >= 0 && y < MAP_HEIGHT && map[y][x] != -1) {
                 // Vérifier que la position n'est pas déjà occupée
@@ -0,0 +1,177 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+
+/**
+ * Détecteur de fin de partie côté simulation.
+ *
+ * Appelé une fois par tick logique, sans dépendance à Swing ni à l'horloge
+ * murale : fonctionne aussi en mode serveur / headless.
+ *
+ * Fonctionnement incrémental :
+ * - Un masque de bits des équipes encore en vie est maintenu. Une équipe à 0
+ * combattant ne peut plus convertir personne : l'élimination est définitive,
+ * seules les équipes vivantes sont relues à chaque tick (au plus MAX_TEAMS).
+ * - La minuterie est exprimée en ticks de simulation (déterministe, identique
+ * sur toutes les machines).
+ * - L'événement de fin de partie est émis une seule fois.
+ */
+public class GameOverDetector {
+
+    /** Valeur de winnerTeam en cas d'égalité. */
+    public static final int TIE = -1;
+
+    /**
+     * Listener notifié une seule fois à la fin de la partie.
+     */
+    public interface GameOverListener {
+        /**
+         * @param winnerTeam  Équipe gagnante, ou {@link #TIE} en cas d'égalité
+         * @param finalCounts Compteurs de combattants au moment de la fin
+         * @param ticks       Nombre de ticks joués
+         */
+        void onGameOver(int winnerTeam, int[] finalCounts, long ticks);
+    }
+
+    private GameOverListener listener;
+    private int aliveMask;
+    private long elapsedTicks;
+    private long timeoutTicks = -1; // -1 = pas de minuterie
+    private boolean finished;
+    private int winner = TIE;
+
+    /**
+     * Réinitialise le détecteur pour une nouvelle partie.
+     * La minuterie configurée est conservée.
+     *
+     * @param activeTeams Nombre d'équipes actives
+     * @param counts      Compteurs initiaux
+     */
+    public void reset(int activeTeams, int[] counts) {
+        aliveMask = 0;
+        for (int team = 0; team < activeTeams && team < counts.length; team++) {
+            if (counts[team] > 0) {
+                aliveMask |= 1 << team;
+            }
+        }
+        elapsedTicks = 0;
+        finished = false;
+        winner = TIE;
+    }
+
+    /**
+     * Définit la durée maximale de la partie en ticks (-1 = illimitée).
+     */
+    public void setTimeoutTicks(long ticks) {
+        this.timeoutTicks = ticks;
+    }
+
+    /**
+     * Convertit une durée de minuterie en ticks de simulation.
+     *
+     * @param minutes      Durée en minutes
+     * @param logicDelayMs Délai du timer logique (ms)
+     * @return Nombre de ticks correspondant
+     */
+    public static long timeoutTicks(int minutes, int logicDelayMs) {
+        return minutes * 60_000L * GameConfig.LOGIC_TICKS_PER_TIMER_EVENT / Math.max(1, logicDelayMs);
+    }
+
+    /**
+     * Définit le listener de fin de partie.
+     */
+    public void setListener(GameOverListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Avance d'un tick et vérifie la fin de partie.
+     *
+     * @param counts Compteurs de combattants par équipe (tableau de la simulation)
+     * @return true si la partie vient de se terminer à ce tick
+     */
+    public boolean onTick(int[] counts) {
+        if (finished) {
+            return false;
+        }
+        elapsedTicks++;
+
+        // Ne relire que les équipes encore en vie
+        int mask = aliveMask;
+        while (mask != 0) {
+            int team = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if (counts[team] <= 0) {
+                aliveMask &= ~(1 << team);
+            }
+        }
+
+        if (Integer.bitCount(aliveMask) <= 1) {
+            finish(aliveMask == 0 ? TIE : Integer.numberOfTrailingZeros(aliveMask), counts);
+            return true;
+        }
+        if (timeoutTicks >= 0 && elapsedTicks >= timeoutTicks) {
+            finish(leader(counts), counts);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Équipe en tête parmi les équipes vivantes, ou TIE si plusieurs à égalité.
+     */
+    private int leader(int[] counts) {
+        int best = TIE;
+        int bestCount = -1;
+        boolean tie = false;
+        int mask = aliveMask;
+        while (mask != 0) {
+            int team = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            if (counts[team] > bestCount) {
+                bestCount = counts[team];
+                best = team;
+                tie = false;
+            } else if (counts[team] == bestCount) {
+                tie = true;
+            }
+        }
+        return tie ? TIE : best;
+    }
+
+    private void finish(int winnerTeam, int[] counts) {
+        finished = true;
+        winner = winnerTeam;
+        if (listener != null) {
+            listener.onGameOver(winnerTeam, counts.clone(), elapsedTicks);
+        }
+    }
+
+    /**
+     * Indique si la partie est terminée.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Retourne l'équipe gagnante (TIE si égalité ou partie en cours).
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Retourne le nombre de ticks écoulés depuis reset().
+     */
+    public long getElapsedTicks() {
+        return elapsedTicks;
+    }
+
+    /**
+     * Retourne le nombre d'équipes encore en vie.
+     */
+    public int getAliveTeams() {
+        return Integer.bitCount(aliveMask);
+    }
+}
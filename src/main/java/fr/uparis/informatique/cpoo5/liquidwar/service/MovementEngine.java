@@ -1,5 +1,6 @@
 package fr.uparis.informatique.cpoo5.liquidwar.service;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
@@ -119,6 +120,23 @@ public class MovementEngine {
                                    int[][][] FIGHTER_MOVE_X_ALT, int[][][] FIGHTER_MOVE_Y_ALT,
                                    int[][] DIR_MOVE_X, int[][] DIR_MOVE_Y,
                                    int globalClock) {
+        moveFighters(fighters, cursors, teamFighterCount, map, gradient, updateTime, cursorPosX, cursorPosY,
+                LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT,
+                DIR_MOVE_X, DIR_MOVE_Y, globalClock, null);
+    }
+
+    /**
+     * Variante qui signale les cellules modifiées au rendu incrémental.
+     *
+     * @param dirty Tracker des cellules modifiées (null = pas de suivi)
+     */
+    public static void moveFighters(ArrayList<Fighter> fighters, Cursor[] cursors,
+                                   int[] teamFighterCount, int[][] map, int[][] gradient,
+                                   int[][] updateTime, int[][] cursorPosX, int[][] cursorPosY,
+                                   int[] LOCAL_DIR, int[][][] FIGHTER_MOVE_DIR,
+                                   int[][][] FIGHTER_MOVE_X_ALT, int[][][] FIGHTER_MOVE_Y_ALT,
+                                   int[][] DIR_MOVE_X, int[][] DIR_MOVE_Y,
+                                   int globalClock, DirtyCellTracker dirty) {
         ArrayList<Fighter> fightersToUpdate = new ArrayList<>(fighters);
         // MOUVEMENT EN VAGUES : Légère rotation pour effet circulaire naturel
         // Pas complètement fixe = évite le carré, crée des vagues
@@ -138,6 +156,9 @@ public class MovementEngine {
             if (target == null || target.active == 0) {
                 fighters.remove(f);
                 teamFighterCount[f.team]--;
+                if (dirty != null) {
+                    dirty.removed(f);
+                }
                 continue;
             }
 
@@ -190,6 +211,9 @@ public class MovementEngine {
                         f.x = newX;
                         f.y = newY;
                         moved = true;
+                        if (dirty != null) {
+                            dirty.moved(f, fx, fy);
+                        }
                     }
                 }
             }
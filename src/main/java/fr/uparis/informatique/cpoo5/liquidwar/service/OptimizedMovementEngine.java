@@ -1,5 +1,6 @@
 package fr.uparis.informatique.cpoo5.liquidwar.service;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Mesh;
@@ -168,6 +169,22 @@ public class OptimizedMovementEngine {
                                    int[][][] FIGHTER_MOVE_X_ALT,
                                    int[][][] FIGHTER_MOVE_Y_ALT,
                                    int globalClock, int[][] map, int mapWidth, int mapHeight) {
+        moveFighters(fighters, meshArray, meshLookup, cursors, teamFighterCount, FIGHTER_MOVE_DIR,
+                FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT, globalClock, map, mapWidth, mapHeight, null);
+    }
+
+    /**
+     * Variante qui signale les cellules modifiées au rendu incrémental.
+     *
+     * @param dirty Tracker des cellules modifiées (null = pas de suivi)
+     */
+    public static void moveFighters(ArrayList<Fighter> fighters, Mesh[] meshArray, Mesh[][] meshLookup,
+                                   Cursor[] cursors, int[] teamFighterCount,
+                                   int[][][] FIGHTER_MOVE_DIR,
+                                   int[][][] FIGHTER_MOVE_X_ALT,
+                                   int[][][] FIGHTER_MOVE_Y_ALT,
+                                   int globalClock, int[][] map, int mapWidth, int mapHeight,
+                                   DirtyCellTracker dirty) {
         
         // Paramètres de mouvement (comme dans fighter.c, lignes 371-372)
         int table = (globalClock / 3) % 2;
@@ -266,6 +283,9 @@ public class OptimizedMovementEngine {
                             // Incrémenter le nouveau camp
                             teamFighterCount[occupant.team]++;
                         }
+                        if (dirty != null) {
+                            dirty.changed(occupant);
+                        }
                         
                         // L'attaquant NE SE DÉPLACE PAS sur la case (il reste où il est)
                         // Contrairement à ce que je pensais, dans le C, le fighter n'avance pas si occupé
@@ -276,9 +296,14 @@ public class OptimizedMovementEngine {
                     else if (occupant == null) {
                         positionGrid[f.y][f.x] = null;  // Libérer l'ancienne position
                         positionGrid[newY][newX] = f;   // Occuper la nouvelle position
+                        int oldX = f.x;
+                        int oldY = f.y;
                         f.x = newX;
                         f.y = newY;
                         moved = true;
+                        if (dirty != null) {
+                            dirty.moved(f, oldX, oldY);
+                        }
                         break;
                     }
                     // Case occupée par un allié, essayer une autre direction
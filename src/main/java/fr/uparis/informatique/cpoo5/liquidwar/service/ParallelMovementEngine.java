@@ -1,5 +1,6 @@
 package fr.uparis.informatique.cpoo5.liquidwar.service;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
@@ -93,6 +94,35 @@ public class ParallelMovementEngine {
                                             int[][] DIR_MOVE_X,
                                             int[][] DIR_MOVE_Y,
                                             int globalClock) {
+        moveFightersParallel(fighters, cursors, teamFighterCount, map, gradient, updateTime,
+                cursorPosX, cursorPosY, LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT,
+                FIGHTER_MOVE_Y_ALT, DIR_MOVE_X, DIR_MOVE_Y, globalClock, null);
+    }
+    
+    /**
+     * Variante qui signale les cellules modifiées au rendu incrémental.
+     * 
+     * <p>Les marquages sont faits sous {@code positionLock}, comme les
+     * modifications qu'ils décrivent.
+     * 
+     * @param dirty Tracker des cellules modifiées (null = pas de suivi)
+     */
+    public static void moveFightersParallel(ArrayList<Fighter> fighters,
+                                            Cursor[] cursors,
+                                            int[] teamFighterCount,
+                                            int[][] map,
+                                            int[][] gradient,
+                                            int[][] updateTime,
+                                            int[][] cursorPosX,
+                                            int[][] cursorPosY,
+                                            int[] LOCAL_DIR,
+                                            int[][][] FIGHTER_MOVE_DIR,
+                                            int[][][] FIGHTER_MOVE_X_ALT,
+                                            int[][][] FIGHTER_MOVE_Y_ALT,
+                                            int[][] DIR_MOVE_X,
+                                            int[][] DIR_MOVE_Y,
+                                            int globalClock,
+                                            DirtyCellTracker dirty) {
         
         if (fighters.isEmpty()) {
             return; // Rien à faire
@@ -134,7 +164,7 @@ public class ParallelMovementEngine {
                              teamFighterCount, map, gradient, updateTime,
                              cursorPosX, cursorPosY, LOCAL_DIR, FIGHTER_MOVE_DIR,
                              FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT, 
-                             DIR_MOVE_X, DIR_MOVE_Y, globalClock);
+                             DIR_MOVE_X, DIR_MOVE_Y, globalClock, dirty);
                 }));
             }
             
@@ -178,6 +208,7 @@ public class ParallelMovementEngine {
      * @param DIR_MOVE_X Déplacements X
      * @param DIR_MOVE_Y Déplacements Y
      * @param globalClock Horloge
+     * @param dirty Tracker des cellules modifiées (null = pas de suivi)
      */
     private static void moveChunk(ArrayList<Fighter> fighters,
                                   int start, int end,
@@ -195,7 +226,8 @@ public class ParallelMovementEngine {
                                   int[][][] FIGHTER_MOVE_Y_ALT,
                                   int[][] DIR_MOVE_X,
                                   int[][] DIR_MOVE_Y,
-                                  int globalClock) {
+                                  int globalClock,
+                                  DirtyCellTracker dirty) {
         
         // RESTAURÉ : Comme dans MovementEngine.moveFighters(), on traite TOUS les fighters
         // (pas de filtrage basé sur updateTime - la logique d'inertie est dans moveSingleFighter)
@@ -224,7 +256,7 @@ public class ParallelMovementEngine {
                             map, gradient, updateTime, cursorPosX, cursorPosY,
                             LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT,
                             FIGHTER_MOVE_Y_ALT, DIR_MOVE_X, DIR_MOVE_Y, 
-                            globalClock, table, startDir, sens % 2);
+                            globalClock, table, startDir, sens % 2, dirty);
             
             // Désynchronisation : chaque particule a un décalage progressif (comme MovementEngine)
             startDir = (startDir < 11) ? startDir + 1 : 0;
@@ -271,6 +303,7 @@ public class ParallelMovementEngine {
      * @param table Table de mouvement (0 ou 1)
      * @param startDir Direction de départ
      * @param sens Sens de rotation (0 ou 1)
+     * @param dirty Tracker des cellules modifiées (null = pas de suivi)
      */
     private static void moveSingleFighter(Fighter f,
                                           HashMap<String, Fighter> positionMap,
@@ -290,7 +323,8 @@ public class ParallelMovementEngine {
                                           int globalClock,
                                           int table,
                                           int startDir,
-                                          int sens) {
+                                          int sens,
+                                          DirtyCellTracker dirty) {
         
         int fx = f.x;
         int fy = f.y;
@@ -366,6 +400,9 @@ public class ParallelMovementEngine {
                             f.x = newX;
                             f.y = newY;
                             moved = true;
+                            if (dirty != null) {
+                                dirty.moved(f, fx, fy);
+                            }
                             
                             // LOG : Mouvement réussi (toutes les 2 secondes, pour quelques particules)
                             if (globalClock % 240 == 0 && (fx + fy) % 200 == 0) {
@@ -417,6 +454,9 @@ public class ParallelMovementEngine {
                             // Incrémenter le nouveau camp
                             teamFighterCount[f.team]++;
                         }
+                        if (dirty != null) {
+                            dirty.changed(enemy);
+                        }
                     } finally {
                         positionLock.unlock();
                     }
@@ -436,6 +476,9 @@ public class ParallelMovementEngine {
                             if (ally.health >= GameConfig.FIGHTER_INITIAL_HEALTH) {
                                 ally.health = GameConfig.FIGHTER_INITIAL_HEALTH - 1;
                             }
+                            if (dirty != null) {
+                                dirty.changed(ally);
+                            }
                         } finally {
                             positionLock.unlock();
                         }
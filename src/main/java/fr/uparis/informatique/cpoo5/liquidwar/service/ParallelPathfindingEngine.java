@@ -1,6 +1,7 @@
 package fr.uparis.informatique.cpoo5.liquidwar.service;
 
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 
 import java.util.ArrayList;
@@ -61,6 +62,21 @@ public class ParallelPathfindingEngine {
                                                   Cursor[] cursors,
                                                   int[][] cursorPosX, int[][] cursorPosY,
                                                   int[] cursorVal, int activeTeams, int globalClock) {
+        calculateGradientParallel(map, gradient, cursors, cursorPosX, cursorPosY, cursorVal, activeTeams,
+                globalClock, null);
+    }
+
+    /**
+     * Comme {@link #calculateGradientParallel(int[][], int[][], Cursor[], int[][], int[][], int[], int, int)},
+     * en signalant les cellules modifiées de l'équipe suivie (null = pas de
+     * suivi). La propagation reste séquentielle : le tracker n'a pas besoin
+     * d'être thread-safe.
+     */
+    public static void calculateGradientParallel(int[][] map, int[][] gradient,
+                                                  Cursor[] cursors,
+                                                  int[][] cursorPosX, int[][] cursorPosY,
+                                                  int[] cursorVal, int activeTeams, int globalClock,
+                                                  GradientChangeTracker changes) {
         
         // Créer un ExecutorService avec threads virtuels (Java 21)
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
@@ -69,7 +85,7 @@ public class ParallelPathfindingEngine {
             // RESTAURÉ : Utiliser applyAllCursors() comme dans la v9 qui fonctionnait bien
             try {
                 Future<?> applyFuture = executor.submit(() -> {
-                    PathfindingEngine.applyAllCursors(cursors, activeTeams, map, gradient, cursorVal);
+                    PathfindingEngine.applyAllCursors(cursors, activeTeams, map, gradient, cursorVal, changes);
                 });
                 applyFuture.get(); // Attendre que l'application soit terminée
             } catch (InterruptedException | ExecutionException e) {
@@ -83,7 +99,7 @@ public class ParallelPathfindingEngine {
             try {
                 // Propager le gradient UNE SEULE FOIS (comme spread_single_gradient dans le code C)
                 Future<?> propagationFuture = executor.submit(() -> {
-                    PathfindingEngine.spreadSingleGradient(map, gradient, activeTeams, globalClock);
+                    PathfindingEngine.spreadSingleGradient(map, gradient, activeTeams, globalClock, changes);
                 });
                 propagationFuture.get(); // Attendre que la propagation soit terminée
             } catch (InterruptedException | ExecutionException e) {
@@ -1,5 +1,6 @@
 package fr.uparis.informatique.cpoo5.liquidwar.service;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.util.DirectionTables;
@@ -36,6 +37,15 @@ public class PathfindingEngine {
      */
     public static void applyAllCursors(Cursor[] cursors, int activeTeams, int[][] map, 
                                        int[][] gradient, int[] cursorVal) {
+        applyAllCursors(cursors, activeTeams, map, gradient, cursorVal, null);
+    }
+
+    /**
+     * Appliquer les curseurs au gradient en signalant les cellules modifiées
+     * de l'équipe suivie (null = pas de suivi).
+     */
+    public static void applyAllCursors(Cursor[] cursors, int activeTeams, int[][] map,
+                                       int[][] gradient, int[] cursorVal, GradientChangeTracker changes) {
         if (map == null || map.length == 0 || map[0] == null) {
             return;
         }
@@ -52,6 +62,9 @@ public class PathfindingEngine {
             // Mettre la valeur du curseur directement dans le gradient à sa position
             if (x >= 0 && x < mapWidth && y >= 0 && y < mapHeight && map[y][x] != -1) {
                 int idx = y * mapWidth + x;
+                if (changes != null && team == changes.getTeam() && gradient[team][idx] != cursorVal[team]) {
+                    changes.changed(idx);
+                }
                 gradient[team][idx] = cursorVal[team];
             }
         }
@@ -157,6 +170,15 @@ public class PathfindingEngine {
      * IMPORTANT : Utiliser (globalClock * 7) comme dans le code C pour un mouvement fluide.
      */
     public static void spreadSingleGradient(int[][] map, int[][] gradient, int activeTeams, int globalClock) {
+        spreadSingleGradient(map, gradient, activeTeams, globalClock, null);
+    }
+
+    /**
+     * Propager le gradient en signalant les cellules améliorées de l'équipe
+     * suivie (null = pas de suivi).
+     */
+    public static void spreadSingleGradient(int[][] map, int[][] gradient, int activeTeams, int globalClock,
+                                            GradientChangeTracker changes) {
         if (map == null || map.length == 0 || map[0] == null) {
             return;
         }
@@ -187,6 +209,9 @@ public class PathfindingEngine {
                              " | Gradients valides: Team0=" + validGradCount[0] + " Team1=" + validGradCount[1]);
         }
 
+        // Équipe dont les changements sont signalés (-1 = aucune)
+        int watchedTeam = changes != null ? changes.getTeam() : GradientChangeTracker.NO_TEAM;
+
         // Déterminer l'ordre de parcours selon la direction (comme dans le code C)
         // Directions 6-11 sont parcourues en reverse
         boolean reverse = (dir >= 6);
@@ -219,6 +244,9 @@ public class PathfindingEngine {
                                     int newGrad = neighborGrad + 1;
                                     if (newGrad < currentGrad) {
                                         gradient[team][idx] = newGrad;
+                                        if (team == watchedTeam) {
+                                            changes.changed(idx);
+                                        }
                                     }
                                 }
                             }
@@ -252,6 +280,9 @@ public class PathfindingEngine {
                                     int newGrad = neighborGrad + 1;
                                     if (newGrad < currentGrad) {
                                         gradient[team][idx] = newGrad;
+                                        if (team == watchedTeam) {
+                                            changes.changed(idx);
+                                        }
                                     }
                                 }
                             }
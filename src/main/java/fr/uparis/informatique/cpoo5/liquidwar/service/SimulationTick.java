@@ -0,0 +1,68 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service;
+
+import java.util.ArrayList;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+
+/**
+ * Un tick de simulation, une fois les curseurs placés.
+ *
+ * Séquence commune à la partie interactive (GameCanvas), au lockstep (y
+ * compris la re-simulation après un rollback) et aux parties sans fenêtre
+ * (HeadlessMatchRunner) : une seule implémentation garantit qu'une partie
+ * headless rejoue exactement une partie réelle.
+ *
+ * Étapes :
+ * - décrément de la valeur des curseurs actifs
+ * - régénération passive des combattants tous les
+ * {@link GameConfig#HEAL_INTERVAL_TICKS} ticks
+ * - gradient et mouvement délégués au moteur
+ */
+public final class SimulationTick {
+
+    // Empêcher l'instanciation
+    private SimulationTick() {
+    }
+
+    /**
+     * Simule un tick.
+     *
+     * @param activeTeams   Nombre d'équipes actives
+     * @param globalClock   Numéro du tick (déjà incrémenté)
+     * @param forceGradient Propager le gradient même hors intervalle
+     *                      (curseur déplacé)
+     * @param tracker       Cellules modifiées par la régénération (null =
+     *                      aucun suivi)
+     */
+    public static void run(SimulationEngine engine, ArrayList<Fighter> fighters, Cursor[] cursors, int[] cursorVal,
+            int[] teamFighterCount, int activeTeams, int globalClock, boolean forceGradient,
+            DirtyCellTracker tracker) {
+        // Décrémenter la valeur du curseur (mais pas en dessous de 0) : un
+        // curseur immobile perd peu à peu son attraction
+        for (int team = 0; team < activeTeams; team++) {
+            if (cursors[team] != null && cursors[team].active != 0 && cursorVal[team] > 0) {
+                cursorVal[team]--;
+            }
+        }
+
+        // Régénération passive des fighters (rééclaircissement progressif des couleurs)
+        if (globalClock % GameConfig.HEAL_INTERVAL_TICKS == 0) {
+            for (Fighter fighter : fighters) {
+                if (fighter.health < GameConfig.FIGHTER_INITIAL_HEALTH) {
+                    fighter.health = Math.min(GameConfig.FIGHTER_INITIAL_HEALTH,
+                            fighter.health + GameConfig.HEAL_AMOUNT);
+                    if (tracker != null) {
+                        tracker.changed(fighter);
+                    }
+                }
+            }
+        }
+
+        // Gradient + mouvement délégués au moteur
+        engine.step(fighters, cursors, cursorVal, teamFighterCount, globalClock, forceGradient);
+    }
+}
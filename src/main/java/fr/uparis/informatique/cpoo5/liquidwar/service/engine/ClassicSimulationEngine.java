@@ -0,0 +1,123 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameInitializer;
+import fr.uparis.informatique.cpoo5.liquidwar.service.MovementEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.PathfindingEngine;
+
+/**
+ * Moteur de simulation classique (tableaux 2D, séquentiel).
+ *
+ * Structures possédées (une ligne par équipe active seulement) :
+ * - gradient[team][cell]
+ * - cursorPosX / cursorPosY[team][cell]
+ * - updateTime[team][cell]
+ */
+public class ClassicSimulationEngine implements SimulationEngine {
+
+    protected int[][] map;
+    protected int activeTeams;
+    protected int[][] gradient;
+    protected int[][] cursorPosX;
+    protected int[][] cursorPosY;
+    protected int[][] updateTime;
+    protected DirtyCellTracker dirtyCells;
+    protected GradientChangeTracker gradientChanges;
+
+    @Override
+    public void initialize(int[][] map, int activeTeams) {
+        int cells = GameConfig.MAP_WIDTH * GameConfig.MAP_HEIGHT;
+        this.map = map;
+        this.activeTeams = activeTeams;
+        this.gradient = new int[activeTeams][cells];
+        this.cursorPosX = new int[activeTeams][cells];
+        this.cursorPosY = new int[activeTeams][cells];
+        this.updateTime = new int[activeTeams][cells];
+
+        for (int team = 0; team < activeTeams; team++) {
+            Arrays.fill(gradient[team], GameConfig.AREA_START_GRADIENT);
+        }
+        GameInitializer.resetCursorTracking(updateTime, cursorPosX, cursorPosY);
+    }
+
+    @Override
+    public void step(ArrayList<Fighter> fighters, Cursor[] cursors, int[] cursorVal,
+            int[] teamFighterCount, int globalClock, boolean forceGradient) {
+        PathfindingEngine.updateCursorPositions(cursors, activeTeams, map, cursorPosX, cursorPosY, updateTime,
+                globalClock);
+        spreadGradient(cursors, cursorVal, globalClock);
+        moveFighters(fighters, cursors, teamFighterCount, globalClock);
+    }
+
+    /**
+     * Applique les curseurs et propage le gradient (une passe).
+     */
+    protected void spreadGradient(Cursor[] cursors, int[] cursorVal, int globalClock) {
+        PathfindingEngine.applyAllCursors(cursors, activeTeams, map, gradient, cursorVal, gradientChanges);
+        PathfindingEngine.spreadSingleGradient(map, gradient, activeTeams, globalClock, gradientChanges);
+    }
+
+    /**
+     * Déplace les combattants selon le gradient.
+     */
+    protected void moveFighters(ArrayList<Fighter> fighters, Cursor[] cursors, int[] teamFighterCount,
+            int globalClock) {
+        MovementEngine.moveFighters(fighters, cursors, teamFighterCount, map, gradient,
+                updateTime, cursorPosX, cursorPosY, MovementTables.LOCAL_DIR,
+                MovementTables.FIGHTER_MOVE_DIR, MovementTables.FIGHTER_MOVE_X_ALT,
+                MovementTables.FIGHTER_MOVE_Y_ALT,
+                MovementTables.DIR_MOVE_X, MovementTables.DIR_MOVE_Y, globalClock, dirtyCells);
+    }
+
+    @Override
+    public void setDirtyCellTracker(DirtyCellTracker tracker) {
+        this.dirtyCells = tracker;
+    }
+
+    @Override
+    public void setGradientChangeTracker(GradientChangeTracker tracker) {
+        this.gradientChanges = tracker;
+    }
+
+    @Override
+    public int[][] getGradient() {
+        return gradient;
+    }
+
+    @Override
+    public void importGradient(int team, int[] src) {
+        if (gradient == null || team < 0 || team >= gradient.length || src == null) {
+            return;
+        }
+        System.arraycopy(src, 0, gradient[team], 0, Math.min(src.length, gradient[team].length));
+        if (gradientChanges != null) {
+            gradientChanges.requestFullRedraw();
+        }
+    }
+
+    @Override
+    public void release() {
+        map = null;
+        gradient = null;
+        cursorPosX = null;
+        cursorPosY = null;
+        updateTime = null;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return gradient != null;
+    }
+
+    @Override
+    public String getName() {
+        return "Classique";
+    }
+}
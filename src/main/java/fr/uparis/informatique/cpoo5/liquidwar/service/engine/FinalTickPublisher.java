@@ -0,0 +1,72 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Rollback : historique et fin de partie limités aux ticks définitifs.
+ *
+ * Un tick simulé avec une entrée prédite peut être refait : s'il éliminait
+ * une équipe à tort, la fin de partie (émise une seule fois, elle met le jeu
+ * en pause) ne pourrait plus être annulée. Les ticks définitifs (voir
+ * LockstepSession#getFinalTick()) sont donc relus dans le SnapshotRing, dans
+ * l'ordre, et seuls eux alimentent le MatchTimeline et le GameOverDetector.
+ *
+ * Le ring garde fenêtre + 1 ticks et le tick définitif ne recule jamais de
+ * plus que la fenêtre : publier après chaque tick simulé suffit pour qu'aucun
+ * tick ne soit écrasé avant d'être publié.
+ */
+public final class FinalTickPublisher {
+
+    private final SnapshotRing ring;
+    private final MatchTimeline timeline;
+    private final GameOverDetector gameOverDetector;
+    // Curseurs relus dans les snapshots (sans allocation)
+    private final Cursor[] cursors = new Cursor[GameConfig.MAX_TEAMS];
+    private long publishedTick;
+
+    /**
+     * @param timeline  Historique à alimenter (null = aucun)
+     * @param startTick Dernier tick déjà publié (0 en début de partie)
+     */
+    public FinalTickPublisher(SnapshotRing ring, MatchTimeline timeline, GameOverDetector gameOverDetector,
+            long startTick) {
+        this.ring = ring;
+        this.timeline = timeline;
+        this.gameOverDetector = gameOverDetector;
+        this.publishedTick = startTick;
+        for (int team = 0; team < cursors.length; team++) {
+            cursors[team] = new Cursor();
+            cursors[team].team = team;
+        }
+    }
+
+    /**
+     * Publie les ticks devenus définitifs depuis le dernier appel.
+     *
+     * @param finalTick Dernier tick définitif
+     */
+    public void publishUpTo(long finalTick) {
+        for (long tick = publishedTick + 1; tick <= finalTick; tick++) {
+            SimulationSnapshot snapshot = ring.get(tick);
+            if (snapshot == null) {
+                GameLogger.getInstance().error("Rollback : tick %d écrasé avant d'être publié", tick);
+                continue;
+            }
+            snapshot.copyCursorsTo(cursors);
+            if (timeline != null) {
+                timeline.record(snapshot.getTeamFighterCount(), cursors);
+            }
+            gameOverDetector.onTick(snapshot.getTeamFighterCount());
+        }
+        publishedTick = Math.max(publishedTick, finalTick);
+    }
+
+    /** Dernier tick publié. */
+    public long getPublishedTick() {
+        return publishedTick;
+    }
+}
@@ -0,0 +1,31 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameInitializer;
+import fr.uparis.informatique.cpoo5.liquidwar.util.DirectionTables;
+
+/**
+ * Tables de directions partagées par tous les moteurs de simulation.
+ *
+ * Ces tables ne dépendent pas de la carte : elles sont construites une seule
+ * fois et réutilisées d'une partie à l'autre.
+ */
+final class MovementTables {
+
+    static final int[][] DIR_MOVE_X = DirectionTables.DIR_MOVE_X;
+    static final int[][] DIR_MOVE_Y = DirectionTables.DIR_MOVE_Y;
+
+    static final int[] LOCAL_DIR = new int[GameConfig.NB_LOCAL_DIRS * 2];
+    static final int[][][] FIGHTER_MOVE_DIR = new int[2][12][GameConfig.NB_TRY_MOVE];
+    static final int[][][] FIGHTER_MOVE_X_ALT = new int[2][12][GameConfig.NB_TRY_MOVE];
+    static final int[][][] FIGHTER_MOVE_Y_ALT = new int[2][12][GameConfig.NB_TRY_MOVE];
+
+    static {
+        GameInitializer.initMoveTables(LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT,
+                FIGHTER_MOVE_Y_ALT, DIR_MOVE_X, DIR_MOVE_Y);
+    }
+
+    // Empêcher l'instanciation
+    private MovementTables() {
+    }
+}
@@ -0,0 +1,215 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Mesh;
+import fr.uparis.informatique.cpoo5.liquidwar.service.OptimizedGradientEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.OptimizedMovementEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+import fr.uparis.informatique.cpoo5.liquidwar.util.MeshBuilder;
+
+/**
+ * Moteur de simulation optimisé (structure MESH).
+ *
+ * Structures possédées :
+ * - meshArray / meshLookup (graphe de cellules avec liens directs)
+ * - gradient[team][cell] : miroir du gradient MESH pour l'IA, resynchronisé à
+ * chaque propagation (une ligne par équipe active seulement)
+ *
+ * N'alloue pas cursorPosX/cursorPosY/updateTime : ces informations sont
+ * stockées dans les MeshInfo.
+ *
+ * Seul moteur à sauvegarder son état ({@link SnapshotCapableEngine}, pour le
+ * rollback) : c'est celui du lockstep.
+ */
+public class OptimizedSimulationEngine implements SnapshotCapableEngine {
+
+    private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
+    private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
+
+    // Propager le gradient tous les N ticks (sauf si forcé)
+    private static final int GRADIENT_SPREAD_INTERVAL = 3;
+
+    private int[][] map;
+    private int activeTeams;
+    private Mesh[] meshArray;
+    private Mesh[][] meshLookup;
+    private int[][] gradient;
+    // MeshInfo des équipes actives, MESH par MESH (parcours des snapshots)
+    private Mesh.MeshInfo[] teamInfos;
+    private DirtyCellTracker dirtyCells;
+    private GradientChangeTracker gradientChanges;
+
+    @Override
+    public void initialize(int[][] map, int activeTeams) {
+        GameLogger logger = GameLogger.getInstance();
+        this.map = map;
+        this.activeTeams = activeTeams;
+
+        // Construire le graphe MESH optimisé
+        meshArray = MeshBuilder.buildMeshArray(map);
+
+        // Créer table de correspondance (x,y) → Mesh pour accès O(1)
+        meshLookup = new Mesh[MAP_HEIGHT][MAP_WIDTH];
+        for (Mesh mesh : meshArray) {
+            meshLookup[mesh.y][mesh.x] = mesh;
+        }
+        OptimizedGradientEngine.resetAllGradients(meshArray, activeTeams);
+        teamInfos = new Mesh.MeshInfo[meshArray.length * activeTeams];
+        for (int i = 0; i < meshArray.length; i++) {
+            System.arraycopy(meshArray[i].teamInfo, 0, teamInfos, i * activeTeams, activeTeams);
+        }
+
+        gradient = new int[activeTeams][MAP_WIDTH * MAP_HEIGHT];
+        for (int team = 0; team < activeTeams; team++) {
+            Arrays.fill(gradient[team], GameConfig.AREA_START_GRADIENT);
+        }
+        syncGradientMirror();
+
+        logger.info("⚙️ Moteur optimisé : %d cellules MESH avec liens directs", meshArray.length);
+    }
+
+    @Override
+    public void step(ArrayList<Fighter> fighters, Cursor[] cursors, int[] cursorVal,
+            int[] teamFighterCount, int globalClock, boolean forceGradient) {
+        OptimizedGradientEngine.updateCursorPositions(meshArray, cursors, activeTeams, globalClock);
+        OptimizedGradientEngine.applyAllCursors(meshArray, cursors, cursorVal, activeTeams);
+
+        // Propager le gradient tous les 3 ticks, ou immédiatement si forcé (pour la
+        // souris)
+        if (globalClock % GRADIENT_SPREAD_INTERVAL == 0 || forceGradient) {
+            OptimizedGradientEngine.spreadSingleGradient(meshArray, activeTeams, globalClock);
+            syncGradientMirror();
+        }
+
+        OptimizedMovementEngine.moveFighters(fighters, meshArray, meshLookup, cursors, teamFighterCount,
+                MovementTables.FIGHTER_MOVE_DIR, MovementTables.FIGHTER_MOVE_X_ALT,
+                MovementTables.FIGHTER_MOVE_Y_ALT,
+                globalClock, map, MAP_WIDTH, MAP_HEIGHT, dirtyCells);
+    }
+
+    @Override
+    public void setDirtyCellTracker(DirtyCellTracker tracker) {
+        this.dirtyCells = tracker;
+    }
+
+    @Override
+    public void setGradientChangeTracker(GradientChangeTracker tracker) {
+        this.gradientChanges = tracker;
+    }
+
+    /**
+     * Synchronise : copie le gradient de MESH vers gradient[][].
+     */
+    private void syncGradientMirror() {
+        int watchedTeam = gradientChanges != null ? gradientChanges.getTeam() : GradientChangeTracker.NO_TEAM;
+        for (Mesh mesh : meshArray) {
+            int idx = mesh.y * MAP_WIDTH + mesh.x;
+            for (int team = 0; team < activeTeams; team++) {
+                int value = mesh.teamInfo[team].gradient;
+                if (team == watchedTeam && gradient[team][idx] != value) {
+                    gradientChanges.changed(idx);
+                }
+                gradient[team][idx] = value;
+            }
+        }
+    }
+
+    @Override
+    public int[][] getGradient() {
+        return gradient;
+    }
+
+    @Override
+    public void importGradient(int team, int[] src) {
+        if (meshArray == null || team < 0 || team >= activeTeams || src == null) {
+            return;
+        }
+        for (Mesh mesh : meshArray) {
+            int idx = mesh.y * MAP_WIDTH + mesh.x;
+            if (idx < src.length) {
+                mesh.teamInfo[team].gradient = src[idx];
+                gradient[team][idx] = src[idx];
+            }
+        }
+        if (gradientChanges != null) {
+            gradientChanges.requestFullRedraw();
+        }
+    }
+
+    // ==================== SNAPSHOTS ====================
+
+    /**
+     * Copie gradient, direction et updateTime de chaque MeshInfo actif, à
+     * plat (teamInfos) : ni les MESH ni leurs voisins ne sont lus. Gradient
+     * et direction partagent un int. La position du curseur dans les
+     * MeshInfo n'est pas copiée : updateCursorPositions() la réécrit partout
+     * au début de chaque tick, avant toute lecture.
+     */
+    @Override
+    public void saveState(SimulationSnapshot snapshot) {
+        Mesh.MeshInfo[] infos = teamInfos;
+        snapshot.ensureEngineCapacity(infos.length);
+        int[] gradDir = snapshot.gradientAndDirection;
+        int[] time = snapshot.updateTime;
+        for (int k = 0; k < infos.length; k++) {
+            Mesh.MeshInfo info = infos[k];
+            gradDir[k] = SimulationSnapshot.packGradient(info.gradient, info.direction);
+            time[k] = info.updateTime;
+        }
+    }
+
+    /**
+     * Restaure les MeshInfo puis le miroir du gradient (une passe sur les
+     * MESH) : l'IA, le GameState et la heat-map ne voient jamais le gradient
+     * de la branche abandonnée, même si la re-simulation ne propage pas.
+     */
+    @Override
+    public void restoreState(SimulationSnapshot snapshot) {
+        Mesh.MeshInfo[] infos = teamInfos;
+        if (snapshot.updateTime.length < infos.length) {
+            throw new IllegalStateException("Snapshot d'un autre moteur ou d'une autre carte");
+        }
+        int[] gradDir = snapshot.gradientAndDirection;
+        int[] time = snapshot.updateTime;
+        for (int k = 0; k < infos.length; k++) {
+            Mesh.MeshInfo info = infos[k];
+            info.gradient = SimulationSnapshot.gradientOf(gradDir[k]);
+            info.direction = SimulationSnapshot.directionOf(gradDir[k]);
+            info.updateTime = time[k];
+        }
+        syncGradientMirror();
+    }
+
+    /**
+     * Retourne le tableau de MESH (null si non initialisé).
+     */
+    public Mesh[] getMeshArray() {
+        return meshArray;
+    }
+
+    @Override
+    public void release() {
+        map = null;
+        meshArray = null;
+        meshLookup = null;
+        gradient = null;
+        teamInfos = null;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return meshArray != null;
+    }
+
+    @Override
+    public String getName() {
+        return "Optimisé (MESH)";
+    }
+}
@@ -0,0 +1,38 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import java.util.ArrayList;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.ParallelMovementEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.ParallelPathfindingEngine;
+
+/**
+ * Moteur de simulation parallèle (tableaux 2D, threads virtuels).
+ *
+ * Possède les mêmes structures que le moteur classique ; seuls le calcul du
+ * gradient et le mouvement sont délégués aux moteurs parallèles.
+ */
+public class ParallelSimulationEngine extends ClassicSimulationEngine {
+
+    @Override
+    protected void spreadGradient(Cursor[] cursors, int[] cursorVal, int globalClock) {
+        ParallelPathfindingEngine.calculateGradientParallel(map, gradient, cursors,
+                cursorPosX, cursorPosY, cursorVal, activeTeams, globalClock, gradientChanges);
+    }
+
+    @Override
+    protected void moveFighters(ArrayList<Fighter> fighters, Cursor[] cursors, int[] teamFighterCount,
+            int globalClock) {
+        ParallelMovementEngine.moveFightersParallel(fighters, cursors, teamFighterCount, map, gradient,
+                updateTime, cursorPosX, cursorPosY, MovementTables.LOCAL_DIR,
+                MovementTables.FIGHTER_MOVE_DIR, MovementTables.FIGHTER_MOVE_X_ALT,
+                MovementTables.FIGHTER_MOVE_Y_ALT,
+                MovementTables.DIR_MOVE_X, MovementTables.DIR_MOVE_Y, globalClock, dirtyCells);
+    }
+
+    @Override
+    public String getName() {
+        return "Parallèle";
+    }
+}
@@ -0,0 +1,105 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import java.util.ArrayList;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Strategy Pattern pour le moteur de simulation (gradient + mouvement).
+ *
+ * Chaque implémentation possède et alloue uniquement les structures dont elle
+ * a besoin :
+ * - Classique : tableaux 2D (gradient, cursorPosX/Y, updateTime)
+ * - Parallèle : mêmes tableaux que le classique, calcul multi-thread
+ * - Optimisé : graphe MESH + miroir du gradient pour l'IA
+ *
+ * Les moteurs sont interchangeables à chaud : {@link #migrateFrom} recopie le
+ * gradient du moteur précédent pour que les combattants ne perdent pas leur
+ * direction au moment du changement.
+ *
+ * @author Liquid War Team
+ */
+public interface SimulationEngine {
+
+    /**
+     * Alloue les structures du moteur pour une carte et un nombre d'équipes.
+     *
+     * @param map         Carte du jeu (-1 = obstacle)
+     * @param activeTeams Nombre d'équipes actives
+     */
+    void initialize(int[][] map, int activeTeams);
+
+    /**
+     * Exécute un tick de simulation : positions des curseurs, gradient, mouvement.
+     *
+     * @param fighters         Liste des combattants
+     * @param cursors          Curseurs des équipes
+     * @param cursorVal        Valeur courante de chaque curseur
+     * @param teamFighterCount Compteurs de combattants par équipe
+     * @param globalClock      Horloge globale
+     * @param forceGradient    true pour propager le gradient immédiatement
+     */
+    void step(ArrayList<Fighter> fighters, Cursor[] cursors, int[] cursorVal,
+            int[] teamFighterCount, int globalClock, boolean forceGradient);
+
+    /**
+     * Définit le tracker qui reçoit les cellules modifiées par le mouvement
+     * (rendu incrémental). null = pas de suivi.
+     */
+    void setDirtyCellTracker(DirtyCellTracker tracker);
+
+    /**
+     * Définit le tracker qui reçoit les cellules dont le gradient a changé
+     * (heatmap incrémentale). null = pas de suivi.
+     */
+    void setGradientChangeTracker(GradientChangeTracker tracker);
+
+    /**
+     * Retourne le gradient au format tableau (une ligne par équipe active),
+     * utilisé par l'IA et la synchronisation réseau.
+     */
+    int[][] getGradient();
+
+    /**
+     * Remplace le gradient d'une équipe (les murs sont ignorés).
+     */
+    void importGradient(int team, int[] src);
+
+    /**
+     * Reprend l'état d'un autre moteur (changement à chaud).
+     * Le moteur doit déjà être initialisé.
+     *
+     * @param previous Moteur précédent (peut être null)
+     */
+    default void migrateFrom(SimulationEngine previous) {
+        if (previous == null || previous == this) {
+            return;
+        }
+        int[][] source = previous.getGradient();
+        if (source == null) {
+            return;
+        }
+        int teams = Math.min(source.length, getGradient().length);
+        for (int team = 0; team < teams; team++) {
+            importGradient(team, source[team]);
+        }
+    }
+
+    /**
+     * Libère les structures du moteur (pour le GC).
+     */
+    void release();
+
+    /**
+     * Indique si le moteur a été initialisé.
+     */
+    boolean isInitialized();
+
+    /**
+     * Retourne le nom du moteur.
+     */
+    String getName();
+}
@@ -0,0 +1,248 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import java.util.List;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Copie compacte de l'état complet de la simulation après un tick, pour le
+ * rollback (voir SnapshotRing).
+ *
+ * Contenu :
+ * - combattants : un int par combattant (x, y, équipe, santé), dans l'ordre
+ * de la liste (l'ordre de mouvement en dépend)
+ * - curseurs, valeurs des curseurs, effectifs, horloge globale
+ * - état du moteur : gradient et direction (un int) et updateTime par
+ * (cellule, équipe), rangés par le moteur lui-même
+ * ({@link SnapshotCapableEngine#saveState})
+ * - empreinte de l'état (DirtyCellTracker#getStateHash())
+ *
+ * Les tableaux sont alloués à la première capture puis réutilisés : un
+ * snapshot du ring ne coûte plus que des copies. La restauration des
+ * combattants ne touche que ceux qui ont changé et signale ces seules
+ * cellules au DirtyCellTracker (rendu et empreinte incrémentaux).
+ */
+public final class SimulationSnapshot {
+
+    // Combattant empaqueté : x (10 bits) | y (10 bits) | équipe (3 bits) | santé (9 bits)
+    private static final int COORD_BITS = 10;
+    private static final int TEAM_BITS = 3;
+    private static final int HEALTH_BITS = 9;
+    private static final int Y_SHIFT = COORD_BITS;
+    private static final int TEAM_SHIFT = 2 * COORD_BITS;
+    private static final int HEALTH_SHIFT = TEAM_SHIFT + TEAM_BITS;
+    private static final int COORD_MASK = (1 << COORD_BITS) - 1;
+    private static final int TEAM_MASK = (1 << TEAM_BITS) - 1;
+    private static final int HEALTH_MASK = (1 << HEALTH_BITS) - 1;
+
+    // Gradient et direction empaquetés : gradient (28 bits) | direction (4 bits)
+    private static final int DIRECTION_BITS = 4;
+    private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
+    private long tick = -1;
+    private int globalClock;
+    private long stateHash;
+    private boolean forceGradient;
+
+    // Combattants
+    private int fighterCount;
+    private int[] fighters = new int[0];
+    private int[] changed = new int[0];
+
+    // Curseurs (x, y, actif par équipe), valeurs et effectifs
+    private int[] cursorState = new int[0];
+    private int[] cursorVal = new int[0];
+    private int[] teamFighterCount = new int[0];
+
+    // État du moteur, rempli par SnapshotCapableEngine.saveState()
+    int[] gradientAndDirection = new int[0];
+    int[] updateTime = new int[0];
+
+    /**
+     * Capture l'état de la simulation.
+     *
+     * @param tick          Tick qui vient d'être simulé
+     * @param forceGradient Propagation forcée en attente pour le tick suivant
+     * @param stateHash     Empreinte de l'état (0 si non suivie)
+     * @throws IllegalStateException Si un combattant sort des bornes de
+     *                               l'empaquetage
+     */
+    public void capture(long tick, int globalClock, boolean forceGradient, List<Fighter> fighters, Cursor[] cursors,
+            int[] cursorVal, int[] teamFighterCount, SnapshotCapableEngine engine, long stateHash) {
+        this.tick = tick;
+        this.globalClock = globalClock;
+        this.forceGradient = forceGradient;
+        this.stateHash = stateHash;
+
+        int count = fighters.size();
+        if (this.fighters.length < count) {
+            this.fighters = new int[count];
+            this.changed = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            this.fighters[i] = pack(fighters.get(i));
+        }
+        fighterCount = count;
+
+        if (cursorState.length != cursors.length * 3) {
+            cursorState = new int[cursors.length * 3];
+        }
+        for (int team = 0; team < cursors.length; team++) {
+            Cursor cursor = cursors[team];
+            if (cursor != null) {
+                cursorState[3 * team] = cursor.x;
+                cursorState[3 * team + 1] = cursor.y;
+                cursorState[3 * team + 2] = cursor.active;
+            }
+        }
+        this.cursorVal = copyInto(this.cursorVal, cursorVal);
+        this.teamFighterCount = copyInto(this.teamFighterCount, teamFighterCount);
+
+        engine.saveState(this);
+    }
+
+    /**
+     * Remet la simulation dans l'état capturé.
+     *
+     * @param tracker Tracker des cellules à tenir à jour (null = aucun)
+     * @throws IllegalStateException Si le nombre de combattants a changé
+     *                               depuis la capture
+     */
+    public void restore(List<Fighter> fighters, Cursor[] cursors, int[] cursorVal, int[] teamFighterCount,
+            SnapshotCapableEngine engine, DirtyCellTracker tracker) {
+        if (tick < 0) {
+            throw new IllegalStateException("Snapshot vide");
+        }
+        if (fighters.size() != fighterCount) {
+            throw new IllegalStateException(String.format("Snapshot de %d combattants, %d en jeu",
+                    fighterCount, fighters.size()));
+        }
+
+        // Deux passes : libérer toutes les cases quittées avant d'occuper les
+        // nouvelles (une case quittée peut être reprise par un autre combattant)
+        int changedCount = 0;
+        for (int i = 0; i < fighterCount; i++) {
+            Fighter f = fighters.get(i);
+            if (pack(f) != this.fighters[i]) {
+                changed[changedCount++] = i;
+                if (tracker != null) {
+                    tracker.removed(f);
+                }
+            }
+        }
+        for (int c = 0; c < changedCount; c++) {
+            Fighter f = fighters.get(changed[c]);
+            unpack(this.fighters[changed[c]], f);
+            if (tracker != null) {
+                tracker.changed(f);
+            }
+        }
+
+        copyCursorsTo(cursors);
+        System.arraycopy(this.cursorVal, 0, cursorVal, 0, Math.min(cursorVal.length, this.cursorVal.length));
+        System.arraycopy(this.teamFighterCount, 0, teamFighterCount, 0,
+                Math.min(teamFighterCount.length, this.teamFighterCount.length));
+
+        engine.restoreState(this);
+    }
+
+    // ==================== EMPAQUETAGE ====================
+
+    private static int pack(Fighter f) {
+        if (((f.x | f.y) & ~COORD_MASK) != 0 || (f.team & ~TEAM_MASK) != 0 || (f.health & ~HEALTH_MASK) != 0) {
+            throw new IllegalStateException(String.format("Combattant hors des bornes du snapshot : "
+                    + "(%d, %d) équipe %d santé %d", f.x, f.y, f.team, f.health));
+        }
+        return f.x | f.y << Y_SHIFT | f.team << TEAM_SHIFT | f.health << HEALTH_SHIFT;
+    }
+
+    private static void unpack(int packed, Fighter f) {
+        f.x = packed & COORD_MASK;
+        f.y = (packed >>> Y_SHIFT) & COORD_MASK;
+        f.team = (packed >>> TEAM_SHIFT) & TEAM_MASK;
+        f.health = packed >>> HEALTH_SHIFT;
+    }
+
+    private static int[] copyInto(int[] target, int[] source) {
+        if (target.length != source.length) {
+            target = new int[source.length];
+        }
+        System.arraycopy(source, 0, target, 0, source.length);
+        return target;
+    }
+
+    /**
+     * Empaquette un gradient (0..AREA_START_GRADIENT) et une direction
+     * (0..11).
+     */
+    static int packGradient(int gradient, int direction) {
+        return gradient << DIRECTION_BITS | (direction & DIRECTION_MASK);
+    }
+
+    static int gradientOf(int packed) {
+        return packed >> DIRECTION_BITS;
+    }
+
+    static int directionOf(int packed) {
+        return packed & DIRECTION_MASK;
+    }
+
+    /**
+     * Prépare les tableaux de l'état du moteur (appelé par saveState()).
+     *
+     * @param entries Nombre d'entrées (cellule, équipe)
+     */
+    void ensureEngineCapacity(int entries) {
+        if (updateTime.length < entries) {
+            gradientAndDirection = new int[entries];
+            updateTime = new int[entries];
+        }
+    }
+
+    // ==================== ACCESSEURS ====================
+
+    /** Tick capturé, -1 si vide. */
+    public long getTick() {
+        return tick;
+    }
+
+    public int getGlobalClock() {
+        return globalClock;
+    }
+
+    public boolean isForceGradient() {
+        return forceGradient;
+    }
+
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /** Effectifs capturés (tableau interne, à ne pas modifier). */
+    public int[] getTeamFighterCount() {
+        return teamFighterCount;
+    }
+
+    /**
+     * Recopie position et activité des curseurs capturés dans des curseurs
+     * existants (sans allocation).
+     */
+    public void copyCursorsTo(Cursor[] target) {
+        for (int team = 0; team < target.length && 3 * team < cursorState.length; team++) {
+            Cursor cursor = target[team];
+            if (cursor != null) {
+                cursor.x = cursorState[3 * team];
+                cursor.y = cursorState[3 * team + 1];
+                cursor.active = cursorState[3 * team + 2];
+            }
+        }
+    }
+
+    /** Taille des données capturées (octets), pour les statistiques. */
+    public int getSizeBytes() {
+        return 4 * (fighterCount + cursorState.length + cursorVal.length + teamFighterCount.length)
+                + 8 * updateTime.length;
+    }
+}
@@ -0,0 +1,25 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+/**
+ * Moteur capable de sauvegarder et restaurer son état, pour le rollback
+ * (voir SimulationSnapshot et SnapshotRing).
+ *
+ * L'état sauvegardé est ce que le moteur garde d'un tick à l'autre (gradient,
+ * direction et updateTime par cellule et par équipe) : après restoreState(),
+ * la simulation repart exactement comme depuis le tick capturé.
+ */
+public interface SnapshotCapableEngine extends SimulationEngine {
+
+    /**
+     * Copie l'état du moteur dans un snapshot.
+     */
+    void saveState(SimulationSnapshot snapshot);
+
+    /**
+     * Remet le moteur dans l'état d'un snapshot capturé par ce moteur.
+     *
+     * @throws IllegalStateException Si le snapshot vient d'un autre moteur
+     *                               ou d'une autre carte
+     */
+    void restoreState(SimulationSnapshot snapshot);
+}
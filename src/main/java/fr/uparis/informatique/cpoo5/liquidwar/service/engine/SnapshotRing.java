@@ -0,0 +1,45 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+/**
+ * Tampon circulaire des snapshots des derniers ticks (rollback).
+ *
+ * Le snapshot du tick T occupe la case T % capacité : écrire un tick écrase
+ * celui d'il y a « capacité » ticks, sans allocation une fois chaque case
+ * utilisée.
+ */
+public final class SnapshotRing {
+
+    private final SimulationSnapshot[] snapshots;
+
+    /**
+     * @param capacity Nombre de ticks conservés
+     */
+    public SnapshotRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacité invalide : " + capacity);
+        }
+        snapshots = new SimulationSnapshot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            snapshots[i] = new SimulationSnapshot();
+        }
+    }
+
+    /**
+     * Case où capturer le tick donné (son contenu précédent est perdu).
+     */
+    public SimulationSnapshot slot(long tick) {
+        return snapshots[(int) Math.floorMod(tick, (long) snapshots.length)];
+    }
+
+    /**
+     * Snapshot du tick donné, ou null s'il a été écrasé ou jamais capturé.
+     */
+    public SimulationSnapshot get(long tick) {
+        SimulationSnapshot snapshot = slot(tick);
+        return snapshot.getTick() == tick ? snapshot : null;
+    }
+
+    public int getCapacity() {
+        return snapshots.length;
+    }
+}
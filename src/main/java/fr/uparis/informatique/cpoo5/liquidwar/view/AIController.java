@@ -3,6 +3,7 @@ package fr.uparis.informatique.cpoo5.liquidwar.view;
 import java.awt.Point;
 
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GameState;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.service.ai.AIStrategy;
 import fr.uparis.informatique.cpoo5.liquidwar.service.ai.AggressiveAI;
@@ -22,10 +23,10 @@ public class AIController {
     private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
 
     private AIStrategy aiStrategy;
+    private GameState view;
     private Cursor[] cursors;
     private int[][] map;
     private int[][] gradient;
-    private int[] teamFighterCount;
     private int globalClock;
 
     // Mémoire pour détecter si l'IA est bloquée (position qui ne change pas)
@@ -33,6 +34,57 @@ public class AIController {
     private int[] lastCursorY = new int[6];
     private int[] stuckCounter = new int[6]; // Compteur de frames bloquées
 
+    // Adaptateur GameState pour l'IA : créé une seule fois ; curseurs et
+    // effectifs viennent de la vue partagée (état publié au dernier tick)
+    private final AIStrategy.GameState gameStateAdapter = new AIStrategy.GameState() {
+        @Override
+        public Point getCursorPosition(int t) {
+            if (view != null && t >= 0 && t < view.getActiveTeams()) {
+                return view.getCursorPosition(t);
+            }
+            return new Point(0, 0);
+        }
+
+        @Override
+        public int getFighterCount(int t) {
+            return view != null && t >= 0 && t < view.getActiveTeams() ? view.getFighterCount(t) : 0;
+        }
+
+        @Override
+        public boolean isValidPosition(int x, int y) {
+            return x >= 0 && x < MAP_WIDTH && y >= 0 && y < MAP_HEIGHT;
+        }
+
+        @Override
+        public boolean isWall(int x, int y) {
+            if (!isValidPosition(x, y))
+                return true;
+            return map != null && map[y][x] == -1;
+        }
+
+        @Override
+        public int getGradient(int t, int x, int y) {
+            if (!isValidPosition(x, y))
+                return GameConfig.AREA_START_GRADIENT;
+            if (gradient == null || t < 0 || t >= gradient.length)
+                return GameConfig.AREA_START_GRADIENT;
+            int idx = y * MAP_WIDTH + x;
+            if (idx < 0 || idx >= gradient[t].length)
+                return GameConfig.AREA_START_GRADIENT;
+            return gradient[t][idx];
+        }
+
+        @Override
+        public int getMapWidth() {
+            return MAP_WIDTH;
+        }
+
+        @Override
+        public int getMapHeight() {
+            return MAP_HEIGHT;
+        }
+    };
+
     public AIController() {
         // Par défaut, utiliser AggressiveAI
         this.aiStrategy = new AggressiveAI();
@@ -42,12 +94,17 @@ public class AIController {
         this.aiStrategy = strategy;
     }
 
-    public void setGameState(Cursor[] cursors, int[][] map, int[][] gradient,
-            int[] teamFighterCount, int globalClock) {
+    /**
+     * @param view    Vue partagée de la partie (curseurs et effectifs lus par
+     *                la stratégie)
+     * @param cursors Curseurs de la simulation (déplacés par l'IA)
+     */
+    public void setGameState(GameState view, Cursor[] cursors, int[][] map, int[][] gradient,
+            int globalClock) {
+        this.view = view;
         this.cursors = cursors;
         this.map = map;
         this.gradient = gradient;
-        this.teamFighterCount = teamFighterCount;
         this.globalClock = globalClock;
     }
 
@@ -70,59 +127,6 @@ public class AIController {
             GameLogger.getInstance().debug("IA Team %d [%s] - Clock: %d", team, aiStrategy.getName(), globalClock);
         }
 
-        // Utiliser la stratégie d'IA sélectionnée
-        // Créer un adaptateur GameState pour l'IA
-        AIStrategy.GameState gameStateAdapter = new AIStrategy.GameState() {
-            @Override
-            public Point getCursorPosition(int t) {
-                if (cursors != null && cursors[t] != null) {
-                    return new Point(cursors[t].x, cursors[t].y);
-                }
-                return new Point(0, 0);
-            }
-
-            @Override
-            public int getFighterCount(int t) {
-                return teamFighterCount != null && t >= 0 && t < teamFighterCount.length
-                        ? teamFighterCount[t]
-                        : 0;
-            }
-
-            @Override
-            public boolean isValidPosition(int x, int y) {
-                return x >= 0 && x < MAP_WIDTH && y >= 0 && y < MAP_HEIGHT;
-            }
-
-            @Override
-            public boolean isWall(int x, int y) {
-                if (!isValidPosition(x, y))
-                    return true;
-                return map != null && map[y][x] == -1;
-            }
-
-            @Override
-            public int getGradient(int t, int x, int y) {
-                if (!isValidPosition(x, y))
-                    return GameConfig.AREA_START_GRADIENT;
-                if (gradient == null || t < 0 || t >= gradient.length)
-                    return GameConfig.AREA_START_GRADIENT;
-                int idx = y * MAP_WIDTH + x;
-                if (idx < 0 || idx >= gradient[t].length)
-                    return GameConfig.AREA_START_GRADIENT;
-                return gradient[t][idx];
-            }
-
-            @Override
-            public int getMapWidth() {
-                return MAP_WIDTH;
-            }
-
-            @Override
-            public int getMapHeight() {
-                return MAP_HEIGHT;
-            }
-        };
-
         // Calculer la prochaine position avec la stratégie d'IA
         Point nextPos = aiStrategy.calculateNextMove(gameStateAdapter, team);
 
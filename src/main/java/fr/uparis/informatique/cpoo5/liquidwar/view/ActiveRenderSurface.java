@@ -0,0 +1,264 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Surface de rendu actif (Canvas + BufferStrategy) pilotée par son propre
+ * thread, à la place du chemin repaint() de Swing.
+ *
+ * - Double buffering par BufferStrategy (flip matériel quand disponible)
+ * - Cadence calée sur la fréquence de l'écran (60 Hz par défaut), avec
+ * rattrapage limité si le rendu prend du retard
+ * - Temps de frame mesurés (dernier, moyenne glissante, pire sur la
+ * dernière seconde) et FPS réels
+ *
+ * Le Canvas ne prend pas le focus : le clavier reste sur le composant parent,
+ * et les événements souris lui sont retransmis.
+ */
+public final class ActiveRenderSurface extends Canvas {
+
+    /**
+     * Rendu d'une frame dans un Graphics de taille donnée.
+     */
+    public interface FrameRenderer {
+        void renderFrame(Graphics2D g2d, int width, int height);
+
+        /**
+         * Indique si la frame de cette échéance doit être dessinée (saut de
+         * frames) ; sinon l'image précédente reste affichée.
+         */
+        default boolean shouldRenderFrame() {
+            return true;
+        }
+    }
+
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    private static final int BUFFER_COUNT = 2;
+    private static final double AVERAGE_SMOOTHING = 0.1;
+
+    private final FrameRenderer renderer;
+    private Thread renderThread;
+    private volatile boolean running = false;
+
+    // Mesures (écrites par le thread de rendu, lues par l'EDT)
+    private volatile double lastFrameMs;
+    private volatile double averageFrameMs;
+    private volatile double worstFrameMs;
+    private volatile double fps;
+
+    public ActiveRenderSurface(FrameRenderer renderer) {
+        this.renderer = renderer;
+        setIgnoreRepaint(true);
+        setFocusable(false);
+
+        // Retransmettre la souris au parent (contrôle du curseur)
+        MouseAdapter forward = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                redispatch(e);
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                redispatch(e);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                redispatch(e);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                redispatch(e);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                redispatch(e);
+            }
+        };
+        addMouseListener(forward);
+        addMouseMotionListener(forward);
+    }
+
+    private void redispatch(MouseEvent e) {
+        Component parent = getParent();
+        if (parent != null) {
+            parent.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, parent));
+        }
+    }
+
+    /**
+     * Démarre le thread de rendu (le Canvas doit être affichable).
+     */
+    public synchronized void start() {
+        if (running || !isDisplayable()) {
+            return;
+        }
+        createBufferStrategy(BUFFER_COUNT);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "LiquidWar-Render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+        GameLogger.getInstance().info("🖥️ Rendu actif démarré (%d Hz)", refreshRate());
+    }
+
+    /**
+     * Arrête le thread de rendu et attend sa fin.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = renderThread;
+        renderThread = null;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+            try {
+                thread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Fréquence de l'écran courant (Hz).
+     */
+    private int refreshRate() {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != null) {
+            DisplayMode mode = gc.getDevice().getDisplayMode();
+            if (mode != null && mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                return mode.getRefreshRate();
+            }
+        }
+        return DEFAULT_REFRESH_RATE;
+    }
+
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        long period = 1_000_000_000L / Math.max(1, refreshRate());
+        long nextFrame = System.nanoTime();
+        long secondStart = nextFrame;
+        int framesThisSecond = 0;
+        double worstThisSecond = 0;
+
+        while (running) {
+            if (!renderer.shouldRenderFrame()) {
+                nextFrame += period;
+                long wait = nextFrame - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    nextFrame = System.nanoTime();
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            try {
+                drawFrame(strategy);
+            } catch (IllegalStateException e) {
+                // Composant retiré pendant le rendu
+                break;
+            }
+            long end = System.nanoTime();
+
+            // Mesures
+            double frameMs = (end - start) / 1_000_000.0;
+            lastFrameMs = frameMs;
+            averageFrameMs = averageFrameMs == 0 ? frameMs
+                    : averageFrameMs + AVERAGE_SMOOTHING * (frameMs - averageFrameMs);
+            worstThisSecond = Math.max(worstThisSecond, frameMs);
+            framesThisSecond++;
+            if (end - secondStart >= 1_000_000_000L) {
+                fps = framesThisSecond * 1_000_000_000.0 / (end - secondStart);
+                worstFrameMs = worstThisSecond;
+                framesThisSecond = 0;
+                worstThisSecond = 0;
+                secondStart = end;
+            }
+
+            // Cadence : attendre la prochaine échéance, ou repartir de maintenant
+            // si on a plus d'une frame de retard (pas de rafale de rattrapage)
+            nextFrame += period;
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -period) {
+                nextFrame = System.nanoTime();
+            }
+        }
+        running = false;
+    }
+
+    private void drawFrame(BufferStrategy strategy) {
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    renderer.renderFrame(g2d, getWidth(), getHeight());
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+            Toolkit.getDefaultToolkit().sync();
+        } while (strategy.contentsLost());
+    }
+
+    // ==================== MESURES ====================
+
+    /**
+     * Durée de rendu de la dernière frame (ms).
+     */
+    public double getLastFrameMs() {
+        return lastFrameMs;
+    }
+
+    /**
+     * Durée moyenne de rendu (moyenne glissante, ms).
+     */
+    public double getAverageFrameMs() {
+        return averageFrameMs;
+    }
+
+    /**
+     * Pire durée de rendu sur la dernière seconde (ms).
+     */
+    public double getWorstFrameMs() {
+        return worstFrameMs;
+    }
+
+    /**
+     * Frames effectivement affichées par seconde.
+     */
+    public double getFps() {
+        return fps;
+    }
+}
@@ -1,13 +1,17 @@
 package fr.uparis.informatique.cpoo5.liquidwar.view;
 
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.RenderingHints;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Random;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -17,18 +21,29 @@ import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
 import fr.uparis.informatique.cpoo5.liquidwar.config.RenderConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.controller.command.CommandHistory;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GameState;
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
-import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Mesh;
-import fr.uparis.informatique.cpoo5.liquidwar.service.GameInitializer;
-import fr.uparis.informatique.cpoo5.liquidwar.service.MovementEngine;
-import fr.uparis.informatique.cpoo5.liquidwar.service.OptimizedGradientEngine;
-import fr.uparis.informatique.cpoo5.liquidwar.service.OptimizedMovementEngine;
-import fr.uparis.informatique.cpoo5.liquidwar.service.ParallelMovementEngine;
-import fr.uparis.informatique.cpoo5.liquidwar.service.ParallelPathfindingEngine;
-import fr.uparis.informatique.cpoo5.liquidwar.service.PathfindingEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.network.BattlefieldSnapshot;
+import fr.uparis.informatique.cpoo5.liquidwar.network.LockstepSession;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
+import fr.uparis.informatique.cpoo5.liquidwar.service.SimulationTick;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ClassicSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.FinalTickPublisher;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ParallelSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationSnapshot;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SnapshotCapableEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SnapshotRing;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
 import fr.uparis.informatique.cpoo5.liquidwar.util.PrecisionTimer;
+import fr.uparis.informatique.cpoo5.liquidwar.view.decorator.AuraDecorator;
+import fr.uparis.informatique.cpoo5.liquidwar.view.decorator.DecoratorPipeline;
+import fr.uparis.informatique.cpoo5.liquidwar.view.decorator.TrailDecorator;
 import fr.uparis.informatique.cpoo5.liquidwar.view.input.GameInputHandler;
 import fr.uparis.informatique.cpoo5.liquidwar.view.input.PlayerCursorController;
 
@@ -48,27 +63,14 @@ import fr.uparis.informatique.cpoo5.liquidwar.view.input.PlayerCursorController;
  * - Synchronisation thread-safe (locks)
  * - Boucle de jeu (updateLogic + paintComponent)
  */
-public class GameCanvas extends JPanel {
+public class GameCanvas extends JPanel implements ActiveRenderSurface.FrameRenderer {
 
     // Constantes
     private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
     private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
-    private static final int AREA_START_GRADIENT = GameConfig.AREA_START_GRADIENT;
     private static final int CURSOR_START_GRADIENT = GameConfig.CURSOR_START_GRADIENT;
-    private static final int NB_TRY_MOVE = GameConfig.NB_TRY_MOVE;
-    private static final int NB_LOCAL_DIRS = GameConfig.NB_LOCAL_DIRS;
     private static final boolean USE_MULTITHREADING = true;
 
-    // Directions (12 directions comme dans le code C)
-    private static final int[][] DIR_MOVE_X = {
-            { 0, 1, 1, 1, 1, 0, 0, -1, -1, -1, -1, 0 }, // Table 0
-            { 0, 1, 1, 1, 1, 0, 0, -1, -1, -1, -1, 0 } // Table 1
-    };
-    private static final int[][] DIR_MOVE_Y = {
-            { -1, -1, 0, 0, 1, 1, 1, 1, 0, 0, -1, -1 }, // Table 0
-            { -1, -1, 0, 0, 1, 1, 1, 1, 0, 0, -1, -1 } // Table 1
-    };
-
     // ==================== SYNCHRONISATION MULTITHREADING ====================
     private final ReentrantReadWriteLock gameStateLock = new ReentrantReadWriteLock();
     private final Lock readLock = gameStateLock.readLock();
@@ -85,7 +87,6 @@ public class GameCanvas extends JPanel {
     private ArrayList<Fighter> fighters;
     private Cursor[] cursors;
     private int[][] map;
-    private int[][] gradient;
     private int[] cursorVal;
     private int activeTeams;
     private int globalClock = 0;
@@ -93,6 +94,12 @@ public class GameCanvas extends JPanel {
     private String selectedMapName = null; // Nom de la map sélectionnée
     // Flag pour forcer la propagation du gradient au prochain tick (pour la souris)
     private boolean forceGradientUpdate = false;
+    // Vue partagée de l'état (une par partie, publiée à chaque tick)
+    private GameState gameState;
+    // Détection de fin de partie côté simulation (O(1) par tick)
+    private final GameOverDetector gameOverDetector = new GameOverDetector();
+    // Historique de la partie (un échantillon par tick, niveaux consolidés)
+    private final MatchTimeline timeline = new MatchTimeline(GameConfig.MAX_TEAMS);
 
     // Curseur du joueur principal
     private int playerCursorX = MAP_WIDTH / 2;
@@ -101,38 +108,56 @@ public class GameCanvas extends JPanel {
 
     // Mode réseau
     private boolean networkMode = false;
+    // Lockstep : les curseurs ne bougent qu'avec les entrées de la session ;
+    // le clavier et la souris déplacent un curseur d'entrée privé
+    private LockstepSession lockstep;
+    private Cursor[] lockstepInputCursors;
+    // Rollback : état des derniers ticks (fenêtre de la session + 1), null
+    // en lockstep pur
+    private SnapshotRing rollbackRing;
+    private FinalTickPublisher finalTicks;
+    // Graine du placement initial (partie réseau), null = aléatoire
+    private Long matchSeed;
 
     // ==================== OPTIMISATIONS ====================
     private boolean useOptimizedEngine = true;
-    private Mesh[] meshArray;
-    private Mesh[][] meshLookup;
+    // Moteur de simulation courant (possède gradient / MESH / tableaux par cellule)
+    private SimulationEngine engine;
     private PrecisionTimer precisionTimer;
     private WaterDistortionEffect waterFX;
     private long lastOptimizationLog = 0;
 
-    // ==================== RÉGÉNÉRATION ====================
-    // Régénération passive pour retrouver la couleur claire en se soignant (comme
-    // en C)
-    // Accélérer la régénération pour que la couleur redevienne claire plus vite
-    private static final int HEAL_INTERVAL_TICKS = 10; // toutes les ~0.05 s à 200 Hz logique
-    private static final int HEAL_AMOUNT = 2; // +2 PV par intervalle
-
-    // Système de mouvement "slime-like"
-    private int[] LOCAL_DIR = new int[NB_LOCAL_DIRS * 2];
-    private int[][][] FIGHTER_MOVE_DIR = new int[2][12][NB_TRY_MOVE];
-    private int[][][] FIGHTER_MOVE_X_ALT = new int[2][12][NB_TRY_MOVE];
-    private int[][][] FIGHTER_MOVE_Y_ALT = new int[2][12][NB_TRY_MOVE];
-    private int[][] cursorPosX = new int[6][MAP_HEIGHT * MAP_WIDTH];
-    private int[][] cursorPosY = new int[6][MAP_HEIGHT * MAP_WIDTH];
-    private int[][] updateTime = new int[6][MAP_HEIGHT * MAP_WIDTH];
-
     // ==================== RENDU ====================
     private BufferedImage gameBuffer;
     private BufferedImage staticBuffer;
     private boolean staticBufferDirty = true;
-    private Graphics2D bufferGraphics;
     private int[] gameBufferPixels;
     private int[] staticBufferPixels;
+    // Calque persistant fond + combattants (sans curseurs), patché cellule par
+    // cellule à partir des changements signalés par le moteur de mouvement
+    private final int[] framePixels = new int[MAP_WIDTH * MAP_HEIGHT];
+    private final DirtyCellTracker dirtyCells = new DirtyCellTracker(MAP_WIDTH, MAP_HEIGHT);
+    private int renderedColorVersion = -1;
+    // Zones couvertes par les curseurs à la frame précédente (x0, y0, x1, y1)
+    private final int[] cursorBounds = new int[GameConfig.MAX_TEAMS * 4];
+    // Agrandissement au plus proche voisin + VolatileImage en cache
+    private final ScaledFrameBlitter frameBlitter = new ScaledFrameBlitter();
+    // HUD en cache (texte rendu seulement quand il change)
+    private final HudOverlay hudOverlay = new HudOverlay();
+    // Heatmap du gradient (touche G), alimentée par les cellules modifiées
+    private final GradientVisualizer gradientVisualizer = new GradientVisualizer();
+    private final GradientChangeTracker gradientChanges = new GradientChangeTracker(MAP_WIDTH, MAP_HEIGHT);
+    // Décorateurs (touche T) : une passe parallèle sur les cellules, avec
+    // budget de temps
+    private final DecoratorPipeline decorators = createDecoratorPipeline();
+    // Rendu adaptatif : saut de frames / effets / agrandissement selon la
+    // marge de la logique
+    private final RenderScheduler renderScheduler = new RenderScheduler(
+            GameOptions.getInstance().getLogicTimerDelay());
+    // Rendu actif optionnel (null tant qu'il n'a jamais été activé)
+    private ActiveRenderSurface activeSurface;
+    // Affichage confié à un autre front-end (JavaFX)
+    private volatile boolean externalRendering = false;
 
     // ==================== LISTENER ====================
     private PauseListener pauseListener;
@@ -150,6 +175,14 @@ public class GameCanvas extends JPanel {
         setDoubleBuffered(true);
         setIgnoreRepaint(false);
 
+        // Rendu complet après un redimensionnement
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                dirtyCells.requestFullRedraw();
+            }
+        });
+
         // Initialiser les composants
         commandHistory = new CommandHistory();
         configuration = new GameCanvasConfiguration();
@@ -160,6 +193,10 @@ public class GameCanvas extends JPanel {
         inputHandler = new GameInputHandler(new GameInputHandler.InputListener() {
             @Override
             public void onCursorMoveRequested(int team, int x, int y) {
+                if (lockstep != null) {
+                    requestLockstepCursorMove(team, x, y);
+                    return;
+                }
                 if (cursors != null && team >= 0 && team < cursors.length && cursors[team] != null) {
                     // Vérifier que la nouvelle position n'est pas un obstacle
                     // Amélioration : trouver la case libre la plus proche si bloqué
@@ -221,10 +258,37 @@ public class GameCanvas extends JPanel {
 
             @Override
             public void onOptimizedEngineToggle() {
-                useOptimizedEngine = !useOptimizedEngine;
+                if (lockstep != null) {
+                    GameLogger.getInstance().info("Moteur verrouillé pendant une partie en lockstep");
+                    return;
+                }
+                setOptimizedEngine(!useOptimizedEngine);
                 GameLogger.getInstance().info("Moteur optimisé : %s",
                         useOptimizedEngine ? "ACTIVÉ" : "DÉSACTIVÉ (fallback classique)");
             }
+
+            @Override
+            public void onDecoratorsToggle() {
+                writeLock.lock();
+                try {
+                    decorators.cycle();
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+
+            @Override
+            public void onGradientViewToggle() {
+                writeLock.lock();
+                try {
+                    gradientVisualizer.cycle(activeTeams);
+                    gradientChanges.setTeam(gradientVisualizer.isEnabled()
+                            ? gradientVisualizer.getTeam()
+                            : GradientChangeTracker.NO_TEAM);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
         }, commandHistory);
 
         // Ajouter les listeners
@@ -353,11 +417,10 @@ public class GameCanvas extends JPanel {
         activeTeams = configuration.getRequestedTeams();
         cursors = new Cursor[6];
         teamFighterCount = new int[6];
-        gradient = new int[6][MAP_HEIGHT * MAP_WIDTH];
         cursorVal = new int[6];
 
-        // Initialiser les gradients
-        GameInitializationManager.initializeGradients(gradient, cursorVal, activeTeams);
+        // Initialiser les valeurs des curseurs
+        GameInitializationManager.initializeCursorValues(cursorVal);
 
         // Initialiser les curseurs (avec vérification des obstacles)
         GameInitializationManager.initializeCursors(cursors, activeTeams, configuration.getRequestedTeams(), map);
@@ -365,36 +428,42 @@ public class GameCanvas extends JPanel {
         // Initialiser les fighters
         fighters = new ArrayList<>();
         GameInitializationManager.initializeFighters(fighters, cursors, activeTeams,
-                configuration.getCustomFighterCounts(), map, teamFighterCount);
+                configuration.getCustomFighterCounts(), map, teamFighterCount,
+                matchSeed != null ? new Random(matchSeed) : null);
+
+        gameOverDetector.reset(activeTeams, teamFighterCount);
+        timeline.reset(activeTeams);
+        dirtyCells.rebuild(fighters);
 
         // Initialiser les buffers de rendu
         gameBuffer = new BufferedImage(MAP_WIDTH, MAP_HEIGHT, BufferedImage.TYPE_INT_RGB);
         staticBuffer = new BufferedImage(MAP_WIDTH, MAP_HEIGHT, BufferedImage.TYPE_INT_RGB);
-        bufferGraphics = gameBuffer.createGraphics();
-        bufferGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-        bufferGraphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
-        bufferGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
 
         gameBufferPixels = ((java.awt.image.DataBufferInt) gameBuffer.getRaster().getDataBuffer()).getData();
         staticBufferPixels = ((java.awt.image.DataBufferInt) staticBuffer.getRaster().getDataBuffer()).getData();
         staticBufferDirty = true;
 
-        // Initialiser le système de mouvement
-        GameInitializer.initMoveFighters(LOCAL_DIR, FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT,
-                FIGHTER_MOVE_Y_ALT, DIR_MOVE_X, DIR_MOVE_Y,
-                updateTime, cursorPosX, cursorPosY);
-
-        // Initialiser les optimisations
-        if (useOptimizedEngine) {
-            GameInitializationManager.MeshInitializationResult meshResult = GameInitializationManager
-                    .initializeMesh(map, activeTeams);
-            meshArray = meshResult.meshArray;
-            meshLookup = meshResult.meshLookup;
-            precisionTimer = meshResult.precisionTimer;
-            waterFX = meshResult.waterFX;
-            inputHandler.setWaterEffect(waterFX);
+        // Initialiser le moteur de simulation (seules ses propres structures sont
+        // allouées)
+        if (engine != null) {
+            engine.release();
         }
+        engine = createEngine(useOptimizedEngine);
+        engine.initialize(map, activeTeams);
+        engine.setDirtyCellTracker(dirtyCells);
+        engine.setGradientChangeTracker(gradientChanges);
+        gradientChanges.requestFullRedraw();
+        decorators.reset();
+        GameLogger.getInstance().info("Moteur de simulation : %s", engine.getName());
+
+        // Vue partagée : le masque de murs est construit une seule fois par carte
+        gameState = new GameState(GameState.buildWallMask(map), engine.getGradient(), fighters, cursors,
+                teamFighterCount, activeTeams);
+
+        // Initialiser le timer et l'effet d'eau
+        precisionTimer = new PrecisionTimer();
+        waterFX = GameInitializationManager.createWaterEffect();
+        inputHandler.setWaterEffect(waterFX);
 
         // Mettre à jour les contrôleurs
         cursorController.setConfiguration(cursors, configuration.getTeamControlTypes(),
@@ -403,7 +472,7 @@ public class GameCanvas extends JPanel {
         if (map != null) {
             cursorController.setMap(map);
         }
-        aiController.setGameState(cursors, map, gradient, teamFighterCount, globalClock);
+        aiController.setGameState(gameState, cursors, map, engine.getGradient(), globalClock);
         aiController.setAIStrategy(configuration.getAIStrategy());
         updateInputHandlerConfiguration();
 
@@ -421,60 +490,53 @@ public class GameCanvas extends JPanel {
      * Mise à jour de la logique du jeu (appelée par le timer de logique).
      */
     public void updateLogic() {
+        long tickStart = System.nanoTime();
         writeLock.lock();
         try {
-            globalClock++;
-
-            // Mettre à jour le curseur du joueur
-            if (inputHandler != null) {
-                GameInputHandler.KeyState keyState = inputHandler.getKeyState();
-                cursorController.updatePlayerCursor(keyState);
-            }
+            if (lockstep != null) {
+                if (!advanceLockstep()) {
+                    // Un rollback a pu changer l'état pendant l'attente
+                    gameState.synchronize();
+                    return;
+                }
+            } else {
+                globalClock++;
 
-            // Mettre à jour le curseur du joueur principal (seulement si contrôle clavier)
-            // Si contrôle souris, la position est déjà mise à jour dans
-            // onCursorMoveRequested
-            if (cursors[0] != null && configuration.isTeamHuman(0)) {
-                String controlType = configuration.getTeamControlTypes()[0];
-                // Ne pas écraser la position si c'est un contrôle souris
-                if (!"Souris".equals(controlType)) {
-                    Point playerPos = cursorController.getPlayerCursorPosition();
-                    cursors[0].x = playerPos.x;
-                    cursors[0].y = playerPos.y;
-                    playerCursorX = playerPos.x;
-                    playerCursorY = playerPos.y;
+                // Mettre à jour le curseur du joueur
+                if (inputHandler != null) {
+                    GameInputHandler.KeyState keyState = inputHandler.getKeyState();
+                    cursorController.updatePlayerCursor(keyState);
                 }
-            }
 
-            // Mettre à jour les curseurs IA
-            if (!networkMode) {
-                for (int team = 0; team < activeTeams; team++) {
-                    if (cursors[team] != null && !configuration.isTeamHuman(team)) {
-                        aiController.updateAICursor(team);
+                // Mettre à jour le curseur du joueur principal (seulement si contrôle clavier)
+                // Si contrôle souris, la position est déjà mise à jour dans
+                // onCursorMoveRequested
+                if (cursors[0] != null && configuration.isTeamHuman(0)) {
+                    String controlType = configuration.getTeamControlTypes()[0];
+                    // Ne pas écraser la position si c'est un contrôle souris
+                    if (!"Souris".equals(controlType)) {
+                        Point playerPos = cursorController.getPlayerCursorPosition();
+                        cursors[0].x = playerPos.x;
+                        cursors[0].y = playerPos.y;
+                        playerCursorX = playerPos.x;
+                        playerCursorY = playerPos.y;
                     }
                 }
-            }
 
-            // Décrémenter la valeur du curseur (mais pas en dessous d'un minimum)
-            for (int team = 0; team < activeTeams; team++) {
-                if (cursors[team] != null && cursors[team].active != 0) {
-                    // Ne décrémenter que si cursorVal est positif
-                    // Si cursorVal est déjà bas, cela signifie que le curseur n'a pas bougé
-                    // récemment
-                    if (cursorVal[team] > 0) {
-                        cursorVal[team]--;
+                // Mettre à jour les curseurs IA
+                if (!networkMode) {
+                    for (int team = 0; team < activeTeams; team++) {
+                        if (cursors[team] != null && !configuration.isTeamHuman(team)) {
+                            aiController.updateAICursor(team);
+                        }
                     }
                 }
             }
 
-            // Régénération passive des fighters (rééclaircissement progressif des couleurs)
-            if (globalClock % HEAL_INTERVAL_TICKS == 0) {
-                for (Fighter fighter : fighters) {
-                    if (fighter.health < GameConfig.FIGHTER_INITIAL_HEALTH) {
-                        fighter.health = Math.min(GameConfig.FIGHTER_INITIAL_HEALTH,
-                                fighter.health + HEAL_AMOUNT);
-                    }
-                }
+            simulateTick();
+            if (rollbackRing != null) {
+                captureRollbackSnapshot();
+                finalTicks.publishUpTo(lockstep.getFinalTick());
             }
 
             // Log des positions des curseurs (toutes les 2 secondes)
@@ -488,79 +550,241 @@ public class GameCanvas extends JPanel {
                 }
             }
 
-            // Mettre à jour l'état de l'IA
-            aiController.setGameState(cursors, map, gradient, teamFighterCount, globalClock);
-
-            // Choix entre moteur optimisé et moteur classique
-            if (useOptimizedEngine && meshArray != null) {
-                // Version optimisée - Structure MESH
-                OptimizedGradientEngine.updateCursorPositions(meshArray, cursors, activeTeams, globalClock);
-                OptimizedGradientEngine.applyAllCursors(meshArray, cursors, cursorVal, activeTeams);
-
-                // Propager le gradient tous les 3 ticks, ou immédiatement si forcé (pour la
-                // souris)
-                if (globalClock % 3 == 0 || forceGradientUpdate) {
-                    OptimizedGradientEngine.spreadSingleGradient(meshArray, activeTeams, globalClock);
-
-                    // Synchroniser : copier le gradient de MESH vers gradient[][]
-                    for (Mesh mesh : meshArray) {
-                        int idx = mesh.y * MAP_WIDTH + mesh.x;
-                        for (int team = 0; team < activeTeams; team++) {
-                            gradient[team][idx] = mesh.teamInfo[team].gradient;
-                        }
-                    }
+            // Historique (sans allocation) et fin de partie (victoire ou
+            // minuterie), notifiée une seule fois ; en rollback, seulement
+            // pour les ticks définitifs (publiés ci-dessus)
+            if (rollbackRing == null) {
+                timeline.record(teamFighterCount, cursors);
+                gameOverDetector.onTick(teamFighterCount);
+            }
 
-                    // Réinitialiser le flag après avoir propagé
-                    forceGradientUpdate = false;
+            // Publier curseurs et compteurs pour les autres threads (réseau,
+            // statistiques) et appliquer leurs écritures en attente
+            gameState.synchronize();
+
+            // LOG stats toutes les 5 secondes
+            if (useOptimizedEngine && precisionTimer != null
+                    && System.currentTimeMillis() - lastOptimizationLog > 5000) {
+                double logicFPS = precisionTimer.getLogicFPS();
+                double displayFPS = precisionTimer.getDisplayFPS();
+                if (logicFPS > 0 && displayFPS > 0) {
+                    GameLogger.getInstance().info(
+                            "⚡ OPTIMISÉ | Logique: %.1f Hz | Affichage: %.1f FPS | Ratio: %.1f:1",
+                            logicFPS, displayFPS, logicFPS / displayFPS);
                 }
+                lastOptimizationLog = System.currentTimeMillis();
+            }
 
-                OptimizedMovementEngine.moveFighters(fighters, meshArray, meshLookup, cursors, teamFighterCount,
-                        FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT,
-                        globalClock, map, MAP_WIDTH, MAP_HEIGHT);
-
-                // LOG stats toutes les 5 secondes
-                if (precisionTimer != null && System.currentTimeMillis() - lastOptimizationLog > 5000) {
-                    double logicFPS = precisionTimer.getLogicFPS();
-                    double displayFPS = precisionTimer.getDisplayFPS();
-                    if (logicFPS > 0 && displayFPS > 0) {
-                        GameLogger.getInstance().info(
-                                "⚡ OPTIMISÉ | Logique: %.1f Hz | Affichage: %.1f FPS | Ratio: %.1f:1",
-                                logicFPS, displayFPS, logicFPS / displayFPS);
-                    }
-                    lastOptimizationLog = System.currentTimeMillis();
-                }
+        } finally {
+            writeLock.unlock();
+        }
+        renderScheduler.onLogicTick(System.nanoTime() - tickStart);
+    }
 
-            } else {
-                // Version classique - Tableaux 2D
-                PathfindingEngine.updateCursorPositions(cursors, activeTeams, map, cursorPosX, cursorPosY, updateTime,
-                        globalClock);
-
-                if (USE_MULTITHREADING) {
-                    ParallelPathfindingEngine.calculateGradientParallel(map, gradient, cursors,
-                            cursorPosX, cursorPosY, cursorVal, activeTeams, globalClock);
-                } else {
-                    PathfindingEngine.applyAllCursors(cursors, activeTeams, map, gradient, cursorVal);
-                    PathfindingEngine.spreadSingleGradient(map, gradient, activeTeams, globalClock);
-                }
+    /**
+     * Simule un tick, curseurs déjà placés (voir SimulationTick ; appelé sous
+     * le verrou d'écriture, aussi pour re-simuler après un rollback).
+     */
+    private void simulateTick() {
+        // Mettre à jour l'état de l'IA
+        aiController.setGameState(gameState, cursors, map, engine.getGradient(), globalClock);
+
+        // Valeurs des curseurs, régénération, gradient et mouvement
+        SimulationTick.run(engine, fighters, cursors, cursorVal, teamFighterCount, activeTeams, globalClock,
+                forceGradientUpdate, dirtyCells);
+        // Réinitialiser le flag après avoir propagé
+        forceGradientUpdate = false;
+
+        // Empreinte de l'état après ce tick (détection de désynchronisation)
+        if (lockstep != null) {
+            lockstep.recordStateHash(dirtyCells.getStateHash());
+        }
+    }
 
-                if (USE_MULTITHREADING) {
-                    ParallelMovementEngine.moveFightersParallel(fighters, cursors, teamFighterCount, map, gradient,
-                            updateTime, cursorPosX, cursorPosY, LOCAL_DIR,
-                            FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT,
-                            DIR_MOVE_X, DIR_MOVE_Y, globalClock);
-                } else {
-                    MovementEngine.moveFighters(fighters, cursors, teamFighterCount, map, gradient,
-                            updateTime, cursorPosX, cursorPosY, LOCAL_DIR,
-                            FIGHTER_MOVE_DIR, FIGHTER_MOVE_X_ALT, FIGHTER_MOVE_Y_ALT,
-                            DIR_MOVE_X, DIR_MOVE_Y, globalClock);
-                }
+    /**
+     * Tick en lockstep : produit l'entrée locale, re-simule les ticks
+     * prédits à tort (rollback) puis applique les entrées de tous les pairs
+     * pour le tick suivant (appelé sous le verrou d'écriture).
+     *
+     * @return false si une entrée distante manque (tick retardé)
+     */
+    private boolean advanceLockstep() {
+        if (inputHandler != null) {
+            cursorController.updatePlayerCursor(inputHandler.getKeyState());
+        }
+        Point input = cursorController.getPlayerCursorPosition();
+        lockstep.scheduleLocalInput(input.x, input.y);
+
+        if (rollbackRing != null) {
+            if (rollbackRing.get(lockstep.getCurrentTick()) == null) {
+                // Premier tick : état de départ, base d'un rollback au tick 1
+                captureRollbackSnapshot();
             }
+            rollBack();
+            // Entrées reçues pendant l'attente : ticks devenus définitifs
+            finalTicks.publishUpTo(lockstep.getFinalTick());
+        }
 
+        if (!lockstep.isReady()) {
+            lockstep.recordStall();
+            return false;
+        }
+        globalClock++;
+        if (lockstep.applyNextTick(cursors, cursorVal)) {
+            forceGradientUpdate = true;
+        }
+        return true;
+    }
+
+    /**
+     * Moteur courant, vu comme capable de snapshots : le lockstep impose le
+     * moteur optimisé (voir setLockstepSession()).
+     */
+    private SnapshotCapableEngine snapshotEngine() {
+        if (engine instanceof SnapshotCapableEngine snapshots) {
+            return snapshots;
+        }
+        throw new IllegalStateException("Rollback impossible : le moteur " + engine.getName()
+                + " ne sauvegarde pas son état");
+    }
+
+    /**
+     * Capture l'état après le dernier tick lockstep simulé dans le ring.
+     */
+    private void captureRollbackSnapshot() {
+        long tick = lockstep.getCurrentTick();
+        rollbackRing.slot(tick).capture(tick, globalClock, forceGradientUpdate, fighters, cursors, cursorVal,
+                teamFighterCount, snapshotEngine(), dirtyCells.getStateHash());
+    }
+
+    /**
+     * Si une entrée reçue contredit une prédiction : restaure l'état du tick
+     * qui précède la première erreur puis re-simule jusqu'au tick courant
+     * avec les entrées corrigées.
+     */
+    private void rollBack() {
+        long from = lockstep.takeRollbackTick();
+        if (from < 0) {
+            return;
+        }
+        long target = lockstep.getCurrentTick();
+        SimulationSnapshot base = rollbackRing.get(from - 1);
+        if (base == null) {
+            // Ne devrait pas arriver (ring = fenêtre + 1) ; la divergence
+            // sera signalée par le DesyncDetector
+            GameLogger.getInstance().error("Rollback impossible : pas de snapshot du tick %d", from - 1);
+            return;
+        }
+        long start = System.nanoTime();
+        base.restore(fighters, cursors, cursorVal, teamFighterCount, snapshotEngine(), dirtyCells);
+        globalClock = base.getGlobalClock();
+        forceGradientUpdate = base.isForceGradient();
+        lockstep.rewindTo(from - 1);
+        while (lockstep.getCurrentTick() < target) {
+            globalClock++;
+            if (lockstep.applyNextTick(cursors, cursorVal)) {
+                forceGradientUpdate = true;
+            }
+            simulateTick();
+            captureRollbackSnapshot();
+        }
+        GameLogger.getInstance().debug("↩️ Rollback : ticks %d à %d re-simulés en %.2f ms",
+                from, target, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Déplacement à la souris en lockstep : seul le curseur d'entrée local
+     * bouge, la position sera envoyée avec la prochaine entrée.
+     */
+    private void requestLockstepCursorMove(int team, int x, int y) {
+        Cursor input = lockstepInputCursors[0];
+        if (team != playerTeam || map == null || y < 0 || y >= map.length || x < 0 || x >= map[0].length) {
+            return;
+        }
+        if (map[y][x] == -1) {
+            int[] freePos = findNearestFreePositionForCursor(x, y, input.x, input.y, map, 3);
+            if (freePos == null) {
+                return;
+            }
+            x = freePos[0];
+            y = freePos[1];
+        }
+        cursorController.setPlayerCursor(x, y);
+    }
+
+    /**
+     * Crée le moteur de simulation correspondant au mode demandé.
+     */
+    private static SimulationEngine createEngine(boolean optimized) {
+        if (optimized) {
+            return new OptimizedSimulationEngine();
+        }
+        return USE_MULTITHREADING ? new ParallelSimulationEngine() : new ClassicSimulationEngine();
+    }
+
+    /**
+     * Pipeline des décorateurs, du moins coûteux au plus coûteux (ordre du
+     * cycle de la touche T).
+     */
+    private static DecoratorPipeline createDecoratorPipeline() {
+        DecoratorPipeline pipeline = new DecoratorPipeline();
+        pipeline.register(new TrailDecorator());
+        pipeline.register(new AuraDecorator());
+        return pipeline;
+    }
+
+    /**
+     * Change de moteur de simulation à chaud.
+     * 
+     * Le nouveau moteur alloue ses structures, reprend le gradient de l'ancien
+     * (les combattants gardent leur direction), puis l'ancien est libéré.
+     */
+    public void setOptimizedEngine(boolean optimized) {
+        writeLock.lock();
+        try {
+            if (optimized == useOptimizedEngine && engine != null) {
+                return;
+            }
+            useOptimizedEngine = optimized;
+            if (engine == null || map == null) {
+                return; // Sera créé par initializeGame()
+            }
+            SimulationEngine next = createEngine(optimized);
+            next.initialize(map, activeTeams);
+            next.setDirtyCellTracker(dirtyCells);
+            next.setGradientChangeTracker(gradientChanges);
+            next.migrateFrom(engine);
+            engine.release();
+            engine = next;
+            gameState.bindGradient(engine.getGradient());
+            aiController.setGameState(gameState, cursors, map, engine.getGradient(), globalClock);
+            forceGradientUpdate = true;
         } finally {
             writeLock.unlock();
         }
     }
 
+    /**
+     * Retourne le moteur de simulation courant.
+     */
+    public SimulationEngine getSimulationEngine() {
+        return engine;
+    }
+
+    /**
+     * Retourne le détecteur de fin de partie (listener, minuterie en ticks).
+     */
+    public GameOverDetector getGameOverDetector() {
+        return gameOverDetector;
+    }
+
+    /**
+     * Retourne l'historique de la partie (compteurs, conversions, distances).
+     */
+    public MatchTimeline getMatchTimeline() {
+        return timeline;
+    }
+
     /**
      * Obtient les compteurs de combattants par équipe.
      */
@@ -568,33 +792,119 @@ public class GameCanvas extends JPanel {
         return teamFighterCount;
     }
 
+    /**
+     * Copie les compteurs publiés au dernier tick (thread-safe, sans
+     * allocation, voir GameState).
+     */
+    public void copyTeamFighterCounts(int[] dest) {
+        GameState view = gameState;
+        if (view != null) {
+            view.copyFighterCounts(dest);
+        }
+    }
+
+    /**
+     * Nombre d'équipes en jeu.
+     */
+    public int getActiveTeams() {
+        return activeTeams;
+    }
+
     // ==================== RENDU ====================
 
     /**
      * Rendu du jeu (appelé par Swing).
+     * 
+     * En mode rendu actif, c'est le thread de la surface qui dessine : Swing
+     * n'a rien à faire ici. Avec un affichage externe (JavaFX), seul un message
+     * est affiché.
      */
     @Override
     protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (isActiveRendering()) {
+            return;
+        }
+        if (externalRendering) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.LIGHT_GRAY);
+            g.setFont(new Font("Arial", Font.BOLD, 14));
+            g.drawString("Affichage dans la fenêtre JavaFX", 20, getHeight() / 2);
+            return;
+        }
+        renderFrame((Graphics2D) g, getWidth(), getHeight());
+    }
+
+    /**
+     * Met à jour le buffer de jeu (fond, combattants, curseurs) sans l'afficher.
+     * 
+     * Utilisé par les affichages qui lisent directement les pixels du buffer
+     * (voir getFrameBufferPixels()).
+     */
+    public void updateFrameBuffer() {
         readLock.lock();
         try {
-            super.paintComponent(g);
+            updateFrameBufferLocked();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-            // Créer le buffer statique si nécessaire
-            boolean[] staticBufferDirtyRef = { staticBufferDirty };
-            GameRenderer.drawStaticBuffer(map, staticBufferPixels, staticBufferDirtyRef);
-            staticBufferDirty = staticBufferDirtyRef[0];
+    /**
+     * Pixels du buffer de jeu (MAP_WIDTH x MAP_HEIGHT, une ligne après l'autre).
+     * 
+     * Le tableau est le raster du BufferedImage : il est réalloué à chaque
+     * nouvelle partie.
+     */
+    public int[] getFrameBufferPixels() {
+        return gameBufferPixels;
+    }
 
-            // Copier les pixels directement
-            System.arraycopy(staticBufferPixels, 0, gameBufferPixels, 0, MAP_WIDTH * MAP_HEIGHT);
+    /**
+     * Fond, combattants (complet ou incrémental) et curseurs dans le buffer de
+     * jeu. Appelant : verrou de lecture pris.
+     */
+    private void updateFrameBufferLocked() {
+        // Créer le buffer statique si nécessaire
+        boolean staticChanged = staticBufferDirty;
+        boolean[] staticBufferDirtyRef = { staticBufferDirty };
+        GameRenderer.drawStaticBuffer(map, staticBufferPixels, staticBufferDirtyRef);
+        staticBufferDirty = staticBufferDirtyRef[0];
+
+        if (staticChanged || dirtyCells.isFullRedrawPending()
+                || renderedColorVersion != GameRenderer.getColorVersion()) {
+            // Rendu complet : fond + tous les fighters
+            System.arraycopy(staticBufferPixels, 0, framePixels, 0, framePixels.length);
+            GameRenderer.drawFighters(fighters, framePixels);
+            System.arraycopy(framePixels, 0, gameBufferPixels, 0, framePixels.length);
+            renderedColorVersion = GameRenderer.getColorVersion();
+        } else {
+            // Rendu incrémental : seulement les cellules modifiées depuis la
+            // dernière frame, puis effacement des anciens curseurs
+            GameRenderer.patchFighters(dirtyCells, staticBufferPixels, framePixels, gameBufferPixels);
+            GameRenderer.restoreCursorAreas(cursorBounds, activeTeams, framePixels, gameBufferPixels);
+        }
+        dirtyCells.clear();
 
-            // Dessiner les fighters
-            GameRenderer.drawFighters(fighters, gameBufferPixels);
+        // Dessiner les curseurs depuis leurs sprites en cache (et mémoriser leur
+        // zone pour la frame suivante)
+        GameRenderer.drawCursors(cursors, activeTeams, gameBufferPixels, cursorBounds);
+    }
 
-            // Dessiner les curseurs
-            GameRenderer.drawCursors(cursors, activeTeams, bufferGraphics);
+    /**
+     * Dessine une frame complète (jeu + HUD) dans un Graphics de taille donnée.
+     * 
+     * Appelé par paintComponent (EDT) ou par le thread de rendu actif.
+     */
+    @Override
+    public void renderFrame(Graphics2D g2d, int width, int height) {
+        long paintStart = System.nanoTime();
+        readLock.lock();
+        try {
+            updateFrameBufferLocked();
 
             // Configurer les hints de rendu selon la qualité graphique
-            Graphics2D g2d = (Graphics2D) g;
             GameOptions options = GameOptions.getInstance();
             String quality = options.getGraphicsQuality();
 
@@ -623,45 +933,246 @@ public class GameCanvas extends JPanel {
             }
 
             // Log une seule fois au premier affichage
-            GameRenderer.printDebugLogs(globalClock, gameBuffer, getWidth(), getHeight());
+            GameRenderer.printDebugLogs(globalClock, gameBuffer, width, height);
+
+            // Effet d'eau (touche W) : buffer de destination réutilisé, le calque
+            // persistant n'est jamais modifié
+            BufferedImage frame = gameBuffer;
+
+            // Décorateurs (traînées, auras) : une passe sur les cellules, les
+            // plus coûteux suspendus si le rendu adaptatif le demande
+            decorators.setCostLimit(renderScheduler.getDecoratorCostLimit());
+            frame = decorators.apply(frame, dirtyCells, globalClock);
+
+            // Heatmap du gradient : seules les cellules modifiées sont
+            // recalculées, puis mélange au niveau des pixels de la carte
+            int[][] gradient = engine != null ? engine.getGradient() : null;
+            int shownTeam = gradientVisualizer.getTeam();
+            if (gradientVisualizer.isEnabled() && gradient != null && shownTeam < gradient.length) {
+                gradientVisualizer.update(gradient[shownTeam], cursorVal[shownTeam], gradientChanges);
+                frame = gradientVisualizer.blend(frame);
+            }
 
-            // Étirer le buffer de jeu à l'écran
-            g2d.drawImage(gameBuffer, 0, 0, getWidth(), getHeight(), null);
+            if (waterFX != null && waterFX.isEnabled()) {
+                frame = waterFX.applyDistortionFast(frame, renderScheduler.getWaterSampleRate());
+            }
 
-            // Afficher un indicateur de qualité graphique
-            g2d.setFont(new Font("Monospaced", Font.BOLD, 14));
-            String qualityIndicator = "Qualité: " + quality;
-            Color qualityColor;
-            switch (quality) {
-                case "Élevée":
-                    qualityColor = new Color(0, 255, 0, 200);
-                    break;
-                case "Moyenne":
-                    qualityColor = new Color(255, 255, 0, 200);
-                    break;
-                default:
-                    qualityColor = new Color(255, 100, 100, 200);
-                    break;
+            // Étirer le buffer de jeu à l'écran : agrandissement entier maison
+            // au plus proche voisin, ou Java2D si l'interpolation bilinéaire est
+            // demandée (et que le rendu adaptatif ne force pas la version rapide)
+            if (renderScheduler.isFastScaling() || g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION)
+                    == RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR) {
+                frameBlitter.blit(g2d, frame, width, height, getGraphicsConfiguration());
+            } else {
+                g2d.drawImage(frame, 0, 0, width, height, null);
             }
-            g2d.setColor(qualityColor);
-            g2d.drawString(qualityIndicator, 10, 20);
 
-            // Afficher les statistiques
-            GameRenderer.drawHUD(g2d, activeTeams, teamFighterCount, getWidth(), getHeight());
+            // Indicateur de qualité + statistiques : calque en cache, redessiné
+            // seulement quand son contenu change
+            hudOverlay.draw(g2d, quality, activeTeams, teamFighterCount, height);
+            gradientVisualizer.renderLegend(g2d, width - 210, 10);
 
         } finally {
             readLock.unlock();
         }
+        renderScheduler.onFrameRendered(System.nanoTime() - paintStart);
+    }
+
+    @Override
+    public boolean shouldRenderFrame() {
+        return renderScheduler.shouldRenderFrame();
+    }
+
+    /**
+     * Ordonnanceur de rendu adaptatif (décisions affichées dans les
+     * statistiques).
+     */
+    public RenderScheduler getRenderScheduler() {
+        return renderScheduler;
+    }
+
+    // ==================== RENDU ACTIF ====================
+
+    /**
+     * Active ou désactive le rendu actif (Canvas + BufferStrategy sur un thread
+     * dédié) à la place du chemin repaint() de Swing.
+     * 
+     * À appeler sur l'EDT. Les panneaux Swing superposés (pause, victoire) ne
+     * peuvent pas recouvrir le Canvas : le rendu actif doit être coupé pendant
+     * qu'ils sont affichés.
+     */
+    public void setActiveRendering(boolean enabled) {
+        enabled = enabled && !externalRendering;
+        boolean attached = activeSurface != null && activeSurface.getParent() == this;
+        if (enabled == attached && enabled == isActiveRendering()) {
+            return;
+        }
+        if (enabled) {
+            if (attached) {
+                remove(activeSurface);
+            }
+            if (activeSurface == null) {
+                activeSurface = new ActiveRenderSurface(this);
+            }
+            setLayout(new BorderLayout());
+            add(activeSurface, BorderLayout.CENTER);
+            validate();
+            activeSurface.start();
+            if (!activeSurface.isRunning()) {
+                // Pas encore affichable : rester sur le chemin Swing
+                remove(activeSurface);
+                validate();
+            }
+        } else if (attached) {
+            activeSurface.stop();
+            remove(activeSurface);
+            validate();
+            dirtyCells.requestFullRedraw();
+            repaint();
+        }
+    }
+
+    /**
+     * Indique si le rendu actif est en cours.
+     */
+    public boolean isActiveRendering() {
+        return activeSurface != null && activeSurface.isRunning();
+    }
+
+    /**
+     * Surface de rendu actif (mesures de temps de frame), ou null.
+     */
+    public ActiveRenderSurface getActiveRenderSurface() {
+        return activeSurface;
+    }
+
+    /**
+     * Confie l'affichage à un autre front-end (fenêtre JavaFX) qui lit le
+     * buffer via updateFrameBuffer() / getFrameBufferPixels().
+     * 
+     * Le composant Swing cesse alors de dessiner le jeu (un seul rendu à la
+     * fois écrit dans le buffer) et le rendu actif est coupé.
+     */
+    public void setExternalRendering(boolean enabled) {
+        if (enabled) {
+            setActiveRendering(false);
+        }
+        externalRendering = enabled;
+        if (!enabled) {
+            dirtyCells.requestFullRedraw();
+        }
+        repaint();
+    }
+
+    /**
+     * Indique si l'affichage est confié à un front-end externe.
+     */
+    public boolean isExternalRendering() {
+        return externalRendering;
     }
 
     // ==================== SUPPORT RÉSEAU ====================
 
     /**
-     * Obtient l'état du jeu pour la synchronisation réseau.
+     * Obtient la vue partagée de l'état du jeu (réseau, IA, statistiques).
+     * 
+     * La même instance est retournée pendant toute la partie : carte et
+     * fighters sans copie, curseurs et compteurs publiés à chaque tick
+     * (GameState#synchronize(), appelé par updateLogic()).
      */
-    public fr.uparis.informatique.cpoo5.liquidwar.model.GameState getGameState() {
-        return new fr.uparis.informatique.cpoo5.liquidwar.model.GameState(
-                map, gradient, fighters, cursors, teamFighterCount, activeTeams);
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Définit la graine du placement initial des combattants, à appeler avant
+     * reinitializeWithTeams() (partie réseau : même graine chez tous les pairs).
+     *
+     * @param seed Graine, ou null pour un placement aléatoire
+     */
+    public void setMatchSeed(Long seed) {
+        this.matchSeed = seed;
+    }
+
+    /**
+     * Passe la partie en lockstep : les curseurs ne sont plus déplacés que par
+     * les entrées de la session, le moteur optimisé (séquentiel, déterministe)
+     * est imposé et la touche O est désactivée.
+     *
+     * Le clavier et la souris pilotent un curseur d'entrée privé, placé sur le
+     * curseur de l'équipe locale, dont la position est échantillonnée à chaque
+     * tick.
+     *
+     * Si la session a une fenêtre de rollback, l'état de chaque tick est
+     * capturé dans un SnapshotRing pour pouvoir re-simuler les ticks prédits ;
+     * historique et fin de partie ne voient alors que les ticks définitifs
+     * (FinalTickPublisher).
+     *
+     * @param session Session de la partie, ou null pour revenir au mode normal
+     */
+    public void setLockstepSession(LockstepSession session) {
+        writeLock.lock();
+        try {
+            if (session != null) {
+                setOptimizedEngine(true);
+                Cursor local = cursors[session.getLocalTeam()];
+                Cursor input = new Cursor();
+                input.team = session.getLocalTeam();
+                input.active = 1;
+                input.x = local.x;
+                input.y = local.y;
+                lockstepInputCursors = new Cursor[cursors.length];
+                lockstepInputCursors[0] = input;
+                // En réseau, le contrôleur ne pilote que l'équipe 0 (réglages du
+                // joueur local)
+                cursorController.setConfiguration(lockstepInputCursors, configuration.getTeamControlTypes(),
+                        configuration.getTeamTypes(), activeTeams, 0, true);
+                cursorController.setPlayerCursorPosition(input.x, input.y);
+                rollbackRing = session.getRollbackWindow() > 0 ? new SnapshotRing(session.getRollbackWindow() + 1)
+                        : null;
+                finalTicks = rollbackRing != null
+                        ? new FinalTickPublisher(rollbackRing, timeline, gameOverDetector, session.getCurrentTick())
+                        : null;
+            } else {
+                lockstepInputCursors = null;
+                rollbackRing = null;
+                finalTicks = null;
+                cursorController.setConfiguration(cursors, configuration.getTeamControlTypes(),
+                        configuration.getTeamTypes(), activeTeams, playerTeam, networkMode);
+            }
+            this.lockstep = session;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Session lockstep en cours, ou null.
+     */
+    public LockstepSession getLockstepSession() {
+        return lockstep;
+    }
+
+    /**
+     * Remplace l'état de la partie par un snapshot reçu du serveur
+     * (spectateur) : combattants, effectifs et curseurs.
+     */
+    public void applySnapshot(BattlefieldSnapshot snapshot) {
+        writeLock.lock();
+        try {
+            snapshot.toFighters(fighters);
+            for (int team = 0; team < activeTeams && team < snapshot.getTeams(); team++) {
+                teamFighterCount[team] = snapshot.getFighterCount(team);
+                if (cursors[team] != null) {
+                    cursors[team].x = snapshot.getCursorX(team);
+                    cursors[team].y = snapshot.getCursorY(team);
+                }
+            }
+            dirtyCells.rebuild(fighters);
+            gameState.synchronize();
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -779,12 +1290,13 @@ public class GameCanvas extends JPanel {
     }
 
     /**
-     * Définit la position du curseur d'une équipe (utilisé par le réseau).
+     * Définit la position du curseur d'une équipe (utilisé par le réseau ;
+     * appliquée par la simulation au prochain tick, voir GameState).
      */
     public void setCursorPosition(int team, int x, int y) {
-        if (cursors != null && team >= 0 && team < cursors.length && cursors[team] != null) {
-            cursors[team].x = Math.max(0, Math.min(MAP_WIDTH - 1, x));
-            cursors[team].y = Math.max(0, Math.min(MAP_HEIGHT - 1, y));
+        if (gameState != null && team >= 0 && team < cursors.length) {
+            gameState.setCursorPosition(team, Math.max(0, Math.min(MAP_WIDTH - 1, x)),
+                    Math.max(0, Math.min(MAP_HEIGHT - 1, y)));
         }
     }
 }
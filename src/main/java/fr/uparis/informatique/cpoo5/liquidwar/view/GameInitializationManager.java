@@ -2,17 +2,14 @@ package fr.uparis.informatique.cpoo5.liquidwar.view;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Random;
 
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.model.MapLoader;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
-import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Mesh;
 import fr.uparis.informatique.cpoo5.liquidwar.service.GameInitializer;
-import fr.uparis.informatique.cpoo5.liquidwar.service.OptimizedGradientEngine;
 import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
-import fr.uparis.informatique.cpoo5.liquidwar.util.MeshBuilder;
-import fr.uparis.informatique.cpoo5.liquidwar.util.PrecisionTimer;
 
 /**
  * Gestionnaire de l'initialisation du jeu.
@@ -21,13 +18,12 @@ import fr.uparis.informatique.cpoo5.liquidwar.util.PrecisionTimer;
  * - Chargement de la carte
  * - Initialisation des équipes et curseurs
  * - Spawn des fighters initiaux
- * - Initialisation des structures optimisées (MESH)
+ * - Création de l'effet de distorsion d'eau
  */
 public class GameInitializationManager {
 
     private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
     private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
-    private static final int AREA_START_GRADIENT = GameConfig.AREA_START_GRADIENT;
     private static final int CURSOR_START_GRADIENT = GameConfig.CURSOR_START_GRADIENT;
 
     /**
@@ -285,6 +281,18 @@ public class GameInitializationManager {
     public static void initializeFighters(ArrayList<Fighter> fighters, Cursor[] cursors,
             int activeTeams, int[] customFighterCounts,
             int[][] map, int[] teamFighterCount) {
+        initializeFighters(fighters, cursors, activeTeams, customFighterCounts, map, teamFighterCount, null);
+    }
+
+    /**
+     * Initialise les fighters avec un générateur donné (partie réseau en
+     * lockstep : même graine, mêmes combattants chez tous les pairs).
+     * 
+     * @param random Générateur, ou null pour un placement aléatoire
+     */
+    public static void initializeFighters(ArrayList<Fighter> fighters, Cursor[] cursors,
+            int activeTeams, int[] customFighterCounts,
+            int[][] map, int[] teamFighterCount, Random random) {
         int totalFighters = 0;
 
         for (int team = 0; team < activeTeams; team++) {
@@ -297,7 +305,7 @@ public class GameInitializationManager {
             }
 
             GameInitializer.spawnInitialFighters(team, cursors[team].x, cursors[team].y,
-                    fightersForTeam, fighters, teamFighterCount, map);
+                    fightersForTeam, fighters, teamFighterCount, map, random);
             totalFighters += fightersForTeam;
 
             GameLogger.getInstance().info("Équipe %d: %d combattants", team, fightersForTeam);
@@ -308,75 +316,24 @@ public class GameInitializationManager {
     }
 
     /**
-     * Initialise les gradients pour toutes les équipes.
+     * Initialise les valeurs des curseurs pour toutes les équipes.
+     * 
+     * Les gradients eux-mêmes sont alloués et initialisés par le moteur de
+     * simulation (voir SimulationEngine).
      */
-    public static void initializeGradients(int[][] gradient, int[] cursorVal, int activeTeams) {
-        // Initialiser le gradient à une grande valeur
-        for (int team = 0; team < 6; team++) {
-            for (int i = 0; i < MAP_HEIGHT * MAP_WIDTH; i++) {
-                gradient[team][i] = AREA_START_GRADIENT;
-            }
+    public static void initializeCursorValues(int[] cursorVal) {
+        for (int team = 0; team < cursorVal.length; team++) {
             cursorVal[team] = CURSOR_START_GRADIENT / 2;
         }
     }
 
     /**
-     * Initialise la structure MESH optimisée.
+     * Crée l'effet de distorsion d'eau (désactivé par défaut).
      */
-    public static MeshInitializationResult initializeMesh(int[][] map, int activeTeams) {
-        GameLogger logger = GameLogger.getInstance();
-        logger.info("Activation du moteur optimisé");
-
-        // Construire le graphe MESH optimisé
-        logger.info("⚙️ Construction du graphe MESH...");
-        Mesh[] meshArray = MeshBuilder.buildMeshArray(map);
-
-        // Créer table de correspondance (x,y) → Mesh pour accès O(1)
-        Mesh[][] meshLookup = new Mesh[GameConfig.MAP_HEIGHT][GameConfig.MAP_WIDTH];
-        for (Mesh mesh : meshArray) {
-            meshLookup[mesh.y][mesh.x] = mesh;
-        }
-
-        OptimizedGradientEngine.resetAllGradients(meshArray, activeTeams);
-        logger.info("   ✅ %d cellules MESH avec liens directs", meshArray.length);
-
-        // Initialiser le timer précis
-        PrecisionTimer precisionTimer = new PrecisionTimer();
-        logger.info("⚙️ Timer haute précision initialisé");
-        logger.info("   → Logique : 200 Hz (5ms)");
-        logger.info("   → Affichage : 60 Hz (16ms)");
-
-        // Initialiser l'effet d'eau (désactivé par défaut)
+    public static WaterDistortionEffect createWaterEffect() {
         WaterDistortionEffect waterFX = new WaterDistortionEffect(MAP_WIDTH, MAP_HEIGHT);
         waterFX.setEnabled(false);
-        logger.info("⚙️ Distorsion d'eau disponible (touche W pour activer)");
-
-        logger.info("\n╔═══════════════════════════════════════════════════════╗");
-        logger.info("║  ✅ MOTEUR OPTIMISÉ ACTIVÉ !                         ║");
-        logger.info("║  → Structure MESH : Accès O(1) aux voisins           ║");
-        logger.info("║  → Gradient : Propagation directionnelle             ║");
-        logger.info("║  → Timing : Séparation logique/affichage             ║");
-        logger.info("║  → Gain attendu : +38%% de fluidité                   ║");
-        logger.info("╚═══════════════════════════════════════════════════════╝\n");
-
-        return new MeshInitializationResult(meshArray, meshLookup, precisionTimer, waterFX);
-    }
-
-    /**
-     * Résultat de l'initialisation MESH.
-     */
-    public static class MeshInitializationResult {
-        public final Mesh[] meshArray;
-        public final Mesh[][] meshLookup;
-        public final PrecisionTimer precisionTimer;
-        public final WaterDistortionEffect waterFX;
-
-        public MeshInitializationResult(Mesh[] meshArray, Mesh[][] meshLookup,
-                PrecisionTimer precisionTimer, WaterDistortionEffect waterFX) {
-            this.meshArray = meshArray;
-            this.meshLookup = meshLookup;
-            this.precisionTimer = precisionTimer;
-            this.waterFX = waterFX;
-        }
+        GameLogger.getInstance().info("⚙️ Distorsion d'eau disponible (touche W pour activer)");
+        return waterFX;
     }
 }
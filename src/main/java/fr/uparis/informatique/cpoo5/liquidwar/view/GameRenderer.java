@@ -4,11 +4,15 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
 import fr.uparis.informatique.cpoo5.liquidwar.config.RenderConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 
@@ -21,7 +25,7 @@ import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
  * 
  * Responsabilités :
  * - Dessin du buffer statique (obstacles et fond)
- * - Rendu des combattants
+ * - Rendu des combattants (complet ou incrémental)
  * - Rendu des curseurs
  * - Affichage des statistiques
  */
@@ -42,6 +46,28 @@ public class GameRenderer {
      */
     private static int[][] TEAM_HEALTH_COLORS = buildHealthColorTable();
 
+    // Incrémenté à chaque changement de couleurs (force un rendu complet)
+    private static int colorVersion = 0;
+
+    // Traits et polices partagés (aucune allocation par frame)
+    private static final BasicStroke CURSOR_OUTLINE_STROKE = new BasicStroke(3);
+    private static final BasicStroke CURSOR_STROKE = new BasicStroke(2);
+    private static final BasicStroke CURSOR_DOT_STROKE = new BasicStroke(1);
+    private static final Font HUD_FONT_LARGE = new Font(RenderConfig.HUD_FONT_NAME, Font.BOLD,
+            RenderConfig.HUD_FONT_SIZE_LARGE);
+    private static final Font HUD_FONT_SMALL = new Font(RenderConfig.HUD_FONT_NAME, Font.PLAIN,
+            RenderConfig.HUD_FONT_SIZE_SMALL);
+
+    /**
+     * Sprites des curseurs (un par équipe), rendus une fois par jeu de
+     * couleurs : le curseur est ensuite recopié pixel par pixel.
+     * Pixel 0 = transparent.
+     */
+    private static final int CURSOR_REACH = RenderConfig.CURSOR_SIZE * 2 + 3;
+    private static final int CURSOR_SPRITE_SIZE = CURSOR_REACH * 2 + 1;
+    private static final int[][] cursorSprites = new int[GameConfig.MAX_TEAMS][];
+    private static int cursorSpriteVersion = -1;
+
     // Empêcher l'instanciation
     private GameRenderer() {
     }
@@ -55,6 +81,7 @@ public class GameRenderer {
         if (colorIndices == null || colorIndices.length == 0) {
             customTeamColors = null;
             TEAM_HEALTH_COLORS = buildHealthColorTable();
+            colorVersion++;
             return;
         }
 
@@ -66,6 +93,7 @@ public class GameRenderer {
 
         // Reconstruire la table de couleurs avec les nouvelles couleurs
         TEAM_HEALTH_COLORS = buildHealthColorTable();
+        colorVersion++;
     }
 
     /**
@@ -94,7 +122,7 @@ public class GameRenderer {
             int r = (int) ((bgColor1Obj.getRed() * (1 - ratio)) + (bgColor2Obj.getRed() * ratio));
             int g = (int) ((bgColor1Obj.getGreen() * (1 - ratio)) + (bgColor2Obj.getGreen() * ratio));
             int b = (int) ((bgColor1Obj.getBlue() * (1 - ratio)) + (bgColor2Obj.getBlue() * ratio));
-            int lineColor = (r << 16) | (g << 8) | b;
+            int lineColor = 0xFF000000 | (r << 16) | (g << 8) | b;
 
             for (int x = 0; x < MAP_WIDTH; x++) {
                 int idx = y * MAP_WIDTH + x;
@@ -122,6 +150,48 @@ public class GameRenderer {
         }
     }
 
+    /**
+     * Repeindre uniquement les cellules modifiées depuis la dernière frame.
+     * 
+     * Chaque cellule reprend la couleur du fond ou celle du combattant qui
+     * l'occupe (équipe + santé), dans le calque persistant et dans le buffer
+     * affiché.
+     */
+    public static void patchFighters(DirtyCellTracker dirty, int[] staticBufferPixels,
+            int[] framePixels, int[] gameBufferPixels) {
+        int count = dirty.getDirtyCount();
+        for (int i = 0; i < count; i++) {
+            int cell = dirty.getDirtyCell(i);
+            int state = dirty.getCellState(cell);
+            int color = state == DirtyCellTracker.EMPTY
+                    ? staticBufferPixels[cell]
+                    : getHealthTintedColor(DirtyCellTracker.teamOf(state), DirtyCellTracker.healthOf(state));
+            framePixels[cell] = color;
+            gameBufferPixels[cell] = color;
+        }
+    }
+
+    /**
+     * Effacer les curseurs de la frame précédente en recopiant leur zone depuis
+     * le calque sans curseurs.
+     * 
+     * @param cursorBounds Zones (x0, y0, x1, y1) remplies par drawCursors
+     */
+    public static void restoreCursorAreas(int[] cursorBounds, int activeTeams, int[] framePixels,
+            int[] gameBufferPixels) {
+        for (int i = 0; i < activeTeams && i * 4 + 3 < cursorBounds.length; i++) {
+            int x0 = cursorBounds[i * 4];
+            int y0 = cursorBounds[i * 4 + 1];
+            int x1 = cursorBounds[i * 4 + 2];
+            int y1 = cursorBounds[i * 4 + 3];
+            int length = x1 - x0 + 1;
+            for (int y = y0; y <= y1 && length > 0; y++) {
+                int offset = y * MAP_WIDTH + x0;
+                System.arraycopy(framePixels, offset, gameBufferPixels, offset, length);
+            }
+        }
+    }
+
     /**
      * Calcule une table de couleurs atténuées par la santé pour chaque équipe.
      * L'atténuation va de 35% (quasi mort) à 100% (pleinement en forme), en
@@ -160,6 +230,14 @@ public class GameRenderer {
     public static void resetTeamColors() {
         customTeamColors = null;
         TEAM_HEALTH_COLORS = buildHealthColorTable();
+        colorVersion++;
+    }
+
+    /**
+     * Version des couleurs d'équipe (change à chaque personnalisation).
+     */
+    public static int getColorVersion() {
+        return colorVersion;
     }
 
     /**
@@ -175,45 +253,152 @@ public class GameRenderer {
      * particules
      */
     public static void drawCursors(Cursor[] cursors, int activeTeams, Graphics2D bufferGraphics) {
+        drawCursors(cursors, activeTeams, bufferGraphics, null);
+    }
+
+    /**
+     * Dessiner les curseurs et mémoriser la zone couverte par chacun
+     * (x0, y0, x1, y1 bornés à la carte ; zone vide si curseur inactif).
+     */
+    public static void drawCursors(Cursor[] cursors, int activeTeams, Graphics2D bufferGraphics,
+            int[] cursorBounds) {
         Color[] colors = getTeamColors();
         for (int i = 0; i < activeTeams; i++) {
+            if (cursorBounds != null && i * 4 + 3 < cursorBounds.length) {
+                // Zone vide par défaut (x1 < x0)
+                cursorBounds[i * 4] = 0;
+                cursorBounds[i * 4 + 1] = 0;
+                cursorBounds[i * 4 + 2] = -1;
+                cursorBounds[i * 4 + 3] = -1;
+            }
             if (cursors[i] != null && cursors[i].active != 0) {
                 Color cursorColor = colors[i % colors.length];
                 int size = RenderConfig.CURSOR_SIZE;
                 int x = cursors[i].x;
                 int y = cursors[i].y;
 
-                // Calculer la luminosité de la couleur pour choisir le contour approprié
-                // Si la couleur est sombre, utiliser un contour blanc, sinon noir
-                double luminance = (0.299 * cursorColor.getRed() + 0.587 * cursorColor.getGreen()
-                        + 0.114 * cursorColor.getBlue()) / 255.0;
-                Color outlineColor = (luminance < 0.5) ? Color.WHITE : Color.BLACK;
-
-                // Dessiner le contour (outline) pour que le curseur soit toujours visible
-                bufferGraphics.setStroke(new BasicStroke(3)); // Contour plus épais
-                bufferGraphics.setColor(outlineColor);
-
-                // Cercle avec contour
-                bufferGraphics.drawOval(x - size - 1, y - size - 1, (size + 1) * 2, (size + 1) * 2);
-                // Croix avec contour
-                bufferGraphics.drawLine(x - size * 2 - 1, y, x + size * 2 + 1, y);
-                bufferGraphics.drawLine(x, y - size * 2 - 1, x, y + size * 2 + 1);
-
-                // Dessiner le curseur principal avec la couleur de l'équipe
-                bufferGraphics.setStroke(new BasicStroke(2)); // Ligne principale plus épaisse
-                bufferGraphics.setColor(cursorColor);
-
-                // Cercle principal
-                bufferGraphics.drawOval(x - size, y - size, size * 2, size * 2);
-                // Croix principale
-                bufferGraphics.drawLine(x - size * 2, y, x + size * 2, y);
-                bufferGraphics.drawLine(x, y - size * 2, x, y + size * 2);
-
-                // Point central pour plus de visibilité
-                bufferGraphics.setStroke(new BasicStroke(1));
-                bufferGraphics.fillOval(x - 1, y - 1, 3, 3);
+                if (cursorBounds != null && i * 4 + 3 < cursorBounds.length) {
+                    // Croix de rayon 2*size+1 avec un contour de 3 px
+                    int reach = size * 2 + 3;
+                    cursorBounds[i * 4] = Math.max(0, x - reach);
+                    cursorBounds[i * 4 + 1] = Math.max(0, y - reach);
+                    cursorBounds[i * 4 + 2] = Math.min(MAP_WIDTH - 1, x + reach);
+                    cursorBounds[i * 4 + 3] = Math.min(MAP_HEIGHT - 1, y + reach);
+                }
+
+                paintCursorShape(bufferGraphics, x, y, cursorColor);
+            }
+        }
+    }
+
+    /**
+     * Dessiner les curseurs directement dans les pixels du buffer de jeu, à
+     * partir des sprites en cache (aucun Graphics2D ni trait alloué par frame).
+     * 
+     * Même rendu et mêmes zones mémorisées que la version Graphics2D.
+     */
+    public static void drawCursors(Cursor[] cursors, int activeTeams, int[] gameBufferPixels,
+            int[] cursorBounds) {
+        ensureCursorSprites();
+        for (int i = 0; i < activeTeams; i++) {
+            if (cursorBounds != null && i * 4 + 3 < cursorBounds.length) {
+                cursorBounds[i * 4] = 0;
+                cursorBounds[i * 4 + 1] = 0;
+                cursorBounds[i * 4 + 2] = -1;
+                cursorBounds[i * 4 + 3] = -1;
+            }
+            if (cursors[i] == null || cursors[i].active == 0) {
+                continue;
             }
+            int x = cursors[i].x;
+            int y = cursors[i].y;
+            int x0 = Math.max(0, x - CURSOR_REACH);
+            int y0 = Math.max(0, y - CURSOR_REACH);
+            int x1 = Math.min(MAP_WIDTH - 1, x + CURSOR_REACH);
+            int y1 = Math.min(MAP_HEIGHT - 1, y + CURSOR_REACH);
+            if (cursorBounds != null && i * 4 + 3 < cursorBounds.length) {
+                cursorBounds[i * 4] = x0;
+                cursorBounds[i * 4 + 1] = y0;
+                cursorBounds[i * 4 + 2] = x1;
+                cursorBounds[i * 4 + 3] = y1;
+            }
+
+            int[] sprite = cursorSprites[i % cursorSprites.length];
+            int offsetX = CURSOR_REACH - x;
+            int offsetY = CURSOR_REACH - y;
+            for (int py = y0; py <= y1; py++) {
+                int spriteRow = (py + offsetY) * CURSOR_SPRITE_SIZE + offsetX;
+                int row = py * MAP_WIDTH;
+                for (int px = x0; px <= x1; px++) {
+                    int pixel = sprite[spriteRow + px];
+                    if (pixel != 0) {
+                        gameBufferPixels[row + px] = pixel;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * (Re)construit les sprites si les couleurs ont changé.
+     */
+    private static void ensureCursorSprites() {
+        if (cursorSpriteVersion == colorVersion) {
+            return;
+        }
+        Color[] colors = getTeamColors();
+        BufferedImage image = new BufferedImage(CURSOR_SPRITE_SIZE, CURSOR_SPRITE_SIZE,
+                BufferedImage.TYPE_INT_ARGB);
+        int[] imagePixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int team = 0; team < cursorSprites.length; team++) {
+            Arrays.fill(imagePixels, 0);
+            Graphics2D g = image.createGraphics();
+            // Mêmes réglages que le Graphics du buffer de jeu
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            paintCursorShape(g, CURSOR_REACH, CURSOR_REACH, colors[team % colors.length]);
+            g.dispose();
+            cursorSprites[team] = imagePixels.clone();
         }
+        cursorSpriteVersion = colorVersion;
+    }
+
+    /**
+     * Forme d'un curseur centré en (x, y) : cercle, croix et point central,
+     * avec un contour contrasté.
+     */
+    private static void paintCursorShape(Graphics2D bufferGraphics, int x, int y, Color cursorColor) {
+        int size = RenderConfig.CURSOR_SIZE;
+
+        // Calculer la luminosité de la couleur pour choisir le contour approprié
+        // Si la couleur est sombre, utiliser un contour blanc, sinon noir
+        double luminance = (0.299 * cursorColor.getRed() + 0.587 * cursorColor.getGreen()
+                + 0.114 * cursorColor.getBlue()) / 255.0;
+        Color outlineColor = (luminance < 0.5) ? Color.WHITE : Color.BLACK;
+
+        // Dessiner le contour (outline) pour que le curseur soit toujours visible
+        bufferGraphics.setStroke(CURSOR_OUTLINE_STROKE); // Contour plus épais
+        bufferGraphics.setColor(outlineColor);
+
+        // Cercle avec contour
+        bufferGraphics.drawOval(x - size - 1, y - size - 1, (size + 1) * 2, (size + 1) * 2);
+        // Croix avec contour
+        bufferGraphics.drawLine(x - size * 2 - 1, y, x + size * 2 + 1, y);
+        bufferGraphics.drawLine(x, y - size * 2 - 1, x, y + size * 2 + 1);
+
+        // Dessiner le curseur principal avec la couleur de l'équipe
+        bufferGraphics.setStroke(CURSOR_STROKE); // Ligne principale plus épaisse
+        bufferGraphics.setColor(cursorColor);
+
+        // Cercle principal
+        bufferGraphics.drawOval(x - size, y - size, size * 2, size * 2);
+        // Croix principale
+        bufferGraphics.drawLine(x - size * 2, y, x + size * 2, y);
+        bufferGraphics.drawLine(x, y - size * 2, x, y + size * 2);
+
+        // Point central pour plus de visibilité
+        bufferGraphics.setStroke(CURSOR_DOT_STROKE);
+        bufferGraphics.fillOval(x - 1, y - 1, 3, 3);
     }
 
     /**
@@ -223,7 +408,7 @@ public class GameRenderer {
             int panelWidth, int panelHeight) {
         // Afficher les statistiques
         g2d.setColor(RenderConfig.HUD_TEXT_COLOR);
-        g2d.setFont(new Font(RenderConfig.HUD_FONT_NAME, Font.BOLD, RenderConfig.HUD_FONT_SIZE_LARGE));
+        g2d.setFont(HUD_FONT_LARGE);
         int yPos = 30;
         Color[] colors = getTeamColors();
         for (int i = 0; i < activeTeams; i++) {
@@ -235,7 +420,7 @@ public class GameRenderer {
 
         // Instructions
         g2d.setColor(RenderConfig.HUD_TEXT_COLOR);
-        g2d.setFont(new Font(RenderConfig.HUD_FONT_NAME, Font.PLAIN, RenderConfig.HUD_FONT_SIZE_SMALL));
+        g2d.setFont(HUD_FONT_SMALL);
         g2d.drawString("Flèches ou souris pour déplacer | ESC pour menu", 20, panelHeight - 30);
     }
 
@@ -5,6 +5,7 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.event.ActionListener;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -15,6 +16,9 @@ import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JSeparator;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
+import fr.uparis.informatique.cpoo5.liquidwar.network.ConnectionTelemetry;
+
 /**
  * Panneau des statistiques du jeu affiché à droite.
  * 
@@ -23,6 +27,10 @@ import javax.swing.JSeparator;
  * - Durée de la partie
  * - Nombre de combattants par équipe (jusqu'à 4 équipes)
  * - Pourcentage par équipe
+ * - Historique des combattants depuis le début de la partie
+ * - Décisions du rendu adaptatif (niveau, cadence logique, charge)
+ * - En réseau : RTT, gigue et débits de chaque liaison (la plus lente en
+ *   orange)
  */
 public class GameStatsPanel extends JPanel {
 
@@ -36,6 +44,12 @@ public class GameStatsPanel extends JPanel {
     private JLabel[] teamPercentLabels = new JLabel[MAX_TEAMS];
     private JProgressBar[] teamProgressBars = new JProgressBar[MAX_TEAMS];
     private JPanel[] teamPanels = new JPanel[MAX_TEAMS];
+    private final TimelineChart timelineChart = new TimelineChart();
+    private JLabel renderLevelLabel;
+    private JLabel renderDecisionLabel;
+    private JLabel renderLoadLabel;
+    private JPanel networkPanel;
+    private JLabel[] networkLabels = new JLabel[0];
 
     private long gameStartTime;
     private int[] teamCounts = new int[MAX_TEAMS];
@@ -110,6 +124,36 @@ public class GameStatsPanel extends JPanel {
             add(Box.createRigidArea(new Dimension(0, 10)));
         }
 
+        // Historique de la partie
+        add(createSeparator());
+        add(Box.createRigidArea(new Dimension(0, 10)));
+        add(createLabel("📈 HISTORIQUE", 13, true));
+        add(Box.createRigidArea(new Dimension(0, 5)));
+        add(timelineChart);
+
+        // Rendu adaptatif
+        add(Box.createRigidArea(new Dimension(0, 10)));
+        add(createSeparator());
+        add(Box.createRigidArea(new Dimension(0, 10)));
+        add(createLabel("🎛 RENDU", 13, true));
+        add(Box.createRigidArea(new Dimension(0, 5)));
+        renderLevelLabel = createLabel("Niveau 0", 12, false);
+        add(renderLevelLabel);
+        renderDecisionLabel = createLabel("normal", 11, false);
+        renderDecisionLabel.setForeground(Color.LIGHT_GRAY);
+        add(renderDecisionLabel);
+        renderLoadLabel = createLabel(" ", 11, false);
+        renderLoadLabel.setForeground(Color.LIGHT_GRAY);
+        add(renderLoadLabel);
+
+        // Réseau (masqué hors partie réseau)
+        networkPanel = new JPanel();
+        networkPanel.setLayout(new BoxLayout(networkPanel, BoxLayout.Y_AXIS));
+        networkPanel.setOpaque(false);
+        networkPanel.setVisible(false);
+        networkLabels = new JLabel[0];
+        add(networkPanel);
+
         add(Box.createVerticalGlue());
     }
 
@@ -192,6 +236,69 @@ public class GameStatsPanel extends JPanel {
 
         // Mettre à jour le temps
         updateTime();
+
+        // Le graphique relit l'historique (aucune copie)
+        timelineChart.repaint();
+    }
+
+    /**
+     * Affiche les décisions du rendu adaptatif (appelé avec les statistiques).
+     */
+    public void updateRenderStatus(RenderScheduler scheduler) {
+        if (renderLevelLabel == null) {
+            return;
+        }
+        int level = scheduler.getLevel();
+        renderLevelLabel.setText("Niveau " + level + "/" + scheduler.getMaxLevel());
+        renderLevelLabel.setForeground(level == 0 ? Color.WHITE : new Color(255, 180, 60));
+        renderDecisionLabel.setText(scheduler.describe());
+        renderLoadLabel.setText(String.format("Logique %.0f%% · charge %.0f%% · %.1f ms",
+                scheduler.getLogicRateRatio() * 100, scheduler.getLoad() * 100, scheduler.getPaintMs()));
+    }
+
+    /**
+     * Affiche les mesures réseau (appelé avec les statistiques) : deux
+     * lignes par liaison, en orange si elle ralentit la partie.
+     *
+     * @param telemetry Mesures par joueur (voir NetworkGameController)
+     */
+    public void updateNetworkStatus(List<ConnectionTelemetry.Snapshot> telemetry) {
+        if (networkPanel == null) {
+            return;
+        }
+        networkPanel.setVisible(!telemetry.isEmpty());
+        if (networkLabels.length != 2 * telemetry.size()) {
+            networkPanel.removeAll();
+            networkPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            networkPanel.add(createSeparator());
+            networkPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            networkPanel.add(createLabel("🌐 RÉSEAU", 13, true));
+            networkLabels = new JLabel[2 * telemetry.size()];
+            for (int i = 0; i < networkLabels.length; i++) {
+                networkLabels[i] = createLabel(" ", i % 2 == 0 ? 12 : 11, false);
+                networkPanel.add(networkLabels[i]);
+            }
+            networkPanel.revalidate();
+        }
+        for (int i = 0; i < telemetry.size(); i++) {
+            ConnectionTelemetry.Snapshot link = telemetry.get(i);
+            int team = (link.playerId + 1) % MAX_TEAMS;
+            String rtt = link.hasRtt()
+                    ? String.format("%.0f ms ±%.0f (p95 %.0f)", link.rttMs, link.jitterMs, link.p95RttMs)
+                    : "-- ms";
+            networkLabels[2 * i].setText((link.isLagging() ? "⚠ " : "") + TEAM_EMOJIS[team] + " " + rtt);
+            networkLabels[2 * i].setForeground(link.isLagging() ? new Color(255, 180, 60) : Color.WHITE);
+            networkLabels[2 * i + 1].setText(String.format("↓%.1f ↑%.1f Ko/s · file %d",
+                    link.bytesInPerSecond / 1000, link.bytesOutPerSecond / 1000, link.sendQueueFrames));
+            networkLabels[2 * i + 1].setForeground(Color.LIGHT_GRAY);
+        }
+    }
+
+    /**
+     * Définit l'historique de la partie affiché sous les équipes.
+     */
+    public void setTimeline(MatchTimeline timeline) {
+        timelineChart.setTimeline(timeline);
     }
 
     /**
@@ -2,117 +2,231 @@ package fr.uparis.informatique.cpoo5.liquidwar.view;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.GradientChangeTracker;
 
 /**
  * Visualiseur optionnel du gradient.
- * 
+ *
  * Affiche une heatmap colorée représentant les valeurs du gradient
  * pour aider au débogage et à la compréhension du pathfinding.
- * 
- * Activation : Touche 'G' pour toggle la visualisation
+ *
+ * Rendu incrémental en temps réel :
+ * - La couleur d'une cellule vient d'une table précalculée (palette) indexée
+ * par sa distance au curseur (gradient - valeur du curseur), déjà pondérée
+ * par l'opacité de la heatmap
+ * - Seules les cellules signalées par le GradientChangeTracker (application
+ * des curseurs, propagation) sont recalculées d'une frame à l'autre ; un
+ * recalcul complet a lieu au changement d'équipe ou quand la valeur du
+ * curseur a trop dérivé depuis le dernier
+ * - Le mélange avec le champ de bataille se fait au niveau des pixels de la
+ * carte, avant l'agrandissement à l'écran
+ *
+ * Activation : Touche 'G' (équipe 1, équipe 2, ..., désactivé)
  */
 public class GradientVisualizer {
-    
+
+    // Distances couvertes par la palette (au-delà : dernière couleur)
+    private static final int PALETTE_SIZE = 512;
+    // Opacité de la heatmap (sur 256)
+    private static final int ALPHA = 102; // ~0.4
+    // Recalcul complet quand la valeur du curseur a baissé de plus de N
+    private static final int REBASE_DRIFT = 16;
+    // Cellule sans gradient (mur ou pas encore atteinte)
+    private static final int UNREACHED = -1;
+
+    // Palette : couleur heatmap * ALPHA / 256, composantes empaquetées en RGB
+    private static final int[] PALETTE = buildPalette();
+
     private boolean enabled = false;
-    private int maxGradientValue = 2000000; // AREA_START_GRADIENT
-    
+    private int team = 0;
+
+    // Calque heatmap (une valeur de palette ou UNREACHED par cellule)
+    private final int[] heat = new int[GameConfig.MAP_WIDTH * GameConfig.MAP_HEIGHT];
+    private int baseValue;
+    private boolean heatValid = false;
+
+    // Buffer de sortie (champ de bataille + heatmap), réutilisé
+    private BufferedImage output;
+    private int[] outputPixels;
+
+    // Légende en cache
+    private BufferedImage legend;
+
     /**
      * Active ou désactive la visualisation du gradient.
      */
     public void toggle() {
         enabled = !enabled;
+        heatValid = false;
         System.out.println("🔍 Visualisation gradient: " + (enabled ? "ON" : "OFF"));
     }
-    
+
+    /**
+     * Passe à l'équipe suivante, puis désactive après la dernière.
+     *
+     * @param activeTeams Nombre d'équipes en jeu
+     */
+    public void cycle(int activeTeams) {
+        if (!enabled) {
+            enabled = true;
+            team = 0;
+        } else if (team + 1 < activeTeams) {
+            team++;
+        } else {
+            enabled = false;
+        }
+        heatValid = false;
+        System.out.println("🔍 Visualisation gradient: " + (enabled ? "équipe " + (team + 1) : "OFF"));
+    }
+
     /**
      * Vérifie si la visualisation est activée.
      */
     public boolean isEnabled() {
         return enabled;
     }
-    
+
     /**
      * Définit si la visualisation est activée.
      */
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        heatValid = false;
     }
-    
+
     /**
-     * Dessine le gradient sous forme de heatmap.
-     * 
-     * @param g Graphics2D pour le rendu
-     * @param gradient Tableau 2D du gradient [team][idx]
-     * @param team Équipe dont on affiche le gradient
-     * @param mapWidth Largeur de la carte
-     * @param mapHeight Hauteur de la carte
-     * @param zoom Facteur de zoom
+     * Équipe dont le gradient est affiché.
      */
-    public void renderGradient(Graphics2D g, int[][] gradient, int team, 
-                               int mapWidth, int mapHeight, double zoom) {
-        if (!enabled || gradient == null || team >= gradient.length) {
-            return;
+    public int getTeam() {
+        return team;
+    }
+
+    public void setTeam(int team) {
+        if (this.team != team) {
+            this.team = team;
+            heatValid = false;
+        }
+    }
+
+    // ==================== HEATMAP INCRÉMENTALE ====================
+
+    /**
+     * Met à jour le calque heatmap.
+     *
+     * @param teamGradient Gradient de l'équipe affichée
+     * @param cursorValue  Valeur actuelle du curseur de cette équipe
+     * @param changes      Cellules modifiées depuis la dernière mise à jour
+     *                     (vidé ici)
+     */
+    public void update(int[] teamGradient, int cursorValue, GradientChangeTracker changes) {
+        if (!heatValid || changes.isFullRedrawPending() || changes.getTeam() != team
+                || baseValue - cursorValue > REBASE_DRIFT || cursorValue > baseValue) {
+            baseValue = cursorValue;
+            for (int cell = 0; cell < heat.length; cell++) {
+                heat[cell] = heatOf(teamGradient[cell]);
+            }
+            heatValid = true;
+        } else {
+            int count = changes.getChangedCount();
+            for (int i = 0; i < count; i++) {
+                int cell = changes.getChangedCell(i);
+                heat[cell] = heatOf(teamGradient[cell]);
+            }
+        }
+        changes.clear();
+    }
+
+    private int heatOf(int gradValue) {
+        if (gradValue >= GameConfig.AREA_START_GRADIENT) {
+            return UNREACHED;
         }
-        
-        int[] teamGradient = gradient[team];
-        
-        // Transparence pour voir les particules en dessous
-        g.setComposite(java.awt.AlphaComposite.getInstance(
-            java.awt.AlphaComposite.SRC_OVER, 0.4f));
-        
-        for (int y = 0; y < mapHeight; y++) {
-            for (int x = 0; x < mapWidth; x++) {
-                int idx = y * mapWidth + x;
-                int gradValue = teamGradient[idx];
-                
-                // Normaliser la valeur (0.0 = proche curseur, 1.0 = loin)
-                float normalized = Math.min(1.0f, (float) gradValue / maxGradientValue);
-                
-                // Heatmap : Bleu (proche) -> Vert -> Jaune -> Rouge (loin)
-                Color color = getHeatmapColor(normalized);
-                g.setColor(color);
-                
-                // Dessiner le pixel zoomé
-                g.fillRect((int) (x * zoom), (int) (y * zoom), 
-                          (int) Math.ceil(zoom), (int) Math.ceil(zoom));
+        int distance = gradValue - baseValue;
+        return PALETTE[distance <= 0 ? 0 : Math.min(distance, PALETTE_SIZE - 1)];
+    }
+
+    /**
+     * Mélange la heatmap sur une image du champ de bataille (à la taille de la
+     * carte).
+     *
+     * @param frame Buffer de jeu (TYPE_INT_RGB, non modifié)
+     * @return Buffer réutilisé contenant le mélange
+     */
+    public BufferedImage blend(BufferedImage frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        if (output == null || output.getWidth() != width || output.getHeight() != height) {
+            output = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            outputPixels = ((DataBufferInt) output.getRaster().getDataBuffer()).getData();
+        }
+        int[] src = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+        int cells = Math.min(src.length, heat.length);
+        for (int i = 0; i < cells; i++) {
+            int h = heat[i];
+            int p = src[i];
+            if (h == UNREACHED) {
+                outputPixels[i] = p;
+            } else {
+                // p * (1 - alpha) + couleur * alpha, composante par composante
+                int r = (((p >> 16) & 0xFF) * (256 - ALPHA)) >> 8;
+                int g = (((p >> 8) & 0xFF) * (256 - ALPHA)) >> 8;
+                int b = ((p & 0xFF) * (256 - ALPHA)) >> 8;
+                outputPixels[i] = 0xFF000000 | (h + ((r << 16) | (g << 8) | b));
             }
         }
-        
-        // Remettre l'opacité normale
-        g.setComposite(java.awt.AlphaComposite.getInstance(
-            java.awt.AlphaComposite.SRC_OVER, 1.0f));
+        return output;
     }
-    
+
+    /**
+     * Palette précalculée : couleur heatmap de chaque distance, pondérée par
+     * l'opacité.
+     */
+    private static int[] buildPalette() {
+        int[] palette = new int[PALETTE_SIZE];
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            int rgb = getHeatmapRGB((float) i / (PALETTE_SIZE - 1));
+            int r = (((rgb >> 16) & 0xFF) * ALPHA) >> 8;
+            int g = (((rgb >> 8) & 0xFF) * ALPHA) >> 8;
+            int b = ((rgb & 0xFF) * ALPHA) >> 8;
+            palette[i] = (r << 16) | (g << 8) | b;
+        }
+        return palette;
+    }
+
     /**
      * Calcule une couleur heatmap basée sur une valeur normalisée.
-     * 
+     *
      * @param value Valeur entre 0.0 (proche) et 1.0 (loin)
-     * @return Couleur correspondante
+     * @return Couleur correspondante (RGB empaqueté)
      */
-    private Color getHeatmapColor(float value) {
+    private static int getHeatmapRGB(float value) {
         // Échelle de couleur : Bleu -> Cyan -> Vert -> Jaune -> Rouge
         if (value < 0.25f) {
             // Bleu -> Cyan
             float t = value * 4.0f;
-            return new Color(0, (int) (t * 255), 255);
+            return ((int) (t * 255) << 8) | 255;
         } else if (value < 0.5f) {
             // Cyan -> Vert
             float t = (value - 0.25f) * 4.0f;
-            return new Color(0, 255, (int) ((1 - t) * 255));
+            return (255 << 8) | (int) ((1 - t) * 255);
         } else if (value < 0.75f) {
             // Vert -> Jaune
             float t = (value - 0.5f) * 4.0f;
-            return new Color((int) (t * 255), 255, 0);
+            return ((int) (t * 255) << 16) | (255 << 8);
         } else {
             // Jaune -> Rouge
             float t = (value - 0.75f) * 4.0f;
-            return new Color(255, (int) ((1 - t) * 255), 0);
+            return (255 << 16) | ((int) ((1 - t) * 255) << 8);
         }
     }
-    
+
     /**
      * Affiche une légende pour la heatmap.
-     * 
+     *
      * @param g Graphics2D pour le rendu
      * @param x Position X de la légende
      * @param y Position Y de la légende
@@ -121,31 +235,49 @@ public class GradientVisualizer {
         if (!enabled) {
             return;
         }
-        
-        // Fond semi-transparent
-        g.setColor(new Color(0, 0, 0, 180));
-        g.fillRect(x, y, 200, 80);
-        
-        // Titre
-        g.setColor(Color.WHITE);
-        g.drawString("Gradient Heatmap:", x + 10, y + 20);
-        
-        // Barre de couleur
-        int barWidth = 180;
-        int barHeight = 20;
-        int barX = x + 10;
-        int barY = y + 30;
-        
-        for (int i = 0; i < barWidth; i++) {
-            float normalized = (float) i / barWidth;
-            g.setColor(getHeatmapColor(normalized));
-            g.fillRect(barX + i, barY, 1, barHeight);
+        if (legend == null) {
+            legend = buildLegend();
         }
-        
-        // Labels
-        g.setColor(Color.WHITE);
-        g.drawString("Proche curseur", barX, barY + barHeight + 15);
-        g.drawString("Loin", barX + barWidth - 30, barY + barHeight + 15);
+        g.drawImage(legend, x, y, null);
     }
-}
 
+    private static BufferedImage buildLegend() {
+        BufferedImage image = new BufferedImage(200, 80, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            // Fond semi-transparent
+            g.setColor(new Color(0, 0, 0, 180));
+            g.fillRect(0, 0, 200, 80);
+
+            // Titre
+            g.setColor(Color.WHITE);
+            g.drawString("Gradient Heatmap:", 10, 20);
+
+            // Barre de couleur
+            int barWidth = 180;
+            int barHeight = 20;
+            int barX = 10;
+            int barY = 30;
+            for (int i = 0; i < barWidth; i++) {
+                g.setColor(new Color(getHeatmapRGB((float) i / barWidth)));
+                g.fillRect(barX + i, barY, 1, barHeight);
+            }
+
+            // Labels
+            g.setColor(Color.WHITE);
+            g.drawString("Proche curseur", barX, barY + barHeight + 15);
+            g.drawString("Loin", barX + barWidth - 30, barY + barHeight + 15);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Remet le calque à zéro (nouvelle partie).
+     */
+    public void reset() {
+        Arrays.fill(heat, UNREACHED);
+        heatValid = false;
+    }
+}
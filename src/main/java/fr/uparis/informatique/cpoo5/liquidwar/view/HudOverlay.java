@@ -0,0 +1,236 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.config.RenderConfig;
+
+/**
+ * Calque HUD en cache : indicateur de qualité, compteurs par équipe et ligne
+ * d'instructions.
+ *
+ * Le texte est rendu dans de petites images transparentes, seulement quand
+ * quelque chose d'affiché change (compteurs, couleurs, qualité, lissage).
+ * Chaque frame se contente ensuite d'une copie d'image par bloc : plus de
+ * Font, de Color ni de String créés dans le chemin de rendu (le texte est
+ * composé dans un char[] réutilisé).
+ *
+ * Même disposition que GameRenderer.drawHUD.
+ */
+public class HudOverlay {
+
+    private static final Font QUALITY_FONT = new Font("Monospaced", Font.BOLD, 14);
+    private static final Font TEAM_FONT = new Font(RenderConfig.HUD_FONT_NAME, Font.BOLD,
+            RenderConfig.HUD_FONT_SIZE_LARGE);
+    private static final Font INSTRUCTIONS_FONT = new Font(RenderConfig.HUD_FONT_NAME, Font.PLAIN,
+            RenderConfig.HUD_FONT_SIZE_SMALL);
+
+    private static final Color QUALITY_HIGH_COLOR = new Color(0, 255, 0, 200);
+    private static final Color QUALITY_MEDIUM_COLOR = new Color(255, 255, 0, 200);
+    private static final Color QUALITY_LOW_COLOR = new Color(255, 100, 100, 200);
+
+    private static final String INSTRUCTIONS = "Flèches ou souris pour déplacer | ESC pour menu";
+    private static final char[] QUALITY_PREFIX = "Qualité: ".toCharArray();
+    private static final char[] PLAYER_PREFIX = "Vous: ".toCharArray();
+    private static final char[] OPPONENT_PREFIX = "Adversaire ".toCharArray();
+    private static final char[] FIGHTERS_SUFFIX = " fighters".toCharArray();
+
+    // Position des lignes (identique à drawHUD)
+    private static final int QUALITY_X = 10;
+    private static final int QUALITY_BASELINE = 20;
+    private static final int TEAM_X = 20;
+    private static final int TEAM_FIRST_BASELINE = 30;
+    private static final int TEAM_LINE_HEIGHT = 25;
+    private static final int INSTRUCTIONS_X = 20;
+    private static final int INSTRUCTIONS_BOTTOM_OFFSET = 30;
+
+    private final BufferedImage statsImage;
+    private final char[] text = new char[64];
+
+    // Clé du contenu actuellement rendu dans statsImage
+    private final int[] renderedCounts = new int[GameConfig.MAX_TEAMS];
+    private int renderedTeams = -1;
+    private String renderedQuality;
+    private int renderedColorVersion = -1;
+    private Object renderedAntialias;
+
+    private BufferedImage instructionsImage;
+    private int instructionsAscent;
+    private Object instructionsAntialias;
+
+    public HudOverlay() {
+        // Taille fixe, calculée pour la plus longue ligne possible
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = probe.createGraphics();
+        FontMetrics teamMetrics = g.getFontMetrics(TEAM_FONT);
+        FontMetrics qualityMetrics = g.getFontMetrics(QUALITY_FONT);
+        int width = Math.max(
+                TEAM_X + teamMetrics.stringWidth("Adversaire " + (GameConfig.MAX_TEAMS - 1) + ": "
+                        + Integer.MAX_VALUE + " fighters"),
+                QUALITY_X + qualityMetrics.stringWidth("Qualité: Moyenne"));
+        int height = TEAM_FIRST_BASELINE + TEAM_LINE_HEIGHT * (GameConfig.MAX_TEAMS - 1)
+                + teamMetrics.getDescent() + 1;
+        g.dispose();
+        statsImage = new BufferedImage(width + 4, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Affiche le HUD (qualité + compteurs en haut à gauche, instructions en
+     * bas).
+     *
+     * @param g2d         Graphics de l'écran (ses réglages de lissage sont
+     *                    repris)
+     * @param quality     Qualité graphique affichée
+     * @param activeTeams Nombre d'équipes en jeu
+     * @param counts      Combattants par équipe
+     * @param panelHeight Hauteur de la zone d'affichage
+     */
+    public void draw(Graphics2D g2d, String quality, int activeTeams, int[] counts, int panelHeight) {
+        Object antialias = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        if (statsChanged(quality, activeTeams, counts, antialias)) {
+            renderStats(quality, activeTeams, counts, antialias);
+        }
+        g2d.drawImage(statsImage, 0, 0, null);
+
+        if (instructionsImage == null || instructionsAntialias != antialias) {
+            renderInstructions(antialias);
+        }
+        g2d.drawImage(instructionsImage, INSTRUCTIONS_X,
+                panelHeight - INSTRUCTIONS_BOTTOM_OFFSET - instructionsAscent, null);
+    }
+
+    private boolean statsChanged(String quality, int activeTeams, int[] counts, Object antialias) {
+        if (activeTeams != renderedTeams || !quality.equals(renderedQuality)
+                || renderedColorVersion != GameRenderer.getColorVersion() || antialias != renderedAntialias) {
+            return true;
+        }
+        for (int i = 0; i < activeTeams; i++) {
+            if (counts[i] != renderedCounts[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void renderStats(String quality, int activeTeams, int[] counts, Object antialias) {
+        Graphics2D g = statsImage.createGraphics();
+        try {
+            clear(g, statsImage);
+            if (antialias != null) {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+            }
+
+            // Indicateur de qualité
+            g.setFont(QUALITY_FONT);
+            g.setColor(qualityColor(quality));
+            int length = append(QUALITY_PREFIX, 0);
+            for (int i = 0; i < quality.length() && length < text.length; i++) {
+                text[length++] = quality.charAt(i);
+            }
+            g.drawChars(text, 0, length, QUALITY_X, QUALITY_BASELINE);
+
+            // Compteurs par équipe
+            g.setFont(TEAM_FONT);
+            Color[] colors = GameRenderer.getCurrentTeamColors();
+            int yPos = TEAM_FIRST_BASELINE;
+            for (int i = 0; i < activeTeams; i++) {
+                g.setColor(colors[i % colors.length]);
+                if (i == 0) {
+                    length = append(PLAYER_PREFIX, 0);
+                } else {
+                    length = append(OPPONENT_PREFIX, 0);
+                    length = appendInt(i, length);
+                    text[length++] = ':';
+                    text[length++] = ' ';
+                }
+                length = appendInt(counts[i], length);
+                length = append(FIGHTERS_SUFFIX, length);
+                g.drawChars(text, 0, length, TEAM_X, yPos);
+                yPos += TEAM_LINE_HEIGHT;
+            }
+        } finally {
+            g.dispose();
+        }
+
+        renderedTeams = activeTeams;
+        renderedQuality = quality;
+        renderedColorVersion = GameRenderer.getColorVersion();
+        renderedAntialias = antialias;
+        System.arraycopy(counts, 0, renderedCounts, 0, Math.min(activeTeams, renderedCounts.length));
+    }
+
+    private void renderInstructions(Object antialias) {
+        BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pg = probe.createGraphics();
+        FontMetrics metrics = pg.getFontMetrics(INSTRUCTIONS_FONT);
+        pg.dispose();
+
+        instructionsAscent = metrics.getAscent();
+        instructionsImage = new BufferedImage(metrics.stringWidth(INSTRUCTIONS) + 4,
+                metrics.getAscent() + metrics.getDescent(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = instructionsImage.createGraphics();
+        try {
+            if (antialias != null) {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+            }
+            g.setFont(INSTRUCTIONS_FONT);
+            g.setColor(RenderConfig.HUD_TEXT_COLOR);
+            g.drawString(INSTRUCTIONS, 0, instructionsAscent);
+        } finally {
+            g.dispose();
+        }
+        instructionsAntialias = antialias;
+    }
+
+    private static Color qualityColor(String quality) {
+        switch (quality) {
+            case "Élevée":
+                return QUALITY_HIGH_COLOR;
+            case "Moyenne":
+                return QUALITY_MEDIUM_COLOR;
+            default:
+                return QUALITY_LOW_COLOR;
+        }
+    }
+
+    private static void clear(Graphics2D g, BufferedImage image) {
+        Composite composite = g.getComposite();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(composite);
+    }
+
+    private int append(char[] chars, int length) {
+        System.arraycopy(chars, 0, text, length, chars.length);
+        return length + chars.length;
+    }
+
+    /**
+     * Écrit un entier en décimal dans le tampon de texte.
+     */
+    private int appendInt(int value, int length) {
+        if (value < 0) {
+            text[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            text[length++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        // Chiffres écrits à l'envers : retourner la séquence
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            char c = text[i];
+            text[i] = text[j];
+            text[j] = c;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,278 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Ordonnanceur de rendu adaptatif.
+ *
+ * Surveille, par fenêtres d'une demi-seconde, la cadence réelle de la logique par
+ * rapport à sa cadence cible et le temps passé à calculer la logique et à
+ * dessiner. Quand la simulation prend du retard, il dégrade le rendu d'un
+ * cran ; quand la marge revient (plusieurs fenêtres de suite), il remonte
+ * d'un cran.
+ *
+ * Crans successifs (chaque niveau inclut les précédents) :
+ * 1. Effets réduits : distorsion d'eau sous-échantillonnée (1 pixel sur 2),
+ * décorateurs coûteux (auras) suspendus
+ * 2..N. Saut de frames : 1 frame sur 2, 3, ... jusqu'au plafond donné par
+ * GameOptions.getRenderSkipFrames() (qualité "Élevée" : aucun saut)
+ * N+1. Effets minimaux : distorsion d'eau 1 pixel sur 4, tous les décorateurs
+ * suspendus
+ * N+2. Agrandissement rapide : plus proche voisin (ScaledFrameBlitter) même
+ * si l'interpolation bilinéaire est demandée
+ *
+ * Les choix de l'utilisateur (touches W, T) ne sont pas modifiés : seul leur
+ * coût est réduit tant que le niveau est élevé.
+ *
+ * Appelé depuis l'EDT (logique) et depuis le thread de rendu actif : les
+ * mesures sont synchronisées, les décisions publiées en volatile.
+ */
+public final class RenderScheduler {
+
+    // Durée d'une fenêtre de mesure
+    static final long WINDOW_NANOS = 500_000_000L;
+    // Retard : cadence logique < 90 % de la cible avec une charge notable, ou
+    // charge > 85 % de la fenêtre
+    private static final double BEHIND_RATE = 0.90;
+    private static final double BUSY_LOAD = 0.50;
+    private static final double OVERLOADED_LOAD = 0.85;
+    // Marge : cadence >= 97 % et charge < 45 %, pendant RECOVERY_WINDOWS fenêtres
+    private static final double HEALTHY_RATE = 0.97;
+    private static final double HEADROOM_LOAD = 0.45;
+    static final int RECOVERY_WINDOWS = 4;
+
+    private int maxSkip;
+    private int maxLevel;
+
+    // Cadence cible de la logique
+    private volatile long logicIntervalNanos;
+
+    // Mesures de la fenêtre courante
+    private long windowStart = -1;
+    private int windowTicks;
+    private long windowLogicNanos;
+    private long windowPaintNanos;
+    private int windowFrames;
+    private int healthyWindows;
+
+    // Dernière fenêtre (affichage)
+    private volatile double logicRateRatio = 1.0;
+    private volatile double load;
+    private volatile double paintMs;
+
+    // Décisions
+    private volatile int level;
+    private volatile int renderSkip = 1;
+    private volatile int waterSampleRate = 1;
+    private volatile int decoratorCostLimit = Integer.MAX_VALUE;
+    private volatile boolean fastScaling;
+    private int frameCounter;
+
+    /**
+     * @param logicDelayMs Délai du timer logique (ms)
+     */
+    public RenderScheduler(int logicDelayMs) {
+        this(logicDelayMs, GameOptions.getInstance().getRenderSkipFrames());
+    }
+
+    /**
+     * @param logicDelayMs Délai du timer logique (ms)
+     * @param maxSkip      Saut de frames maximal (1 = jamais)
+     */
+    public RenderScheduler(int logicDelayMs, int maxSkip) {
+        setLogicInterval(logicDelayMs);
+        setMaxSkip(maxSkip);
+    }
+
+    /**
+     * Met à jour la cadence cible (changement de vitesse de jeu).
+     */
+    public void setLogicInterval(int logicDelayMs) {
+        this.logicIntervalNanos = Math.max(1, logicDelayMs) * 1_000_000L;
+    }
+
+    /**
+     * Plafond du saut de frames (qualité graphique changée en cours de
+     * partie). Le niveau courant est recalculé pour ce plafond.
+     */
+    public synchronized void setMaxSkip(int maxSkip) {
+        maxSkip = Math.max(1, maxSkip);
+        if (maxSkip == this.maxSkip) {
+            return;
+        }
+        this.maxSkip = maxSkip;
+        // 0 = normal, 1 = effets réduits, puis un cran par saut, effets
+        // minimaux, agrandissement rapide
+        this.maxLevel = 1 + (maxSkip - 1) + 2;
+        applyLevel(Math.min(level, maxLevel));
+    }
+
+    // ==================== MESURES ====================
+
+    /**
+     * Un tick logique vient d'être exécuté.
+     *
+     * @param workNanos Durée du tick
+     */
+    public void onLogicTick(long workNanos) {
+        onLogicTick(workNanos, System.nanoTime());
+    }
+
+    synchronized void onLogicTick(long workNanos, long now) {
+        if (windowStart < 0) {
+            windowStart = now;
+        }
+        windowTicks++;
+        windowLogicNanos += workNanos;
+        if (now - windowStart >= WINDOW_NANOS) {
+            evaluate(now - windowStart);
+            windowStart = now;
+            windowTicks = 0;
+            windowLogicNanos = 0;
+            windowPaintNanos = 0;
+            windowFrames = 0;
+        }
+    }
+
+    /**
+     * Une frame vient d'être dessinée.
+     *
+     * @param paintNanos Durée du dessin
+     */
+    public synchronized void onFrameRendered(long paintNanos) {
+        windowPaintNanos += paintNanos;
+        windowFrames++;
+    }
+
+    /**
+     * Indique si la prochaine frame doit être dessinée (saut de frames).
+     * À appeler une fois par échéance d'affichage.
+     */
+    public synchronized boolean shouldRenderFrame() {
+        int skip = renderSkip;
+        if (skip <= 1) {
+            frameCounter = 0;
+            return true;
+        }
+        frameCounter = (frameCounter + 1) % skip;
+        return frameCounter == 0;
+    }
+
+    /**
+     * Réinitialise les mesures (pause, reprise) sans changer de niveau.
+     */
+    public synchronized void restartMeasures() {
+        windowStart = -1;
+        windowTicks = 0;
+        windowLogicNanos = 0;
+        windowPaintNanos = 0;
+        windowFrames = 0;
+        healthyWindows = 0;
+    }
+
+    // ==================== DÉCISIONS ====================
+
+    private void evaluate(long elapsedNanos) {
+        double expectedTicks = (double) elapsedNanos / logicIntervalNanos;
+        logicRateRatio = Math.min(1.0, windowTicks / expectedTicks);
+        load = (double) (windowLogicNanos + windowPaintNanos) / elapsedNanos;
+        paintMs = windowFrames > 0 ? windowPaintNanos / 1_000_000.0 / windowFrames : 0;
+
+        boolean behind = (logicRateRatio < BEHIND_RATE && load > BUSY_LOAD) || load > OVERLOADED_LOAD;
+        if (behind) {
+            healthyWindows = 0;
+            if (level < maxLevel) {
+                setLevel(level + 1);
+            }
+        } else if (logicRateRatio >= HEALTHY_RATE && load < HEADROOM_LOAD) {
+            if (++healthyWindows >= RECOVERY_WINDOWS && level > 0) {
+                healthyWindows = 0;
+                setLevel(level - 1);
+            }
+        } else {
+            healthyWindows = 0;
+        }
+    }
+
+    private void setLevel(int newLevel) {
+        int previous = level;
+        applyLevel(newLevel);
+        GameLogger.getInstance().info("Rendu adaptatif : niveau %d -> %d (%s) | logique %.0f%%, charge %.0f%%",
+                previous, newLevel, describe(), logicRateRatio * 100, load * 100);
+    }
+
+    private void applyLevel(int newLevel) {
+        level = newLevel;
+
+        int skipLevels = maxSkip - 1;
+        renderSkip = 1 + Math.max(0, Math.min(skipLevels, newLevel - 1));
+        boolean minimalEffects = newLevel >= 2 + skipLevels;
+        waterSampleRate = minimalEffects ? 4 : newLevel >= 1 ? 2 : 1;
+        decoratorCostLimit = minimalEffects ? 0 : newLevel >= 1 ? 1 : Integer.MAX_VALUE;
+        fastScaling = newLevel >= 3 + skipLevels;
+    }
+
+    /**
+     * Résumé des décisions courantes ("normal" au niveau 0).
+     */
+    public String describe() {
+        if (level == 0) {
+            return "normal";
+        }
+        StringBuilder sb = new StringBuilder();
+        if (renderSkip > 1) {
+            sb.append("1 frame/").append(renderSkip).append(", ");
+        }
+        sb.append(decoratorCostLimit == 0 ? "effets minimaux" : "effets réduits");
+        if (fastScaling) {
+            sb.append(", échelle rapide");
+        }
+        return sb.toString();
+    }
+
+    // ==================== ACCESSEURS ====================
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /** Une frame dessinée sur N. */
+    public int getRenderSkip() {
+        return renderSkip;
+    }
+
+    /** Sous-échantillonnage de la distorsion d'eau (1 = aucun). */
+    public int getWaterSampleRate() {
+        return waterSampleRate;
+    }
+
+    /** Coût maximal des décorateurs exécutés (voir DecoratorKernel.getCost). */
+    public int getDecoratorCostLimit() {
+        return decoratorCostLimit;
+    }
+
+    /** Agrandissement au plus proche voisin forcé. */
+    public boolean isFastScaling() {
+        return fastScaling;
+    }
+
+    /** Cadence logique réelle / cible sur la dernière fenêtre (0..1). */
+    public double getLogicRateRatio() {
+        return logicRateRatio;
+    }
+
+    /** Part de la dernière fenêtre passée en logique + dessin (0..1+). */
+    public double getLoad() {
+        return load;
+    }
+
+    /** Durée moyenne de dessin d'une frame sur la dernière fenêtre (ms). */
+    public double getPaintMs() {
+        return paintMs;
+    }
+}
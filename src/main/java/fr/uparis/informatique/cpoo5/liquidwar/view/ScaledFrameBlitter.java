@@ -0,0 +1,195 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.VolatileImage;
+import java.util.stream.IntStream;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Affichage du buffer de jeu agrandi au plus proche voisin, sans passer par
+ * la mise à l'échelle de Java2D.
+ *
+ * Pipeline :
+ * 1. Agrandissement dans un raster int[] à la taille de l'écran : une table
+ * de colonnes (x écran → x source) est calculée une seule fois par taille ;
+ * chaque ligne source est étirée une fois puis dupliquée par
+ * System.arraycopy. Les lignes sont traitées en parallèle par bandes.
+ * 2. Copie 1:1 dans une VolatileImage en cache (mémoire vidéo), puis copie
+ * 1:1 à l'écran.
+ * 3. Si l'accélération est perdue (contentsLost, image incompatible, échec de
+ * création), le raster est dessiné directement : l'affichage continue, sans
+ * accélération.
+ *
+ * Le temps de rendu dépend alors seulement du nombre de pixels écran, et non
+ * du backend Java2D (OpenGL, D3D, logiciel...).
+ */
+public class ScaledFrameBlitter {
+
+    // Lignes source par tâche parallèle
+    private static final int ROWS_PER_BAND = 8;
+    // Nombre d'essais de restauration de la VolatileImage par frame
+    private static final int MAX_VOLATILE_ATTEMPTS = 2;
+
+    private int targetWidth;
+    private int targetHeight;
+    private int sourceWidth;
+    private int sourceHeight;
+
+    private BufferedImage raster;
+    private int[] rasterPixels;
+    private int[] columnMap;   // x écran → x source
+    private int[] rowStart;    // première ligne écran de chaque ligne source
+    private VolatileImage volatileImage;
+    private boolean accelerationLost = false;
+
+    /**
+     * Agrandit la source à la taille demandée et l'affiche en (0, 0).
+     *
+     * @param g            Graphics de destination
+     * @param source       Buffer de jeu (TYPE_INT_RGB)
+     * @param width        Largeur à l'écran
+     * @param height       Hauteur à l'écran
+     * @param gc           Configuration graphique du composant (null = pas de
+     *                     VolatileImage)
+     */
+    public void blit(Graphics2D g, BufferedImage source, int width, int height, GraphicsConfiguration gc) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        ensureSize(source.getWidth(), source.getHeight(), width, height);
+        scale(((DataBufferInt) source.getRaster().getDataBuffer()).getData());
+
+        if (gc == null || accelerationLost) {
+            g.drawImage(raster, 0, 0, null);
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_VOLATILE_ATTEMPTS; attempt++) {
+            if (!validateVolatile(gc)) {
+                break;
+            }
+            Graphics2D vg = volatileImage.createGraphics();
+            try {
+                vg.drawImage(raster, 0, 0, null);
+            } finally {
+                vg.dispose();
+            }
+            if (!volatileImage.contentsLost()) {
+                g.drawImage(volatileImage, 0, 0, null);
+                return;
+            }
+        }
+        // Repli : affichage direct du raster (non accéléré)
+        g.drawImage(raster, 0, 0, null);
+    }
+
+    /**
+     * Indique si le repli non accéléré est actif définitivement.
+     */
+    public boolean isAccelerationLost() {
+        return accelerationLost;
+    }
+
+    /**
+     * Libère les buffers (changement de partie, fermeture).
+     */
+    public void release() {
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+        raster = null;
+        rasterPixels = null;
+        targetWidth = 0;
+        targetHeight = 0;
+    }
+
+    /**
+     * (Ré)alloue le raster et les tables si la taille a changé.
+     */
+    private void ensureSize(int srcW, int srcH, int width, int height) {
+        if (raster != null && width == targetWidth && height == targetHeight
+                && srcW == sourceWidth && srcH == sourceHeight) {
+            return;
+        }
+        targetWidth = width;
+        targetHeight = height;
+        sourceWidth = srcW;
+        sourceHeight = srcH;
+
+        raster = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        rasterPixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+
+        columnMap = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnMap[x] = (int) ((long) x * srcW / width);
+        }
+        rowStart = new int[srcH + 1];
+        for (int sy = 0; sy <= srcH; sy++) {
+            // Première ligne écran y telle que y * srcH / height >= sy
+            rowStart[sy] = (int) (((long) sy * height + srcH - 1) / srcH);
+        }
+
+        if (volatileImage != null) {
+            volatileImage.flush();
+            volatileImage = null;
+        }
+    }
+
+    /**
+     * Agrandissement au plus proche voisin, en parallèle par bandes de lignes.
+     */
+    private void scale(int[] src) {
+        int bands = (sourceHeight + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int end = Math.min(sourceHeight, (band + 1) * ROWS_PER_BAND);
+            for (int sy = band * ROWS_PER_BAND; sy < end; sy++) {
+                scaleRow(src, sy);
+            }
+        });
+    }
+
+    private void scaleRow(int[] src, int sy) {
+        int firstY = rowStart[sy];
+        int lastY = Math.min(targetHeight, rowStart[sy + 1]);
+        if (firstY >= lastY) {
+            return; // Ligne source non affichée (réduction)
+        }
+        int srcRow = sy * sourceWidth;
+        int dstRow = firstY * targetWidth;
+        for (int x = 0; x < targetWidth; x++) {
+            rasterPixels[dstRow + x] = src[srcRow + columnMap[x]];
+        }
+        for (int y = firstY + 1; y < lastY; y++) {
+            System.arraycopy(rasterPixels, dstRow, rasterPixels, y * targetWidth, targetWidth);
+        }
+    }
+
+    /**
+     * Crée ou restaure la VolatileImage.
+     *
+     * @return false si l'accélération n'est pas disponible
+     */
+    private boolean validateVolatile(GraphicsConfiguration gc) {
+        try {
+            if (volatileImage == null) {
+                volatileImage = gc.createCompatibleVolatileImage(targetWidth, targetHeight, Transparency.OPAQUE);
+            }
+            if (volatileImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage.flush();
+                volatileImage = gc.createCompatibleVolatileImage(targetWidth, targetHeight, Transparency.OPAQUE);
+            }
+            return volatileImage != null;
+        } catch (RuntimeException e) {
+            accelerationLost = true;
+            volatileImage = null;
+            GameLogger.getInstance().warn("VolatileImage indisponible, affichage non accéléré : %s",
+                    e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+
+import javax.swing.JComponent;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
+
+/**
+ * Graphique d'historique d'une partie (une courbe par équipe).
+ *
+ * Lit directement les anneaux de {@link MatchTimeline} : le niveau de
+ * consolidation est choisi pour ne pas dépasser un point par pixel, et les
+ * buffers de points sont réutilisés d'un affichage à l'autre.
+ *
+ * Utilisable comme composant (panneau de stats) ou comme simple peintre
+ * via {@link #paintChart} (écran de victoire).
+ */
+public final class TimelineChart extends JComponent {
+
+    private static final Color BACKGROUND = new Color(30, 30, 45);
+    private static final Color GRID = new Color(60, 60, 80);
+    private static final Stroke LINE_STROKE = new BasicStroke(1.5f);
+    private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 10);
+
+    private MatchTimeline timeline;
+    private int metric = MatchTimeline.METRIC_COUNT;
+
+    // Buffers réutilisés (réalloués seulement si la largeur augmente)
+    private int[] values = new int[0];
+    private int[] xPoints = new int[0];
+    private int[] yPoints = new int[0];
+
+    public TimelineChart() {
+        setPreferredSize(new Dimension(220, 90));
+        setMaximumSize(new Dimension(220, 90));
+        setAlignmentX(CENTER_ALIGNMENT);
+    }
+
+    /**
+     * Définit l'historique à afficher (null = rien).
+     */
+    public void setTimeline(MatchTimeline timeline) {
+        this.timeline = timeline;
+        repaint();
+    }
+
+    /**
+     * Définit la métrique affichée (MatchTimeline.METRIC_*).
+     */
+    public void setMetric(int metric) {
+        this.metric = metric;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        paintChart((Graphics2D) g, 0, 0, getWidth(), getHeight());
+    }
+
+    /**
+     * Dessine le graphique dans un rectangle.
+     */
+    public void paintChart(Graphics2D g2d, int x, int y, int width, int height) {
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(x, y, width, height);
+        g2d.setColor(GRID);
+        g2d.drawRect(x, y, width - 1, height - 1);
+        g2d.drawLine(x, y + height / 2, x + width - 1, y + height / 2);
+
+        if (timeline == null || timeline.getTotalTicks() == 0 || width < 4 || height < 4) {
+            return;
+        }
+
+        int plotWidth = width - 2;
+        ensureCapacity(plotWidth);
+        int tier = timeline.selectTier(plotWidth);
+        int teams = timeline.getTeams();
+
+        // Échelle verticale commune à toutes les équipes
+        int max = 1;
+        for (int team = 0; team < teams; team++) {
+            int n = timeline.copySeries(tier, metric, team, values);
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, values[i]);
+            }
+        }
+
+        Object oldAntialias = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Stroke oldStroke = g2d.getStroke();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setStroke(LINE_STROKE);
+
+        Color[] colors = GameRenderer.getCurrentTeamColors();
+        int bottom = y + height - 2;
+        int plotHeight = height - 4;
+        for (int team = 0; team < teams; team++) {
+            int n = timeline.copySeries(tier, metric, team, values);
+            if (n < 2) {
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                xPoints[i] = x + 1 + (int) ((long) i * (plotWidth - 1) / (n - 1));
+                yPoints[i] = bottom - (int) ((long) Math.max(0, values[i]) * plotHeight / max);
+            }
+            g2d.setColor(colors[team % colors.length]);
+            g2d.drawPolyline(xPoints, yPoints, n);
+        }
+
+        g2d.setStroke(oldStroke);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAntialias);
+
+        g2d.setFont(LABEL_FONT);
+        g2d.setColor(Color.LIGHT_GRAY);
+        g2d.drawString(String.valueOf(max), x + 4, y + 12);
+    }
+
+    private void ensureCapacity(int points) {
+        if (values.length < points) {
+            values = new int[points];
+            xPoints = new int[points];
+            yPoints = new int[points];
+        }
+    }
+}
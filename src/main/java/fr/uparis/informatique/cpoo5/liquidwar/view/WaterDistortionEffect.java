@@ -1,255 +1,359 @@
 package fr.uparis.informatique.cpoo5.liquidwar.view;
 
 import java.awt.image.BufferedImage;
-import java.awt.Color;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
 
 /**
  * Système de distorsion de pixels pour effet d'eau - Inspiration de distor.c.
- * 
+ *
  * Cette classe reproduit les effets de vague du code C (distor.c) pour
  * donner l'impression que les particules "ondulent" comme un vrai liquide.
- * 
+ *
  * PRINCIPE (comme dans distor.c, lignes 98-397) :
  * 1. Créer des formes d'onde sinusoïdales (WAVE_SHAPE_WX, WAVE_SHAPE_WY)
  * 2. Déplacer chaque pixel selon ces ondes
  * 3. Créer un effet de "glouglou" (ondulation d'eau)
- * 
- * NOTE : Version simplifiée car Java n'a pas l'accès direct aux pixels
- * comme en C avec Allegro. Utilise BufferedImage pour manipulation.
+ *
+ * IMPLÉMENTATION (comme en C avec Allegro, accès direct aux pixels) :
+ * - Lecture / écriture directe dans les tableaux DataBufferInt (pas de
+ * getRGB/setRGB)
+ * - Image de destination allouée une seule fois et réutilisée à chaque frame
+ * - Aucun sin/cos par pixel : une table de sinus en virgule fixe
+ * (DISTORSION_PRECISION entrées) est indexée par la phase pour remplir une
+ * table par ligne et une table par colonne, puis chaque pixel ne fait qu'un
+ * produit entier et une lecture
+ * - Lignes traitées en parallèle (bandes indépendantes)
  */
 public class WaterDistortionEffect {
-    
+
     // ===== CONSTANTES (comme dans distor.c) =====
     private static final int DISTORSION_PRECISION = 4096;
+    private static final int PRECISION_MASK = DISTORSION_PRECISION - 1;
+    private static final int FIXED_SHIFT = 12; // 1.0 = 4096
     private static final int WAVE_SIZE_SCALE = 4;
     private static final double PI = Math.PI;
-    
+
+    // Décalage de phase entre deux lignes / colonnes (0.1 radian)
+    private static final int LINE_PHASE_STEP = phaseIndex(0.1);
+    // Une bande de lignes par tâche parallèle
+    private static final int ROWS_PER_BAND = 16;
+
+    // Table de sinus sur une période, en virgule fixe
+    private static final int[] SIN_TABLE = buildSinTable();
+
     // ===== PARAMÈTRES DE VAGUE =====
     private final int width;
     private final int height;
     private final int waveAmplitude;    // Amplitude des vagues
     private final int waveFrequency;    // Fréquence des vagues
     private final double waveSpeed;     // Vitesse d'animation
-    
-    // ===== TABLES DE FORMES D'ONDE =====
-    private final double[] waveShapeWX;  // Déformation horizontale
-    private final double[] waveShapeWY;  // Déformation verticale
-    private final double[] waveShapeHX;  // Déformation hauteur X
-    private final double[] waveShapeHY;  // Déformation hauteur Y
-    
+
+    // ===== TABLES DE FORMES D'ONDE (virgule fixe, × DISTORSION_PRECISION) =====
+    private final int[] waveShapeWX;  // Déformation horizontale (par colonne)
+    private final int[] waveShapeWY;  // Déformation verticale (par colonne)
+    private final int[] waveShapeHX;  // Déformation hauteur X (par ligne)
+    private final int[] waveShapeHY;  // Déformation hauteur Y (par ligne)
+
+    // ===== TABLES PAR FRAME (recalculées depuis la phase, sans trigonométrie) =====
+    private final int[] rowShiftX;    // Décalage X de chaque ligne
+    private final int[] columnShiftY; // Décalage Y de chaque colonne
+
+    // ===== BUFFERS RÉUTILISÉS =====
+    private BufferedImage destination;
+    private int[] destinationPixels;
+    private int[] sourceScratch;      // Seulement si la source n'est pas en DataBufferInt
+
     // ===== ÉTAT D'ANIMATION =====
     private double animationPhase = 0.0;
     private boolean enabled = false;
-    
+
     /**
      * Constructeur avec paramètres par défaut.
-     * 
+     *
      * @param width Largeur de l'image
      * @param height Hauteur de l'image
      */
     public WaterDistortionEffect(int width, int height) {
         this(width, height, 3, 2, 0.1);  // Paramètres modérés pour fluidité
     }
-    
+
     /**
      * Constructeur complet.
-     * 
+     *
      * @param width Largeur
      * @param height Hauteur
      * @param waveAmplitude Amplitude des vagues (pixels)
      * @param waveFrequency Fréquence (nombre de vagues)
      * @param waveSpeed Vitesse d'animation
      */
-    public WaterDistortionEffect(int width, int height, int waveAmplitude, 
+    public WaterDistortionEffect(int width, int height, int waveAmplitude,
                                  int waveFrequency, double waveSpeed) {
         this.width = width;
         this.height = height;
         this.waveAmplitude = waveAmplitude;
         this.waveFrequency = waveFrequency;
         this.waveSpeed = waveSpeed;
-        
+
         // Initialiser les tables de formes d'onde
-        this.waveShapeWX = new double[width];
-        this.waveShapeWY = new double[width];
-        this.waveShapeHX = new double[height];
-        this.waveShapeHY = new double[height];
-        
+        this.waveShapeWX = new int[width];
+        this.waveShapeWY = new int[width];
+        this.waveShapeHX = new int[height];
+        this.waveShapeHY = new int[height];
+        this.rowShiftX = new int[height];
+        this.columnShiftY = new int[width];
+
         initWaveShapes();
     }
-    
+
+    private static int[] buildSinTable() {
+        int[] table = new int[DISTORSION_PRECISION];
+        for (int i = 0; i < DISTORSION_PRECISION; i++) {
+            table[i] = (int) Math.round(Math.sin(2 * PI * i / DISTORSION_PRECISION) * DISTORSION_PRECISION);
+        }
+        return table;
+    }
+
+    /**
+     * Convertit un angle (radians) en index dans SIN_TABLE.
+     */
+    private static int phaseIndex(double radians) {
+        return (int) Math.round(radians / (2 * PI) * DISTORSION_PRECISION);
+    }
+
+    private static int sin(int index) {
+        return SIN_TABLE[index & PRECISION_MASK];
+    }
+
+    private static int cos(int index) {
+        return SIN_TABLE[(index + DISTORSION_PRECISION / 4) & PRECISION_MASK];
+    }
+
     /**
      * Initialise les formes d'onde sinusoïdales.
-     * 
+     *
      * Inspiré de create_wave_line() dans distor.c (lignes 158-230).
      */
     private void initWaveShapes() {
         // Vagues horizontales (axe X)
         for (int x = 0; x < width; x++) {
             double angle = (double) x / width * waveFrequency * 2 * PI;
-            waveShapeWX[x] = Math.sin(angle) * waveAmplitude;
-            waveShapeWY[x] = Math.cos(angle) * waveAmplitude * 0.5;
+            waveShapeWX[x] = (int) Math.round(Math.sin(angle) * waveAmplitude * DISTORSION_PRECISION);
+            waveShapeWY[x] = (int) Math.round(Math.cos(angle) * waveAmplitude * 0.5 * DISTORSION_PRECISION);
         }
-        
+
         // Vagues verticales (axe Y)
         for (int y = 0; y < height; y++) {
             double angle = (double) y / height * waveFrequency * 2 * PI;
-            waveShapeHX[y] = Math.cos(angle) * waveAmplitude * 0.5;
-            waveShapeHY[y] = Math.sin(angle) * waveAmplitude;
+            waveShapeHX[y] = (int) Math.round(Math.cos(angle) * waveAmplitude * 0.5 * DISTORSION_PRECISION);
+            waveShapeHY[y] = (int) Math.round(Math.sin(angle) * waveAmplitude * DISTORSION_PRECISION);
         }
     }
-    
+
+    /**
+     * Remplit les tables par ligne / colonne pour la phase courante.
+     *
+     * offsetX(x, y) = WX[x] * sin(phase + 0.1 y) et
+     * offsetY(x, y) = HY[y] * cos(phase + 0.1 x) : le facteur trigonométrique
+     * ne dépend que de la ligne (resp. de la colonne).
+     */
+    private void updatePhaseTables() {
+        int phase = phaseIndex(animationPhase);
+        for (int y = 0; y < height; y++) {
+            rowShiftX[y] = sin(phase + y * LINE_PHASE_STEP);
+        }
+        for (int x = 0; x < width; x++) {
+            columnShiftY[x] = cos(phase + x * LINE_PHASE_STEP);
+        }
+    }
+
     /**
      * ⭐ Applique la distorsion d'eau à une image.
-     * 
+     *
      * Inspiré de la boucle principale de distor.c (lignes 318-393).
-     * 
+     *
      * @param source Image source
-     * @return Image distordue avec effet d'eau
+     * @return Image distordue avec effet d'eau (buffer réutilisé d'une frame à
+     *         l'autre : ne pas la conserver)
      */
     public BufferedImage applyDistortion(BufferedImage source) {
-        if (!enabled || source == null) {
-            return source;  // Pas d'effet si désactivé
-        }
-        
-        BufferedImage distorted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        
-        // Incrémenter la phase d'animation
-        animationPhase += waveSpeed;
-        
-        // Pour chaque pixel de destination
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Calculer la déformation pour ce pixel
-                double offsetX = waveShapeWX[x % waveShapeWX.length] * Math.sin(animationPhase + y * 0.1);
-                double offsetY = waveShapeHY[y % waveShapeHY.length] * Math.cos(animationPhase + x * 0.1);
-                
-                // Position source (avec déformation)
-                int srcX = (int) (x + offsetX);
-                int srcY = (int) (y + offsetY);
-                
-                // Vérifier les bornes (avec wrapping pour effet continu)
-                srcX = (srcX + width) % width;
-                srcY = (srcY + height) % height;
-                
-                // Copier le pixel déformé
-                if (srcX >= 0 && srcX < source.getWidth() && 
-                    srcY >= 0 && srcY < source.getHeight()) {
-                    int rgb = source.getRGB(srcX, srcY);
-                    distorted.setRGB(x, y, rgb);
-                }
-            }
-        }
-        
-        return distorted;
+        return applyDistortionFast(source, 1);
     }
-    
+
     /**
-     * Version optimisée avec sous-échantillonnage (pour grandes images).
-     * 
+     * Version avec sous-échantillonnage (pour grandes images).
+     *
      * Applique la distorsion tous les N pixels pour réduire le coût CPU.
-     * 
+     *
      * @param source Image source
      * @param sampleRate Taux de sous-échantillonnage (1 = aucun, 2 = 1/4, etc.)
-     * @return Image distordue
+     * @return Image distordue (buffer réutilisé)
      */
     public BufferedImage applyDistortionFast(BufferedImage source, int sampleRate) {
         if (!enabled || source == null) {
-            return source;
-        }
-        
-        if (sampleRate <= 1) {
-            return applyDistortion(source);  // Pas d'optimisation
+            return source;  // Pas d'effet si désactivé
         }
-        
-        BufferedImage distorted = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        int[] src = pixelsOf(source);
+        ensureDestination();
+
+        // Incrémenter la phase d'animation
         animationPhase += waveSpeed;
-        
-        // Sous-échantillonnage
-        for (int y = 0; y < height; y += sampleRate) {
-            for (int x = 0; x < width; x += sampleRate) {
-                double offsetX = waveShapeWX[x % waveShapeWX.length] * Math.sin(animationPhase + y * 0.1);
-                double offsetY = waveShapeHY[y % waveShapeHY.length] * Math.cos(animationPhase + x * 0.1);
-                
-                int srcX = ((int) (x + offsetX) + width) % width;
-                int srcY = ((int) (y + offsetY) + height) % height;
-                
-                if (srcX >= 0 && srcX < source.getWidth() && 
-                    srcY >= 0 && srcY < source.getHeight()) {
-                    int rgb = source.getRGB(srcX, srcY);
-                    
-                    // Remplir le bloc sampleRate × sampleRate
-                    for (int dy = 0; dy < sampleRate && y + dy < height; dy++) {
-                        for (int dx = 0; dx < sampleRate && x + dx < width; dx++) {
-                            distorted.setRGB(x + dx, y + dy, rgb);
-                        }
-                    }
+        updatePhaseTables();
+
+        int step = Math.max(1, sampleRate);
+        applyDistortion(src, destinationPixels, step);
+        return destination;
+    }
+
+    /**
+     * Applique la distorsion directement entre deux tableaux de pixels
+     * (width × height), avec la phase courante. N'alloue rien.
+     *
+     * @param src Pixels source
+     * @param dst Pixels destination (différent de src)
+     */
+    public void applyDistortion(int[] src, int[] dst) {
+        applyDistortion(src, dst, 1);
+    }
+
+    private void applyDistortion(int[] src, int[] dst, int step) {
+        int bands = (height + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int startY = band * ROWS_PER_BAND;
+            int endY = Math.min(height, startY + ROWS_PER_BAND);
+            // Aligner les blocs de sous-échantillonnage sur la grille
+            startY -= startY % step;
+            for (int y = startY; y < endY; y += step) {
+                distortRows(src, dst, y, Math.min(y + step, height), step);
+            }
+        });
+    }
+
+    /**
+     * Traite le bloc de lignes [y, yEnd) à partir de l'échantillon de la ligne y.
+     */
+    private void distortRows(int[] src, int[] dst, int y, int yEnd, int step) {
+        int rowFactor = rowShiftX[y];
+        int shapeY = waveShapeHY[y];
+        for (int x = 0; x < width; x += step) {
+            // Produits en virgule fixe (précision² → pixels)
+            int srcX = x + (int) (((long) waveShapeWX[x] * rowFactor) >> (2 * FIXED_SHIFT));
+            int srcY = y + (int) (((long) shapeY * columnShiftY[x]) >> (2 * FIXED_SHIFT));
+
+            // Wrapping pour effet continu (décalage < largeur/hauteur)
+            if (srcX < 0) {
+                srcX += width;
+            } else if (srcX >= width) {
+                srcX -= width;
+            }
+            if (srcY < 0) {
+                srcY += height;
+            } else if (srcY >= height) {
+                srcY -= height;
+            }
+
+            int rgb = src[srcY * width + srcX];
+            int xEnd = Math.min(x + step, width);
+            for (int by = y; by < yEnd; by++) {
+                int row = by * width;
+                for (int bx = x; bx < xEnd; bx++) {
+                    dst[row + bx] = rgb;
                 }
             }
         }
-        
-        return distorted;
     }
-    
+
     /**
      * Applique un effet de "ripple" (ondulation circulaire).
-     * 
-     * Simule l'effet d'une goutte d'eau qui tombe.
-     * 
+     *
+     * Simule l'effet d'une goutte d'eau qui tombe. Seuls les pixels dans le
+     * rayon sont recalculés, le reste est recopié ligne par ligne.
+     *
      * @param source Image source
      * @param centerX Centre X de l'ondulation
      * @param centerY Centre Y de l'ondulation
      * @param radius Rayon de l'effet
      * @param strength Force de l'ondulation
-     * @return Image avec effet ripple
+     * @return Image avec effet ripple (buffer réutilisé)
      */
-    public BufferedImage applyRipple(BufferedImage source, int centerX, int centerY, 
+    public BufferedImage applyRipple(BufferedImage source, int centerX, int centerY,
                                      int radius, double strength) {
         if (!enabled || source == null) {
             return source;
         }
-        
-        BufferedImage rippled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Distance au centre
+
+        int[] src = pixelsOf(source);
+        ensureDestination();
+        int[] dst = destinationPixels;
+        System.arraycopy(src, 0, dst, 0, width * height);
+
+        int phase = phaseIndex(animationPhase * 2);
+        int y0 = Math.max(0, centerY - radius);
+        int y1 = Math.min(height - 1, centerY + radius);
+        int x0 = Math.max(0, centerX - radius);
+        int x1 = Math.min(width - 1, centerX + radius);
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
                 int dx = x - centerX;
                 int dy = y - centerY;
                 double dist = Math.sqrt(dx * dx + dy * dy);
-                
+
                 if (dist < radius && dist > 0) {
                     // Calculer l'ondulation (sin décroissant avec distance)
-                    double wave = Math.sin((dist / radius) * 4 * PI - animationPhase * 2);
+                    double wave = sin((int) (dist / radius * 2 * DISTORSION_PRECISION) - phase)
+                            / (double) DISTORSION_PRECISION;
                     double offset = wave * strength * (1.0 - dist / radius);
-                    
-                    // Appliquer déformation radiale
-                    double angle = Math.atan2(dy, dx);
-                    int srcX = (int) (x + Math.cos(angle) * offset);
-                    int srcY = (int) (y + Math.sin(angle) * offset);
-                    
-                    // Copier pixel
-                    if (srcX >= 0 && srcX < source.getWidth() && 
-                        srcY >= 0 && srcY < source.getHeight()) {
-                        rippled.setRGB(x, y, source.getRGB(srcX, srcY));
-                    }
-                } else {
-                    // Pas d'effet ici
-                    if (x < source.getWidth() && y < source.getHeight()) {
-                        rippled.setRGB(x, y, source.getRGB(x, y));
+
+                    // Appliquer déformation radiale (cos/sin de l'angle = dx/dist, dy/dist)
+                    int srcX = (int) (x + dx / dist * offset);
+                    int srcY = (int) (y + dy / dist * offset);
+
+                    if (srcX >= 0 && srcX < width && srcY >= 0 && srcY < height) {
+                        dst[y * width + x] = src[srcY * width + srcX];
                     }
                 }
             }
         }
-        
-        return rippled;
+
+        return destination;
+    }
+
+    /**
+     * Retourne les pixels de la source (sans copie si DataBufferInt).
+     */
+    private int[] pixelsOf(BufferedImage source) {
+        if (source.getWidth() == width && source.getHeight() == height
+                && source.getRaster().getDataBuffer() instanceof DataBufferInt
+                && (source.getType() == BufferedImage.TYPE_INT_RGB
+                        || source.getType() == BufferedImage.TYPE_INT_ARGB)) {
+            return ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        }
+        if (sourceScratch == null) {
+            sourceScratch = new int[width * height];
+        }
+        int w = Math.min(width, source.getWidth());
+        int h = Math.min(height, source.getHeight());
+        source.getRGB(0, 0, w, h, sourceScratch, 0, width);
+        return sourceScratch;
+    }
+
+    /**
+     * Alloue l'image de destination une seule fois.
+     */
+    private void ensureDestination() {
+        if (destination == null) {
+            destination = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            destinationPixels = ((DataBufferInt) destination.getRaster().getDataBuffer()).getData();
+        }
     }
-    
+
     // ===== GETTERS / SETTERS =====
-    
+
     public boolean isEnabled() {
         return enabled;
     }
-    
+
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
         if (enabled) {
@@ -258,13 +362,20 @@ public class WaterDistortionEffect {
             System.out.println("💧 Distorsion d'eau : DÉSACTIVÉE");
         }
     }
-    
+
     public void resetAnimation() {
         animationPhase = 0.0;
     }
-    
+
     public double getAnimationPhase() {
         return animationPhase;
     }
-}
 
+    /**
+     * Avance la phase d'animation d'une frame (pour applyDistortion(int[], int[])).
+     */
+    public void advance() {
+        animationPhase += waveSpeed;
+        updatePhaseTables();
+    }
+}
@@ -1,5 +1,7 @@
 package fr.uparis.informatique.cpoo5.liquidwar.view.decorator;
 
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -13,9 +15,26 @@ import java.awt.geom.Point2D;
  * Affiche une aura colorée dont l'intensité dépend de la santé de la particule.
  * Crée un effet visuel attractif pour montrer l'énergie des particules.
  * 
+ * Dans le DecoratorPipeline, chaque cellule vide prend une lueur additive
+ * des équipes de ses 8 voisines, pondérée par leur santé : 8 lectures par
+ * pixel, c'est le décorateur le plus coûteux.
+ * 
  * @author Liquid War Team
  */
-public class AuraDecorator implements ParticleDecorator {
+public class AuraDecorator implements DecoratorKernel {
+    
+    private static final int MAX_HEALTH = Math.max(1, GameConfig.FIGHTER_INITIAL_HEALTH);
+    // Intensité maximale de la lueur (sur 256)
+    private static final int AURA_WEIGHT = 60; // ~100/255 * 0.6
+    // Santé cumulée des voisines donnant la lueur maximale
+    private static final int FULL_GLOW = 3 * MAX_HEALTH;
+    // Par santé cumulée : moyenne pondérée puis intensité, en un seul facteur
+    // (virgule fixe 16 bits), pour éviter toute division par pixel
+    private static final int[] GLOW_SCALE = buildGlowScale();
+    private static final long LANE_MASK = (1L << 20) - 1;
+    
+    // Couleur de chaque équipe répartie sur trois voies de 20 bits (r, g, b)
+    private final long[] spread = new long[GameConfig.MAX_TEAMS];
     
     private boolean enabled = false;
     
@@ -65,6 +84,101 @@ public class AuraDecorator implements ParticleDecorator {
         g.setComposite(originalComposite);
     }
     
+    @Override
+    public String getName() {
+        return "Auras";
+    }
+    
+    @Override
+    public int getCost() {
+        return 8;
+    }
+    
+    @Override
+    public void beginFrame(DecoratorPipeline.FrameContext context) {
+        for (int team = 0; team < spread.length; team++) {
+            int color = context.teamColor(team);
+            spread[team] = ((long) ((color >> 16) & 0xFF) << 40) | ((long) ((color >> 8) & 0xFF) << 20)
+                    | (color & 0xFF);
+        }
+    }
+    
+    @Override
+    public int shade(DecoratorPipeline.FrameContext context, int cell, int x, int y, int pixel) {
+        if (context.stateAt(cell) != DirtyCellTracker.EMPTY) {
+            return pixel;
+        }
+        int width = context.getWidth();
+        int height = context.getHeight();
+        long sum = 0;
+        int total = 0;
+        if (x > 0 && y > 0 && x < width - 1 && y < height - 1) {
+            // Cas courant : 8 voisines dans la carte, sans test de bord
+            int s0 = context.stateAt(cell - width - 1);
+            int s1 = context.stateAt(cell - width);
+            int s2 = context.stateAt(cell - width + 1);
+            int s3 = context.stateAt(cell - 1);
+            int s4 = context.stateAt(cell + 1);
+            int s5 = context.stateAt(cell + width - 1);
+            int s6 = context.stateAt(cell + width);
+            int s7 = context.stateAt(cell + width + 1);
+            sum = glow(s0) + glow(s1) + glow(s2) + glow(s3) + glow(s4) + glow(s5) + glow(s6) + glow(s7);
+            total = health(s0) + health(s1) + health(s2) + health(s3) + health(s4) + health(s5)
+                    + health(s6) + health(s7);
+        } else {
+            for (int dy = -1; dy <= 1; dy++) {
+                int ny = y + dy;
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = x + dx;
+                    if ((dx == 0 && dy == 0) || nx < 0 || nx >= width || ny < 0 || ny >= height) {
+                        continue;
+                    }
+                    int state = context.stateAt(ny * width + nx);
+                    sum += glow(state);
+                    total += health(state);
+                }
+            }
+        }
+        if (total == 0) {
+            return pixel;
+        }
+        int scale = GLOW_SCALE[total];
+        int pr = Math.min(255, ((pixel >> 16) & 0xFF) + (int) (((sum >>> 40) * scale) >> 16));
+        int pg = Math.min(255, ((pixel >> 8) & 0xFF) + (int) ((((sum >>> 20) & LANE_MASK) * scale) >> 16));
+        int pb = Math.min(255, (pixel & 0xFF) + (int) (((sum & LANE_MASK) * scale) >> 16));
+        return (pixel & 0xFF000000) | (pr << 16) | (pg << 8) | pb;
+    }
+    
+    /**
+     * Santé (plafonnée) d'une cellule voisine, 0 si elle est vide. Sans
+     * branchement : l'occupation des voisines est imprévisible.
+     */
+    private static int health(int state) {
+        return Math.min(DirtyCellTracker.healthOf(state), MAX_HEALTH) & ~(state >> 31);
+    }
+    
+    /**
+     * Couleur de l'équipe voisine pondérée par sa santé, composantes sur trois
+     * voies de 20 bits (8 voisines * 255 * santé max tiennent dans une voie).
+     */
+    private long glow(int state) {
+        int keep = ~(state >> 31);
+        return spread[DirtyCellTracker.teamOf(state) & keep] * health(state);
+    }
+    
+    /**
+     * Facteur appliqué aux sommes pondérées : (1 / total) * intensité, avec
+     * intensité = AURA_WEIGHT * min(total, FULL_GLOW) / FULL_GLOW (sur 256).
+     */
+    private static int[] buildGlowScale() {
+        int[] scale = new int[8 * MAX_HEALTH + 1];
+        for (int total = 1; total < scale.length; total++) {
+            int weight = AURA_WEIGHT * Math.min(total, FULL_GLOW) / FULL_GLOW;
+            scale[total] = (weight << 8) / total;
+        }
+        return scale;
+    }
+    
     @Override
     public boolean isEnabled() {
         return enabled;
@@ -0,0 +1,55 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.decorator;
+
+/**
+ * Décorateur exécuté comme un "pixel shader" dans le DecoratorPipeline.
+ *
+ * Au lieu d'un appel Java2D par combattant, le pipeline parcourt une seule
+ * fois les cellules de la carte (bandes de lignes en parallèle) et passe
+ * chaque pixel du buffer de jeu à tous les noyaux actifs, l'un après
+ * l'autre.
+ *
+ * Contraintes pour un noyau :
+ * - shade() est appelé depuis plusieurs threads : il ne peut écrire que dans
+ * son propre état à l'index de la cellule traitée
+ * - aucune allocation dans shade()
+ *
+ * @author Liquid War Team
+ */
+public interface DecoratorKernel extends ParticleDecorator {
+
+    /**
+     * Nom court (journal, statistiques).
+     */
+    String getName();
+
+    /**
+     * Coût relatif d'un appel à shade() (lectures de cellules voisines...).
+     * Le budget de temps désactive en premier le noyau le plus coûteux.
+     */
+    int getCost();
+
+    /**
+     * Appelé une fois par frame avant la passe (thread de rendu).
+     */
+    default void beginFrame(DecoratorPipeline.FrameContext context) {
+    }
+
+    /**
+     * Calcule la nouvelle couleur d'un pixel.
+     *
+     * @param context Données partagées de la frame (occupation des cellules,
+     *                couleurs)
+     * @param cell    Index y * largeur + x
+     * @param x       Colonne
+     * @param y       Ligne
+     * @param pixel   Couleur actuelle (RGB empaqueté)
+     * @return Couleur après décoration
+     */
+    int shade(DecoratorPipeline.FrameContext context, int cell, int x, int y, int pixel);
+
+    /**
+     * Remet l'état interne à zéro (nouvelle partie, réactivation).
+     */
+    default void reset() {
+    }
+}
@@ -0,0 +1,378 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.decorator;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameRenderer;
+
+/**
+ * Pipeline de décorateurs en une seule passe.
+ *
+ * Les décorateurs enregistrent un noyau (DecoratorKernel) appliqué à chaque
+ * pixel du buffer de jeu, à la résolution de la carte :
+ * - Une seule passe sur les cellules, par bandes de lignes en parallèle,
+ * chaque pixel traversant tous les noyaux actifs
+ * - L'occupation des cellules (équipe + santé) est lue dans le
+ * DirtyCellTracker, déjà tenu à jour par les moteurs : pas de parcours de la
+ * liste des combattants ni d'appel Java2D par combattant
+ * - Le buffer de jeu n'est pas modifié : le résultat est écrit dans une image
+ * réutilisée d'une frame à l'autre
+ *
+ * Budget de temps : si la passe dépasse le budget (moyenne glissante)
+ * pendant OVER_BUDGET_FRAMES frames, le noyau actif le plus coûteux est
+ * désactivé automatiquement.
+ */
+public class DecoratorPipeline {
+
+    /** Budget par défaut de la passe de décoration (ms). */
+    public static final double DEFAULT_FRAME_BUDGET_MS = 2.0;
+
+    // Une bande de lignes par tâche parallèle
+    private static final int ROWS_PER_BAND = 16;
+    // Frames consécutives hors budget avant de couper un noyau
+    private static final int OVER_BUDGET_FRAMES = 30;
+    // Frames ignorées par le budget après un changement (compilation JIT)
+    private static final int WARMUP_FRAMES = 60;
+    // Lissage de la moyenne glissante du temps de passe
+    private static final double SMOOTHING = 0.1;
+
+    /**
+     * Données partagées par tous les noyaux pendant une frame (lecture seule
+     * pendant la passe).
+     */
+    public static final class FrameContext {
+        private int width;
+        private int height;
+        private DirtyCellTracker cells;
+        private final int[] teamColors = new int[GameConfig.MAX_TEAMS];
+        private int colorVersion = -1;
+        private int globalClock;
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getCellCount() {
+            return width * height;
+        }
+
+        public int getGlobalClock() {
+            return globalClock;
+        }
+
+        /**
+         * État d'une cellule : DirtyCellTracker.EMPTY ou équipe + santé.
+         */
+        public int stateAt(int cell) {
+            return cells.getCellState(cell);
+        }
+
+        /**
+         * Couleur d'une équipe (RGB empaqueté).
+         */
+        public int teamColor(int team) {
+            return teamColors[team];
+        }
+
+        private void refreshColors() {
+            if (colorVersion == GameRenderer.getColorVersion()) {
+                return;
+            }
+            Color[] colors = GameRenderer.getCurrentTeamColors();
+            for (int i = 0; i < teamColors.length; i++) {
+                teamColors[i] = colors[i % colors.length].getRGB() & 0xFFFFFF;
+            }
+            colorVersion = GameRenderer.getColorVersion();
+        }
+    }
+
+    private final List<DecoratorKernel> kernels = new ArrayList<>();
+    private final List<DecoratorKernel> autoDisabled = new ArrayList<>();
+    private DecoratorKernel[] active = new DecoratorKernel[0];
+    private int activeCount;
+
+    private final FrameContext context = new FrameContext();
+
+    // Buffer de sortie, réutilisé
+    private BufferedImage output;
+    private int[] outputPixels;
+
+    // Budget et mesures
+    private long frameBudgetNanos = (long) (DEFAULT_FRAME_BUDGET_MS * 1_000_000);
+    private long lastPassNanos;
+    private double averagePassNanos;
+    private int overBudgetFrames;
+    private int warmupFrames = WARMUP_FRAMES;
+    // Coût maximal des noyaux exécutés (rendu adaptatif), sans toucher à
+    // leur activation
+    private int costLimit = Integer.MAX_VALUE;
+
+    /**
+     * Ajoute un noyau à la fin du pipeline.
+     */
+    public void register(DecoratorKernel kernel) {
+        if (kernel != null && !kernels.contains(kernel)) {
+            kernels.add(kernel);
+            active = new DecoratorKernel[kernels.size()];
+        }
+    }
+
+    /**
+     * Noyaux enregistrés, dans l'ordre d'application.
+     */
+    public List<DecoratorKernel> getKernels() {
+        return new ArrayList<>(kernels);
+    }
+
+    /**
+     * Indique si au moins un noyau est actif.
+     */
+    public boolean isActive() {
+        for (DecoratorKernel kernel : kernels) {
+            if (kernel.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Active ou désactive un noyau (un noyau réactivé repart d'un état vide et
+     * n'est plus considéré comme coupé par le budget).
+     */
+    public void setEnabled(DecoratorKernel kernel, boolean enabled) {
+        autoDisabled.remove(kernel);
+        if (kernel.isEnabled() == enabled) {
+            return;
+        }
+        if (enabled) {
+            kernel.reset();
+        }
+        kernel.setEnabled(enabled);
+        restartMeasures();
+    }
+
+    /**
+     * Touche de cycle : active les noyaux un par un dans l'ordre
+     * d'enregistrement (1, 1+2, ...), puis les coupe tous.
+     */
+    public void cycle() {
+        int enabled = 0;
+        while (enabled < kernels.size() && kernels.get(enabled).isEnabled()) {
+            enabled++;
+        }
+        boolean allOn = enabled == kernels.size();
+        for (int i = 0; i < kernels.size(); i++) {
+            setEnabled(kernels.get(i), !allOn && i <= enabled);
+        }
+    }
+
+    /**
+     * Suspend les noyaux plus coûteux que la limite (0 = tous), sans les
+     * désactiver : ils reprennent quand la limite remonte.
+     */
+    public void setCostLimit(int limit) {
+        if (limit != costLimit) {
+            costLimit = limit;
+            restartMeasures();
+        }
+    }
+
+    public int getCostLimit() {
+        return costLimit;
+    }
+
+    /**
+     * Remet l'état des noyaux à zéro (nouvelle partie).
+     */
+    public void reset() {
+        for (DecoratorKernel kernel : kernels) {
+            kernel.reset();
+        }
+        restartMeasures();
+    }
+
+    // ==================== PASSE ====================
+
+    /**
+     * Applique les noyaux actifs au buffer de jeu.
+     *
+     * @param frame       Buffer de jeu (TYPE_INT_RGB, non modifié)
+     * @param cells       Occupation des cellules
+     * @param globalClock Horloge globale (animations)
+     * @return frame si aucun noyau n'est actif, sinon un buffer réutilisé
+     */
+    public BufferedImage apply(BufferedImage frame, DirtyCellTracker cells, int globalClock) {
+        activeCount = 0;
+        for (DecoratorKernel kernel : kernels) {
+            if (kernel.isEnabled() && kernel.getCost() <= costLimit) {
+                active[activeCount++] = kernel;
+            }
+        }
+        if (activeCount == 0 || cells == null) {
+            return frame;
+        }
+
+        long start = System.nanoTime();
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        if (output == null || output.getWidth() != width || output.getHeight() != height) {
+            output = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            outputPixels = ((DataBufferInt) output.getRaster().getDataBuffer()).getData();
+        }
+        int[] src = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+
+        context.width = width;
+        context.height = height;
+        context.cells = cells;
+        context.globalClock = globalClock;
+        context.refreshColors();
+        for (int k = 0; k < activeCount; k++) {
+            active[k].beginFrame(context);
+        }
+
+        shade(src, outputPixels);
+
+        lastPassNanos = System.nanoTime() - start;
+        checkBudget();
+        return output;
+    }
+
+    private void shade(int[] src, int[] dst) {
+        int height = context.height;
+        int bands = (height + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int startY = band * ROWS_PER_BAND;
+            int endY = Math.min(height, startY + ROWS_PER_BAND);
+            shadeRows(src, dst, startY, endY);
+        });
+    }
+
+    /**
+     * Passe tous les pixels des lignes [startY, endY) dans les noyaux actifs.
+     */
+    private void shadeRows(int[] src, int[] dst, int startY, int endY) {
+        int width = context.width;
+        DecoratorKernel[] kernels = active;
+        int count = activeCount;
+        for (int y = startY; y < endY; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                int cell = row + x;
+                int pixel = src[cell];
+                for (int k = 0; k < count; k++) {
+                    pixel = kernels[k].shade(context, cell, x, y, pixel);
+                }
+                dst[cell] = pixel;
+            }
+        }
+    }
+
+    // ==================== BUDGET ====================
+
+    private void checkBudget() {
+        if (warmupFrames > 0) {
+            warmupFrames--;
+            return;
+        }
+        averagePassNanos = averagePassNanos == 0
+                ? lastPassNanos
+                : averagePassNanos + (lastPassNanos - averagePassNanos) * SMOOTHING;
+        if (frameBudgetNanos <= 0 || averagePassNanos <= frameBudgetNanos) {
+            overBudgetFrames = 0;
+            return;
+        }
+        if (++overBudgetFrames < OVER_BUDGET_FRAMES) {
+            return;
+        }
+
+        // Couper le noyau actif le plus coûteux
+        DecoratorKernel costliest = active[0];
+        for (int k = 1; k < activeCount; k++) {
+            if (active[k].getCost() > costliest.getCost()) {
+                costliest = active[k];
+            }
+        }
+        costliest.setEnabled(false);
+        autoDisabled.add(costliest);
+        GameLogger.getInstance().warn("Décorateur '%s' désactivé : %.2f ms par frame (budget %.2f ms)",
+                costliest.getName(), averagePassNanos / 1_000_000.0, frameBudgetNanos / 1_000_000.0);
+        restartMeasures();
+    }
+
+    /**
+     * Repart d'une moyenne vide, après une période de chauffe.
+     */
+    private void restartMeasures() {
+        averagePassNanos = 0;
+        overBudgetFrames = 0;
+        warmupFrames = WARMUP_FRAMES;
+    }
+
+    /**
+     * Budget de la passe en millisecondes (0 = pas de limite).
+     */
+    public void setFrameBudgetMillis(double millis) {
+        this.frameBudgetNanos = (long) (millis * 1_000_000);
+        restartMeasures();
+    }
+
+    public double getFrameBudgetMillis() {
+        return frameBudgetNanos / 1_000_000.0;
+    }
+
+    /**
+     * Indique si le noyau a été coupé par le budget de temps.
+     */
+    public boolean isAutoDisabled(DecoratorKernel kernel) {
+        return autoDisabled.contains(kernel);
+    }
+
+    /**
+     * Durée de la dernière passe (ms).
+     */
+    public double getLastPassMillis() {
+        return lastPassNanos / 1_000_000.0;
+    }
+
+    /**
+     * Durée moyenne (glissante) de la passe (ms).
+     */
+    public double getAveragePassMillis() {
+        return averagePassNanos / 1_000_000.0;
+    }
+
+    // ==================== MÉLANGE ====================
+
+    /**
+     * base * (1 - alpha) + color * alpha, alpha sur 256.
+     */
+    public static int blend(int base, int color, int alpha) {
+        int inv = 256 - alpha;
+        int r = (((base >> 16) & 0xFF) * inv + ((color >> 16) & 0xFF) * alpha) >> 8;
+        int g = (((base >> 8) & 0xFF) * inv + ((color >> 8) & 0xFF) * alpha) >> 8;
+        int b = ((base & 0xFF) * inv + (color & 0xFF) * alpha) >> 8;
+        return (base & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * base + color * weight (weight sur 256), saturé à 255 par composante.
+     */
+    public static int add(int base, int color, int weight) {
+        int r = Math.min(255, ((base >> 16) & 0xFF) + ((((color >> 16) & 0xFF) * weight) >> 8));
+        int g = Math.min(255, ((base >> 8) & 0xFF) + ((((color >> 8) & 0xFF) * weight) >> 8));
+        int b = Math.min(255, (base & 0xFF) + (((color & 0xFF) * weight) >> 8));
+        return (base & 0xFF000000) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -1,9 +1,11 @@
 package fr.uparis.informatique.cpoo5.liquidwar.view.decorator;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
 import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.AlphaComposite;
+import java.util.Arrays;
 
 /**
  * Décorateur ajoutant une traînée de mouvement aux particules.
@@ -11,13 +13,27 @@ import java.awt.AlphaComposite;
  * Crée un effet visuel de trainée colorée derrière les particules
  * pour mieux visualiser leur mouvement et direction.
  * 
+ * Dans le DecoratorPipeline, la traînée vit dans un buffer de fondu par
+ * cellule, de taille fixe (une case par cellule de la carte) : une cellule
+ * occupée est marquée à pleine intensité, puis s'estompe d'une frame à
+ * l'autre une fois quittée. Aucun historique par combattant.
+ * 
  * @author Liquid War Team
  */
-public class TrailDecorator implements ParticleDecorator {
+public class TrailDecorator implements DecoratorKernel {
+    
+    // Intensité d'une cellule tout juste quittée, et perte par frame
+    private static final int TRAIL_MAX = 255;
+    private static final int TRAIL_FADE = 16;
+    // Opacité maximale de la traînée (sur 256)
+    private static final int TRAIL_ALPHA = 77; // ~0.3
     
     private boolean enabled = false;
     private final int trailLength = 5; // Longueur de la traînée en pixels
     
+    // Buffer de fondu : (intensité << 8) | équipe, 0 = pas de traînée
+    private int[] fade = new int[0];
+    
     @Override
     public void decorate(Graphics2D g, Fighter fighter, double zoom, int globalClock) {
         if (!enabled) {
@@ -47,6 +63,46 @@ public class TrailDecorator implements ParticleDecorator {
         g.setComposite(originalComposite);
     }
     
+    @Override
+    public String getName() {
+        return "Traînées";
+    }
+    
+    @Override
+    public int getCost() {
+        return 1;
+    }
+    
+    @Override
+    public void beginFrame(DecoratorPipeline.FrameContext context) {
+        if (fade.length != context.getCellCount()) {
+            fade = new int[context.getCellCount()];
+        }
+    }
+    
+    @Override
+    public int shade(DecoratorPipeline.FrameContext context, int cell, int x, int y, int pixel) {
+        int state = context.stateAt(cell);
+        if (state != DirtyCellTracker.EMPTY) {
+            // Cellule occupée : traînée rechargée, le combattant reste visible
+            fade[cell] = (TRAIL_MAX << 8) | DirtyCellTracker.teamOf(state);
+            return pixel;
+        }
+        int trail = fade[cell];
+        if (trail == 0) {
+            return pixel;
+        }
+        int intensity = trail >>> 8;
+        int next = intensity - TRAIL_FADE;
+        fade[cell] = next > 0 ? (next << 8) | (trail & 0xFF) : 0;
+        return DecoratorPipeline.blend(pixel, context.teamColor(trail & 0xFF), (intensity * TRAIL_ALPHA) >> 8);
+    }
+    
+    @Override
+    public void reset() {
+        Arrays.fill(fade, 0);
+    }
+    
     @Override
     public boolean isEnabled() {
         return enabled;
@@ -0,0 +1,44 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Format d'image pour l'export de frames.
+ *
+ * Les implémentations sont sans état partagé : encode() est appelé en
+ * parallèle par les threads du FrameExporter.
+ */
+public interface FrameEncoder {
+
+    /**
+     * Extension des fichiers produits (sans le point).
+     */
+    String getExtension();
+
+    /**
+     * Encode une image RGB (0xRRGGBB, une ligne après l'autre).
+     *
+     * @param pixels Pixels (l'alpha est ignoré)
+     * @param width  Largeur
+     * @param height Hauteur
+     * @param out    Flux de sortie (non fermé)
+     */
+    void encode(int[] pixels, int width, int height, OutputStream out) throws IOException;
+
+    /**
+     * Encodeur correspondant à un nom de format ("png" ou "qoi").
+     *
+     * @throws IllegalArgumentException si le format est inconnu
+     */
+    static FrameEncoder forFormat(String format) {
+        switch (format.toLowerCase()) {
+            case "png":
+                return new PngFrameEncoder();
+            case "qoi":
+                return new QoiFrameEncoder();
+            default:
+                throw new IllegalArgumentException("Format d'export inconnu : " + format);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+
+/**
+ * Export d'une suite de frames en images, encodées en arrière-plan.
+ *
+ * Conçu pour ne jamais ralentir la simulation :
+ * - submit() copie la frame dans un tampon libre et rend la main ; l'encodage
+ * et l'écriture se font sur un pool de threads dédié
+ * - le nombre de tampons est fixe (file bornée, mémoire bornée) : si tous
+ * sont en cours d'encodage, la frame est sautée et comptée
+ *
+ * Fichiers produits : frame_000000.png (ou .qoi), numérotés par l'appelant.
+ */
+public class FrameExporter implements AutoCloseable {
+
+    private final Path directory;
+    private final FrameEncoder encoder;
+    private final int width;
+    private final int height;
+    private final ExecutorService workers;
+    private final BlockingQueue<int[]> freeBuffers;
+
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private int skipped;
+    private boolean closed;
+
+    /**
+     * @param directory     Dossier de sortie (créé si besoin)
+     * @param encoder       Format des images
+     * @param width         Largeur des frames
+     * @param height        Hauteur des frames
+     * @param threads       Threads d'encodage
+     * @param queueCapacity Frames pouvant être en attente ou en cours
+     *                      d'encodage
+     */
+    public FrameExporter(Path directory, FrameEncoder encoder, int width, int height,
+            int threads, int queueCapacity) throws IOException {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads et queueCapacity doivent être >= 1");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.encoder = encoder;
+        this.width = width;
+        this.height = height;
+        this.freeBuffers = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < queueCapacity; i++) {
+            freeBuffers.add(new int[width * height]);
+        }
+        this.workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "frame-export-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Soumet une frame sans bloquer.
+     *
+     * @param pixels      Pixels width x height (copiés, réutilisables dès le
+     *                    retour)
+     * @param frameNumber Numéro utilisé dans le nom du fichier
+     * @return false si la frame a été sautée (encodeurs saturés)
+     */
+    public boolean submit(int[] pixels, int frameNumber) {
+        if (closed) {
+            throw new IllegalStateException("Export déjà fermé");
+        }
+        int[] buffer = freeBuffers.poll();
+        if (buffer == null) {
+            skipped++;
+            return false;
+        }
+        System.arraycopy(pixels, 0, buffer, 0, buffer.length);
+        submitted.incrementAndGet();
+        workers.execute(() -> write(buffer, frameNumber));
+        return true;
+    }
+
+    private void write(int[] buffer, int frameNumber) {
+        Path file = directory.resolve(String.format("frame_%06d.%s", frameNumber, encoder.getExtension()));
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                encoder.encode(buffer, width, height, out);
+            }
+            written.incrementAndGet();
+            bytesWritten.addAndGet(Files.size(file));
+        } catch (IOException e) {
+            if (failed.getAndIncrement() == 0) {
+                GameLogger.getInstance().error("Échec de l'export de " + file, e);
+            }
+        } finally {
+            freeBuffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Attend la fin des encodages en cours puis libère les threads.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.MINUTES)) {
+                GameLogger.getInstance().warn("Export : encodages toujours en cours après 5 minutes");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    /** Frames acceptées par submit(). */
+    public int getSubmitted() {
+        return submitted.get();
+    }
+
+    /** Frames sautées faute de tampon libre. */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /** Frames écrites sur disque. */
+    public int getWritten() {
+        return written.get();
+    }
+
+    /** Frames dont l'écriture a échoué. */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /** Taille totale des fichiers écrits. */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,39 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.export;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Export PNG via ImageIO (fonctionne sans affichage, java.awt.headless=true).
+ *
+ * Le tableau de pixels est enveloppé dans une image RGB sans copie.
+ */
+public class PngFrameEncoder implements FrameEncoder {
+
+    private static final DirectColorModel RGB_MODEL = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+
+    @Override
+    public String getExtension() {
+        return "png";
+    }
+
+    @Override
+    public void encode(int[] pixels, int width, int height, OutputStream out) throws IOException {
+        SinglePixelPackedSampleModel sampleModel = new SinglePixelPackedSampleModel(
+                DataBufferInt.TYPE_INT, width, height, RGB_MODEL.getMasks());
+        WritableRaster raster = Raster.createWritableRaster(sampleModel,
+                new DataBufferInt(pixels, width * height), null);
+        BufferedImage image = new BufferedImage(RGB_MODEL, raster, false, null);
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IOException("Aucun encodeur PNG disponible");
+        }
+    }
+}
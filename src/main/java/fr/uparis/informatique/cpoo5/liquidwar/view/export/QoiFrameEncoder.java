@@ -0,0 +1,126 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Export QOI ("Quite OK Image", https://qoiformat.org), format sans perte
+ * beaucoup plus rapide à encoder que PNG.
+ *
+ * Encodage en une passe, sans compression entropique : répétitions, index
+ * des 64 dernières couleurs vues et petites différences avec le pixel
+ * précédent. Sur les frames du jeu (grands aplats de fond, taches de
+ * couleur d'équipe), le résultat est proche de PNG pour une fraction du
+ * temps CPU.
+ *
+ * Image RGB (3 canaux, sRGB), l'alpha est ignoré.
+ */
+public class QoiFrameEncoder implements FrameEncoder {
+
+    private static final int OP_INDEX = 0x00;
+    private static final int OP_DIFF = 0x40;
+    private static final int OP_LUMA = 0x80;
+    private static final int OP_RUN = 0xC0;
+    private static final int OP_RGB = 0xFE;
+    private static final int MAX_RUN = 62;
+    private static final int HEADER_SIZE = 14;
+    private static final byte[] END_MARKER = { 0, 0, 0, 0, 0, 0, 0, 1 };
+
+    // Tampon d'encodage par thread (taille maximale d'une frame)
+    private final ThreadLocal<byte[]> scratch = ThreadLocal.withInitial(() -> new byte[0]);
+
+    @Override
+    public String getExtension() {
+        return "qoi";
+    }
+
+    @Override
+    public void encode(int[] pixels, int width, int height, OutputStream out) throws IOException {
+        int count = width * height;
+        int maxSize = HEADER_SIZE + count * 4 + END_MARKER.length;
+        byte[] bytes = scratch.get();
+        if (bytes.length < maxSize) {
+            bytes = new byte[maxSize];
+            scratch.set(bytes);
+        }
+        int length = encode(pixels, width, height, bytes);
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Encode dans un tableau assez grand (14 + 4 * pixels + 8 octets).
+     *
+     * @return Nombre d'octets écrits
+     */
+    static int encode(int[] pixels, int width, int height, byte[] bytes) {
+        int p = 0;
+        bytes[p++] = 'q';
+        bytes[p++] = 'o';
+        bytes[p++] = 'i';
+        bytes[p++] = 'f';
+        p = writeInt(bytes, p, width);
+        p = writeInt(bytes, p, height);
+        bytes[p++] = 3; // RGB
+        bytes[p++] = 0; // sRGB
+
+        int[] index = new int[64];
+        int previous = 0x000000;
+        int run = 0;
+        int count = width * height;
+        for (int i = 0; i < count; i++) {
+            int pixel = pixels[i] & 0xFFFFFF;
+            if (pixel == previous) {
+                run++;
+                if (run == MAX_RUN || i == count - 1) {
+                    bytes[p++] = (byte) (OP_RUN | (run - 1));
+                    run = 0;
+                }
+                continue;
+            }
+            if (run > 0) {
+                bytes[p++] = (byte) (OP_RUN | (run - 1));
+                run = 0;
+            }
+
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            // Alpha toujours 255 : (255 * 11) % 64 = 53
+            int slot = (r * 3 + g * 5 + b * 7 + 255 * 11) & 63;
+            if (index[slot] == (pixel | 0x1000000)) {
+                bytes[p++] = (byte) (OP_INDEX | slot);
+            } else {
+                index[slot] = pixel | 0x1000000;
+
+                int dr = (byte) (r - ((previous >> 16) & 0xFF));
+                int dg = (byte) (g - ((previous >> 8) & 0xFF));
+                int db = (byte) (b - (previous & 0xFF));
+                int drg = dr - dg;
+                int dbg = db - dg;
+                if (dr >= -2 && dr <= 1 && dg >= -2 && dg <= 1 && db >= -2 && db <= 1) {
+                    bytes[p++] = (byte) (OP_DIFF | ((dr + 2) << 4) | ((dg + 2) << 2) | (db + 2));
+                } else if (dg >= -32 && dg <= 31 && drg >= -8 && drg <= 7 && dbg >= -8 && dbg <= 7) {
+                    bytes[p++] = (byte) (OP_LUMA | (dg + 32));
+                    bytes[p++] = (byte) (((drg + 8) << 4) | (dbg + 8));
+                } else {
+                    bytes[p++] = (byte) OP_RGB;
+                    bytes[p++] = (byte) r;
+                    bytes[p++] = (byte) g;
+                    bytes[p++] = (byte) b;
+                }
+            }
+            previous = pixel;
+        }
+
+        System.arraycopy(END_MARKER, 0, bytes, p, END_MARKER.length);
+        return p + END_MARKER.length;
+    }
+
+    private static int writeInt(byte[] bytes, int p, int value) {
+        bytes[p] = (byte) (value >>> 24);
+        bytes[p + 1] = (byte) (value >>> 16);
+        bytes[p + 2] = (byte) (value >>> 8);
+        bytes[p + 3] = (byte) value;
+        return p + 4;
+    }
+}
@@ -0,0 +1,271 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.fx;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.util.GameLogger;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameCanvas;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.stage.Stage;
+
+/**
+ * Affichage JavaFX du jeu, alternative au rendu Swing de GameCanvas.
+ *
+ * Le WritableImage est construit sur un PixelBuffer&lt;IntBuffer&gt; qui
+ * enveloppe directement le tableau de pixels du buffer de jeu (celui que
+ * GameCanvas met à jour) : aucune copie côté Java, la texture est envoyée
+ * telle quelle au pipeline Prism (GPU).
+ *
+ * - À chaque pulse JavaFX : mise à jour du buffer (fond, combattants,
+ * curseurs) puis updateBuffer() pour signaler la région modifiée
+ * - ImageView étirée à la taille de la fenêtre, sans lissage
+ * - Clavier et souris retransmis à GameCanvas sur l'EDT : la logique, les
+ * menus et la pause restent côté Swing
+ *
+ * PixelBuffer n'accepte que le format ARGB prémultiplié. Le buffer de jeu est
+ * en TYPE_INT_RGB : certains pixels (curseurs dessinés par Java2D) peuvent
+ * avoir un octet alpha nul. L'image est donc posée sur un fond noir opaque :
+ * en SRC_OVER prémultiplié, un pixel d'alpha nul sur du noir donne sa propre
+ * couleur, et l'affichage est identique à celui de Swing.
+ */
+public class FxGameView {
+
+    private static final AtomicBoolean toolkitStarted = new AtomicBoolean(false);
+
+    // Mise à jour du HUD tous les N pulses (évite une chaîne par frame)
+    private static final int HUD_REFRESH_PULSES = 15;
+
+    private final GameCanvas canvas;
+    private final Runnable onClosed;
+
+    // Objets JavaFX (accédés uniquement sur le thread JavaFX)
+    private Stage stage;
+    private AnimationTimer timer;
+    private PixelBuffer<IntBuffer> pixelBuffer;
+    private ImageView imageView;
+    private int[] wrappedPixels;
+    private Label hud;
+    private final int[] hudCounts = new int[GameConfig.MAX_TEAMS];
+    private int pulseCount;
+
+    // Mesures (écrites par le thread JavaFX)
+    private volatile double averageFrameMs;
+    private volatile double fps;
+    private long secondStart;
+    private int framesThisSecond;
+
+    /**
+     * @param canvas   Composant de jeu dont le buffer est affiché
+     * @param onClosed Appelé sur l'EDT quand la fenêtre est fermée
+     */
+    private FxGameView(GameCanvas canvas, Runnable onClosed) {
+        this.canvas = canvas;
+        this.onClosed = onClosed;
+    }
+
+    /**
+     * Ouvre la fenêtre JavaFX et confie l'affichage du jeu à celle-ci.
+     *
+     * À appeler sur l'EDT, une fois la partie initialisée.
+     *
+     * @param canvas   Composant de jeu (logique et entrées restent côté Swing)
+     * @param title    Titre de la fenêtre
+     * @param onClosed Appelé sur l'EDT à la fermeture de la fenêtre (peut être
+     *                 null)
+     */
+    public static FxGameView open(GameCanvas canvas, String title, Runnable onClosed) {
+        FxGameView view = new FxGameView(canvas, onClosed);
+        canvas.setExternalRendering(true);
+        runOnFxThread(() -> view.show(title));
+        return view;
+    }
+
+    /**
+     * Ferme la fenêtre (fin de partie, retour au menu...).
+     */
+    public void close() {
+        runOnFxThread(() -> {
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    /**
+     * Démarre le toolkit JavaFX au premier appel, puis exécute l'action sur son
+     * thread.
+     */
+    private static void runOnFxThread(Runnable action) {
+        if (toolkitStarted.compareAndSet(false, true)) {
+            // La fermeture de la dernière fenêtre JavaFX ne doit pas arrêter le
+            // toolkit : le jeu Swing continue et peut en rouvrir une
+            Platform.setImplicitExit(false);
+            Platform.startup(action);
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
+    private void show(String title) {
+        wrappedPixels = canvas.getFrameBufferPixels();
+        pixelBuffer = createPixelBuffer(wrappedPixels);
+        imageView = new ImageView(new WritableImage(pixelBuffer));
+        imageView.setSmooth(false);
+        imageView.setPreserveRatio(false);
+
+        hud = new Label();
+        hud.setTextFill(Color.WHITE);
+        hud.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        hud.setMouseTransparent(true);
+        StackPane.setAlignment(hud, Pos.TOP_LEFT);
+        StackPane.setMargin(hud, new Insets(10));
+
+        StackPane root = new StackPane(imageView, hud);
+        Scene scene = new Scene(root, canvas.getWidth(), canvas.getHeight(), Color.BLACK);
+        imageView.fitWidthProperty().bind(scene.widthProperty());
+        imageView.fitHeightProperty().bind(scene.heightProperty());
+
+        // Entrées : retransmises à GameCanvas (mêmes listeners que Swing)
+        scene.setOnKeyPressed(e -> forwardKey(e, java.awt.event.KeyEvent.KEY_PRESSED));
+        scene.setOnKeyReleased(e -> forwardKey(e, java.awt.event.KeyEvent.KEY_RELEASED));
+        imageView.setOnMouseMoved(e -> forwardMouse(e, scene));
+        imageView.setOnMouseDragged(e -> forwardMouse(e, scene));
+
+        stage = new Stage();
+        stage.setTitle(title);
+        stage.setScene(scene);
+        stage.setOnHidden(e -> {
+            timer.stop();
+            SwingUtilities.invokeLater(() -> {
+                canvas.setExternalRendering(false);
+                if (onClosed != null) {
+                    onClosed.run();
+                }
+            });
+        });
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                renderPulse(now);
+            }
+        };
+        secondStart = System.nanoTime();
+        timer.start();
+        stage.show();
+        GameLogger.getInstance().info("🖥️ Affichage JavaFX ouvert (PixelBuffer %dx%d)",
+                GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT);
+    }
+
+    private static PixelBuffer<IntBuffer> createPixelBuffer(int[] pixels) {
+        return new PixelBuffer<>(GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT, IntBuffer.wrap(pixels),
+                PixelFormat.getIntArgbPreInstance());
+    }
+
+    /**
+     * Une frame : mise à jour du buffer partagé puis envoi à Prism.
+     */
+    private void renderPulse(long now) {
+        long start = System.nanoTime();
+
+        // Nouvelle partie dans le même composant : le raster a été réalloué
+        int[] pixels = canvas.getFrameBufferPixels();
+        if (pixels != wrappedPixels) {
+            wrappedPixels = pixels;
+            pixelBuffer = createPixelBuffer(pixels);
+            imageView.setImage(new WritableImage(pixelBuffer));
+        }
+
+        canvas.updateFrameBuffer();
+        // Région modifiée = tout le buffer (281x240 : l'envoi est négligeable)
+        pixelBuffer.updateBuffer(buffer -> null);
+
+        if (++pulseCount % HUD_REFRESH_PULSES == 0) {
+            updateHud();
+        }
+
+        // Mesures
+        long end = System.nanoTime();
+        double frameMs = (end - start) / 1_000_000.0;
+        averageFrameMs = averageFrameMs == 0 ? frameMs : averageFrameMs + 0.1 * (frameMs - averageFrameMs);
+        framesThisSecond++;
+        if (end - secondStart >= 1_000_000_000L) {
+            fps = framesThisSecond * 1_000_000_000.0 / (end - secondStart);
+            framesThisSecond = 0;
+            secondStart = end;
+        }
+    }
+
+    private void updateHud() {
+        // Effectifs publiés par la simulation (thread Swing)
+        canvas.copyTeamFighterCounts(hudCounts);
+        StringBuilder text = new StringBuilder();
+        for (int team = 0; team < canvas.getActiveTeams(); team++) {
+            if (team > 0) {
+                text.append("   ");
+            }
+            text.append("Équipe ").append(team + 1).append(" : ").append(hudCounts[team]);
+        }
+        text.append(String.format("   |   %.0f FPS", fps));
+        hud.setText(text.toString());
+    }
+
+    private void forwardKey(KeyEvent e, int id) {
+        int modifiers = e.isControlDown() ? java.awt.event.InputEvent.CTRL_DOWN_MASK : 0;
+        if (e.isShiftDown()) {
+            modifiers |= java.awt.event.InputEvent.SHIFT_DOWN_MASK;
+        }
+        // Les codes KeyCode de JavaFX reprennent les VK_* d'AWT
+        int keyCode = e.getCode().getCode();
+        int awtModifiers = modifiers;
+        SwingUtilities.invokeLater(() -> canvas.dispatchEvent(new java.awt.event.KeyEvent(canvas, id,
+                System.currentTimeMillis(), awtModifiers, keyCode, java.awt.event.KeyEvent.CHAR_UNDEFINED)));
+        e.consume();
+    }
+
+    private void forwardMouse(MouseEvent e, Scene scene) {
+        if (scene.getWidth() <= 0 || scene.getHeight() <= 0) {
+            return;
+        }
+        // Coordonnées ramenées à la taille du composant Swing (attendue par le
+        // gestionnaire d'entrées)
+        int x = (int) (e.getX() * canvas.getWidth() / scene.getWidth());
+        int y = (int) (e.getY() * canvas.getHeight() / scene.getHeight());
+        SwingUtilities.invokeLater(() -> canvas.dispatchEvent(new java.awt.event.MouseEvent(canvas,
+                java.awt.event.MouseEvent.MOUSE_MOVED, System.currentTimeMillis(), 0, x, y, 0, false)));
+    }
+
+    // ==================== MESURES ====================
+
+    /**
+     * Durée moyenne d'une frame côté JavaFX (mise à jour du buffer, ms).
+     */
+    public double getAverageFrameMs() {
+        return averageFrameMs;
+    }
+
+    /**
+     * Pulses JavaFX par seconde.
+     */
+    public double getFps() {
+        return fps;
+    }
+}
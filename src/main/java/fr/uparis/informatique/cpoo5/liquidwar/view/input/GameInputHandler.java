@@ -33,6 +33,10 @@ public class GameInputHandler implements KeyListener, MouseListener, MouseMotion
         void onWaterEffectToggle();
 
         void onOptimizedEngineToggle();
+
+        void onGradientViewToggle();
+
+        void onDecoratorsToggle();
     }
 
     private InputListener listener;
@@ -127,6 +131,16 @@ public class GameInputHandler implements KeyListener, MouseListener, MouseMotion
             listener.onWaterEffectToggle();
         }
 
+        // Touche G : heatmap du gradient (équipe suivante, puis désactivée)
+        if (e.getKeyCode() == KeyEvent.VK_G && listener != null) {
+            listener.onGradientViewToggle();
+        }
+
+        // Touche T : décorateurs (traînées, puis traînées + auras, puis aucun)
+        if (e.getKeyCode() == KeyEvent.VK_T && listener != null) {
+            listener.onDecoratorsToggle();
+        }
+
         // Touche O : activer/désactiver le moteur optimisé
         if (e.getKeyCode() == KeyEvent.VK_O && listener != null) {
             listener.onOptimizedEngineToggle();
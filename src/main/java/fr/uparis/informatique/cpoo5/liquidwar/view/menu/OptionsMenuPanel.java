@@ -20,6 +20,8 @@ import fr.uparis.informatique.cpoo5.liquidwar.config.GameOptions;
  * - Volume sonore
  * - Qualité graphique
  * - Vitesse du jeu
+ * - Rendu actif (BufferStrategy sur un thread dédié)
+ * - Affichage JavaFX (PixelBuffer partagé)
  * 
  * ENTRÉE = Valider et quitter
  * ÉCHAP = Annuler les modifications et quitter
@@ -32,11 +34,19 @@ public class OptionsMenuPanel extends JPanel {
     private int savedVolume;
     private String savedGraphicsQuality;
     private int savedGameSpeed;
+    private boolean savedActiveRendering;
+    private boolean savedJavaFxRendering;
+    private boolean savedUdpInputs;
+    private int savedRollbackWindow;
 
     private static final String[] OPTIONS = {
             "Volume",
             "Qualité graphique",
-            "Vitesse du jeu"
+            "Vitesse du jeu",
+            "Rendu actif",
+            "Affichage JavaFX",
+            "Entrées réseau UDP",
+            "Rollback réseau"
     };
 
     private static final String[] GRAPHICS_QUALITIES = { "Basse", "Moyenne", "Élevée" };
@@ -71,6 +81,10 @@ public class OptionsMenuPanel extends JPanel {
         savedVolume = options.getVolumeLevel();
         savedGraphicsQuality = options.getGraphicsQuality();
         savedGameSpeed = options.getGameSpeed();
+        savedActiveRendering = options.isActiveRenderingEnabled();
+        savedJavaFxRendering = options.isJavaFxRenderingEnabled();
+        savedUdpInputs = options.isNetworkUdpInputsEnabled();
+        savedRollbackWindow = options.getNetworkRollbackWindow();
         System.out.println("💾 Options sauvegardées : Volume=" + savedVolume + "%, Qualité=" + savedGraphicsQuality
                 + ", Vitesse=" + savedGameSpeed + "%");
     }
@@ -83,6 +97,10 @@ public class OptionsMenuPanel extends JPanel {
         options.setVolumeLevel(savedVolume);
         options.setGraphicsQuality(savedGraphicsQuality);
         options.setGameSpeed(savedGameSpeed);
+        options.setActiveRenderingEnabled(savedActiveRendering);
+        options.setJavaFxRenderingEnabled(savedJavaFxRendering);
+        options.setNetworkUdpInputsEnabled(savedUdpInputs);
+        options.setNetworkRollbackWindow(savedRollbackWindow);
         System.out.println("↩️ Options restaurées : Volume=" + savedVolume + "%, Qualité=" + savedGraphicsQuality
                 + ", Vitesse=" + savedGameSpeed + "%");
     }
@@ -154,6 +172,22 @@ public class OptionsMenuPanel extends JPanel {
                                         : options.getGameSpeed() == 100 ? "🏃 Normal"
                                                 : options.getGameSpeed() < 150 ? "⚡ Rapide" : "🚀 ULTRA RAPIDE"));
                 break;
+            case 3: // Rendu actif
+                options.setActiveRenderingEnabled(!options.isActiveRenderingEnabled());
+                System.out.println("🖥️ Rendu actif : " + (options.isActiveRenderingEnabled() ? "Oui" : "Non"));
+                break;
+            case 4: // Affichage JavaFX
+                options.setJavaFxRenderingEnabled(!options.isJavaFxRenderingEnabled());
+                System.out.println("🖥️ Affichage JavaFX : " + (options.isJavaFxRenderingEnabled() ? "Oui" : "Non"));
+                break;
+            case 5: // Entrées réseau UDP
+                options.setNetworkUdpInputsEnabled(!options.isNetworkUdpInputsEnabled());
+                System.out.println("📡 Entrées réseau UDP : " + (options.isNetworkUdpInputsEnabled() ? "Oui" : "Non"));
+                break;
+            case 6: // Rollback réseau (par pas de 8 ticks = 40 ms à 200 Hz)
+                options.setNetworkRollbackWindow(options.getNetworkRollbackWindow() + direction * 8);
+                System.out.println("↩️ Rollback réseau : " + options.getNetworkRollbackWindow() + " ticks");
+                break;
         }
     }
 
@@ -181,8 +215,9 @@ public class OptionsMenuPanel extends JPanel {
         g2d.drawString(title, (width - titleWidth) / 2, height / 5);
 
         // Options - taille agrandie
-        int startY = height / 2 - 50;
-        int spacing = 130;
+        int startY = height / 3 + 20;
+        // Espacement resserré pour que toutes les options tiennent à l'écran
+        int spacing = Math.min(130, (height - 130 - startY) / (OPTIONS.length - 1));
 
         for (int i = 0; i < OPTIONS.length; i++) {
             int y = startY + i * spacing;
@@ -229,6 +264,19 @@ public class OptionsMenuPanel extends JPanel {
                         speedEmoji = " 💨";
                     value += speedEmoji;
                     break;
+                case 3:
+                    value = options.isActiveRenderingEnabled() ? "Oui" : "Non";
+                    break;
+                case 4:
+                    value = options.isJavaFxRenderingEnabled() ? "Oui" : "Non";
+                    break;
+                case 5:
+                    value = options.isNetworkUdpInputsEnabled() ? "Oui" : "Non";
+                    break;
+                case 6:
+                    int window = options.getNetworkRollbackWindow();
+                    value = window == 0 ? "Non" : window + " ticks (" + window * 5 + " ms)";
+                    break;
             }
 
             // Barre de progression pour le volume et la vitesse
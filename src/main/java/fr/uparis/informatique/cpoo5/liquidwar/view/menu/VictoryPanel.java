@@ -15,6 +15,9 @@ import java.util.function.Consumer;
 
 import javax.swing.JPanel;
 
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
+import fr.uparis.informatique.cpoo5.liquidwar.view.TimelineChart;
+
 /**
  * Panneau d'annonce de victoire
  * Affiche "VICTORY" avec la couleur de l'équipe gagnante
@@ -31,6 +34,7 @@ public class VictoryPanel extends JPanel {
     private boolean isTie = false;
     private int[] tieScores = null; // Scores pour l'égalité
     private String timeMode = "CHRONO"; // Mode de temps pour l'affichage
+    private final TimelineChart timelineChart = new TimelineChart(); // Historique de la partie
 
     public VictoryPanel() {
         setOpaque(false); // Transparent pour voir le jeu derrière
@@ -93,6 +97,16 @@ public class VictoryPanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Définir l'historique de la partie (courbes des combattants par équipe).
+     * 
+     * @param timeline Historique enregistré pendant la partie (null = pas de graphique)
+     */
+    public void setTimeline(MatchTimeline timeline) {
+        timelineChart.setTimeline(timeline);
+        repaint();
+    }
+
     public void setSelectionListener(Consumer<String> listener) {
         this.selectionListener = listener;
     }
@@ -280,6 +294,14 @@ public class VictoryPanel extends JPanel {
             g2d.drawString(item, centerX - itemWidth / 2, y);
         }
 
+        // ===== HISTORIQUE DE LA PARTIE =====
+        // Entre le menu et les instructions, seulement s'il reste assez de place
+        int chartTop = startY + (menuItems.length - 1) * itemSpacing + 30;
+        int chartHeight = Math.min(140, getHeight() - 80 - chartTop);
+        if (chartHeight >= 60) {
+            timelineChart.paintChart(g2d, centerX - 200, chartTop, 400, chartHeight);
+        }
+
         // ===== INSTRUCTIONS =====
         g2d.setColor(new Color(150, 150, 150));
         g2d.setFont(new Font("Arial", Font.PLAIN, 18));
@@ -4,11 +4,15 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.util.List;
+
+import fr.uparis.informatique.cpoo5.liquidwar.network.ConnectionTelemetry;
 
 /**
  * Panneau d'attente des joueurs avant le début de la partie réseau.
  * 
  * <p>Affiche le nombre de joueurs connectés et attend que le minimum soit atteint.
+ * À côté de chaque joueur distant : RTT, gigue, débits et file d'envoi.
  * 
  * @author Liquid War Team
  * @version 2.0
@@ -23,6 +27,9 @@ public class WaitingRoomPanel extends JPanel {
     private int serverPort;
     private boolean gameStarted = false;
     
+    // Mesures réseau par joueur (serveur : chaque client ; client : sa liaison)
+    private List<ConnectionTelemetry.Snapshot> telemetry = List.of();
+    
     private WaitingRoomListener listener;
     
     // Animation
@@ -98,6 +105,29 @@ public class WaitingRoomPanel extends JPanel {
         checkStartCondition();
     }
     
+    /**
+     * Met à jour les mesures réseau affichées à côté des joueurs.
+     * 
+     * @param telemetry Mesures par joueur (voir NetworkGameController)
+     */
+    public void setTelemetry(List<ConnectionTelemetry.Snapshot> telemetry) {
+        this.telemetry = telemetry;
+        repaint();
+    }
+    
+    /**
+     * Mesures du joueur affiché à une ligne (ligne 0 = hôte, ligne i =
+     * client i - 1), ou null.
+     */
+    private ConnectionTelemetry.Snapshot telemetryForRow(int row) {
+        for (ConnectionTelemetry.Snapshot snapshot : telemetry) {
+            if (snapshot.playerId == row - 1) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+    
     /**
      * Vérifie si les conditions de démarrage sont remplies.
      */
@@ -235,6 +265,16 @@ public class WaitingRoomPanel extends JPanel {
             
             g2d.setColor(Color.WHITE);
             g2d.drawString(playerName, width / 2 - 150, listY + i * 30);
+            
+            // Qualité de la liaison de ce joueur
+            ConnectionTelemetry.Snapshot link = telemetryForRow(i);
+            if (link != null) {
+                Font playerFont = g2d.getFont();
+                g2d.setFont(new Font("Arial", Font.PLAIN, 14));
+                g2d.setColor(link.isLagging() ? new Color(255, 140, 60) : new Color(150, 220, 150));
+                g2d.drawString(link.describe(), width / 2 + 140, listY + i * 30);
+                g2d.setFont(playerFont);
+            }
         }
         
         // Instructions en bas
@@ -0,0 +1,178 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ClassicSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ParallelSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+
+/**
+ * Tests unitaires pour DirtyCellTracker.
+ *
+ * Teste :
+ * - Marquage d'un déplacement (case quittée + case occupée)
+ * - Déduplication des cellules marquées plusieurs fois
+ * - clear() et demande de rendu complet
+ * - Cohérence avec les combattants après des ticks de chaque moteur
+ * - Empreinte incrémentale égale au recalcul complet, sensible à la santé
+ */
+class DirtyCellTrackerTest {
+
+    private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
+    private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
+
+    private DirtyCellTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new DirtyCellTracker(MAP_WIDTH, MAP_HEIGHT);
+    }
+
+    @Test
+    @DisplayName("Un déplacement marque l'ancienne et la nouvelle case")
+    void testMoved() {
+        Fighter f = new Fighter(10, 20, 1);
+        ArrayList<Fighter> fighters = new ArrayList<>();
+        fighters.add(f);
+        tracker.rebuild(fighters);
+        tracker.clear();
+
+        f.x = 11;
+        tracker.moved(f, 10, 20);
+
+        assertEquals(2, tracker.getDirtyCount());
+        assertEquals(DirtyCellTracker.EMPTY, tracker.getCellState(20 * MAP_WIDTH + 10));
+        int state = tracker.getCellState(20 * MAP_WIDTH + 11);
+        assertEquals(1, DirtyCellTracker.teamOf(state));
+        assertEquals(f.health, DirtyCellTracker.healthOf(state));
+    }
+
+    @Test
+    @DisplayName("Une cellule modifiée plusieurs fois n'est listée qu'une fois")
+    void testDeduplication() {
+        Fighter f = new Fighter(5, 5, 0);
+        tracker.changed(f);
+        f.health--;
+        tracker.changed(f);
+        f.team = 2;
+        tracker.changed(f);
+
+        assertEquals(1, tracker.getDirtyCount());
+        assertEquals(2, DirtyCellTracker.teamOf(tracker.getCellState(5 * MAP_WIDTH + 5)));
+    }
+
+    @Test
+    @DisplayName("clear() vide la liste et annule le rendu complet")
+    void testClear() {
+        assertTrue(tracker.isFullRedrawPending(), "Le premier rendu doit être complet");
+        tracker.changed(new Fighter(1, 1, 0));
+        tracker.clear();
+
+        assertEquals(0, tracker.getDirtyCount());
+        assertFalse(tracker.isFullRedrawPending());
+
+        tracker.changed(new Fighter(1, 1, 0));
+        assertEquals(1, tracker.getDirtyCount(), "La cellule doit pouvoir être remarquée après clear()");
+
+        tracker.requestFullRedraw();
+        assertTrue(tracker.isFullRedrawPending());
+    }
+
+    @Test
+    @DisplayName("Après des ticks, l'état suivi correspond aux combattants (tous moteurs)")
+    void testEnginesKeepTrackerConsistent() {
+        SimulationEngine[] engines = {
+                new ClassicSimulationEngine(),
+                new ParallelSimulationEngine(),
+                new OptimizedSimulationEngine()
+        };
+        for (SimulationEngine engine : engines) {
+            int[][] map = new int[MAP_HEIGHT][MAP_WIDTH];
+            Cursor[] cursors = new Cursor[6];
+            int[] cursorVal = new int[6];
+            int[] counts = new int[6];
+            ArrayList<Fighter> fighters = new ArrayList<>();
+            for (int team = 0; team < 2; team++) {
+                cursors[team] = new Cursor();
+                cursors[team].x = 60 + team * 40;
+                cursors[team].y = 100;
+                cursors[team].team = team;
+                cursors[team].active = 1;
+                cursorVal[team] = GameConfig.CURSOR_START_GRADIENT;
+                for (int i = 0; i < 30; i++) {
+                    fighters.add(new Fighter(70 + i, 90 + team * 20, team));
+                    counts[team]++;
+                }
+            }
+
+            tracker.rebuild(fighters);
+            tracker.clear();
+            engine.initialize(map, 2);
+            engine.setDirtyCellTracker(tracker);
+            for (int clock = 1; clock <= 30; clock++) {
+                engine.step(fighters, cursors, cursorVal, counts, clock, clock == 1);
+            }
+
+            assertTrue(tracker.getDirtyCount() > 0, engine.getName() + " doit signaler des cellules");
+            assertEquals(tracker.computeStateHash(), tracker.getStateHash(),
+                    engine.getName() + " : empreinte incrémentale");
+            int occupied = 0;
+            for (int cell = 0; cell < MAP_WIDTH * MAP_HEIGHT; cell++) {
+                if (tracker.getCellState(cell) != DirtyCellTracker.EMPTY) {
+                    occupied++;
+                }
+            }
+            assertEquals(fighters.size(), occupied, engine.getName() + " : cellules occupées");
+            for (Fighter f : fighters) {
+                assertEquals(DirtyCellTracker.stateOf(f), tracker.getCellState(f.y * MAP_WIDTH + f.x),
+                        engine.getName() + " : état du combattant");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("L'empreinte suit chaque marquage et revient à sa valeur quand l'état revient")
+    void testStateHash() {
+        ArrayList<Fighter> fighters = new ArrayList<>();
+        Fighter f = new Fighter(10, 20, 1);
+        fighters.add(f);
+        fighters.add(new Fighter(11, 20, 0));
+        tracker.rebuild(fighters);
+        long initial = tracker.getStateHash();
+        assertNotEquals(0, initial);
+
+        f.health--;
+        tracker.changed(f);
+        long wounded = tracker.getStateHash();
+        assertNotEquals(initial, wounded, "Un point de santé change l'empreinte");
+
+        f.team = 0;
+        tracker.changed(f);
+        assertNotEquals(wounded, tracker.getStateHash(), "Une conversion change l'empreinte");
+
+        f.x = 12;
+        tracker.moved(f, 10, 20);
+        assertEquals(tracker.computeStateHash(), tracker.getStateHash());
+
+        f.x = 10;
+        f.team = 1;
+        f.health++;
+        tracker.moved(f, 12, 20);
+        assertEquals(initial, tracker.getStateHash(), "Même état, même empreinte");
+
+        tracker.removed(f);
+        assertEquals(tracker.computeStateHash(), tracker.getStateHash());
+        tracker.rebuild(new ArrayList<>());
+        assertEquals(0, tracker.getStateHash());
+    }
+}
@@ -0,0 +1,254 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Benchmark de contention : ancien schéma (ReentrantReadWriteLock + Point)
+ * contre GameState actuel (StampedLock optimiste + compteurs atomiques).
+ *
+ * Plusieurs lecteurs (réseau / IA) lisent curseurs et compteurs pendant qu'un
+ * écrivain (simulation) les modifie. L'écrivain procède comme GameCanvas et
+ * LockstepSession : écriture directe dans les curseurs et compteurs de la
+ * simulation, puis GameState#synchronize() en fin de tick. Le test vérifie la
+ * cohérence des résultats et affiche les temps mesurés.
+ */
+class GameStateContentionTest {
+
+    private static final int ACTIVE_TEAMS = 4;
+    private static final int READERS = 4;
+    private static final int READS_PER_THREAD = 200_000;
+    private static final int WRITES = 50_000;
+
+    private GameState gameState;
+    private LegacyState legacy;
+    private Cursor[] cursors;
+    private int[] teamFighterCount;
+
+    /**
+     * Reproduction de l'ancien schéma d'accès (lock lecture/écriture partout,
+     * allocation d'un Point par lecture de curseur).
+     */
+    private static final class LegacyState {
+        private final Cursor[] cursors;
+        private final int[] counts;
+        private final ReentrantReadWriteLock cursorsLock = new ReentrantReadWriteLock();
+        private final ReentrantReadWriteLock countersLock = new ReentrantReadWriteLock();
+
+        LegacyState(Cursor[] cursors, int[] counts) {
+            this.cursors = cursors;
+            this.counts = counts;
+        }
+
+        Point getCursorPosition(int team) {
+            cursorsLock.readLock().lock();
+            try {
+                return new Point(cursors[team].x, cursors[team].y);
+            } finally {
+                cursorsLock.readLock().unlock();
+            }
+        }
+
+        void setCursorPosition(int team, int x, int y) {
+            cursorsLock.writeLock().lock();
+            try {
+                cursors[team].x = x;
+                cursors[team].y = y;
+            } finally {
+                cursorsLock.writeLock().unlock();
+            }
+        }
+
+        int getFighterCount(int team) {
+            countersLock.readLock().lock();
+            try {
+                return counts[team];
+            } finally {
+                countersLock.readLock().unlock();
+            }
+        }
+
+        void incrementFighterCount(int team) {
+            countersLock.writeLock().lock();
+            try {
+                counts[team]++;
+            } finally {
+                countersLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        int[][] map = new int[GameConfig.MAP_HEIGHT][GameConfig.MAP_WIDTH];
+        int[][] gradient = new int[ACTIVE_TEAMS][GameConfig.MAP_WIDTH * GameConfig.MAP_HEIGHT];
+        cursors = new Cursor[ACTIVE_TEAMS];
+        for (int team = 0; team < ACTIVE_TEAMS; team++) {
+            cursors[team] = new Cursor();
+            cursors[team].team = team;
+            cursors[team].active = 1;
+        }
+        teamFighterCount = new int[ACTIVE_TEAMS];
+        gameState = new GameState(map, gradient, new ArrayList<Fighter>(), cursors, teamFighterCount,
+                ACTIVE_TEAMS);
+
+        Cursor[] legacyCursors = new Cursor[ACTIVE_TEAMS];
+        for (int team = 0; team < ACTIVE_TEAMS; team++) {
+            legacyCursors[team] = new Cursor();
+        }
+        legacy = new LegacyState(legacyCursors, new int[ACTIVE_TEAMS]);
+    }
+
+    /**
+     * Lance READERS lecteurs et un écrivain, retourne la durée en nanosecondes.
+     */
+    private long runContention(Runnable reader, Runnable writer) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[READERS + 1];
+        for (int i = 0; i < READERS; i++) {
+            threads[i] = new Thread(() -> {
+                awaitQuietly(start);
+                reader.run();
+            });
+        }
+        threads[READERS] = new Thread(() -> {
+            awaitQuietly(start);
+            writer.run();
+        });
+        for (Thread t : threads) {
+            t.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("⏱️ Contention - ancien ReadWriteLock vs StampedLock optimiste")
+    void testContentionBenchmark() throws InterruptedException {
+        long legacyNanos = runContention(() -> {
+            long sink = 0;
+            for (int i = 0; i < READS_PER_THREAD; i++) {
+                int team = i % ACTIVE_TEAMS;
+                Point p = legacy.getCursorPosition(team);
+                sink += p.x + p.y + legacy.getFighterCount(team);
+            }
+            assertTrue(sink >= 0);
+        }, () -> {
+            for (int i = 0; i < WRITES; i++) {
+                legacy.setCursorPosition(i % ACTIVE_TEAMS, i % GameConfig.MAP_WIDTH, i % GameConfig.MAP_HEIGHT);
+                legacy.incrementFighterCount(i % ACTIVE_TEAMS);
+            }
+        });
+
+        long newNanos = runContention(() -> {
+            int[] pos = new int[2];
+            long sink = 0;
+            for (int i = 0; i < READS_PER_THREAD; i++) {
+                int team = i % ACTIVE_TEAMS;
+                gameState.copyCursorPosition(team, pos);
+                sink += pos[0] + pos[1] + gameState.getFighterCount(team);
+            }
+            assertTrue(sink >= 0);
+        }, () -> {
+            // Un tick de simulation par écriture
+            for (int i = 0; i < WRITES; i++) {
+                Cursor cursor = cursors[i % ACTIVE_TEAMS];
+                cursor.x = i % GameConfig.MAP_WIDTH;
+                cursor.y = i % GameConfig.MAP_HEIGHT;
+                teamFighterCount[i % ACTIVE_TEAMS]++;
+                gameState.synchronize();
+            }
+        });
+
+        System.out.println("📊 Contention GameState (" + READERS + " lecteurs, 1 écrivain):");
+        System.out.println("   - ReadWriteLock + Point : " + legacyNanos / 1_000_000 + "ms");
+        System.out.println("   - StampedLock optimiste : " + newNanos / 1_000_000 + "ms");
+
+        // Dernier tick publié : aucun incrément perdu
+        int total = 0;
+        for (int team = 0; team < ACTIVE_TEAMS; team++) {
+            total += gameState.getFighterCount(team);
+        }
+        assertEquals(WRITES, total, "Tous les incréments doivent être comptés");
+    }
+
+    @Test
+    @DisplayName("Lecture optimiste cohérente pendant les écritures")
+    void testOptimisticReadConsistency() throws InterruptedException {
+        // L'écrivain garde toujours x == y en fin de tick, mais écrit x puis y
+        // directement dans le curseur de la simulation, comme GameCanvas et
+        // LockstepSession : un lecteur ne doit jamais voir x != y
+        boolean[] torn = { false };
+        runContention(() -> {
+            int[] pos = new int[2];
+            for (int i = 0; i < READS_PER_THREAD; i++) {
+                gameState.copyCursorPosition(0, pos);
+                if (pos[0] != pos[1]) {
+                    torn[0] = true;
+                }
+            }
+        }, () -> {
+            for (int i = 0; i < WRITES; i++) {
+                int v = i % GameConfig.MAP_HEIGHT;
+                cursors[0].x = v;
+                cursors[0].y = v;
+                gameState.synchronize();
+            }
+        });
+
+        assertFalse(torn[0], "Une lecture ne doit jamais observer une position à moitié écrite");
+    }
+
+    @Test
+    @DisplayName("Compteurs copiés d'un seul tick pendant les écritures")
+    void testFighterCountsFromSingleTick() throws InterruptedException {
+        // Chaque tick incrémente toutes les équipes : une copie doit toujours
+        // trouver des compteurs égaux
+        boolean[] mixed = { false };
+        runContention(() -> {
+            int[] counts = new int[ACTIVE_TEAMS];
+            for (int i = 0; i < READS_PER_THREAD; i++) {
+                gameState.copyFighterCounts(counts);
+                for (int team = 1; team < ACTIVE_TEAMS; team++) {
+                    if (counts[team] != counts[0]) {
+                        mixed[0] = true;
+                    }
+                }
+            }
+        }, () -> {
+            for (int i = 0; i < WRITES; i++) {
+                for (int team = 0; team < ACTIVE_TEAMS; team++) {
+                    teamFighterCount[team]++;
+                }
+                gameState.synchronize();
+            }
+        });
+
+        assertFalse(mixed[0], "Une copie ne doit jamais mélanger deux ticks");
+        assertEquals(WRITES, gameState.getFighterCount(ACTIVE_TEAMS - 1));
+    }
+}
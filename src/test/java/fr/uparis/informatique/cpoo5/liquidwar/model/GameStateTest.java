@@ -20,6 +20,7 @@ import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
  * - Détection des murs
  * - Accès thread-safe aux données
  * - Gestion des locks
+ * - Publication des curseurs et compteurs par synchronize()
  */
 class GameStateTest {
 
@@ -169,6 +170,7 @@ class GameStateTest {
     void testGetFighterCount() {
         teamFighterCount[0] = 100;
         teamFighterCount[1] = 200;
+        gameState.synchronize();
 
         // Utiliser la méthode thread-safe
         assertEquals(100, gameState.getFighterCount(0),
@@ -177,6 +179,114 @@ class GameStateTest {
                 "Le compteur équipe 1 doit être correct");
     }
 
+    @Test
+    @DisplayName("copyCursorPositions remplit le buffer fourni")
+    void testCopyCursorPositions() {
+        int[][] out = new int[ACTIVE_TEAMS][2];
+        gameState.setCursorPosition(1, 42, 17);
+        gameState.copyCursorPositions(out);
+
+        assertEquals(cursors[0].x, out[0][0]);
+        assertEquals(cursors[0].y, out[0][1]);
+        assertEquals(42, out[1][0]);
+        assertEquals(17, out[1][1]);
+    }
+
+    @Test
+    @DisplayName("copyFighterCounts reflète les compteurs publiés")
+    void testCopyFighterCounts() {
+        int[] out = new int[ACTIVE_TEAMS];
+        teamFighterCount[0] = 7;
+        gameState.synchronize();
+        gameState.setFighterCount(1, 9);
+        gameState.copyFighterCounts(out);
+
+        assertEquals(7, out[0]);
+        assertEquals(9, out[1]);
+        assertEquals(0, teamFighterCount[1], "La simulation n'est modifiée que par synchronize()");
+        gameState.synchronize();
+        assertEquals(9, teamFighterCount[1], "Le tableau partagé doit être mis à jour");
+    }
+
+    @Test
+    @DisplayName("Écritures de la simulation publiées par synchronize()")
+    void testSynchronizePublishesSimulation() {
+        cursors[1].x = 55;
+        cursors[1].y = 66;
+        teamFighterCount[1] = 12;
+        assertEquals(30, gameState.getCursorPosition(1).x, "Pas encore publié");
+        assertEquals(0, gameState.getFighterCount(1), "Pas encore publié");
+
+        // Une écriture réseau en attente l'emporte sur la simulation
+        gameState.setCursorPosition(0, 3, 4);
+        gameState.incrementFighterCount(1);
+        gameState.synchronize();
+
+        assertEquals(55, gameState.getCursorPosition(1).x);
+        assertEquals(66, gameState.getCursorPosition(1).y);
+        assertEquals(13, gameState.getFighterCount(1));
+        assertEquals(13, teamFighterCount[1]);
+        assertEquals(3, cursors[0].x);
+        assertEquals(4, cursors[0].y);
+    }
+
+    @Test
+    @DisplayName("Incréments concurrents sans perte")
+    void testConcurrentIncrements() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int n = 0; n < 10_000; n++) {
+                    gameState.incrementFighterCount(0);
+                    gameState.decrementFighterCount(1);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(40_000, gameState.getFighterCount(0));
+        assertEquals(-40_000, gameState.getFighterCount(1));
+        gameState.synchronize();
+        assertEquals(40_000, teamFighterCount[0], "Incréments appliqués à la simulation");
+    }
+
+    @Test
+    @DisplayName("Le masque de murs est partagé sans copie")
+    void testSharedWallMask() {
+        long[] mask = GameState.buildWallMask(map);
+        GameState a = new GameState(mask, gradient, fighters, cursors, teamFighterCount, ACTIVE_TEAMS);
+        GameState b = new GameState(mask, gradient, fighters, cursors, teamFighterCount, ACTIVE_TEAMS);
+
+        assertSame(a.getWallMask(), b.getWallMask(), "Le masque doit être partagé");
+        assertTrue(a.isWall(25, 25));
+        assertFalse(b.isWall(24, 25));
+    }
+
+    @Test
+    @DisplayName("La vue reflète la simulation sur place")
+    void testLiveView() {
+        fighters.add(new Fighter(5, 5, 0));
+        cursors[0].x = 77;
+        gameState.synchronize();
+
+        assertEquals(1, gameState.getFightersCopy().size(), "Les fighters ajoutés doivent être visibles");
+        assertEquals(77, gameState.getCursorPosition(0).x, "Le curseur déplacé doit être visible");
+    }
+
+    @Test
+    @DisplayName("bindGradient remplace le gradient référencé")
+    void testBindGradient() {
+        int[][] other = new int[ACTIVE_TEAMS][MAP_WIDTH * MAP_HEIGHT];
+        other[1][10 * MAP_WIDTH + 10] = 123;
+        gameState.bindGradient(other);
+
+        assertEquals(123, gameState.getGradient(1, 10, 10));
+        assertSame(other[1], gameState.getGradientArray(1));
+    }
+
     @Test
     @DisplayName("Map est immuable après construction")
     void testMapImmutability() {
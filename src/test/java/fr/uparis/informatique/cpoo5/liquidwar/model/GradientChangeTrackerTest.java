@@ -0,0 +1,155 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ClassicSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.ParallelSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+
+/**
+ * Tests unitaires pour GradientChangeTracker.
+ *
+ * Teste :
+ * - Déduplication des cellules marquées plusieurs fois
+ * - Changement d'équipe suivie (liste vidée, rendu complet demandé)
+ * - Aucun marquage quand aucune équipe n'est suivie
+ * - Exhaustivité des cellules signalées par chaque moteur
+ */
+class GradientChangeTrackerTest {
+
+    private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
+    private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
+
+    private GradientChangeTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new GradientChangeTracker(MAP_WIDTH, MAP_HEIGHT);
+    }
+
+    @Test
+    @DisplayName("Une cellule modifiée plusieurs fois n'est listée qu'une fois")
+    void testDeduplication() {
+        tracker.changed(42);
+        tracker.changed(42);
+        tracker.changed(43);
+
+        assertEquals(2, tracker.getChangedCount());
+        assertEquals(42, tracker.getChangedCell(0));
+        assertEquals(43, tracker.getChangedCell(1));
+
+        tracker.clear();
+        assertEquals(0, tracker.getChangedCount());
+        tracker.changed(42);
+        assertEquals(1, tracker.getChangedCount(), "La cellule doit pouvoir être remarquée après clear()");
+    }
+
+    @Test
+    @DisplayName("Changer d'équipe vide la liste et demande un rendu complet")
+    void testSetTeam() {
+        assertEquals(GradientChangeTracker.NO_TEAM, tracker.getTeam());
+        tracker.changed(1);
+        tracker.clear();
+        assertFalse(tracker.isFullRedrawPending());
+
+        tracker.changed(7);
+        tracker.setTeam(1);
+
+        assertEquals(1, tracker.getTeam());
+        assertEquals(0, tracker.getChangedCount());
+        assertTrue(tracker.isFullRedrawPending());
+    }
+
+    @Test
+    @DisplayName("Sans équipe suivie, les moteurs ne signalent rien")
+    void testNoTeamNoMarks() {
+        SimulationEngine engine = new ClassicSimulationEngine();
+        Scenario scenario = new Scenario();
+        engine.initialize(scenario.map, 2);
+        engine.setGradientChangeTracker(tracker);
+        for (int clock = 1; clock <= 10; clock++) {
+            scenario.step(engine, clock);
+        }
+        assertEquals(0, tracker.getChangedCount());
+    }
+
+    @Test
+    @DisplayName("Chaque cellule dont le gradient change est signalée (tous moteurs)")
+    void testEnginesReportEveryChange() {
+        SimulationEngine[] engines = {
+                new ClassicSimulationEngine(),
+                new ParallelSimulationEngine(),
+                new OptimizedSimulationEngine()
+        };
+        for (SimulationEngine engine : engines) {
+            Scenario scenario = new Scenario();
+            engine.initialize(scenario.map, 2);
+            tracker.setTeam(1);
+            tracker.clear();
+            engine.setGradientChangeTracker(tracker);
+
+            for (int clock = 1; clock <= 20; clock++) {
+                int[] before = engine.getGradient()[1].clone();
+                scenario.step(engine, clock);
+                int[] after = engine.getGradient()[1];
+
+                Set<Integer> reported = new HashSet<>();
+                for (int i = 0; i < tracker.getChangedCount(); i++) {
+                    reported.add(tracker.getChangedCell(i));
+                }
+                for (int cell = 0; cell < after.length; cell++) {
+                    if (before[cell] != after[cell]) {
+                        assertTrue(reported.contains(cell),
+                                engine.getName() + " : cellule " + cell + " modifiée mais non signalée");
+                    }
+                }
+                tracker.clear();
+            }
+        }
+    }
+
+    /**
+     * Carte vide avec deux équipes et leurs curseurs.
+     */
+    private static class Scenario {
+        final int[][] map = new int[MAP_HEIGHT][MAP_WIDTH];
+        final Cursor[] cursors = new Cursor[6];
+        final int[] cursorVal = new int[6];
+        final int[] counts = new int[6];
+        final ArrayList<Fighter> fighters = new ArrayList<>();
+
+        Scenario() {
+            for (int team = 0; team < 2; team++) {
+                cursors[team] = new Cursor();
+                cursors[team].x = 60 + team * 80;
+                cursors[team].y = 100;
+                cursors[team].team = team;
+                cursors[team].active = 1;
+                cursorVal[team] = GameConfig.CURSOR_START_GRADIENT;
+                for (int i = 0; i < 10; i++) {
+                    fighters.add(new Fighter(80 + i, 90 + team * 20, team));
+                    counts[team]++;
+                }
+            }
+        }
+
+        void step(SimulationEngine engine, int clock) {
+            for (int team = 0; team < 2; team++) {
+                cursorVal[team]--;
+            }
+            engine.step(fighters, cursors, cursorVal, counts, clock, true);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package fr.uparis.informatique.cpoo5.liquidwar.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+
+/**
+ * Tests unitaires pour MatchTimeline.
+ *
+ * Teste :
+ * - Enregistrement des métriques par équipe
+ * - Anneau à capacité fixe (les plus anciens points sont écrasés)
+ * - Consolidation vers les niveaux grossiers (moyenne / somme)
+ * - Choix du niveau selon le nombre de points affichables
+ */
+class MatchTimelineTest {
+
+    private MatchTimeline timeline;
+    private Cursor[] cursors;
+
+    @BeforeEach
+    void setUp() {
+        timeline = new MatchTimeline(2);
+        cursors = new Cursor[2];
+        for (int team = 0; team < 2; team++) {
+            cursors[team] = new Cursor();
+            cursors[team].team = team;
+            cursors[team].active = 1;
+        }
+        cursors[0].x = 10;
+        cursors[0].y = 10;
+        cursors[1].x = 13;
+        cursors[1].y = 14;
+    }
+
+    @Test
+    @DisplayName("Un tick enregistre compteur, conversion nette et distance")
+    void testRecordMetrics() {
+        timeline.record(new int[] { 100, 50 }, cursors);
+        timeline.record(new int[] { 104, 46 }, cursors);
+
+        assertEquals(2, timeline.size(0));
+        assertEquals(104, timeline.get(0, 1, MatchTimeline.METRIC_COUNT, 0));
+        assertEquals(4, timeline.get(0, 1, MatchTimeline.METRIC_NET_CONVERSIONS, 0));
+        assertEquals(-4, timeline.get(0, 1, MatchTimeline.METRIC_NET_CONVERSIONS, 1));
+        assertEquals(0, timeline.get(0, 0, MatchTimeline.METRIC_NET_CONVERSIONS, 0));
+        assertEquals(5, timeline.get(0, 1, MatchTimeline.METRIC_CURSOR_DISTANCE, 1));
+    }
+
+    @Test
+    @DisplayName("L'anneau garde les CAPACITY points les plus récents")
+    void testRingOverwritesOldest() {
+        int ticks = MatchTimeline.CAPACITY + 10;
+        for (int i = 0; i < ticks; i++) {
+            timeline.record(new int[] { i, 0 }, cursors);
+        }
+
+        assertEquals(MatchTimeline.CAPACITY, timeline.size(0));
+        assertEquals(10, timeline.get(0, 0, MatchTimeline.METRIC_COUNT, 0));
+        assertEquals(ticks - 1, timeline.get(0, MatchTimeline.CAPACITY - 1, MatchTimeline.METRIC_COUNT, 0));
+        assertEquals(ticks, timeline.getTotalTicks());
+    }
+
+    @Test
+    @DisplayName("La consolidation moyenne les compteurs et somme les conversions")
+    void testDownsampling() {
+        // 16 ticks : compteur de 100 à 115 (+1 par tick)
+        for (int i = 0; i < MatchTimeline.FACTOR; i++) {
+            timeline.record(new int[] { 100 + i, 200 - i }, cursors);
+        }
+
+        assertEquals(1, timeline.size(1));
+        assertEquals(108, timeline.get(1, 0, MatchTimeline.METRIC_COUNT, 0)); // moyenne 107.5 arrondie
+        assertEquals(15, timeline.get(1, 0, MatchTimeline.METRIC_NET_CONVERSIONS, 0));
+        assertEquals(-15, timeline.get(1, 0, MatchTimeline.METRIC_NET_CONVERSIONS, 1));
+        assertEquals(0, timeline.size(2));
+    }
+
+    @Test
+    @DisplayName("Une longue partie tient en mémoire fixe au niveau grossier")
+    void testLongMatchFixedMemory() {
+        long before = timeline.getMemoryBytes();
+        int[] counts = { 100, 100 };
+        int ticks = MatchTimeline.CAPACITY * MatchTimeline.FACTOR * 4;
+        for (int i = 0; i < ticks; i++) {
+            timeline.record(counts, cursors);
+        }
+
+        assertEquals(before, timeline.getMemoryBytes());
+        assertEquals(ticks / 256, timeline.size(2));
+        assertEquals(100, timeline.get(2, timeline.size(2) - 1, MatchTimeline.METRIC_COUNT, 1));
+    }
+
+    @Test
+    @DisplayName("Le niveau choisi couvre toute la partie sans dépasser la largeur")
+    void testSelectTier() {
+        for (int i = 0; i < 5000; i++) {
+            timeline.record(new int[] { 1, 1 }, cursors);
+        }
+
+        int tier = timeline.selectTier(400);
+        assertEquals(1, tier);
+        assertTrue(timeline.size(tier) <= 400);
+        assertEquals(16, MatchTimeline.getResolution(tier));
+    }
+
+    @Test
+    @DisplayName("reset() vide l'historique")
+    void testReset() {
+        timeline.record(new int[] { 5, 5 }, cursors);
+        timeline.reset(2);
+
+        assertEquals(0, timeline.size(0));
+        assertEquals(0, timeline.getTotalTicks());
+    }
+}
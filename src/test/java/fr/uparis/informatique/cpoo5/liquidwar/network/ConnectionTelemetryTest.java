@@ -0,0 +1,119 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour ConnectionTelemetry.
+ *
+ * Teste :
+ * - RTT tiré des PING numérotés (PONG inconnus, doublons et trop anciens ignorés)
+ * - Histogrammes et percentiles
+ * - Gigue lissée
+ * - Débits par fenêtre d'une seconde
+ * - Détection d'une liaison qui ralentit la partie
+ */
+class ConnectionTelemetryTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    @DisplayName("Le RTT est mesuré du PING à son PONG ; les PONG inattendus sont ignorés")
+    void testRttFromPings() {
+        ConnectionTelemetry telemetry = new ConnectionTelemetry();
+        assertFalse(telemetry.snapshot(0, 0, 0, 0).hasRtt());
+
+        int seq = telemetry.nextPing(1000 * MS);
+        assertFalse(telemetry.onPong(seq + 1, 1010 * MS), "Numéro jamais envoyé");
+        assertFalse(telemetry.onPong(0, 1010 * MS));
+        assertTrue(telemetry.onPong(seq, 1042 * MS));
+        assertFalse(telemetry.onPong(seq, 1050 * MS), "Doublon");
+
+        ConnectionTelemetry.Snapshot snapshot = telemetry.snapshot(3, 1100 * MS, 2, 300);
+        assertTrue(snapshot.hasRtt());
+        assertEquals(3, snapshot.playerId);
+        assertEquals(42, snapshot.rttMs, 1e-9);
+        assertEquals(1, snapshot.pingsSent);
+        assertEquals(1, snapshot.pongsReceived);
+        assertEquals(2, snapshot.sendQueueFrames);
+        assertEquals(300, snapshot.sendQueueBytes);
+    }
+
+    @Test
+    @DisplayName("Un PONG arrivé après trop d'autres PING est ignoré (PING perdu)")
+    void testStalePong() {
+        ConnectionTelemetry telemetry = new ConnectionTelemetry();
+        int first = telemetry.nextPing(0);
+        for (int i = 1; i <= 8; i++) {
+            telemetry.nextPing(i * 1000 * MS);
+        }
+        assertFalse(telemetry.onPong(first, 9000 * MS));
+        assertEquals(9, telemetry.snapshot(0, 9000 * MS, 0, 0).pingsSent);
+    }
+
+    @Test
+    @DisplayName("Histogramme, percentiles et gigue")
+    void testHistogramAndJitter() {
+        ConnectionTelemetry telemetry = new ConnectionTelemetry();
+        long now = 0;
+        // 90 RTT de 30 ms, 10 de 300 ms
+        for (int i = 0; i < 100; i++) {
+            int seq = telemetry.nextPing(now);
+            now += (i % 10 == 9 ? 300 : 30) * MS;
+            telemetry.onPong(seq, now);
+        }
+
+        ConnectionTelemetry.Snapshot snapshot = telemetry.snapshot(0, now, 0, 0);
+        assertEquals(30, snapshot.minRttMs, 1e-6);
+        assertEquals(300, snapshot.maxRttMs, 1e-6);
+        assertEquals(57, snapshot.avgRttMs, 1e-6);
+        assertEquals(50, snapshot.p50RttMs, "Classe [20, 50[");
+        assertEquals(300, snapshot.p95RttMs, "Classe [200, 500[ bornée par le maximum");
+
+        long samples = 0;
+        for (long count : snapshot.rttHistogram) {
+            samples += count;
+        }
+        assertEquals(100, samples);
+        assertEquals(90, snapshot.rttHistogram[5]);
+        assertEquals(10, snapshot.rttHistogram[8]);
+        assertEquals(99, snapshot.jitterHistogram[0] + snapshot.jitterHistogram[8]);
+        assertTrue(snapshot.jitterMs > 10, "Sauts de 270 ms réguliers : gigue nette");
+        assertTrue(snapshot.isLagging());
+    }
+
+    @Test
+    @DisplayName("RTT stable : gigue nulle, liaison saine")
+    void testStableLink() {
+        ConnectionTelemetry telemetry = new ConnectionTelemetry();
+        long now = 0;
+        for (int i = 0; i < 20; i++) {
+            int seq = telemetry.nextPing(now);
+            now += 20 * MS;
+            telemetry.onPong(seq, now);
+        }
+        ConnectionTelemetry.Snapshot snapshot = telemetry.snapshot(0, now, 0, 0);
+        assertEquals(0, snapshot.jitterMs, 1e-9);
+        assertFalse(snapshot.isLagging());
+        assertTrue(snapshot.describe().startsWith("20 ms ±0"));
+    }
+
+    @Test
+    @DisplayName("Les débits portent sur la dernière fenêtre d'une seconde")
+    void testRates() throws InterruptedException {
+        ConnectionTelemetry telemetry = new ConnectionTelemetry();
+        for (int i = 0; i < 10; i++) {
+            telemetry.recordSent(1, 100);
+            telemetry.recordReceived(2, 50);
+        }
+        Thread.sleep(1100);
+        ConnectionTelemetry.Snapshot snapshot = telemetry.snapshot(0, System.nanoTime(), 0, -1);
+        assertTrue(snapshot.bytesOutPerSecond > 800 && snapshot.bytesOutPerSecond <= 1000,
+                "1000 octets sur un peu plus d'une seconde : " + snapshot.bytesOutPerSecond);
+        assertEquals(snapshot.bytesOutPerSecond / 100, snapshot.messagesOutPerSecond, 1e-9);
+        assertEquals(snapshot.bytesOutPerSecond / 2, snapshot.bytesInPerSecond, 1e-9);
+        assertEquals(snapshot.messagesOutPerSecond * 2, snapshot.messagesInPerSecond, 1e-9);
+    }
+}
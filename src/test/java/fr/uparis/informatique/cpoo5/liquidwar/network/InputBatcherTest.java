@@ -0,0 +1,107 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour InputBatcher.
+ *
+ * Teste :
+ * - Fusion des déplacements de curseur par joueur
+ * - Conservation et ordre des entrées de tick
+ * - Délai avant envoi du lot
+ * - Filtrage des entrées d'un destinataire
+ * - Compteurs de trames et d'octets économisés
+ */
+class InputBatcherTest {
+
+    @Test
+    @DisplayName("Seul le dernier déplacement de curseur d'un joueur est gardé")
+    void testCoalescesCursorMoves() {
+        InputBatcher batcher = new InputBatcher(5);
+        assertTrue(batcher.addCursor(0, 1, 1, 15, 2), "Premier ajout : envoi à planifier");
+        assertFalse(batcher.addCursor(0, 2, 2, 15, 2));
+        assertFalse(batcher.addCursor(1, 9, 9, 15, 2));
+        assertFalse(batcher.addCursor(0, 3, 4, 15, 2));
+
+        NetworkMessage.InputBatch batch = batcher.drain();
+        assertEquals(2, batch.size());
+        assertEquals(0, batch.playerIds[0]);
+        assertEquals(NetworkMessage.InputBatch.CURSOR, batch.ticks[0]);
+        assertEquals(3, batch.x[0]);
+        assertEquals(4, batch.y[0]);
+        assertEquals(9, batch.x[1]);
+        assertNull(batcher.drain(), "Lot vidé");
+        assertEquals(2, batcher.getStats().coalesced);
+    }
+
+    @Test
+    @DisplayName("Toutes les entrées de tick sont gardées, dans l'ordre")
+    void testKeepsTickInputs() {
+        InputBatcher batcher = new InputBatcher(5);
+        for (int tick = 10; tick < 15; tick++) {
+            batcher.addTickInput(1, new NetworkMessage.TickInput(tick, tick, 0), 12, 1);
+        }
+        batcher.addTickInput(-1, new NetworkMessage.TickInput(10, 7, 7), 12, 1);
+
+        NetworkMessage.InputBatch batch = batcher.drain();
+        assertEquals(6, batch.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(10 + i, batch.ticks[i]);
+            assertEquals(1, batch.playerIds[i]);
+        }
+        assertEquals(-1, batch.playerIds[5]);
+    }
+
+    @Test
+    @DisplayName("Le lot part au plus un intervalle après sa première entrée")
+    void testFlushDeadline() {
+        InputBatcher batcher = new InputBatcher(5);
+        long now = System.nanoTime();
+        assertEquals(-1, batcher.millisUntilFlush(now), "Rien en attente");
+
+        batcher.addCursor(0, 1, 1, 15, 1);
+        long wait = batcher.millisUntilFlush(System.nanoTime());
+        assertTrue(wait >= 0 && wait <= 5);
+        assertEquals(0, batcher.millisUntilFlush(System.nanoTime() + 5_000_000L));
+    }
+
+    @Test
+    @DisplayName("Un destinataire ne reçoit pas ses propres entrées de tick")
+    void testWithoutTickInputsFrom() {
+        InputBatcher batcher = new InputBatcher(5);
+        batcher.addTickInput(0, new NetworkMessage.TickInput(3, 1, 1), 12, 1);
+        batcher.addCursor(0, 5, 5, 15, 2);
+        batcher.addTickInput(1, new NetworkMessage.TickInput(3, 2, 2), 12, 1);
+        NetworkMessage.InputBatch batch = batcher.drain();
+
+        assertSame(batch, batch.withoutTickInputsFrom(2), "Rien à retirer : même lot");
+        NetworkMessage.InputBatch forZero = batch.withoutTickInputsFrom(0);
+        assertEquals(2, forZero.size());
+        assertEquals(NetworkMessage.InputBatch.CURSOR, forZero.ticks[0], "Curseur gardé pour tous");
+        assertEquals(1, forZero.playerIds[1]);
+    }
+
+    @Test
+    @DisplayName("Les compteurs comparent le lot au relais message par message")
+    void testStats() {
+        InputBatcher batcher = new InputBatcher(5);
+        for (int i = 0; i < 20; i++) {
+            batcher.addCursor(0, i, i, 15, 3);
+        }
+        batcher.drain();
+        for (int i = 0; i < 3; i++) {
+            batcher.recordFrame(20);
+        }
+
+        InputBatcher.Stats stats = batcher.getStats();
+        assertEquals(20, stats.inputs);
+        assertEquals(19, stats.coalesced);
+        assertEquals(60, stats.relayMessages);
+        assertEquals(900, stats.relayBytes);
+        assertEquals(57, stats.getMessagesSaved());
+        assertEquals(840, stats.getBytesSaved());
+    }
+}
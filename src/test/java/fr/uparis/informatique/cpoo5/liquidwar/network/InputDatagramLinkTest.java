@@ -0,0 +1,242 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour InputDatagramLink.
+ *
+ * Teste :
+ * - Livraison de chaque entrée une seule fois, dans l'ordre, malgré pertes,
+ *   réordonnancement et doublons (boucle locale simulée)
+ * - Redondance bornée et fenêtre vidée par les acquittements
+ * - Longue coupure : rattrapage par les plus anciennes entrées
+ * - Détection d'un pair muet et reprise des entrées pour TCP
+ * - Rejet des paquets invalides
+ */
+class InputDatagramLinkTest {
+
+    /**
+     * Boucle locale entre deux liens : chaque paquet peut être perdu,
+     * retardé de quelques ticks (donc réordonné) ou dupliqué.
+     */
+    private static class LossyLoopback {
+        final InputDatagramLink[] links = { new InputDatagramLink(), new InputDatagramLink() };
+        final List<List<NetworkMessage.InputBatch>> delivered = List.of(new ArrayList<>(), new ArrayList<>());
+        final List<byte[]>[] inFlight;
+        final Random random;
+        final double loss;
+        final int maxDelay;
+        boolean blackout;
+        long maxUnacked;
+        int tick;
+
+        @SuppressWarnings("unchecked")
+        LossyLoopback(long seed, double loss, int maxDelay) {
+            this.random = new Random(seed);
+            this.loss = loss;
+            this.maxDelay = maxDelay;
+            // inFlight[t % taille] : paquets livrés au tick t, pour chaque sens
+            inFlight = new List[2 * (maxDelay + 1)];
+            for (int i = 0; i < inFlight.length; i++) {
+                inFlight[i] = new ArrayList<>();
+            }
+        }
+
+        /** Un tick : chaque côté envoie (entrée optionnelle), puis livraison. */
+        void step(boolean sendFromA, boolean sendFromB) throws ProtocolException {
+            tick++;
+            if (sendFromA) {
+                links[0].queue(0, tick, tick % 281, tick % 240);
+            }
+            if (sendFromB) {
+                links[1].queue(1, tick, tick % 240, tick % 281);
+            }
+            for (int side = 0; side < 2; side++) {
+                if (links[side].hasOutgoing()) {
+                    transmit(side);
+                }
+                maxUnacked = Math.max(maxUnacked, links[side].getUnackedCount());
+            }
+            for (int side = 0; side < 2; side++) {
+                List<byte[]> arriving = inFlight[slot(tick, side)];
+                for (byte[] packet : arriving) {
+                    ByteBuffer in = ByteBuffer.wrap(packet);
+                    assertEquals(InputDatagramLink.DATA, InputDatagramLink.readHeader(in));
+                    NetworkMessage.InputBatch batch = links[side].readPacket(in);
+                    if (batch.size() > 0) {
+                        delivered.get(side).add(batch);
+                    }
+                }
+                arriving.clear();
+            }
+        }
+
+        private void transmit(int from) {
+            ByteBuffer out = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+            links[from].writePacket(out);
+            assertTrue(out.position() <= InputDatagramLink.MAX_PACKET_SIZE);
+            byte[] packet = java.util.Arrays.copyOf(out.array(), out.position());
+            int copies = random.nextDouble() < 0.05 ? 2 : 1;
+            for (int c = 0; c < copies; c++) {
+                if (blackout || random.nextDouble() < loss) {
+                    continue;
+                }
+                int delay = 1 + random.nextInt(maxDelay);
+                inFlight[slot(tick + delay, 1 - from)].add(packet);
+            }
+        }
+
+        private int slot(int t, int side) {
+            return (t % (maxDelay + 1)) * 2 + side;
+        }
+
+        /** Ticks des entrées livrées à un côté, dans l'ordre de livraison. */
+        List<Long> ticks(int side) {
+            List<Long> ticks = new ArrayList<>();
+            for (NetworkMessage.InputBatch batch : delivered.get(side)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    ticks.add(batch.ticks[i]);
+                }
+            }
+            return ticks;
+        }
+    }
+
+    private static void assertAllDeliveredInOrder(List<Long> ticks, int count) {
+        assertEquals(count, ticks.size(), "Chaque entrée livrée une seule fois");
+        for (int i = 0; i < count; i++) {
+            assertEquals(i + 1, (long) ticks.get(i), "Entrée " + i + " dans l'ordre");
+        }
+    }
+
+    @Test
+    @DisplayName("Sans perte : livraison dans l'ordre et fenêtre courte")
+    void testLossless() throws ProtocolException {
+        LossyLoopback net = new LossyLoopback(1, 0, 1);
+        for (int i = 0; i < 200; i++) {
+            net.step(true, true);
+        }
+        for (int i = 0; i < 10; i++) {
+            net.step(false, false);
+        }
+        assertAllDeliveredInOrder(net.ticks(1), 200);
+        assertAllDeliveredInOrder(net.ticks(0), 200);
+        assertTrue(net.maxUnacked <= 4, "Acquittement en un aller-retour (envoi, réponse, réception)");
+        assertEquals(0, net.links[0].getUnackedCount());
+        assertFalse(net.links[0].hasOutgoing(), "Les acquittements seuls ne se répondent pas");
+        assertFalse(net.links[1].hasOutgoing());
+    }
+
+    @Test
+    @DisplayName("30 % de pertes, réordonnancement et doublons : tout arrive une fois, dans l'ordre")
+    void testLossAndReordering() throws ProtocolException {
+        LossyLoopback net = new LossyLoopback(42, 0.3, 4);
+        int inputs = 2000;
+        for (int i = 0; i < inputs; i++) {
+            net.step(true, true);
+        }
+        for (int i = 0; i < 100; i++) {
+            net.step(false, false);
+        }
+        assertAllDeliveredInOrder(net.ticks(1), inputs);
+        assertAllDeliveredInOrder(net.ticks(0), inputs);
+        assertTrue(net.links[0].getEntriesResent() > 0, "Entrées répétées dans les paquets suivants");
+        assertTrue(net.links[1].getDuplicatesIgnored() > 0, "Doublons ignorés");
+        assertTrue(net.maxUnacked < 4 * InputDatagramLink.REDUNDANCY, "Fenêtre bornée");
+        System.out.printf("⏱️ UDP 30%% de pertes : %d paquets, %d entrées répétées, %d doublons ignorés, "
+                + "fenêtre max %d%n", net.links[0].getPacketsSent(), net.links[0].getEntriesResent(),
+                net.links[1].getDuplicatesIgnored(), net.maxUnacked);
+    }
+
+    @Test
+    @DisplayName("Coupure plus longue que la redondance : rattrapage dans l'ordre")
+    void testBlackout() throws ProtocolException {
+        LossyLoopback net = new LossyLoopback(7, 0.1, 2);
+        for (int i = 0; i < 50; i++) {
+            net.step(true, true);
+        }
+        net.blackout = true;
+        for (int i = 0; i < 3 * InputDatagramLink.REDUNDANCY; i++) {
+            net.step(true, true);
+        }
+        assertTrue(net.links[0].getUnackedCount() > InputDatagramLink.REDUNDANCY);
+        net.blackout = false;
+        for (int i = 0; i < 200; i++) {
+            net.step(false, false);
+        }
+        int inputs = 50 + 3 * InputDatagramLink.REDUNDANCY;
+        assertAllDeliveredInOrder(net.ticks(1), inputs);
+        assertAllDeliveredInOrder(net.ticks(0), inputs);
+    }
+
+    @Test
+    @DisplayName("Un pair muet est détecté ; ses entrées non acquittées sont rendues")
+    void testStaleAndDrain() {
+        InputDatagramLink link = new InputDatagramLink();
+        long now = System.nanoTime();
+        assertFalse(link.isStale(now + 10_000_000_000L, 100), "Rien en attente");
+
+        link.queue(0, 5, 1, 2);
+        link.queue(0, NetworkMessage.InputBatch.CURSOR, 3, 4);
+        link.writePacket(ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE));
+        assertFalse(link.isStale(System.nanoTime(), 1000));
+        assertTrue(link.isStale(System.nanoTime() + 2_000_000_000L, 1000));
+
+        NetworkMessage.InputBatch pending = link.drainUnacked();
+        assertEquals(2, pending.size());
+        assertEquals(5, pending.ticks[0]);
+        assertEquals(NetworkMessage.InputBatch.CURSOR, pending.ticks[1]);
+        assertNull(link.drainUnacked());
+        assertFalse(link.hasOutgoing());
+    }
+
+    @Test
+    @DisplayName("Les paquets invalides sont rejetés")
+    void testRejectsInvalidPackets() {
+        InputDatagramLink sender = new InputDatagramLink();
+        InputDatagramLink receiver = new InputDatagramLink();
+        sender.queue(0, 1, 1, 1);
+        ByteBuffer out = ByteBuffer.allocate(InputDatagramLink.MAX_PACKET_SIZE);
+        sender.writePacket(out);
+        out.flip();
+        byte[] valid = new byte[out.remaining()];
+        out.get(valid);
+
+        // Autre protocole ou autre version
+        byte[] foreign = valid.clone();
+        foreign[2] = (byte) (WireCodec.VERSION + 1);
+        assertThrows(ProtocolException.class, () -> InputDatagramLink.readHeader(ByteBuffer.wrap(foreign)));
+
+        // Tronqué
+        ByteBuffer truncated = ByteBuffer.wrap(valid, 0, valid.length - 2);
+        assertDoesNotThrow(() -> InputDatagramLink.readHeader(truncated));
+        assertThrows(ProtocolException.class, () -> receiver.readPacket(truncated));
+
+        // Acquittement d'un paquet jamais envoyé par le destinataire
+        ByteBuffer fakeAck = ByteBuffer.allocate(64);
+        InputDatagramLink.writeHeader(fakeAck, InputDatagramLink.DATA);
+        WireCodec.putVarInt(fakeAck, 1);
+        WireCodec.putVarInt(fakeAck, 99);
+        WireCodec.putVarLong(fakeAck, 1);
+        WireCodec.putVarInt(fakeAck, 0);
+        fakeAck.flip();
+        assertDoesNotThrow(() -> InputDatagramLink.readHeader(fakeAck));
+        assertThrows(ProtocolException.class, () -> receiver.readPacket(fakeAck));
+
+        // Le paquet valide passe toujours
+        ByteBuffer in = ByteBuffer.wrap(valid);
+        assertDoesNotThrow(() -> {
+            InputDatagramLink.readHeader(in);
+            assertEquals(1, receiver.readPacket(in).size());
+        });
+    }
+}
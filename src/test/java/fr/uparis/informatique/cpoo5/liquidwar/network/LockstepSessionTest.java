@@ -0,0 +1,476 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.MatchTimeline;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.GameOverDetector;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.FinalTickPublisher;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SnapshotRing;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameInitializationManager;
+
+/**
+ * Tests unitaires pour LockstepSession.
+ *
+ * Teste :
+ * - Ticks initiaux sans entrée (délai d'entrée)
+ * - Production de l'entrée locale limitée à la fenêtre du délai
+ * - Attente d'une entrée distante et application aux curseurs
+ * - Rejet des entrées tardives ou invalides
+ * - Même champ de bataille chez deux pairs (même graine, mêmes entrées)
+ * - Rollback : entrées prédites, premier tick faux, retour en arrière
+ * - Rollback : fin de partie et historique limités aux ticks définitifs
+ * - Pairs en rollback : même champ de bataille, sans attente malgré la
+ *   latence
+ */
+class LockstepSessionTest {
+
+    private static Cursor[] cursors(int... positions) {
+        Cursor[] cursors = new Cursor[positions.length / 2];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = new Cursor();
+            cursors[i].team = i;
+            cursors[i].x = positions[2 * i];
+            cursors[i].y = positions[2 * i + 1];
+        }
+        return cursors;
+    }
+
+    @Test
+    @DisplayName("Les premiers ticks (délai) avancent sans entrée")
+    void testInitialTicksNeedNoInput() {
+        LockstepSession session = new LockstepSession(2, 0, 3);
+        Cursor[] cursors = cursors(10, 10, 50, 50);
+        int[] cursorVal = new int[2];
+
+        for (int tick = 1; tick <= 3; tick++) {
+            assertTrue(session.isReady());
+            assertFalse(session.applyNextTick(cursors, cursorVal));
+        }
+        assertEquals(3, session.getCurrentTick());
+        assertFalse(session.isReady(), "Le tick 4 attend les entrées");
+        assertEquals(0, session.waitingFor());
+        assertThrows(IllegalStateException.class, () -> session.applyNextTick(cursors, cursorVal));
+    }
+
+    @Test
+    @DisplayName("L'entrée locale est produite une fois par tick, délai ticks à l'avance")
+    void testLocalInputWindow() {
+        LockstepSession session = new LockstepSession(2, 1, 4);
+        List<NetworkMessage.TickInput> sent = new ArrayList<>();
+        session.setInputSink(sent::add);
+
+        NetworkMessage.TickInput first = session.scheduleLocalInput(7, 8);
+        assertNotNull(first);
+        assertEquals(5, first.tick);
+        assertNull(session.scheduleLocalInput(9, 9), "Une seule entrée d'avance par tick simulé");
+        assertEquals(1, sent.size());
+
+        session.applyNextTick(cursors(0, 0, 0, 0), new int[2]);
+        assertEquals(6, session.scheduleLocalInput(9, 9).tick);
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    @DisplayName("Le tick attend l'entrée distante puis déplace les curseurs")
+    void testWaitsForRemoteInput() {
+        LockstepSession session = new LockstepSession(2, 0, 1);
+        Cursor[] cursors = cursors(10, 10, 50, 50);
+        int[] cursorVal = new int[2];
+        session.applyNextTick(cursors, cursorVal);
+
+        session.scheduleLocalInput(10, 10);
+        assertEquals(1, session.waitingFor(), "Entrée de l'équipe 1 manquante");
+        session.recordStall();
+        assertEquals(1, session.getStalls());
+
+        session.receiveInput(1, new NetworkMessage.TickInput(2, 60, 40));
+        assertTrue(session.isReady());
+        assertTrue(session.applyNextTick(cursors, cursorVal));
+        assertEquals(10, cursors[0].x, "Position locale inchangée");
+        assertEquals(0, cursorVal[0]);
+        assertEquals(60, cursors[1].x);
+        assertEquals(40, cursors[1].y);
+        assertEquals(GameConfig.CURSOR_START_GRADIENT, cursorVal[1], "Gradient relancé comme à la souris");
+    }
+
+    @Test
+    @DisplayName("Les entrées tardives, trop lointaines ou d'une autre équipe sont ignorées")
+    void testRejectsInvalidInputs() {
+        LockstepSession session = new LockstepSession(2, 0, 2);
+        session.receiveInput(0, new NetworkMessage.TickInput(3, 1, 1));
+        session.receiveInput(5, new NetworkMessage.TickInput(3, 1, 1));
+        session.receiveInput(1, new NetworkMessage.TickInput(2, 1, 1));
+        session.receiveInput(1, new NetworkMessage.TickInput(3 + LockstepSession.WINDOW, 1, 1));
+
+        Cursor[] cursors = cursors(0, 0, 0, 0);
+        session.applyNextTick(cursors, new int[2]);
+        session.applyNextTick(cursors, new int[2]);
+        session.scheduleLocalInput(0, 0);
+        assertEquals(1, session.waitingFor());
+
+        assertThrows(IllegalArgumentException.class, () -> new LockstepSession(2, 2, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LockstepSession(2, 0, LockstepSession.MAX_INPUT_DELAY + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LockstepSession(2, 0, 2, LockstepSession.MAX_ROLLBACK_WINDOW + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LockstepSession(2, 0, LockstepSession.MAX_INPUT_DELAY, 1));
+    }
+
+    @Test
+    @DisplayName("Rollback : entrée manquante prédite, première prédiction fausse signalée")
+    void testPredictionAndRollbackTick() {
+        LockstepSession session = new LockstepSession(2, 0, 1, 4);
+        Cursor[] cursors = cursors(10, 10, 50, 50);
+        int[] cursorVal = new int[2];
+        session.applyNextTick(cursors, cursorVal);
+
+        // Ticks 2 à 5 : entrée de l'équipe 1 prédite (curseur immobile)
+        for (int tick = 2; tick <= 5; tick++) {
+            session.scheduleLocalInput(10, 10);
+            assertTrue(session.isReady(), "Tick " + tick);
+            assertFalse(session.applyNextTick(cursors, cursorVal));
+        }
+        session.scheduleLocalInput(10, 10);
+        assertFalse(session.isReady(), "Fenêtre de 4 ticks épuisée");
+        assertEquals(1, session.getConfirmedTick());
+        assertEquals(4, session.getPredictedTicks());
+        assertEquals(50, cursors[1].x);
+
+        // Tick 2 bien prédit, ticks 3 et 4 faux
+        session.receiveInput(1, new NetworkMessage.TickInput(2, 50, 50));
+        session.receiveInput(1, new NetworkMessage.TickInput(4, 70, 70));
+        session.receiveInput(1, new NetworkMessage.TickInput(3, 60, 60));
+        assertEquals(4, session.getConfirmedTick());
+        assertTrue(session.isReady());
+        assertEquals(3, session.takeRollbackTick());
+        assertEquals(-1, session.takeRollbackTick(), "Demande consommée");
+        assertEquals(1, session.getRollbacks());
+
+        // Re-simulation depuis le tick 2 (état restauré par l'appelant)
+        session.rewindTo(2);
+        assertTrue(session.applyNextTick(cursors, cursorVal));
+        assertEquals(60, cursors[1].x);
+        assertTrue(session.applyNextTick(cursors, cursorVal));
+        assertEquals(70, cursors[1].x);
+        assertFalse(session.applyNextTick(cursors, cursorVal), "Tick 5 prédit depuis la position corrigée");
+        assertEquals(70, cursors[1].x);
+
+        // Doublon d'une entrée connue : ni rollback ni avertissement
+        session.receiveInput(1, new NetworkMessage.TickInput(3, 60, 60));
+        assertEquals(-1, session.takeRollbackTick());
+        // Entrée du tick 5 identique à la nouvelle prédiction
+        session.receiveInput(1, new NetworkMessage.TickInput(5, 70, 70));
+        assertEquals(-1, session.takeRollbackTick());
+
+        assertThrows(IllegalArgumentException.class, () -> session.rewindTo(6));
+        assertThrows(IllegalArgumentException.class, () -> session.rewindTo(0));
+    }
+
+    /**
+     * Un pair simulé : sa propre partie, sa session, et les entrées reçues en
+     * attente de livraison (latence variable).
+     */
+    private static class Peer {
+        final LockstepSession session;
+        final int[][] map = GameInitializationManager.loadMap(null);
+        final Cursor[] cursors = new Cursor[6];
+        final int[] cursorVal = new int[6];
+        final int[] teamFighterCount = new int[6];
+        final ArrayList<Fighter> fighters = new ArrayList<>();
+        final OptimizedSimulationEngine engine = new OptimizedSimulationEngine();
+        final ArrayDeque<long[]> inbox = new ArrayDeque<>();
+        final DirtyCellTracker tracker = new DirtyCellTracker(GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT);
+        // Rollback : état des derniers ticks (null en lockstep pur) ; fin de
+        // partie et historique des seuls ticks définitifs
+        final SnapshotRing ring;
+        final GameOverDetector gameOver = new GameOverDetector();
+        final MatchTimeline timeline = new MatchTimeline(2);
+        final FinalTickPublisher finalTicks;
+        int gameOverEvents;
+
+        Peer(int team, long seed) {
+            this(team, seed, 6, 0);
+        }
+
+        Peer(int team, long seed, int inputDelay, int rollbackWindow) {
+            session = new LockstepSession(2, team, inputDelay, rollbackWindow);
+            GameInitializationManager.initializeCursorValues(cursorVal);
+            GameInitializationManager.initializeCursors(cursors, 2, 2, map);
+            GameInitializationManager.initializeFighters(fighters, cursors, 2, new int[] { 300, 300 }, map,
+                    teamFighterCount, new Random(seed));
+            engine.initialize(map, 2);
+            engine.setDirtyCellTracker(tracker);
+            tracker.rebuild(fighters);
+            ring = rollbackWindow > 0 ? new SnapshotRing(rollbackWindow + 1) : null;
+            gameOver.reset(2, teamFighterCount);
+            gameOver.setListener((winner, counts, ticks) -> gameOverEvents++);
+            finalTicks = ring != null ? new FinalTickPublisher(ring, timeline, gameOver, 0) : null;
+        }
+
+        /** Même séquence que GameCanvas.updateLogic en lockstep. */
+        void tick() {
+            boolean moved = session.applyNextTick(cursors, cursorVal);
+            for (int team = 0; team < 2; team++) {
+                if (cursorVal[team] > 0) {
+                    cursorVal[team]--;
+                }
+            }
+            int clock = (int) session.getCurrentTick();
+            engine.step(fighters, cursors, cursorVal, teamFighterCount, clock, moved);
+            session.recordStateHash(tracker.getStateHash());
+            if (ring != null) {
+                capture();
+                finalTicks.publishUpTo(session.getFinalTick());
+            }
+        }
+
+        void capture() {
+            long tick = session.getCurrentTick();
+            ring.slot(tick).capture(tick, (int) tick, false, fighters, cursors, cursorVal, teamFighterCount, engine,
+                    tracker.getStateHash());
+        }
+
+        /** Même séquence que GameCanvas.rollBack(). */
+        void rollBack() {
+            if (ring.get(session.getCurrentTick()) == null) {
+                capture();
+            }
+            long from = session.takeRollbackTick();
+            if (from < 0) {
+                return;
+            }
+            long target = session.getCurrentTick();
+            ring.get(from - 1).restore(fighters, cursors, cursorVal, teamFighterCount, engine, tracker);
+            session.rewindTo(from - 1);
+            while (session.getCurrentTick() < target) {
+                tick();
+            }
+            finalTicks.publishUpTo(session.getFinalTick());
+        }
+    }
+
+    @Test
+    @DisplayName("Rollback : une élimination sur un tick prédit puis corrigé ne termine pas la partie")
+    void testMispredictedEliminationIsNotFinal() {
+        Peer peer = new Peer(0, 11, 2, 8);
+        // Ticks 1 à 10 confirmés (entrées distantes immobiles)
+        for (int tick = 1; tick <= 10; tick++) {
+            peer.session.scheduleLocalInput(peer.cursors[0].x, peer.cursors[0].y);
+            if (tick > 2) {
+                peer.session.receiveInput(1,
+                        new NetworkMessage.TickInput(tick, peer.cursors[1].x, peer.cursors[1].y));
+            }
+            peer.rollBack();
+            peer.tick();
+        }
+        assertEquals(10, peer.finalTicks.getPublishedTick());
+
+        // Ticks 11 à 16 prédits ; au tick 11, l'équipe 1 est éliminée (comme
+        // si la prédiction avait mené à sa défaite)
+        int survivors = peer.teamFighterCount[1];
+        for (int tick = 11; tick <= 16; tick++) {
+            peer.session.scheduleLocalInput(peer.cursors[0].x, peer.cursors[0].y);
+            peer.rollBack();
+            peer.tick();
+            if (tick == 11) {
+                for (Fighter f : peer.fighters) {
+                    f.team = 0;
+                }
+                peer.teamFighterCount[0] += peer.teamFighterCount[1];
+                peer.teamFighterCount[1] = 0;
+                peer.tracker.rebuild(peer.fighters);
+                peer.capture();
+            }
+        }
+        assertEquals(0, peer.teamFighterCount[1]);
+        assertEquals(10, peer.finalTicks.getPublishedTick(), "Ticks prédits non publiés");
+        assertEquals(0, peer.gameOverEvents, "Pas de fin de partie sur un tick prédit");
+        assertFalse(peer.gameOver.isFinished());
+
+        // L'entrée réelle du tick 11 contredit la prédiction : rollback
+        for (int tick = 11; tick <= 16; tick++) {
+            peer.session.receiveInput(1, new NetworkMessage.TickInput(tick, peer.cursors[1].x + 3,
+                    peer.cursors[1].y));
+        }
+        peer.rollBack();
+        assertEquals(1, peer.session.getRollbacks());
+        assertEquals(survivors, peer.teamFighterCount[1], "Élimination annulée par le rollback");
+        assertEquals(16, peer.finalTicks.getPublishedTick(), "Ticks corrigés publiés");
+        assertEquals(0, peer.gameOverEvents, "Aucune fin de partie notifiée");
+        assertFalse(peer.gameOver.isFinished());
+        assertEquals(16, peer.timeline.getTotalTicks());
+    }
+
+    /**
+     * Même partie pour deux pairs à la même cadence, entrées livrées avec une
+     * latence de 0 à 8 tours, délai d'entrée de 2 ticks.
+     *
+     * @return Les deux pairs, en fin de partie
+     */
+    private static Peer[] playWithLatency(int rollbackWindow, int targetTicks) {
+        Peer[] peers = { new Peer(0, 11, 2, rollbackWindow), new Peer(1, 11, 2, rollbackWindow) };
+        for (int p = 0; p < 2; p++) {
+            DesyncDetector other = peers[1 - p].session.getDesyncDetector();
+            int team = p;
+            peers[p].session.getDesyncDetector().setHashSink(
+                    (firstTick, hashes) -> other.receive(team, firstTick, hashes));
+        }
+
+        Random network = new Random(5);
+        for (int round = 0; peers[0].session.getConfirmedTick() < targetTicks
+                || peers[1].session.getConfirmedTick() < targetTicks
+                || peers[0].session.getCurrentTick() < targetTicks
+                || peers[1].session.getCurrentTick() < targetTicks; round++) {
+            assertTrue(round < 20 * targetTicks, "La partie ne doit pas se bloquer");
+            for (int p = 0; p < 2; p++) {
+                Peer peer = peers[p];
+                Peer other = peers[1 - p];
+                while (!peer.inbox.isEmpty() && peer.inbox.peek()[0] <= round) {
+                    long[] m = peer.inbox.poll();
+                    peer.session.receiveInput(1 - p, new NetworkMessage.TickInput(m[1], (int) m[2], (int) m[3]));
+                }
+                // Le curseur change de cible tous les 30 ticks
+                long phase = peer.session.getCurrentTick() / 30;
+                NetworkMessage.TickInput input = peer.session.scheduleLocalInput(
+                        60 + (int) (phase * 37 + p * 90) % 200, 50 + (int) (phase * 23 + p * 40) % 150);
+                if (input != null) {
+                    long due = Math.max(round + network.nextInt(9),
+                            other.inbox.isEmpty() ? 0 : other.inbox.peekLast()[0]);
+                    other.inbox.add(new long[] { due, input.tick, input.x, input.y });
+                }
+                if (peer.ring != null) {
+                    peer.rollBack();
+                }
+                if (peer.session.getCurrentTick() >= targetTicks) {
+                    continue;
+                }
+                if (peer.session.isReady()) {
+                    peer.tick();
+                } else {
+                    peer.session.recordStall();
+                }
+            }
+        }
+        return peers;
+    }
+
+    private static void assertSameBattlefield(Peer[] peers) {
+        assertArrayEquals(peers[0].teamFighterCount, peers[1].teamFighterCount);
+        for (int i = 0; i < peers[0].fighters.size(); i++) {
+            Fighter a = peers[0].fighters.get(i);
+            Fighter b = peers[1].fighters.get(i);
+            assertEquals(a.x, b.x, "Combattant " + i);
+            assertEquals(a.y, b.y, "Combattant " + i);
+            assertEquals(a.health, b.health, "Combattant " + i);
+        }
+        assertEquals(peers[0].tracker.getStateHash(), peers[1].tracker.getStateHash());
+        for (Peer peer : peers) {
+            assertFalse(peer.session.getDesyncDetector().isDesynced(), "Aucune désynchronisation");
+            assertTrue(peer.session.getDesyncDetector().getComparedTicks() > 0, "Empreintes comparées");
+        }
+    }
+
+    @Test
+    @DisplayName("⏱️ Rollback : même champ de bataille qu'en lockstep pur, sans attendre la latence")
+    void testRollbackPeersStayIdentical() {
+        int targetTicks = 300;
+        Peer[] pure = playWithLatency(0, targetTicks);
+        long start = System.nanoTime();
+        Peer[] rollback = playWithLatency(16, targetTicks);
+        double elapsedMs = (System.nanoTime() - start) / 1e6;
+
+        assertSameBattlefield(pure);
+        assertSameBattlefield(rollback);
+        // Mêmes entrées aux mêmes ticks : la prédiction ne change pas l'issue
+        assertEquals(pure[0].tracker.getStateHash(), rollback[0].tracker.getStateHash(),
+                "Rollback et lockstep pur aboutissent au même état");
+
+        long pureStalls = pure[0].session.getStalls() + pure[1].session.getStalls();
+        long rollbackStalls = rollback[0].session.getStalls() + rollback[1].session.getStalls();
+        long rollbacks = rollback[0].session.getRollbacks() + rollback[1].session.getRollbacks();
+        assertTrue(pureStalls > 0, "Le lockstep pur attend la latence");
+        assertTrue(rollbackStalls < pureStalls, rollbackStalls + " attentes contre " + pureStalls);
+        assertTrue(rollbacks > 0, "Des prédictions ont été corrigées");
+        System.out.printf("⏱️ Rollback : %d attentes (lockstep pur : %d), %d ticks prédits, %d rollbacks, "
+                + "partie en %.0f ms%n", rollbackStalls, pureStalls,
+                rollback[0].session.getPredictedTicks() + rollback[1].session.getPredictedTicks(), rollbacks,
+                elapsedMs);
+    }
+
+    @Test
+    @DisplayName("Deux pairs avec la même graine et les mêmes entrées gardent le même état")
+    void testPeersStayIdentical() {
+        long seed = 42;
+        Peer[] peers = { new Peer(0, seed), new Peer(1, seed) };
+        List<int[]> freeCells = new ArrayList<>();
+        for (int y = 20; y < GameConfig.MAP_HEIGHT - 20; y += 15) {
+            for (int x = 20; x < GameConfig.MAP_WIDTH - 20; x += 15) {
+                if (peers[0].map[y][x] != -1) {
+                    freeCells.add(new int[] { x, y });
+                }
+            }
+        }
+
+        Random network = new Random(7);
+        int targetTicks = 400;
+        for (int round = 0; peers[0].session.getCurrentTick() < targetTicks
+                || peers[1].session.getCurrentTick() < targetTicks; round++) {
+            assertTrue(round < 20 * targetTicks, "Le lockstep ne doit pas se bloquer");
+            for (int p = 0; p < 2; p++) {
+                Peer peer = peers[p];
+                Peer other = peers[1 - p];
+                // Livrer les entrées arrivées (latence 0 à 8 tours)
+                while (!peer.inbox.isEmpty() && peer.inbox.peek()[0] <= round) {
+                    long[] m = peer.inbox.poll();
+                    peer.session.receiveInput(1 - p, new NetworkMessage.TickInput(m[1], (int) m[2], (int) m[3]));
+                }
+                // Le pair 1 est deux fois plus lent
+                if (p == 1 && round % 2 == 1 || peer.session.getCurrentTick() >= targetTicks) {
+                    continue;
+                }
+                int[] cell = freeCells.get((int) ((peer.session.getCurrentTick() / 40 + p * 5) % freeCells.size()));
+                NetworkMessage.TickInput input = peer.session.scheduleLocalInput(cell[0], cell[1]);
+                if (input != null) {
+                    long due = Math.max(round + network.nextInt(9),
+                            other.inbox.isEmpty() ? 0 : other.inbox.peekLast()[0]);
+                    other.inbox.add(new long[] { due, input.tick, input.x, input.y });
+                }
+                if (peer.session.isReady()) {
+                    peer.tick();
+                } else {
+                    peer.session.recordStall();
+                }
+            }
+        }
+
+        assertTrue(peers[0].session.getStalls() > 0, "Le pair rapide a dû attendre");
+        assertArrayEquals(peers[0].teamFighterCount, peers[1].teamFighterCount);
+        assertEquals(peers[0].fighters.size(), peers[1].fighters.size());
+        for (int i = 0; i < peers[0].fighters.size(); i++) {
+            Fighter a = peers[0].fighters.get(i);
+            Fighter b = peers[1].fighters.get(i);
+            assertEquals(a.x, b.x, "Combattant " + i);
+            assertEquals(a.y, b.y, "Combattant " + i);
+            assertEquals(a.team, b.team, "Combattant " + i);
+            assertEquals(a.health, b.health, "Combattant " + i);
+        }
+        for (int team = 0; team < 2; team++) {
+            assertEquals(peers[0].cursors[team].x, peers[1].cursors[team].x);
+            assertEquals(peers[0].cursors[team].y, peers[1].cursors[team].y);
+        }
+    }
+}
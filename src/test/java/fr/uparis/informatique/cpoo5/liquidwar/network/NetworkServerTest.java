@@ -2,9 +2,21 @@ package fr.uparis.informatique.cpoo5.liquidwar.network;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 /**
  * Tests unitaires pour NetworkServer.
@@ -13,6 +25,11 @@ import org.junit.jupiter.api.Test;
  * - Création du serveur
  * - Gestion du listener
  * - Méthodes utilitaires
+ * - Isolation d'un client lent (les autres reçoivent tout, lui est coupé)
+ * - Isolation d'une erreur du listener (seul le client concerné est coupé)
+ * - Relais des entrées regroupées par tick (curseurs fusionnés)
+ * - Entrées sur UDP avec un client resté sur TCP
+ * - Mesures par client (RTT, gigue, débits) à travers le simulateur réseau
  */
 class NetworkServerTest {
 
@@ -58,6 +75,320 @@ class NetworkServerTest {
                 "stop ne doit pas lever d'exception si pas démarré");
     }
 
+    @Test
+    @Timeout(20)
+    @DisplayName("Un client qui ne lit pas ne bloque pas les autres")
+    void testSlowClientDoesNotStallOthers() throws Exception {
+        final int testPort = 15042;
+        final int messages = 2000;
+        server = new NetworkServer(testPort);
+        server.setListener(listener);
+        server.start();
+        try (Socket fast = new Socket(); Socket slow = new Socket()) {
+            slow.setReceiveBufferSize(4096);
+            slow.connect(new InetSocketAddress("localhost", testPort));
+            OutputStream slowOut = slow.getOutputStream();
+            WireCodec.writePreamble(slowOut);
+
+            fast.connect(new InetSocketAddress("localhost", testPort));
+            WireCodec.writePreamble(fast.getOutputStream());
+            InputStream fastIn = new BufferedInputStream(fast.getInputStream());
+            WireCodec.readPreamble(fastIn);
+            assertEquals(NetworkMessage.MessageType.CONNECTED, WireCodec.readFrame(fastIn).getType());
+
+            while (server.getClientCount() < 2) {
+                Thread.sleep(10);
+            }
+
+            // Lecteur du client rapide
+            AtomicInteger received = new AtomicInteger();
+            Thread reader = new Thread(() -> {
+                try {
+                    while (received.get() < messages) {
+                        if (WireCodec.readFrame(fastIn).getType() == NetworkMessage.MessageType.ERROR) {
+                            received.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    // Fin du test
+                }
+            });
+            reader.start();
+
+            // ~16 Mo : bien plus que ce que les tampons TCP du client lent
+            // peuvent absorber
+            String payload = "x".repeat(8000);
+            for (int i = 0; i < messages; i++) {
+                server.broadcast(new NetworkMessage(NetworkMessage.MessageType.ERROR, -1, payload));
+                if (i % 20 == 19) {
+                    // Rythme soutenable pour un client qui lit (~8 Mo/s)
+                    Thread.sleep(20);
+                }
+            }
+
+            reader.join(10_000);
+            assertEquals(messages, received.get(), "Le client rapide doit tout recevoir");
+            assertEquals(1, server.getClientCount(), "Le client lent doit être déconnecté");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    @DisplayName("Une exception du listener ne coupe que le client concerné")
+    void testListenerFailureDisconnectsOnlyThatClient() throws Exception {
+        final int testPort = 15049;
+        AtomicInteger healthyMoves = new AtomicInteger();
+        server = new NetworkServer(testPort);
+        server.setListener(new TestListener() {
+            @Override
+            public void onCursorMoved(int playerId, int x, int y) {
+                if (playerId == 0) {
+                    throw new IllegalStateException("Erreur simulée");
+                }
+                healthyMoves.incrementAndGet();
+            }
+        });
+        server.start();
+        try (Socket faulty = new Socket(); Socket healthy = new Socket()) {
+            faulty.connect(new InetSocketAddress("localhost", testPort));
+            OutputStream faultyOut = faulty.getOutputStream();
+            WireCodec.writePreamble(faultyOut);
+            InputStream faultyIn = new BufferedInputStream(faulty.getInputStream());
+            WireCodec.readPreamble(faultyIn);
+            assertEquals(NetworkMessage.MessageType.CONNECTED, WireCodec.readFrame(faultyIn).getType());
+
+            healthy.connect(new InetSocketAddress("localhost", testPort));
+            OutputStream healthyOut = healthy.getOutputStream();
+            WireCodec.writePreamble(healthyOut);
+            while (server.getClientCount() < 2) {
+                Thread.sleep(10);
+            }
+
+            faultyOut.write(WireCodec.encodeToBuffer(new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 0,
+                    new NetworkMessage.CursorPosition(1, 2))).array());
+            faultyOut.flush();
+            while (server.getClientCount() > 1) {
+                Thread.sleep(10);
+            }
+
+            // Le thread réseau tourne toujours pour l'autre client
+            healthyOut.write(WireCodec.encodeToBuffer(new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 1,
+                    new NetworkMessage.CursorPosition(3, 4))).array());
+            healthyOut.flush();
+            while (healthyMoves.get() == 0) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, server.getClientCount(), "Seul le client fautif doit être déconnecté");
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    @DisplayName("Les entrées relayées partent regroupées : curseurs fusionnés, ticks conservés")
+    void testInputsRelayedInBatches() throws Exception {
+        final int testPort = 15043;
+        server = new NetworkServer(testPort);
+        server.setListener(listener);
+        server.start();
+        try (Socket sender = new Socket(); Socket receiver = new Socket()) {
+            sender.connect(new InetSocketAddress("localhost", testPort));
+            OutputStream senderOut = sender.getOutputStream();
+            WireCodec.writePreamble(senderOut);
+            InputStream senderIn = new BufferedInputStream(sender.getInputStream());
+            WireCodec.readPreamble(senderIn);
+            assertEquals(NetworkMessage.MessageType.CONNECTED, WireCodec.readFrame(senderIn).getType());
+
+            receiver.connect(new InetSocketAddress("localhost", testPort));
+            WireCodec.writePreamble(receiver.getOutputStream());
+            InputStream receiverIn = new BufferedInputStream(receiver.getInputStream());
+            WireCodec.readPreamble(receiverIn);
+            assertEquals(NetworkMessage.MessageType.CONNECTED, WireCodec.readFrame(receiverIn).getType());
+            while (server.getClientCount() < 2) {
+                Thread.sleep(10);
+            }
+
+            // Une rafale d'entrées en une seule écriture
+            int cursorMoves = 50;
+            int tickInputs = 10;
+            ByteBuffer burst = ByteBuffer.allocate(4096);
+            for (int i = 0; i < cursorMoves; i++) {
+                burst.put(WireCodec.encodeToBuffer(new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 0,
+                        new NetworkMessage.CursorPosition(i, 2 * i))));
+                if (i % 5 == 0) {
+                    burst.put(WireCodec.encodeToBuffer(new NetworkMessage(NetworkMessage.MessageType.TICK_INPUT, 0,
+                            new NetworkMessage.TickInput(100 + i / 5, i, i))));
+                }
+            }
+            senderOut.write(burst.array(), 0, burst.position());
+            senderOut.flush();
+
+            // Le destinataire reçoit toutes les entrées de tick et la dernière position
+            List<Long> ticks = new ArrayList<>();
+            int lastX = -1;
+            int frames = 0;
+            while (ticks.size() < tickInputs || lastX != cursorMoves - 1) {
+                NetworkMessage message = WireCodec.readFrame(receiverIn);
+                assertEquals(NetworkMessage.MessageType.INPUT_BATCH, message.getType());
+                frames++;
+                NetworkMessage.InputBatch batch = message.getDataAsInputBatch();
+                for (int i = 0; i < batch.size(); i++) {
+                    assertEquals(0, batch.playerIds[i]);
+                    if (batch.ticks[i] == NetworkMessage.InputBatch.CURSOR) {
+                        lastX = batch.x[i];
+                        assertEquals(2 * lastX, batch.y[i]);
+                    } else {
+                        ticks.add(batch.ticks[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < tickInputs; i++) {
+                assertEquals(100 + i, (long) ticks.get(i), "Entrées de tick dans l'ordre");
+            }
+            assertTrue(frames < cursorMoves + tickInputs, "Moins de trames que de messages");
+
+            // L'émetteur reçoit les curseurs, mais pas ses propres entrées de tick
+            NetworkMessage echo = WireCodec.readFrame(senderIn);
+            NetworkMessage.InputBatch own = echo.getDataAsInputBatch();
+            for (int i = 0; i < own.size(); i++) {
+                assertEquals(NetworkMessage.InputBatch.CURSOR, own.ticks[i]);
+            }
+
+            InputBatcher.Stats stats = server.getInputStats();
+            assertEquals(cursorMoves + tickInputs, stats.inputs);
+            assertTrue(stats.getMessagesSaved() > 0);
+            assertTrue(stats.getBytesSaved() > 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    @DisplayName("Entrées sur UDP : relayées dans l'ordre vers un client resté sur TCP")
+    void testInputsOverUdp() throws Exception {
+        final int testPort = 15044;
+        server = new NetworkServer(testPort);
+        server.setListener(listener);
+        server.setUdpInputsEnabled(true);
+        server.start();
+
+        NetworkClient udpClient = new NetworkClient("localhost", testPort);
+        udpClient.setListener(new TickCollector());
+        udpClient.setUdpInputsEnabled(true);
+        NetworkClient tcpClient = new NetworkClient("localhost", testPort);
+        TickCollector received = new TickCollector();
+        tcpClient.setListener(received);
+        try {
+            udpClient.connect();
+            tcpClient.connect();
+            while (!udpClient.isUsingUdpInputs() || server.getClientCount() < 2) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, server.getUdpClientCount());
+            assertFalse(tcpClient.isUsingUdpInputs());
+
+            int inputs = 20;
+            for (int i = 0; i < inputs; i++) {
+                udpClient.sendTickInput(new NetworkMessage.TickInput(50 + i, i, 2 * i));
+            }
+            while (received.ticks.size() < inputs) {
+                Thread.sleep(10);
+            }
+            for (int i = 0; i < inputs; i++) {
+                assertEquals(50 + i, (long) received.ticks.get(i), "Entrées de tick dans l'ordre");
+            }
+            assertTrue(udpClient.isUsingUdpInputs(), "Pas de repli sur TCP");
+        } finally {
+            udpClient.disconnect();
+            tcpClient.disconnect();
+            server.stop();
+        }
+    }
+
+    @Test
+    @Timeout(20)
+    @DisplayName("Mesures par client : RTT du lien simulé, vu du serveur et du client")
+    void testClientTelemetry() throws Exception {
+        final int testPort = 15048;
+        server = new NetworkServer(testPort);
+        server.setListener(listener);
+        server.start();
+        // 30 ms dans chaque sens : RTT d'au moins 60 ms
+        NetworkSimulator simulator = new NetworkSimulator(0, "localhost", testPort,
+                new NetworkConditions(30, 0, 0, 0, 1));
+        simulator.start();
+        NetworkClient client = new NetworkClient("localhost", simulator.getPort());
+        client.setListener(new TickCollector());
+        try {
+            client.connect();
+            List<ConnectionTelemetry.Snapshot> telemetry;
+            do {
+                Thread.sleep(50);
+                telemetry = server.getClientTelemetry();
+            } while (telemetry.isEmpty() || !telemetry.get(0).hasRtt() || !client.getTelemetry().hasRtt());
+
+            ConnectionTelemetry.Snapshot seenByServer = telemetry.get(0);
+            assertEquals(0, seenByServer.playerId);
+            assertTrue(seenByServer.rttMs >= 60, "RTT vu du serveur : " + seenByServer.rttMs);
+            assertTrue(seenByServer.rttMs < 1000);
+            ConnectionTelemetry.Snapshot seenByClient = client.getTelemetry();
+            assertEquals(0, seenByClient.playerId);
+            assertTrue(seenByClient.rttMs >= 60, "RTT vu du client : " + seenByClient.rttMs);
+            assertEquals(-1, seenByClient.sendQueueBytes, "Octets en file inconnus côté client");
+            System.out.printf("⏱️ Mesures : serveur %s%n⏱️ Mesures : client %s%n", seenByServer, seenByClient);
+        } finally {
+            client.disconnect();
+            simulator.stop();
+            server.stop();
+        }
+    }
+
+    /** Listener client qui collecte les ticks des entrées reçues */
+    private static class TickCollector implements NetworkClient.NetworkClientListener {
+        final List<Long> ticks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onTickInput(int playerId, NetworkMessage.TickInput input) {
+            ticks.add(input.tick);
+        }
+
+        @Override
+        public void onConnected(int playerId, String message) {
+        }
+
+        @Override
+        public void onGameStart() {
+        }
+
+        @Override
+        public void onGameStateReceived(NetworkMessage.GameStateData state) {
+        }
+
+        @Override
+        public void onCursorMoved(int playerId, int x, int y) {
+        }
+
+        @Override
+        public void onGameOver(int winnerId) {
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+
+        @Override
+        public void onDisconnected() {
+        }
+
+        @Override
+        public void onLobbyUpdate(int connectedPlayers, int minPlayers) {
+        }
+    }
+
     // Classe de test pour le listener
     private static class TestListener implements NetworkServer.NetworkServerListener {
         @Override
@@ -0,0 +1,234 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests unitaires pour NetworkSimulator et NetworkConditions.
+ *
+ * Teste :
+ * - Tirages reproductibles (même graine, mêmes instants d'arrivée)
+ * - Ordre TCP conservé malgré gigue et pertes
+ * - Débit maximal
+ * - Latence mesurée à travers le proxy
+ * - Partie réseau (serveur, deux clients) à travers le proxy
+ */
+class NetworkSimulatorTest {
+
+    @Test
+    @DisplayName("Même graine : mêmes arrivées ; ordre conservé ; taux de perte respecté")
+    void testLinkDeterministic() {
+        NetworkConditions conditions = new NetworkConditions(30, 20, 0, 0.1, 7);
+        NetworkSimulator.Link a = new NetworkSimulator.Link(conditions);
+        NetworkSimulator.Link b = new NetworkSimulator.Link(conditions);
+        NetworkSimulator.Link other = new NetworkSimulator.Link(conditions.withSeed(8));
+
+        int segments = 10_000;
+        long previous = 0;
+        boolean differs = false;
+        for (int i = 0; i < segments; i++) {
+            long now = i * 1_000_000L;
+            long arrival = a.schedule(100, now);
+            assertEquals(arrival, b.schedule(100, now), "Segment " + i + " reproductible");
+            differs |= arrival != other.schedule(100, now);
+            assertTrue(arrival >= previous, "Jamais avant le segment précédent");
+            assertTrue(arrival >= now + 30_000_000L, "Au moins la latence");
+            previous = arrival;
+        }
+        assertTrue(differs, "Une autre graine donne d'autres tirages");
+        assertEquals(0.1, (double) a.getLost() / segments, 0.02);
+    }
+
+    @Test
+    @DisplayName("Le débit maximal étale les segments")
+    void testLinkBandwidth() {
+        NetworkSimulator.Link link = new NetworkSimulator.Link(new NetworkConditions(10, 0, 100_000, 0, 1));
+        long arrival = 0;
+        for (int i = 0; i < 100; i++) {
+            arrival = link.schedule(1000, 0);
+        }
+        // 100 Ko à 100 Ko/s : 1 s, plus la latence
+        assertEquals(1_010_000_000L, arrival);
+        assertEquals(0, link.getLost());
+    }
+
+    @Test
+    @DisplayName("Conditions invalides refusées")
+    void testInvalidConditions() {
+        assertThrows(IllegalArgumentException.class, () -> new NetworkConditions(-1, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new NetworkConditions(0, 0, 0, 1.0, 0));
+    }
+
+    @Test
+    @Timeout(20)
+    @DisplayName("⏱️ Latence et débit mesurés à travers le proxy")
+    void testLatencyAndBandwidthThroughProxy() throws Exception {
+        try (ServerSocket echo = new ServerSocket(0)) {
+            Thread.ofVirtual().start(() -> {
+                try (Socket socket = echo.accept()) {
+                    socket.getInputStream().transferTo(socket.getOutputStream());
+                } catch (IOException e) {
+                    // Fin du test
+                }
+            });
+
+            NetworkSimulator simulator = new NetworkSimulator(0, "localhost", echo.getLocalPort(),
+                    new NetworkConditions(25, 0, 200_000, 0, 3));
+            simulator.start();
+            try (Socket socket = new Socket("localhost", simulator.getPort())) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+
+                // Aller-retour : deux fois la latence
+                long worst = 0;
+                for (int i = 0; i < 5; i++) {
+                    long start = System.nanoTime();
+                    out.write(i);
+                    out.flush();
+                    assertEquals(i, in.read());
+                    long rtt = System.nanoTime() - start;
+                    assertTrue(rtt >= 50_000_000L, "Aller-retour d'au moins 2 x 25 ms");
+                    worst = Math.max(worst, rtt);
+                }
+
+                // 40 Ko à 200 Ko/s dans chaque sens : au moins 200 ms
+                byte[] payload = new byte[40_000];
+                long start = System.nanoTime();
+                out.write(payload);
+                out.flush();
+                in.readFully(new byte[payload.length]);
+                long transfer = System.nanoTime() - start;
+                assertTrue(transfer >= 200_000_000L, "Débit limité");
+
+                System.out.printf("⏱️ Simulateur : aller-retour max %.1f ms, 40 Ko en %.0f ms%n",
+                        worst / 1e6, transfer / 1e6);
+            } finally {
+                simulator.stop();
+            }
+            assertTrue(simulator.getBytesForwarded() >= 80_010);
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("Partie en lockstep à travers un lien dégradé : entrées complètes et dans l'ordre")
+    void testNetworkGameThroughSimulator() throws Exception {
+        final int testPort = 15047;
+        NetworkServer server = new NetworkServer(testPort);
+        server.setListener(new SilentServerListener());
+        server.start();
+        NetworkSimulator simulator = new NetworkSimulator(0, "localhost", testPort,
+                new NetworkConditions(40, 20, 0, 0.05, 11));
+        simulator.start();
+
+        // Émetteur derrière le lien dégradé, récepteur en direct
+        NetworkClient sender = new NetworkClient("localhost", simulator.getPort());
+        sender.setListener(new TickCollector());
+        TickCollector received = new TickCollector();
+        NetworkClient receiver = new NetworkClient("localhost", testPort);
+        receiver.setListener(received);
+        try {
+            sender.connect();
+            receiver.connect();
+            while (server.getClientCount() < 2) {
+                Thread.sleep(10);
+            }
+
+            int inputs = 100;
+            long start = System.nanoTime();
+            for (int i = 0; i < inputs; i++) {
+                sender.sendTickInput(new NetworkMessage.TickInput(i, i, i));
+                Thread.sleep(2);
+            }
+            while (received.ticks.size() < inputs) {
+                Thread.sleep(5);
+            }
+            long elapsed = System.nanoTime() - start;
+            for (int i = 0; i < inputs; i++) {
+                assertEquals(i, (long) received.ticks.get(i), "Entrée " + i + " dans l'ordre");
+            }
+            assertTrue(elapsed >= 40_000_000L, "La latence du lien s'applique");
+            System.out.printf("⏱️ Simulateur : %d entrées relayées en %.0f ms, %d segments retransmis%n",
+                    inputs, elapsed / 1e6, simulator.getSegmentsLost());
+        } finally {
+            sender.disconnect();
+            receiver.disconnect();
+            simulator.stop();
+            server.stop();
+        }
+    }
+
+    /** Listener client qui collecte les ticks des entrées reçues */
+    private static class TickCollector implements NetworkClient.NetworkClientListener {
+        final List<Long> ticks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onTickInput(int playerId, NetworkMessage.TickInput input) {
+            ticks.add(input.tick);
+        }
+
+        @Override
+        public void onConnected(int playerId, String message) {
+        }
+
+        @Override
+        public void onGameStart() {
+        }
+
+        @Override
+        public void onGameStateReceived(NetworkMessage.GameStateData state) {
+        }
+
+        @Override
+        public void onCursorMoved(int playerId, int x, int y) {
+        }
+
+        @Override
+        public void onGameOver(int winnerId) {
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+
+        @Override
+        public void onDisconnected() {
+        }
+
+        @Override
+        public void onLobbyUpdate(int connectedPlayers, int minPlayers) {
+        }
+    }
+
+    private static class SilentServerListener implements NetworkServer.NetworkServerListener {
+        @Override
+        public void onClientConnected(int playerId) {
+        }
+
+        @Override
+        public void onClientDisconnected(int playerId) {
+        }
+
+        @Override
+        public void onCursorMoved(int playerId, int x, int y) {
+        }
+
+        @Override
+        public NetworkMessage.GameStateData getCurrentGameState() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.ProtocolException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.SimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameInitializationManager;
+
+/**
+ * Tests unitaires pour SnapshotEncoder et SnapshotDecoder.
+ *
+ * Teste :
+ * - Image complète puis deltas : reconstruction exacte du champ de bataille
+ * - Base des deltas : dernier snapshot acquitté uniquement
+ * - Rejet d'une base inconnue ou de données corrompues
+ * - Taille des snapshots d'une partie à 4000 combattants
+ */
+class SnapshotEncoderTest {
+
+    private static final int TEAMS = 2;
+
+    private int[][] map;
+    private Cursor[] cursors;
+    private int[] cursorVal;
+    private int[] teamFighterCount;
+    private ArrayList<Fighter> fighters;
+    private SimulationEngine engine;
+    private int tick;
+
+    private SnapshotEncoder encoder;
+    private SnapshotDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        map = GameInitializationManager.loadMap(null);
+        cursors = new Cursor[6];
+        cursorVal = new int[6];
+        teamFighterCount = new int[6];
+        fighters = new ArrayList<>();
+        GameInitializationManager.initializeCursorValues(cursorVal);
+        GameInitializationManager.initializeCursors(cursors, TEAMS, TEAMS, map);
+        GameInitializationManager.initializeFighters(fighters, cursors, TEAMS, null, map, teamFighterCount,
+                new Random(1));
+        engine = new OptimizedSimulationEngine();
+        engine.initialize(map, TEAMS);
+        // Les équipes foncent l'une vers l'autre : beaucoup de mouvement
+        cursors[0].x = cursors[1].x;
+        cursors[0].y = cursors[1].y;
+        tick = 0;
+
+        encoder = new SnapshotEncoder();
+        decoder = new SnapshotDecoder();
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.release();
+        decoder.release();
+        engine.release();
+    }
+
+    private BattlefieldSnapshot advance(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick++;
+            engine.step(fighters, cursors, cursorVal, teamFighterCount, tick, tick == 1);
+        }
+        return BattlefieldSnapshot.capture(tick, fighters, cursors, teamFighterCount, TEAMS);
+    }
+
+    @Test
+    @DisplayName("Image complète puis deltas acquittés : état reconstruit à l'identique")
+    void testRoundTrip() throws ProtocolException {
+        BattlefieldSnapshot first = advance(0);
+        NetworkMessage.SnapshotData keyframe = encoder.encode(first);
+        assertEquals(-1, keyframe.baseTick);
+        BattlefieldSnapshot decoded = decoder.decode(keyframe);
+        assertTrue(first.sameBattlefield(decoded));
+        assertEquals(GameConfig.FIGHTER_INITIAL_HEALTH, decoded.getHealthAt(fighters.get(0).x, fighters.get(0).y));
+
+        encoder.acknowledge(decoded.getTick());
+        for (int round = 0; round < 10; round++) {
+            BattlefieldSnapshot next = advance(20);
+            NetworkMessage.SnapshotData delta = encoder.encode(next);
+            assertTrue(delta.baseTick >= 0, "Delta contre la base acquittée");
+            BattlefieldSnapshot result = decoder.decode(delta);
+            assertTrue(next.sameBattlefield(result), "Tick " + next.getTick());
+            encoder.acknowledge(result.getTick());
+        }
+
+        ArrayList<Fighter> rebuilt = new ArrayList<>();
+        decoder.decode(encoder.encode(advance(1))).toFighters(rebuilt);
+        assertEquals(fighters.size(), rebuilt.size());
+    }
+
+    @Test
+    @DisplayName("Seul un snapshot envoyé et acquitté sert de base")
+    void testAcknowledgement() {
+        BattlefieldSnapshot first = advance(0);
+        encoder.encode(first);
+        BattlefieldSnapshot second = advance(5);
+        assertEquals(-1, encoder.encode(second).baseTick, "Rien d'acquitté : image complète");
+
+        encoder.acknowledge(999);
+        assertEquals(-1, encoder.getAcknowledgedTick(), "Tick jamais envoyé ignoré");
+
+        encoder.acknowledge(second.getTick());
+        encoder.acknowledge(first.getTick());
+        assertEquals(second.getTick(), encoder.getAcknowledgedTick(), "Acquittement plus ancien ignoré");
+        assertEquals(second.getTick(), encoder.encode(advance(5)).baseTick);
+
+        encoder.acknowledge(-1);
+        assertEquals(-1, encoder.encode(advance(5)).baseTick, "Image complète redemandée");
+    }
+
+    @Test
+    @DisplayName("Une base inconnue ou des données corrompues sont rejetées")
+    void testRejectsInvalidSnapshots() throws ProtocolException {
+        BattlefieldSnapshot first = advance(0);
+        decoder.decode(encoder.encode(first));
+        encoder.acknowledge(first.getTick());
+        NetworkMessage.SnapshotData delta = encoder.encode(advance(10));
+
+        SnapshotDecoder fresh = new SnapshotDecoder();
+        try {
+            assertThrows(ProtocolException.class, () -> fresh.decode(delta));
+        } finally {
+            fresh.release();
+        }
+
+        byte[] corrupted = delta.payload.clone();
+        for (int i = 2; i < corrupted.length; i += 3) {
+            corrupted[i] ^= 0x5A;
+        }
+        assertThrows(ProtocolException.class,
+                () -> decoder.decode(new NetworkMessage.SnapshotData(delta.tick, delta.baseTick, corrupted)));
+        assertThrows(ProtocolException.class, () -> decoder.decode(new NetworkMessage.SnapshotData(delta.tick,
+                delta.baseTick, java.util.Arrays.copyOf(delta.payload, delta.payload.length / 2))));
+    }
+
+    @Test
+    @DisplayName("⏱️ Performance - Taille d'un snapshot de 4000 combattants (image complète et delta à 10 Hz)")
+    void testSnapshotSize() throws ProtocolException {
+        BattlefieldSnapshot first = advance(0);
+        NetworkMessage.SnapshotData keyframe = encoder.encode(first);
+        decoder.decode(keyframe);
+        encoder.acknowledge(first.getTick());
+
+        // Synchronisation toutes les 20 ticks (10 Hz), en pleine mêlée
+        advance(400);
+        int maxDelta = 0;
+        long totalDelta = 0;
+        int rounds = 20;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            NetworkMessage.SnapshotData delta = encoder.encode(advance(20));
+            encoder.acknowledge(decoder.decode(delta).getTick());
+            maxDelta = Math.max(maxDelta, delta.payload.length);
+            totalDelta += delta.payload.length;
+        }
+        long nanos = System.nanoTime() - start;
+
+        int rawSize = BattlefieldSnapshot.CELLS * 2;
+        System.out.printf("⏱️ Snapshot %d combattants : brut %d octets | image complète %d octets | "
+                + "delta moyen %d octets, max %d | encodage + décodage %.2f ms%n",
+                fighters.size(), rawSize, keyframe.payload.length, totalDelta / rounds, maxDelta,
+                nanos / 1e6 / rounds);
+
+        assertTrue(fighters.size() >= 3000);
+        assertTrue(keyframe.payload.length < 8 * 1024, "Image complète : quelques Ko");
+        assertTrue(totalDelta / rounds < 2 * 1024, "Delta à 10 Hz : moins de 2 Ko en moyenne");
+        assertTrue(maxDelta < 8 * 1024, "Premier delta (base ancienne) : quelques Ko");
+    }
+}
@@ -0,0 +1,246 @@
+package fr.uparis.informatique.cpoo5.liquidwar.network;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour WireCodec.
+ *
+ * Teste :
+ * - Aller-retour de chaque nature de données
+ * - Trames incomplètes, concaténées et longues (longueur sur plusieurs octets)
+ * - Rejet des trames corrompues et des versions incompatibles
+ * - Taille des trames d'entrée calculée sans encoder
+ * - Taille et coût comparés à la sérialisation Java
+ */
+class WireCodecTest {
+
+    private static NetworkMessage roundTrip(NetworkMessage message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireCodec.writeFrame(message, bytes);
+        NetworkMessage decoded = WireCodec.readFrame(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(message.getType(), decoded.getType());
+        assertEquals(message.getPlayerId(), decoded.getPlayerId());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+        return decoded;
+    }
+
+    @Test
+    @DisplayName("Chaque nature de données survit à l'aller-retour")
+    void testRoundTrip() throws IOException {
+        assertNull(roundTrip(new NetworkMessage(NetworkMessage.MessageType.PING, -1)).getData());
+        assertEquals("Bienvenue é ✓", roundTrip(new NetworkMessage(
+                NetworkMessage.MessageType.CONNECTED, 3, "Bienvenue é ✓")).getDataAsString());
+        assertArrayEquals(new int[] { -1, 0, Integer.MAX_VALUE, Integer.MIN_VALUE }, roundTrip(new NetworkMessage(
+                NetworkMessage.MessageType.GAME_OVER, 0, new int[] { -1, 0, Integer.MAX_VALUE, Integer.MIN_VALUE }))
+                .getDataAsIntArray());
+
+        NetworkMessage.CursorPosition pos = roundTrip(new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 2,
+                new NetworkMessage.CursorPosition(280, -5))).getDataAsCursorPosition();
+        assertEquals(280, pos.x);
+        assertEquals(-5, pos.y);
+
+        NetworkMessage.GameStateData state = roundTrip(new NetworkMessage(NetworkMessage.MessageType.GAME_STATE, -1,
+                new NetworkMessage.GameStateData(new int[][] { { 10, 20 }, { 30, 40 } }, new int[] { 100, 150 },
+                        1L << 40))).getDataAsGameState();
+        assertEquals(1L << 40, state.gameTick);
+        assertArrayEquals(new int[] { 30, 40 }, state.cursorPositions[1]);
+        assertArrayEquals(new int[] { 100, 150 }, state.fighterCounts);
+        assertEquals(0, state.stateHashes.length);
+
+        NetworkMessage.GameStateData hashed = roundTrip(new NetworkMessage(NetworkMessage.MessageType.GAME_STATE, 1,
+                new NetworkMessage.GameStateData(new int[][] { { 1, 2 } }, new int[] { 5 }, 7, 41,
+                        new long[] { -1L, Long.MIN_VALUE, 0x123456789ABCDEFL }))).getDataAsGameState();
+        assertEquals(41, hashed.hashTick);
+        assertEquals(3, hashed.stateHashes.length);
+        assertEquals(-1L, hashed.stateHashes[0]);
+        assertEquals(Long.MIN_VALUE, hashed.stateHashes[1]);
+        assertEquals(0x123456789ABCDEFL, hashed.stateHashes[2]);
+
+        NetworkMessage.LobbyInfo lobby = roundTrip(new NetworkMessage(NetworkMessage.MessageType.LOBBY_UPDATE, -1,
+                new NetworkMessage.LobbyInfo(3, 2, null))).getDataAsLobbyInfo();
+        assertEquals(3, lobby.connectedPlayers);
+        assertEquals(2, lobby.minPlayers);
+        assertNull(lobby.welcomeMessage);
+
+        NetworkMessage.MatchSettings settings = roundTrip(new NetworkMessage(NetworkMessage.MessageType.GAME_START,
+                -1, new NetworkMessage.MatchSettings(Long.MIN_VALUE + 3, 4, 12))).getDataAsMatchSettings();
+        assertEquals(Long.MIN_VALUE + 3, settings.seed);
+        assertEquals(4, settings.teams);
+        assertEquals(12, settings.inputDelay);
+
+        NetworkMessage.TickInput input = roundTrip(new NetworkMessage(NetworkMessage.MessageType.TICK_INPUT, 1,
+                new NetworkMessage.TickInput(123_456, 280, 0))).getDataAsTickInput();
+        assertEquals(123_456, input.tick);
+        assertEquals(280, input.x);
+        assertEquals(0, input.y);
+
+        NetworkMessage.SnapshotData snapshot = roundTrip(new NetworkMessage(NetworkMessage.MessageType.SNAPSHOT,
+                -1, new NetworkMessage.SnapshotData(400, -1, new byte[] { 1, -2, 3 }))).getDataAsSnapshot();
+        assertEquals(400, snapshot.tick);
+        assertEquals(-1, snapshot.baseTick);
+        assertArrayEquals(new byte[] { 1, -2, 3 }, snapshot.payload);
+
+        NetworkMessage.InputBatch batch = roundTrip(new NetworkMessage(NetworkMessage.MessageType.INPUT_BATCH, -1,
+                new NetworkMessage.InputBatch(new int[] { -1, 2 }, new long[] { NetworkMessage.InputBatch.CURSOR, 77 },
+                        new int[] { 0, 280 }, new int[] { 239, 5 }))).getDataAsInputBatch();
+        assertArrayEquals(new int[] { -1, 2 }, batch.playerIds);
+        assertEquals(NetworkMessage.InputBatch.CURSOR, batch.ticks[0]);
+        assertEquals(77, batch.ticks[1]);
+        assertArrayEquals(new int[] { 0, 280 }, batch.x);
+        assertArrayEquals(new int[] { 239, 5 }, batch.y);
+    }
+
+    @Test
+    @DisplayName("decodeFrame attend la trame complète et enchaîne les trames")
+    void testPartialAndConcatenatedFrames() throws ProtocolException {
+        ByteBuffer encoded = ByteBuffer.allocate(WireCodec.BUFFER_SIZE);
+        WireCodec.encodeFrame(new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 1,
+                new NetworkMessage.CursorPosition(7, 8)), encoded);
+        WireCodec.encodeFrame(new NetworkMessage(NetworkMessage.MessageType.PONG, 1), encoded);
+        encoded.flip();
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        // Octet par octet : aucune trame avant qu'elle soit complète
+        ByteBuffer in = ByteBuffer.allocate(bytes.length);
+        int decoded = 0;
+        for (byte b : bytes) {
+            in.put(b);
+            in.flip();
+            NetworkMessage message;
+            while ((message = WireCodec.decodeFrame(in)) != null) {
+                assertEquals(decoded == 0 ? NetworkMessage.MessageType.CURSOR_MOVE
+                        : NetworkMessage.MessageType.PONG, message.getType());
+                decoded++;
+            }
+            in.compact();
+        }
+        assertEquals(2, decoded);
+    }
+
+    @Test
+    @DisplayName("Les trames longues utilisent une longueur sur plusieurs octets")
+    void testLargeFrame() throws IOException {
+        int[] values = new int[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 31 - 70_000;
+        }
+        NetworkMessage decoded = roundTrip(new NetworkMessage(NetworkMessage.MessageType.GAME_OVER, 0, values));
+        assertArrayEquals(values, decoded.getDataAsIntArray());
+
+        // Plus grand qu'un buffer du pool : agrandi automatiquement
+        String text = "x".repeat(3 * WireCodec.BUFFER_SIZE);
+        assertEquals(text, roundTrip(new NetworkMessage(NetworkMessage.MessageType.ERROR, 0, text))
+                .getDataAsString());
+    }
+
+    @Test
+    @DisplayName("Taille calculée des trames d'entrée identique à l'encodage")
+    void testInputFrameSizes() {
+        int[] players = { -1, 0, 5, 200 };
+        long[] timestamps = { 0, 1_700_000_000_000L, Long.MAX_VALUE };
+        int[] coordinates = { 0, -1, 63, 64, -70_000, Integer.MAX_VALUE };
+        long[] ticks = { 0, 127, 128, 1L << 40 };
+        for (int player : players) {
+            for (long timestamp : timestamps) {
+                for (int c : coordinates) {
+                    NetworkMessage cursor = new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, player,
+                            new NetworkMessage.CursorPosition(c, -c), timestamp);
+                    assertEquals(WireCodec.encodeToBuffer(cursor).remaining(),
+                            WireCodec.cursorMoveFrameSize(player, timestamp, c, -c));
+                    for (long tick : ticks) {
+                        NetworkMessage.TickInput input = new NetworkMessage.TickInput(tick, c, 7);
+                        NetworkMessage message = new NetworkMessage(NetworkMessage.MessageType.TICK_INPUT, player,
+                                input, timestamp);
+                        assertEquals(WireCodec.encodeToBuffer(message).remaining(),
+                                WireCodec.tickInputFrameSize(player, timestamp, input));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Une trame corrompue ou une autre version est rejetée")
+    void testRejectsInvalidInput() {
+        // Type inconnu
+        byte[] unknownType = { 4, (byte) 0xFF, 0, 0, 0 };
+        assertThrows(ProtocolException.class, () -> WireCodec.readFrame(new ByteArrayInputStream(unknownType)));
+
+        // Tableau annonçant plus d'éléments que la trame n'en contient
+        byte[] truncated = { 5, 0, 0, 0, WireCodec.DATA_INT_ARRAY, 100 };
+        assertThrows(ProtocolException.class, () -> WireCodec.readFrame(new ByteArrayInputStream(truncated)));
+
+        // Longueur aberrante
+        byte[] hugeLength = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F };
+        assertThrows(ProtocolException.class, () -> WireCodec.decodeFrame(ByteBuffer.wrap(hugeLength)));
+
+        byte[] otherVersion = { 'L', 'W', (byte) (WireCodec.VERSION + 1) };
+        assertThrows(ProtocolException.class, () -> WireCodec.readPreamble(new ByteArrayInputStream(otherVersion)));
+        assertThrows(ProtocolException.class,
+                () -> WireCodec.readPreamble(new ByteArrayInputStream(new byte[] { (byte) 0xAC, (byte) 0xED, 0 })));
+    }
+
+    @Test
+    @DisplayName("⏱️ Performance - Octets et ns par message (codec binaire vs sérialisation Java)")
+    void testCompactnessAndSpeed() throws IOException, ClassNotFoundException {
+        NetworkMessage cursor = new NetworkMessage(NetworkMessage.MessageType.CURSOR_MOVE, 1,
+                new NetworkMessage.CursorPosition(140, 120));
+        NetworkMessage state = new NetworkMessage(NetworkMessage.MessageType.GAME_STATE, -1,
+                new NetworkMessage.GameStateData(new int[][] { { 10, 20 }, { 30, 40 }, { 50, 60 }, { 70, 80 } },
+                        new int[] { 1200, 900, 700, 400 }, 123_456));
+
+        for (NetworkMessage message : new NetworkMessage[] { cursor, state }) {
+            int iterations = 20_000;
+
+            // Chemin actuel : ObjectOutputStream avec reset() après chaque message
+            ByteArrayOutputStream javaBytes = new ByteArrayOutputStream();
+            ObjectOutputStream javaOut = new ObjectOutputStream(javaBytes);
+            long javaStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                javaOut.writeObject(message);
+                javaOut.reset();
+            }
+            javaOut.flush();
+            ObjectInputStream javaIn = new ObjectInputStream(new ByteArrayInputStream(javaBytes.toByteArray()));
+            for (int i = 0; i < iterations; i++) {
+                javaIn.readObject();
+            }
+            long javaNanos = System.nanoTime() - javaStart;
+
+            // Codec binaire dans un buffer réutilisé
+            ByteBuffer buffer = WireCodec.acquireBuffer();
+            long wireBytes = 0;
+            long wireStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                buffer.clear();
+                WireCodec.encodeFrame(message, buffer);
+                wireBytes += buffer.position();
+                buffer.flip();
+                assertNotNull(WireCodec.decodeFrame(buffer));
+            }
+            long wireNanos = System.nanoTime() - wireStart;
+            WireCodec.releaseBuffer(buffer);
+
+            double javaPerMessage = (double) javaBytes.size() / iterations;
+            double wirePerMessage = (double) wireBytes / iterations;
+            System.out.printf("⏱️ %s : Java %.0f octets, %.0f ns | binaire %.0f octets, %.0f ns%n",
+                    message.getType(), javaPerMessage, (double) javaNanos / iterations,
+                    wirePerMessage, (double) wireNanos / iterations);
+
+            assertTrue(wirePerMessage * 10 < javaPerMessage,
+                    "Le codec binaire doit être au moins 10x plus compact");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+
+/**
+ * Tests unitaires pour GameOverDetector.
+ * 
+ * Teste :
+ * - Victoire quand une seule équipe reste
+ * - Minuterie en ticks (gagnant ou égalité)
+ * - Événement émis une seule fois
+ */
+class GameOverDetectorTest {
+
+    private GameOverDetector detector;
+    private int[] counts;
+    private int events;
+    private int lastWinner;
+
+    @BeforeEach
+    void setUp() {
+        detector = new GameOverDetector();
+        counts = new int[] { 100, 100, 100, 0, 0, 0 };
+        events = 0;
+        lastWinner = Integer.MIN_VALUE;
+        detector.setListener((winner, finalCounts, ticks) -> {
+            events++;
+            lastWinner = winner;
+        });
+        detector.reset(3, counts);
+    }
+
+    @Test
+    @DisplayName("Pas de fin tant que plusieurs équipes sont en vie")
+    void testNoGameOverWhileSeveralAlive() {
+        counts[2] = 0;
+        assertFalse(detector.onTick(counts));
+        assertEquals(2, detector.getAliveTeams());
+        assertEquals(0, events);
+    }
+
+    @Test
+    @DisplayName("Victoire quand une seule équipe reste")
+    void testVictory() {
+        counts[0] = 0;
+        counts[2] = 0;
+        counts[1] = 300;
+
+        assertTrue(detector.onTick(counts));
+        assertTrue(detector.isFinished());
+        assertEquals(1, detector.getWinner());
+        assertEquals(1, lastWinner);
+    }
+
+    @Test
+    @DisplayName("L'événement n'est émis qu'une seule fois")
+    void testSingleEvent() {
+        counts[1] = 0;
+        counts[2] = 0;
+        detector.onTick(counts);
+        detector.onTick(counts);
+        detector.onTick(counts);
+
+        assertEquals(1, events);
+    }
+
+    @Test
+    @DisplayName("Minuterie : l'équipe en tête gagne")
+    void testTimeoutWinner() {
+        detector.setTimeoutTicks(3);
+        counts[0] = 150;
+
+        assertFalse(detector.onTick(counts));
+        assertFalse(detector.onTick(counts));
+        assertTrue(detector.onTick(counts));
+        assertEquals(0, lastWinner);
+        assertEquals(3, detector.getElapsedTicks());
+    }
+
+    @Test
+    @DisplayName("Minuterie : égalité entre équipes en tête")
+    void testTimeoutTie() {
+        detector.setTimeoutTicks(1);
+        counts[2] = 50;
+
+        assertTrue(detector.onTick(counts));
+        assertEquals(GameOverDetector.TIE, lastWinner);
+    }
+
+    @Test
+    @DisplayName("reset() relance la détection")
+    void testReset() {
+        counts[1] = 0;
+        counts[2] = 0;
+        detector.onTick(counts);
+
+        int[] fresh = { 10, 10, 0, 0, 0, 0 };
+        detector.reset(2, fresh);
+        assertFalse(detector.isFinished());
+        assertFalse(detector.onTick(fresh));
+    }
+
+    @Test
+    @DisplayName("Conversion minutes → ticks")
+    void testTimeoutTicks() {
+        long ticks = GameOverDetector.timeoutTicks(2, 5);
+        assertEquals(2 * 60_000L / 5 * GameConfig.LOGIC_TICKS_PER_TIMER_EVENT, ticks);
+    }
+}
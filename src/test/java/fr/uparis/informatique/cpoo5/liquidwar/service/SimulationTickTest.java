@@ -0,0 +1,102 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.service.engine.OptimizedSimulationEngine;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameInitializationManager;
+
+/**
+ * Tests unitaires pour SimulationTick.
+ *
+ * Teste :
+ * - Décrément des valeurs des curseurs actifs seulement
+ * - Régénération aux seuls ticks multiples de HEAL_INTERVAL_TICKS, signalée
+ *   au tracker
+ * - Même partie avec ou sans tracker (partie headless)
+ */
+class SimulationTickTest {
+
+    private static class Battle {
+        final int[][] map = GameInitializationManager.loadMap(null);
+        final Cursor[] cursors = new Cursor[GameConfig.MAX_TEAMS];
+        final int[] cursorVal = new int[GameConfig.MAX_TEAMS];
+        final int[] teamFighterCount = new int[GameConfig.MAX_TEAMS];
+        final ArrayList<Fighter> fighters = new ArrayList<>();
+        final OptimizedSimulationEngine engine = new OptimizedSimulationEngine();
+
+        Battle() {
+            GameInitializationManager.initializeCursorValues(cursorVal);
+            GameInitializationManager.initializeCursors(cursors, 2, 2, map);
+            GameInitializationManager.initializeFighters(fighters, cursors, 2, new int[] { 200, 200 }, map,
+                    teamFighterCount, new Random(4));
+            engine.initialize(map, 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Valeurs des curseurs décrémentées, régénération périodique signalée au tracker")
+    void testCursorDecayAndHealing() {
+        Battle battle = new Battle();
+        DirtyCellTracker tracker = new DirtyCellTracker(GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT);
+        battle.cursorVal[0] = 5;
+        battle.cursorVal[1] = 5;
+        battle.cursors[1].active = 0;
+        // Un seul combattant : aucun combat ne touche à sa santé
+        Fighter wounded = battle.fighters.get(0);
+        wounded.health = 50;
+        ArrayList<Fighter> alone = new ArrayList<>();
+        alone.add(wounded);
+        battle.engine.setDirtyCellTracker(tracker);
+        tracker.rebuild(alone);
+
+        SimulationTick.run(battle.engine, alone, battle.cursors, battle.cursorVal, battle.teamFighterCount,
+                2, GameConfig.HEAL_INTERVAL_TICKS - 1, false, tracker);
+        assertEquals(4, battle.cursorVal[0]);
+        assertEquals(5, battle.cursorVal[1], "Curseur inactif : valeur conservée");
+        assertEquals(50, wounded.health, "Pas de régénération hors intervalle");
+
+        SimulationTick.run(battle.engine, alone, battle.cursors, battle.cursorVal, battle.teamFighterCount,
+                2, GameConfig.HEAL_INTERVAL_TICKS, false, tracker);
+        assertEquals(50 + GameConfig.HEAL_AMOUNT, wounded.health);
+        assertEquals(DirtyCellTracker.stateOf(wounded),
+                tracker.getCellState(wounded.y * GameConfig.MAP_WIDTH + wounded.x));
+    }
+
+    @Test
+    @DisplayName("Le tracker ne change pas la partie")
+    void testSameMatchWithoutTracker() {
+        Battle tracked = new Battle();
+        Battle headless = new Battle();
+        DirtyCellTracker tracker = new DirtyCellTracker(GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT);
+        for (int tick = 1; tick <= 200; tick++) {
+            if (tick % 50 == 0) {
+                for (Battle battle : new Battle[] { tracked, headless }) {
+                    battle.cursors[0].x = 60 + tick / 2;
+                    battle.cursorVal[0] = GameConfig.CURSOR_START_GRADIENT;
+                }
+            }
+            SimulationTick.run(tracked.engine, tracked.fighters, tracked.cursors, tracked.cursorVal,
+                    tracked.teamFighterCount, 2, tick, tick % 50 == 0, tracker);
+            SimulationTick.run(headless.engine, headless.fighters, headless.cursors, headless.cursorVal,
+                    headless.teamFighterCount, 2, tick, tick % 50 == 0, null);
+        }
+        assertArrayEquals(tracked.teamFighterCount, headless.teamFighterCount);
+        for (int i = 0; i < tracked.fighters.size(); i++) {
+            Fighter a = tracked.fighters.get(i);
+            Fighter b = headless.fighters.get(i);
+            assertEquals(a.x, b.x, "Combattant " + i);
+            assertEquals(a.y, b.y, "Combattant " + i);
+            assertEquals(a.health, b.health, "Combattant " + i);
+        }
+    }
+}
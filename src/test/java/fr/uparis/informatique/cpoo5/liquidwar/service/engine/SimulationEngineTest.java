@@ -0,0 +1,148 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+
+/**
+ * Tests unitaires pour les moteurs de simulation interchangeables.
+ *
+ * Teste :
+ * - Allocation limitée aux équipes actives
+ * - Exécution d'un tick pour chaque moteur
+ * - Migration du gradient lors d'un changement à chaud
+ * - Libération des structures
+ */
+class SimulationEngineTest {
+
+    private static final int MAP_WIDTH = GameConfig.MAP_WIDTH;
+    private static final int MAP_HEIGHT = GameConfig.MAP_HEIGHT;
+    private static final int ACTIVE_TEAMS = 2;
+
+    private int[][] map;
+    private Cursor[] cursors;
+    private int[] cursorVal;
+    private int[] teamFighterCount;
+    private ArrayList<Fighter> fighters;
+
+    @BeforeEach
+    void setUp() {
+        // Carte vide entourée de murs
+        map = new int[MAP_HEIGHT][MAP_WIDTH];
+        for (int x = 0; x < MAP_WIDTH; x++) {
+            map[0][x] = -1;
+            map[MAP_HEIGHT - 1][x] = -1;
+        }
+
+        cursors = new Cursor[6];
+        cursorVal = new int[6];
+        teamFighterCount = new int[6];
+        fighters = new ArrayList<>();
+        for (int team = 0; team < ACTIVE_TEAMS; team++) {
+            cursors[team] = new Cursor();
+            cursors[team].x = 50 + team * 150;
+            cursors[team].y = 120;
+            cursors[team].team = team;
+            cursors[team].active = 1;
+            cursorVal[team] = GameConfig.CURSOR_START_GRADIENT;
+
+            for (int i = 0; i < 10; i++) {
+                fighters.add(new Fighter(100 + team * 50 + i, 100, team));
+                teamFighterCount[team]++;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Le moteur classique n'alloue que les équipes actives")
+    void testClassicAllocatesOnlyActiveTeams() {
+        SimulationEngine engine = new ClassicSimulationEngine();
+        engine.initialize(map, ACTIVE_TEAMS);
+
+        assertTrue(engine.isInitialized());
+        assertEquals(ACTIVE_TEAMS, engine.getGradient().length);
+        assertEquals(MAP_WIDTH * MAP_HEIGHT, engine.getGradient()[0].length);
+        assertEquals(GameConfig.AREA_START_GRADIENT, engine.getGradient()[1][0]);
+    }
+
+    @Test
+    @DisplayName("Le moteur optimisé n'alloue que les équipes actives")
+    void testOptimizedAllocatesOnlyActiveTeams() {
+        OptimizedSimulationEngine engine = new OptimizedSimulationEngine();
+        engine.initialize(map, ACTIVE_TEAMS);
+
+        assertTrue(engine.isInitialized());
+        assertNotNull(engine.getMeshArray());
+        assertEquals(ACTIVE_TEAMS, engine.getGradient().length);
+    }
+
+    @Test
+    @DisplayName("Chaque moteur exécute un tick et conserve les combattants")
+    void testStepAllEngines() {
+        SimulationEngine[] engines = {
+                new ClassicSimulationEngine(),
+                new ParallelSimulationEngine(),
+                new OptimizedSimulationEngine()
+        };
+        for (SimulationEngine engine : engines) {
+            engine.initialize(map, ACTIVE_TEAMS);
+            for (int clock = 1; clock <= 6; clock++) {
+                engine.step(fighters, cursors, cursorVal, teamFighterCount, clock, clock == 1);
+            }
+            assertEquals(20, fighters.size(), engine.getName() + " ne doit pas perdre de combattants");
+            assertEquals(20, teamFighterCount[0] + teamFighterCount[1],
+                    engine.getName() + " doit conserver le total des compteurs");
+        }
+    }
+
+    @Test
+    @DisplayName("La migration recopie le gradient vers le moteur optimisé")
+    void testMigrateClassicToOptimized() {
+        SimulationEngine classic = new ClassicSimulationEngine();
+        classic.initialize(map, ACTIVE_TEAMS);
+        int idx = 120 * MAP_WIDTH + 60;
+        classic.getGradient()[0][idx] = 42;
+
+        SimulationEngine optimized = new OptimizedSimulationEngine();
+        optimized.initialize(map, ACTIVE_TEAMS);
+        optimized.migrateFrom(classic);
+
+        assertEquals(42, optimized.getGradient()[0][idx], "Le gradient doit être migré");
+    }
+
+    @Test
+    @DisplayName("La migration recopie le gradient vers le moteur parallèle")
+    void testMigrateOptimizedToParallel() {
+        SimulationEngine optimized = new OptimizedSimulationEngine();
+        optimized.initialize(map, ACTIVE_TEAMS);
+        for (int clock = 3; clock <= 30; clock += 3) {
+            optimized.step(fighters, cursors, cursorVal, teamFighterCount, clock, true);
+        }
+
+        SimulationEngine parallel = new ParallelSimulationEngine();
+        parallel.initialize(map, ACTIVE_TEAMS);
+        parallel.migrateFrom(optimized);
+
+        int idx = cursors[1].y * MAP_WIDTH + cursors[1].x;
+        assertEquals(optimized.getGradient()[1][idx], parallel.getGradient()[1][idx]);
+    }
+
+    @Test
+    @DisplayName("release() libère les structures")
+    void testRelease() {
+        SimulationEngine engine = new OptimizedSimulationEngine();
+        engine.initialize(map, ACTIVE_TEAMS);
+        engine.release();
+
+        assertFalse(engine.isInitialized());
+        assertNull(engine.getGradient());
+    }
+}
@@ -0,0 +1,201 @@
+package fr.uparis.informatique.cpoo5.liquidwar.service.engine;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import fr.uparis.informatique.cpoo5.liquidwar.config.GameConfig;
+import fr.uparis.informatique.cpoo5.liquidwar.model.DirtyCellTracker;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Cursor;
+import fr.uparis.informatique.cpoo5.liquidwar.model.entities.Fighter;
+import fr.uparis.informatique.cpoo5.liquidwar.view.GameInitializationManager;
+
+/**
+ * Tests unitaires pour SimulationSnapshot et SnapshotRing.
+ *
+ * Teste :
+ * - Restauration puis re-simulation identique à la simulation d'origine
+ * - Tracker de cellules, empreinte et miroir du gradient tenus à jour par la
+ *   restauration
+ * - Cases du ring écrasées après « capacité » ticks
+ * - Moteurs sans snapshots, snapshot vide et combattants hors bornes refusés
+ * - Temps de capture et de restauration
+ */
+class SimulationSnapshotTest {
+
+    private static final int TEAMS = 4;
+
+    /** Une partie complète sur la carte par défaut. */
+    private static class Battle {
+        final int[][] map = GameInitializationManager.loadMap(null);
+        final Cursor[] cursors = new Cursor[6];
+        final int[] cursorVal = new int[6];
+        final int[] teamFighterCount = new int[6];
+        final ArrayList<Fighter> fighters = new ArrayList<>();
+        final OptimizedSimulationEngine engine = new OptimizedSimulationEngine();
+        final DirtyCellTracker tracker = new DirtyCellTracker(GameConfig.MAP_WIDTH, GameConfig.MAP_HEIGHT);
+        int clock;
+
+        Battle() {
+            GameInitializationManager.initializeCursorValues(cursorVal);
+            GameInitializationManager.initializeCursors(cursors, TEAMS, TEAMS, map);
+            GameInitializationManager.initializeFighters(fighters, cursors, TEAMS,
+                    new int[] { 600, 600, 600, 600 }, map, teamFighterCount, new Random(3));
+            engine.initialize(map, TEAMS);
+            engine.setDirtyCellTracker(tracker);
+            tracker.rebuild(fighters);
+        }
+
+        /** Un tick, avec des curseurs qui bougent régulièrement. */
+        void tick() {
+            clock++;
+            boolean moved = false;
+            if (clock % 40 == 0) {
+                for (int team = 0; team < TEAMS; team++) {
+                    cursors[team].x = 40 + (clock / 40 * 37 + team * 60) % 200;
+                    cursors[team].y = 40 + (clock / 40 * 23 + team * 45) % 160;
+                    cursorVal[team] = GameConfig.CURSOR_START_GRADIENT;
+                }
+                moved = true;
+            }
+            for (int team = 0; team < TEAMS; team++) {
+                if (cursorVal[team] > 0) {
+                    cursorVal[team]--;
+                }
+            }
+            engine.step(fighters, cursors, cursorVal, teamFighterCount, clock, moved);
+        }
+
+        void capture(SimulationSnapshot snapshot) {
+            snapshot.capture(clock, clock, false, fighters, cursors, cursorVal, teamFighterCount, engine,
+                    tracker.getStateHash());
+        }
+
+        void restore(SimulationSnapshot snapshot) {
+            snapshot.restore(fighters, cursors, cursorVal, teamFighterCount, engine, tracker);
+            clock = snapshot.getGlobalClock();
+        }
+
+        int[] fighterState() {
+            int[] state = new int[fighters.size() * 4];
+            for (int i = 0; i < fighters.size(); i++) {
+                Fighter f = fighters.get(i);
+                state[4 * i] = f.x;
+                state[4 * i + 1] = f.y;
+                state[4 * i + 2] = f.team;
+                state[4 * i + 3] = f.health;
+            }
+            return state;
+        }
+    }
+
+    @Test
+    @DisplayName("Restaurer puis re-simuler redonne exactement la même partie")
+    void testRestoreAndResimulate() {
+        Battle battle = new Battle();
+        for (int i = 0; i < 150; i++) {
+            battle.tick();
+        }
+        SimulationSnapshot snapshot = new SimulationSnapshot();
+        battle.capture(snapshot);
+        assertEquals(150, snapshot.getTick());
+        // Tick de propagation : le miroir est à jour au moment de la capture
+        int[] capturedGradient = battle.engine.getGradient()[1].clone();
+
+        for (int i = 0; i < 120; i++) {
+            battle.tick();
+        }
+        int[] expected = battle.fighterState();
+        int[] expectedCounts = battle.teamFighterCount.clone();
+        long expectedHash = battle.tracker.getStateHash();
+        int[] expectedGradient = battle.engine.getGradient()[1].clone();
+
+        battle.restore(snapshot);
+        assertArrayEquals(capturedGradient, battle.engine.getGradient()[1], "Miroir du gradient restauré");
+        assertEquals(snapshot.getStateHash(), battle.tracker.getStateHash(), "Empreinte du tick restauré");
+        assertEquals(battle.tracker.computeStateHash(), battle.tracker.getStateHash());
+        for (Fighter f : battle.fighters) {
+            assertEquals(DirtyCellTracker.stateOf(f), battle.tracker.getCellState(f.y * GameConfig.MAP_WIDTH + f.x));
+        }
+
+        for (int i = 0; i < 120; i++) {
+            battle.tick();
+        }
+        assertArrayEquals(expected, battle.fighterState());
+        assertArrayEquals(expectedCounts, battle.teamFighterCount);
+        assertEquals(expectedHash, battle.tracker.getStateHash());
+        assertArrayEquals(expectedGradient, battle.engine.getGradient()[1]);
+    }
+
+    @Test
+    @DisplayName("Le ring garde les « capacité » derniers ticks")
+    void testRing() {
+        Battle battle = new Battle();
+        SnapshotRing ring = new SnapshotRing(8);
+        for (int i = 0; i < 20; i++) {
+            battle.tick();
+            battle.capture(ring.slot(battle.clock));
+        }
+        assertNull(ring.get(12), "Écrasé par le tick 20");
+        assertNotNull(ring.get(13));
+        assertEquals(20, ring.get(20).getTick());
+        assertNull(ring.get(21));
+        assertThrows(IllegalArgumentException.class, () -> new SnapshotRing(0));
+    }
+
+    @Test
+    @DisplayName("Snapshot vide ou combattant hors bornes : refusés")
+    void testRejections() {
+        Battle battle = new Battle();
+        SimulationEngine classic = new ClassicSimulationEngine();
+        assertFalse(classic instanceof SnapshotCapableEngine, "Seul le moteur du lockstep sauvegarde son état");
+
+        assertThrows(IllegalStateException.class, () -> battle.restore(new SimulationSnapshot()));
+
+        battle.fighters.get(0).health = 1000;
+        assertThrows(IllegalStateException.class, () -> battle.capture(new SimulationSnapshot()));
+    }
+
+    @Test
+    @DisplayName("⏱️ Capture et restauration bien en dessous d'une milliseconde")
+    void testPerformance() {
+        Battle battle = new Battle();
+        SnapshotRing ring = new SnapshotRing(16);
+        for (int i = 0; i < 200; i++) {
+            battle.tick();
+            battle.capture(ring.slot(battle.clock));
+        }
+
+        int rounds = 1000;
+        long captureNanos = 0;
+        long restoreNanos = 0;
+        for (int i = 0; i < rounds; i++) {
+            battle.tick();
+            long start = System.nanoTime();
+            battle.capture(ring.slot(battle.clock));
+            captureNanos += System.nanoTime() - start;
+
+            // Retour quelques ticks en arrière, comme une correction d'entrée
+            SimulationSnapshot base = ring.get(battle.clock - 4);
+            start = System.nanoTime();
+            battle.restore(base);
+            restoreNanos += System.nanoTime() - start;
+            for (int t = 0; t < 4; t++) {
+                battle.tick();
+                battle.capture(ring.slot(battle.clock));
+            }
+        }
+
+        double captureMs = captureNanos / 1e6 / rounds;
+        double restoreMs = restoreNanos / 1e6 / rounds;
+        System.out.printf("⏱️ Snapshot (%d combattants, %d Ko) : capture %.3f ms, restauration %.3f ms%n",
+                battle.fighters.size(), ring.get(battle.clock).getSizeBytes() / 1024, captureMs, restoreMs);
+        // Borne large (machines de CI lentes) ; la cible est bien en dessous
+        assertTrue(captureMs < 5, "Capture : " + captureMs + " ms");
+        assertTrue(restoreMs < 5, "Restauration : " + restoreMs + " ms");
+    }
+}
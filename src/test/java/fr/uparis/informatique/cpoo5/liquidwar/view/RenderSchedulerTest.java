@@ -0,0 +1,164 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour RenderScheduler.
+ *
+ * Teste :
+ * - Dégradation d'un cran par fenêtre quand la logique prend du retard
+ * - Remontée après plusieurs fenêtres avec de la marge
+ * - Saut de frames effectif (shouldRenderFrame)
+ * - Plafond du saut de frames (setMaxSkip)
+ */
+class RenderSchedulerTest {
+
+    private static final int LOGIC_DELAY_MS = 5;
+    private static final long LOGIC_INTERVAL_NANOS = LOGIC_DELAY_MS * 1_000_000L;
+
+    private RenderScheduler scheduler;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new RenderScheduler(LOGIC_DELAY_MS, 3);
+        now = 0;
+        // Premier tick : ouvre la fenêtre de mesure à t = 0
+        scheduler.onLogicTick(0, now);
+    }
+
+    /**
+     * Simule une fenêtre de mesure complète.
+     *
+     * @param tickEveryNanos Intervalle réel entre deux ticks logiques
+     * @param workNanos      Durée de chaque tick
+     */
+    private void runWindow(long tickEveryNanos, long workNanos) {
+        long end = now + RenderScheduler.WINDOW_NANOS;
+        while (now < end) {
+            now += tickEveryNanos;
+            scheduler.onLogicTick(workNanos, now);
+        }
+    }
+
+    private void runOverloadedWindow() {
+        // Moitié de la cadence cible, chaque tick occupe tout l'intervalle
+        runWindow(2 * LOGIC_INTERVAL_NANOS, 2 * LOGIC_INTERVAL_NANOS);
+    }
+
+    private void runHealthyWindow() {
+        runWindow(LOGIC_INTERVAL_NANOS, LOGIC_INTERVAL_NANOS / 10);
+    }
+
+    @Test
+    @DisplayName("Niveau 0 au départ : aucun effet dégradé")
+    void testInitialState() {
+        assertEquals(0, scheduler.getLevel());
+        assertEquals(1, scheduler.getRenderSkip());
+        assertEquals(1, scheduler.getWaterSampleRate());
+        assertEquals(Integer.MAX_VALUE, scheduler.getDecoratorCostLimit());
+        assertFalse(scheduler.isFastScaling());
+        assertEquals("normal", scheduler.describe());
+    }
+
+    @Test
+    @DisplayName("La surcharge dégrade d'un cran par fenêtre jusqu'au maximum")
+    void testDegradesWhenBehind() {
+        runOverloadedWindow();
+        assertEquals(1, scheduler.getLevel());
+        assertEquals(2, scheduler.getWaterSampleRate());
+        assertEquals(1, scheduler.getDecoratorCostLimit());
+        assertEquals(1, scheduler.getRenderSkip());
+
+        runOverloadedWindow();
+        assertEquals(2, scheduler.getRenderSkip());
+        runOverloadedWindow();
+        assertEquals(3, scheduler.getRenderSkip());
+
+        for (int i = 0; i < 10; i++) {
+            runOverloadedWindow();
+        }
+        assertEquals(scheduler.getMaxLevel(), scheduler.getLevel());
+        assertEquals(3, scheduler.getRenderSkip(), "Le saut de frames est plafonné");
+        assertEquals(0, scheduler.getDecoratorCostLimit());
+        assertEquals(4, scheduler.getWaterSampleRate());
+        assertTrue(scheduler.isFastScaling());
+    }
+
+    @Test
+    @DisplayName("La marge retrouvée fait remonter d'un cran après plusieurs fenêtres")
+    void testRecovers() {
+        runOverloadedWindow();
+        runOverloadedWindow();
+        assertEquals(2, scheduler.getLevel());
+
+        for (int i = 0; i < RenderScheduler.RECOVERY_WINDOWS - 1; i++) {
+            runHealthyWindow();
+        }
+        assertEquals(2, scheduler.getLevel(), "Pas de remontée avant RECOVERY_WINDOWS fenêtres");
+        runHealthyWindow();
+        assertEquals(1, scheduler.getLevel());
+
+        for (int i = 0; i < RenderScheduler.RECOVERY_WINDOWS; i++) {
+            runHealthyWindow();
+        }
+        assertEquals(0, scheduler.getLevel());
+        assertEquals("normal", scheduler.describe());
+    }
+
+    @Test
+    @DisplayName("Une cadence juste ne suffit pas si la charge reste élevée")
+    void testNoRecoveryWithoutHeadroom() {
+        runOverloadedWindow();
+        assertEquals(1, scheduler.getLevel());
+
+        // Cadence tenue mais 60 % du temps occupé : ni retard, ni marge
+        for (int i = 0; i < 3 * RenderScheduler.RECOVERY_WINDOWS; i++) {
+            runWindow(LOGIC_INTERVAL_NANOS, LOGIC_INTERVAL_NANOS * 6 / 10);
+        }
+        assertEquals(1, scheduler.getLevel());
+    }
+
+    @Test
+    @DisplayName("Avec un saut de N, une frame sur N est dessinée")
+    void testShouldRenderFrame() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(scheduler.shouldRenderFrame());
+        }
+
+        runOverloadedWindow();
+        runOverloadedWindow();
+        runOverloadedWindow();
+        assertEquals(3, scheduler.getRenderSkip());
+
+        int rendered = 0;
+        for (int i = 0; i < 30; i++) {
+            if (scheduler.shouldRenderFrame()) {
+                rendered++;
+            }
+        }
+        assertEquals(10, rendered);
+    }
+
+    @Test
+    @DisplayName("Baisser le plafond de saut recalcule le niveau courant")
+    void testSetMaxSkip() {
+        for (int i = 0; i < 10; i++) {
+            runOverloadedWindow();
+        }
+        assertEquals(scheduler.getMaxLevel(), scheduler.getLevel());
+
+        scheduler.setMaxSkip(1);
+        assertEquals(3, scheduler.getMaxLevel());
+        assertEquals(3, scheduler.getLevel());
+        assertEquals(1, scheduler.getRenderSkip(), "Qualité élevée : jamais de saut de frames");
+        assertTrue(scheduler.isFastScaling());
+
+        scheduler.setMaxSkip(0);
+        assertEquals(3, scheduler.getMaxLevel(), "Plafond minimal : 1");
+    }
+}
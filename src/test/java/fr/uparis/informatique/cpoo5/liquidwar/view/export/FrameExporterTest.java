@@ -0,0 +1,206 @@
+package fr.uparis.informatique.cpoo5.liquidwar.view.export;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests unitaires pour l'export de frames.
+ *
+ * Teste :
+ * - Encodage QOI sans perte (relu par un décodeur de référence)
+ * - Encodage PNG sans perte (relu par ImageIO)
+ * - Saut de frames quand tous les tampons sont occupés
+ * - Écriture de tous les fichiers à la fermeture
+ */
+class FrameExporterTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 23;
+
+    private Path tempDir;
+
+    private int[] pixels;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("liquidwar-frames");
+
+        // Aplats, dégradés et bruit : toutes les opérations QOI sont utilisées
+        pixels = new int[WIDTH * HEIGHT];
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            int x = i % WIDTH;
+            if (x < 10) {
+                pixels[i] = 0x102030;
+            } else if (x < 20) {
+                pixels[i] = (x * 3) << 16 | (x * 2) << 8 | x;
+            } else if (x < 25) {
+                pixels[i] = (i % 3 == 0) ? 0xFF0000 : 0x0000FF;
+            } else {
+                pixels[i] = random.nextInt(0x1000000);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(tempDir);
+    }
+
+    @Test
+    @DisplayName("QOI : décodage identique aux pixels d'origine")
+    void testQoiRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new QoiFrameEncoder().encode(pixels, WIDTH, HEIGHT, out);
+
+        assertArrayEquals(pixels, decodeQoi(out.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("PNG : relu par ImageIO sans perte")
+    void testPngRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PngFrameEncoder().encode(pixels, WIDTH, HEIGHT, out);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(HEIGHT, image.getHeight());
+        for (int i = 0; i < pixels.length; i++) {
+            assertEquals(pixels[i], image.getRGB(i % WIDTH, i / WIDTH) & 0xFFFFFF);
+        }
+    }
+
+    @Test
+    @DisplayName("Les frames sont sautées quand les encodeurs sont saturés")
+    void testSkipsWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FrameEncoder blocking = new FrameEncoder() {
+            @Override
+            public String getExtension() {
+                return "raw";
+            }
+
+            @Override
+            public void encode(int[] p, int width, int height, OutputStream out) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write(1);
+            }
+        };
+
+        FrameExporter exporter = new FrameExporter(tempDir, blocking, WIDTH, HEIGHT, 1, 2);
+        assertTrue(exporter.submit(pixels, 0));
+        assertTrue(exporter.submit(pixels, 1));
+        assertFalse(exporter.submit(pixels, 2), "Plus de tampon libre : la frame doit être sautée");
+        assertEquals(1, exporter.getSkipped());
+
+        release.countDown();
+        exporter.close();
+        assertEquals(2, exporter.getWritten());
+        assertTrue(Files.exists(tempDir.resolve("frame_000001.raw")));
+        assertFalse(Files.exists(tempDir.resolve("frame_000002.raw")));
+    }
+
+    @Test
+    @DisplayName("La copie est faite à la soumission")
+    void testSubmitCopiesPixels() throws Exception {
+        FrameExporter exporter = new FrameExporter(tempDir, new QoiFrameEncoder(), WIDTH, HEIGHT, 2, 4);
+        int[] expected = pixels.clone();
+        exporter.submit(pixels, 7);
+        Arrays.fill(pixels, 0);
+        exporter.close();
+
+        assertEquals(0, exporter.getFailed());
+        assertArrayEquals(expected, decodeQoi(Files.readAllBytes(tempDir.resolve("frame_000007.qoi"))));
+    }
+
+    /**
+     * Décodeur QOI de référence (spécification qoiformat.org), RGB.
+     */
+    private static int[] decodeQoi(byte[] data) {
+        assertEquals('q', data[0]);
+        assertEquals('f', data[3]);
+        int width = readInt(data, 4);
+        int height = readInt(data, 8);
+        assertEquals(3, data[12]);
+
+        int[] out = new int[width * height];
+        int[] index = new int[64];
+        int r = 0, g = 0, b = 0, a = 255;
+        int p = 14;
+        int run = 0;
+        for (int i = 0; i < out.length; i++) {
+            if (run > 0) {
+                run--;
+            } else {
+                int tag = data[p++] & 0xFF;
+                if (tag == 0xFE) {
+                    r = data[p++] & 0xFF;
+                    g = data[p++] & 0xFF;
+                    b = data[p++] & 0xFF;
+                } else if (tag == 0xFF) {
+                    r = data[p++] & 0xFF;
+                    g = data[p++] & 0xFF;
+                    b = data[p++] & 0xFF;
+                    a = data[p++] & 0xFF;
+                } else if ((tag & 0xC0) == 0x00) {
+                    int px = index[tag];
+                    r = (px >> 16) & 0xFF;
+                    g = (px >> 8) & 0xFF;
+                    b = px & 0xFF;
+                    a = (px >>> 24) & 0xFF;
+                } else if ((tag & 0xC0) == 0x40) {
+                    r = (r + ((tag >> 4) & 3) - 2) & 0xFF;
+                    g = (g + ((tag >> 2) & 3) - 2) & 0xFF;
+                    b = (b + (tag & 3) - 2) & 0xFF;
+                } else if ((tag & 0xC0) == 0x80) {
+                    int next = data[p++] & 0xFF;
+                    int dg = (tag & 0x3F) - 32;
+                    r = (r + dg - 8 + ((next >> 4) & 0x0F)) & 0xFF;
+                    g = (g + dg) & 0xFF;
+                    b = (b + dg - 8 + (next & 0x0F)) & 0xFF;
+                } else {
+                    run = tag & 0x3F;
+                }
+                index[(r * 3 + g * 5 + b * 7 + a * 11) % 64] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+            out[i] = (r << 16) | (g << 8) | b;
+        }
+        for (int i = 0; i < 7; i++) {
+            assertEquals(0, data[p + i], "Marqueur de fin");
+        }
+        assertEquals(1, data[p + 7]);
+        return out;
+    }
+
+    private static int readInt(byte[] data, int p) {
+        return ((data[p] & 0xFF) << 24) | ((data[p + 1] & 0xFF) << 16) | ((data[p + 2] & 0xFF) << 8)
+                | (data[p + 3] & 0xFF);
+    }
+}